@@ -1,5 +1,6 @@
 plugins {
     java
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "lxxv"
@@ -37,12 +38,24 @@ dependencies {
     // Logging
     implementation("org.slf4j:slf4j-api:2.0.5")
     implementation("org.slf4j:slf4j-simple:2.0.5")
+
+    // Tests
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Benchmarks (./gradlew :common:jmh)
+    jmh("org.openjdk.jmh:jmh-core:1.37")
+    jmh("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks {
     withType<JavaCompile> {
         options.encoding = "UTF-8"
     }
+
+    test {
+        useJUnitPlatform()
+    }
 }
 
 java {
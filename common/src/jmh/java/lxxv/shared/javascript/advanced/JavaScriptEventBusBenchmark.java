@@ -0,0 +1,105 @@
+package lxxv.shared.javascript.advanced;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronous dispatch cost: the previous map-of-lists dispatch vs the string
+ * facade, a resolved handle and a typed payload on the bus.
+ * Run with ./gradlew :common:jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaScriptEventBusBenchmark {
+    @Param({"1", "10", "100"})
+    public int listeners;
+
+    private LegacyEventSystem legacy;
+    private JavaScriptEventSystem events;
+    private JavaScriptEventBus.EventType<Object[]> handle;
+    private JavaScriptEventBus.EventType<Long> typed;
+    private Object[] args;
+    private long sink;
+
+    @Setup
+    public void setUp() {
+        legacy = new LegacyEventSystem();
+        events = new JavaScriptEventSystem(new JavaScriptEventBus(1, 16, JavaScriptEventBus.Backpressure.DROP));
+        for (int i = 0; i < 50; i++) {
+            // Other registered events, so name lookups do not hit a near-empty map
+            legacy.addEventListener("other" + i, eventArgs -> { });
+            events.addEventListener("other" + i, eventArgs -> { });
+        }
+        handle = events.event("playerScore");
+        typed = events.getBus().register("playerScoreTyped", Long.class);
+        for (int i = 0; i < listeners; i++) {
+            legacy.addEventListener("playerScore", eventArgs -> sink += eventArgs.length);
+            events.addEventListener("playerScore", eventArgs -> sink += eventArgs.length);
+            events.getBus().subscribe(typed, value -> sink += value);
+        }
+        args = new Object[] {"player", 10};
+    }
+
+    @TearDown
+    public void tearDown() {
+        events.shutdown();
+    }
+
+    @Benchmark
+    public void emitByNameBaseline(Blackhole blackhole) {
+        legacy.emit("playerScore", "player", 10);
+        blackhole.consume(sink);
+    }
+
+    @Benchmark
+    public void emitByName(Blackhole blackhole) {
+        events.emit("playerScore", "player", 10);
+        blackhole.consume(sink);
+    }
+
+    @Benchmark
+    public void emitByHandle(Blackhole blackhole) {
+        events.emit(handle, args);
+        blackhole.consume(sink);
+    }
+
+    @Benchmark
+    public void postTyped(Blackhole blackhole) {
+        events.getBus().post(typed, 10L);
+        blackhole.consume(sink);
+    }
+
+    /**
+     * Synchronous emit as JavaScriptEventSystem did it before the bus
+     */
+    static class LegacyEventSystem {
+        private final Map<String, List<JavaScriptEventSystem.Listener>> eventListeners = new ConcurrentHashMap<>();
+
+        void addEventListener(String eventName, JavaScriptEventSystem.Listener listener) {
+            eventListeners.computeIfAbsent(eventName, k -> new CopyOnWriteArrayList<>()).add(listener);
+        }
+
+        void emit(String eventName, Object... args) {
+            List<JavaScriptEventSystem.Listener> listeners = eventListeners.get(eventName);
+            if (listeners != null) {
+                for (JavaScriptEventSystem.Listener listener : listeners) {
+                    try {
+                        listener.onEvent(args);
+                    } catch (Exception e) {
+                        System.err.println("Error in event listener for '" + eventName + "': " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package lxxv.shared.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing table of primitive long keys, shared by LongObjectMap, LongIntMap and LongSet
+ * Linear probing with backward-shift deletion, so there are no tombstones and no key is
+ * boxed. Every long is a valid key: occupied slots are marked in their own array. At most
+ * 3/4 full, so probe runs stay short. Subclasses keep their values in parallel arrays.
+ * Not thread-safe.
+ */
+abstract class LongHashTable {
+    private static final int MIN_CAPACITY = 8;
+
+    long[] keys;
+    boolean[] used;
+    int mask;
+    int size;
+
+    LongHashTable(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expected * 4) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    static int hash(long key) {
+        // murmur3 fmix64
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Slot of a key, or -1 if absent
+     */
+    final int indexOf(long key) {
+        for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Slot of a key, claiming one if it is absent
+     * @return the slot, or -(slot + 1) if the key was just added
+     */
+    final int insert(long key) {
+        int i = hash(key) & mask;
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            // Grow first, so the returned slot stays valid
+            rehash(keys.length << 1);
+            i = hash(key) & mask;
+            while (used[i]) {
+                i = (i + 1) & mask;
+            }
+        }
+        keys[i] = key;
+        used[i] = true;
+        size++;
+        return -(i + 1);
+    }
+
+    /**
+     * Empty a slot, shifting the rest of its probe run back into the gap
+     */
+    final void removeAt(int i) {
+        size--;
+        int gap = i;
+        for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+            // Move j into the gap unless its home slot lies cyclically in (gap, j]
+            if (((j - (hash(keys[j]) & mask)) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                moveValue(j, gap);
+                gap = j;
+            }
+        }
+        used[gap] = false;
+        clearValue(gap);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        clearValues();
+        size = 0;
+    }
+
+    /**
+     * Snapshot of the keys
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        allocateValues(capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        Object oldValues = valueArray();
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) continue;
+            int j = hash(oldKeys[i]) & mask;
+            while (used[j]) {
+                j = (j + 1) & mask;
+            }
+            keys[j] = oldKeys[i];
+            used[j] = true;
+            copyValue(oldValues, i, j);
+        }
+    }
+
+    abstract void allocateValues(int capacity);
+
+    /**
+     * Current value array, handed back to copyValue() while rehashing
+     */
+    abstract Object valueArray();
+
+    abstract void copyValue(Object from, int fromSlot, int toSlot);
+
+    abstract void moveValue(int from, int to);
+
+    abstract void clearValue(int slot);
+
+    abstract void clearValues();
+}
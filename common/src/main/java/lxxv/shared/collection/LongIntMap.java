@@ -0,0 +1,81 @@
+package lxxv.shared.collection;
+
+/**
+ * Map from primitive long keys to int values (see LongHashTable)
+ * Lookups of an absent key return the caller's "missing" value, so no value is reserved.
+ */
+public class LongIntMap extends LongHashTable {
+    private int[] values;
+
+    public LongIntMap() {
+        this(0);
+    }
+
+    public LongIntMap(int expected) {
+        super(expected);
+    }
+
+    public int get(long key, int missing) {
+        int i = indexOf(key);
+        return i >= 0 ? values[i] : missing;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return previous value, or missing if the key was absent
+     */
+    public int put(long key, int value, int missing) {
+        int i = insert(key);
+        if (i < 0) {
+            values[-i - 1] = value;
+            return missing;
+        }
+        int previous = values[i];
+        values[i] = value;
+        return previous;
+    }
+
+    /**
+     * @return removed value, or missing if the key was absent
+     */
+    public int remove(long key, int missing) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return missing;
+        }
+        int removed = values[i];
+        removeAt(i);
+        return removed;
+    }
+
+    @Override
+    void allocateValues(int capacity) {
+        values = new int[capacity];
+    }
+
+    @Override
+    Object valueArray() {
+        return values;
+    }
+
+    @Override
+    void copyValue(Object from, int fromSlot, int toSlot) {
+        values[toSlot] = ((int[]) from)[fromSlot];
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+    }
+
+    @Override
+    void clearValues() {
+    }
+}
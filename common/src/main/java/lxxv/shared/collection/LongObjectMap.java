@@ -0,0 +1,169 @@
+package lxxv.shared.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Map from primitive long keys to non-null values (see LongHashTable)
+ */
+public class LongObjectMap<V> extends LongHashTable {
+    private Object[] values;
+
+    public LongObjectMap() {
+        this(0);
+    }
+
+    public LongObjectMap(int expected) {
+        super(expected);
+    }
+
+    /**
+     * Callback for entry iteration
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = indexOf(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return previous value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        int i = insert(key);
+        if (i < 0) {
+            values[-i - 1] = value;
+            return null;
+        }
+        V previous = (V) values[i];
+        values[i] = value;
+        return previous;
+    }
+
+    /**
+     * @return removed value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V removed = (V) values[i];
+        removeAt(i);
+        return removed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        Object[] vals = values;
+        long[] ks = keys;
+        for (int i = 0; i < vals.length; i++) {
+            if (vals[i] != null) {
+                action.accept(ks[i], (V) vals[i]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Live view of the values; the map must not change while it is iterated
+     */
+    public Iterable<V> values() {
+        return () -> new Iterator<>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < values.length && values[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < values.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (next >= values.length) {
+                    throw new NoSuchElementException();
+                }
+                V value = (V) values[next];
+                next = advance(next + 1);
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Snapshot of the values, safe to iterate while the map changes
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> valueList() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    void allocateValues(int capacity) {
+        values = new Object[capacity];
+    }
+
+    @Override
+    Object valueArray() {
+        return values;
+    }
+
+    @Override
+    void copyValue(Object from, int fromSlot, int toSlot) {
+        values[toSlot] = ((Object[]) from)[fromSlot];
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    void clearValues() {
+        Arrays.fill(values, null);
+    }
+}
@@ -0,0 +1,81 @@
+package lxxv.shared.collection;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Set of primitive longs, e.g. packed block or chunk positions (see LongHashTable)
+ */
+public class LongSet extends LongHashTable {
+
+    public LongSet() {
+        this(0);
+    }
+
+    public LongSet(int expected) {
+        super(expected);
+    }
+
+    /**
+     * @return true if value was not present
+     */
+    public boolean add(long value) {
+        return insert(value) < 0;
+    }
+
+    public void addAll(LongSet other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * @return true if value was present
+     */
+    public boolean remove(long value) {
+        int i = indexOf(value);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                action.accept(keys[i]);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        return keys();
+    }
+
+    @Override
+    void allocateValues(int capacity) {
+    }
+
+    @Override
+    Object valueArray() {
+        return null;
+    }
+
+    @Override
+    void copyValue(Object from, int fromSlot, int toSlot) {
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+    }
+
+    @Override
+    void clearValue(int slot) {
+    }
+
+    @Override
+    void clearValues() {
+    }
+}
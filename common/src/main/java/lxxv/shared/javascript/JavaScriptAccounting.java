@@ -0,0 +1,129 @@
+package lxxv.shared.javascript;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-script resource accounting
+ * Cumulative CPU/wall time, invocations, failures and terminations
+ */
+public class JavaScriptAccounting {
+    public static final String ANONYMOUS = "<anonymous>";
+
+    private final Map<String, ScriptStats> scripts = new ConcurrentHashMap<>();
+
+    /**
+     * Accounting for a single script
+     */
+    public static class ScriptStats {
+        private final String name;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder terminations = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder hostCalls = new LongAdder();
+        private volatile long maxWallNanos;
+        private volatile String lastTermination;
+
+        ScriptStats(String name) {
+            this.name = name;
+        }
+
+        void record(long cpu, long wall, long calls, boolean failed, String termination) {
+            invocations.increment();
+            cpuNanos.add(cpu);
+            wallNanos.add(wall);
+            hostCalls.add(calls);
+            if (wall > maxWallNanos) {
+                maxWallNanos = wall;
+            }
+            if (failed) {
+                failures.increment();
+            }
+            if (termination != null) {
+                terminations.increment();
+                lastTermination = termination;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        public long getTerminations() {
+            return terminations.sum();
+        }
+
+        public long getCpuMillis() {
+            return cpuNanos.sum() / 1_000_000;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", name);
+            map.put("invocations", invocations.sum());
+            map.put("failures", failures.sum());
+            map.put("terminations", terminations.sum());
+            map.put("cpuMs", cpuNanos.sum() / 1_000_000);
+            map.put("wallMs", wallNanos.sum() / 1_000_000);
+            map.put("maxWallMs", maxWallNanos / 1_000_000);
+            map.put("hostCalls", hostCalls.sum());
+            map.put("lastTermination", lastTermination);
+            return map;
+        }
+    }
+
+    /**
+     * Record one finished invocation
+     */
+    public void record(String scriptName, long cpuNanos, long wallNanos, long hostCalls,
+                       boolean failed, String termination) {
+        String name = scriptName != null ? scriptName : ANONYMOUS;
+        scripts.computeIfAbsent(name, ScriptStats::new)
+            .record(cpuNanos, wallNanos, hostCalls, failed, termination);
+    }
+
+    /**
+     * Get accounting for a script
+     */
+    public ScriptStats getStats(String scriptName) {
+        return scripts.get(scriptName != null ? scriptName : ANONYMOUS);
+    }
+
+    /**
+     * Get accounting for all scripts, most CPU-expensive first
+     */
+    public List<Map<String, Object>> getAllStats() {
+        List<ScriptStats> sorted = new ArrayList<>(scripts.values());
+        sorted.sort((a, b) -> Long.compare(b.cpuNanos.sum(), a.cpuNanos.sum()));
+        List<Map<String, Object>> result = new ArrayList<>(sorted.size());
+        for (ScriptStats stats : sorted) {
+            result.add(stats.toMap());
+        }
+        return result;
+    }
+
+    /**
+     * Total terminations across all scripts
+     */
+    public long getTotalTerminations() {
+        long total = 0;
+        for (ScriptStats stats : scripts.values()) {
+            total += stats.terminations.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Reset accounting
+     */
+    public void clear() {
+        scripts.clear();
+    }
+}
@@ -0,0 +1,42 @@
+package lxxv.shared.javascript;
+
+/**
+ * Per-invocation resource budget for JavaScript execution
+ * A limit of 0 means unlimited
+ */
+public class JavaScriptBudget {
+    public static final JavaScriptBudget UNLIMITED = new JavaScriptBudget(0, 0, 0);
+
+    private final long maxWallTimeMs;
+    private final long maxHeapBytes;
+    private final long maxHostCalls;
+
+    public JavaScriptBudget(long maxWallTimeMs, long maxHeapBytes, long maxHostCalls) {
+        this.maxWallTimeMs = Math.max(0, maxWallTimeMs);
+        this.maxHeapBytes = Math.max(0, maxHeapBytes);
+        this.maxHostCalls = Math.max(0, maxHostCalls);
+    }
+
+    public long getMaxWallTimeMs() {
+        return maxWallTimeMs;
+    }
+
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    public long getMaxHostCalls() {
+        return maxHostCalls;
+    }
+
+    public boolean isUnlimited() {
+        return maxWallTimeMs == 0 && maxHeapBytes == 0 && maxHostCalls == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "JavaScriptBudget{wallTimeMs=" + maxWallTimeMs
+            + ", heapBytes=" + maxHeapBytes
+            + ", hostCalls=" + maxHostCalls + "}";
+    }
+}
@@ -0,0 +1,338 @@
+package lxxv.shared.javascript;
+
+import com.caoccao.javet.exceptions.JavetException;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.executors.IV8Executor;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8Script;
+import com.caoccao.javet.values.reference.V8ValueObject;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compiled script cache for JavaScriptEngine
+ * Keeps compiled V8 scripts per pooled runtime and shares V8 code cache
+ * data between runtimes, keyed by source hash
+ */
+public class JavaScriptCompileCache {
+    private static final int DEFAULT_MAX_ENTRIES = 1024;
+    private static final int DEFAULT_MAX_SCRIPTS_PER_RUNTIME = 256;
+    // Global property holding the token of the state bound to a context; gone after a reset
+    static final String RUNTIME_MARKER = "__lxxvRuntimeToken";
+    private static final AtomicInteger TOKENS = new AtomicInteger();
+
+    private final Map<Long, ScriptEntry> entries;
+    private final Map<V8Runtime, RuntimeState> runtimes;
+    private final int maxScriptsPerRuntime;
+    private final ToLongFunction<String> keyFunction;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder codeCacheHits = new LongAdder();
+
+    public JavaScriptCompileCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_SCRIPTS_PER_RUNTIME);
+    }
+
+    public JavaScriptCompileCache(int maxEntries, int maxScriptsPerRuntime) {
+        this(maxEntries, maxScriptsPerRuntime, JavaScriptCompileCache::keyOf);
+    }
+
+    JavaScriptCompileCache(int maxEntries, int maxScriptsPerRuntime, ToLongFunction<String> keyFunction) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ScriptEntry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.runtimes = new ConcurrentHashMap<>();
+        this.maxScriptsPerRuntime = maxScriptsPerRuntime;
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Source-level cache entry shared by all runtimes
+     */
+    public static class ScriptEntry {
+        private final String source;
+        private final String id;
+        private volatile String name;
+        private volatile byte[] cachedData;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder compiles = new LongAdder();
+        private final LongAdder totalCompileNanos = new LongAdder();
+        private volatile long lastCompileNanos;
+
+        ScriptEntry(String source, long key, String name) {
+            this.source = source;
+            this.id = Long.toHexString(key);
+            this.name = name;
+        }
+
+        void recordCompile(long nanos) {
+            compiles.increment();
+            totalCompileNanos.add(nanos);
+            lastCompileNanos = nanos;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, Object> toMap() {
+            long compileCount = compiles.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("name", name);
+            map.put("length", source.length());
+            map.put("hits", hits.sum());
+            map.put("misses", misses.sum());
+            map.put("compiles", compileCount);
+            map.put("codeCache", cachedData != null);
+            map.put("lastCompileMicros", lastCompileNanos / 1_000);
+            map.put("avgCompileMicros", compileCount > 0 ? totalCompileNanos.sum() / compileCount / 1_000 : 0);
+            return map;
+        }
+    }
+
+    /**
+     * Per-runtime state: compiled scripts and binding generation.
+     * A pooled runtime is used by one thread at a time, so no locking is needed inside.
+     */
+    static class RuntimeState {
+        private int token;
+        private int boundGeneration;
+        private final LinkedHashMap<Long, CompiledScript> scripts;
+
+        RuntimeState(int maxScripts) {
+            this.scripts = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CompiledScript> eldest) {
+                    if (size() > maxScripts) {
+                        closeQuietly(eldest.getValue().script);
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Drop everything if the context no longer carries this state's marker, i.e. it is
+         * new or was reset (by the pool or after a termination) since the last use
+         */
+        void validate(V8ValueObject globalObject) throws JavetException {
+            if (token != 0) {
+                try (V8Value marker = globalObject.get(RUNTIME_MARKER)) {
+                    if (marker instanceof V8ValueInteger && ((V8ValueInteger) marker).getValue() == token) {
+                        return;
+                    }
+                }
+            }
+            close();
+            boundGeneration = 0;
+            token = TOKENS.incrementAndGet();
+            globalObject.set(RUNTIME_MARKER, token);
+        }
+
+        int getBoundGeneration() {
+            return boundGeneration;
+        }
+
+        void setBoundGeneration(int generation) {
+            this.boundGeneration = generation;
+        }
+
+        void close() {
+            for (CompiledScript compiled : scripts.values()) {
+                closeQuietly(compiled.script);
+            }
+            scripts.clear();
+        }
+    }
+
+    /**
+     * Compiled script of a runtime with the source entry it was compiled from; keys can
+     * collide, so a hit also needs the entry to be the current one for the source
+     */
+    private static class CompiledScript {
+        private final ScriptEntry entry;
+        private final V8Script script;
+
+        CompiledScript(ScriptEntry entry, V8Script script) {
+            this.entry = entry;
+            this.script = script;
+        }
+    }
+
+    /**
+     * Get (or create) the state of a pooled runtime
+     */
+    RuntimeState getRuntimeState(V8Runtime runtime) throws JavetException {
+        RuntimeState state = runtimes.get(runtime);
+        if (state == null) {
+            // Engines closed by the pool never come back, forget them
+            runtimes.entrySet().removeIf(e -> {
+                if (e.getKey().isClosed()) {
+                    e.getValue().close();
+                    return true;
+                }
+                return false;
+            });
+            state = new RuntimeState(maxScriptsPerRuntime);
+            runtimes.put(runtime, state);
+        }
+        state.validate(runtime.getGlobalObject());
+        return state;
+    }
+
+    /**
+     * Release the compiled scripts of a runtime before its isolate is reset
+     */
+    void invalidate(V8Runtime runtime) {
+        RuntimeState state = runtimes.remove(runtime);
+        if (state != null) {
+            state.close();
+        }
+    }
+
+    /**
+     * Get compiled script for source, compiling (with shared code cache) on miss
+     */
+    public V8Script getScript(V8Runtime runtime, String source, String name) throws JavetException {
+        long key = keyFunction.applyAsLong(source);
+        RuntimeState state = getRuntimeState(runtime);
+        ScriptEntry entry = entries.get(key);
+        if (entry != null && !entry.source.equals(source)) {
+            // Hash collision - the newer source wins
+            entry = null;
+        }
+
+        CompiledScript cached = state.scripts.get(key);
+        if (entry != null && cached != null && cached.entry == entry && !cached.script.isClosed()) {
+            hits.increment();
+            entry.hits.increment();
+            if (name != null) {
+                entry.name = name;
+            }
+            return cached.script;
+        }
+
+        misses.increment();
+        if (entry == null) {
+            entry = new ScriptEntry(source, key, name);
+            entries.put(key, entry);
+        } else if (name != null) {
+            entry.name = name;
+        }
+        entry.misses.increment();
+
+        long start = System.nanoTime();
+        byte[] cachedData = entry.cachedData;
+        IV8Executor executor;
+        if (cachedData != null) {
+            executor = runtime.getExecutor(source, cachedData);
+            codeCacheHits.increment();
+        } else {
+            executor = runtime.getExecutor(source);
+        }
+        if (entry.name != null) {
+            executor.setResourceName(entry.name);
+        }
+        V8Script compiled = executor.compileV8Script();
+        entry.recordCompile(System.nanoTime() - start);
+
+        if (cachedData == null) {
+            entry.cachedData = compiled.getCachedData();
+        }
+        CompiledScript previous = state.scripts.put(key, new CompiledScript(entry, compiled));
+        if (previous != null && previous.script != compiled) {
+            closeQuietly(previous.script);
+        }
+        return compiled;
+    }
+
+    /**
+     * Source key: string hash in the high bits, length in the low bits
+     */
+    public static long keyOf(String source) {
+        return ((long) source.hashCode() << 32) | (source.length() & 0xFFFFFFFFL);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get cache statistics
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        List<Map<String, Object>> scripts = new ArrayList<>();
+        synchronized (entries) {
+            for (ScriptEntry entry : entries.values()) {
+                scripts.add(entry.toMap());
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total > 0 ? (double) hitCount / total : 0.0);
+        stats.put("codeCacheHits", codeCacheHits.sum());
+        stats.put("entries", scripts.size());
+        stats.put("runtimes", runtimes.size());
+        stats.put("scripts", scripts);
+        return stats;
+    }
+
+    /**
+     * Forget cached sources; compiled scripts are dropped on the next use of each runtime
+     */
+    public void clear() {
+        entries.clear();
+        hits.reset();
+        misses.reset();
+        codeCacheHits.reset();
+    }
+
+    /**
+     * Release all compiled scripts
+     */
+    public void close() {
+        for (RuntimeState state : runtimes.values()) {
+            state.close();
+        }
+        runtimes.clear();
+        entries.clear();
+    }
+
+    private static void closeQuietly(V8Script script) {
+        try {
+            if (script != null && !script.isClosed()) {
+                script.close();
+            }
+        } catch (Exception ignored) {
+        }
+    }
+}
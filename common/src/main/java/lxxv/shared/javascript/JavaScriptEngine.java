@@ -10,9 +10,13 @@ import com.caoccao.javet.swc4j.Swc4j;
 import com.caoccao.javet.swc4j.options.Swc4jTranspileOptions;
 import com.caoccao.javet.swc4j.outputs.Swc4jTranspileOutput;
 
-import java.util.HashMap;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
@@ -25,11 +29,26 @@ public class JavaScriptEngine {
     private final Swc4j swc4j;
     private final Map<String, Object> globalContext;
     private final Map<String, JavaScriptFunction> registeredFunctions;
+    private final JavaScriptCompileCache compileCache;
+    private final AtomicInteger contextGeneration;
+    private volatile boolean scriptCacheEnabled = true;
+    private volatile boolean bindOncePerRuntime = true;
+    private final JavaScriptWatchdog watchdog;
+    private final JavaScriptAccounting accounting;
+    private final ThreadMXBean threadMXBean;
+    private final boolean cpuTimeSupported;
+    private volatile JavaScriptBudget defaultBudget = JavaScriptBudget.UNLIMITED;
     private boolean enabled;
 
     private JavaScriptEngine() {
-        this.globalContext = new HashMap<>();
-        this.registeredFunctions = new HashMap<>();
+        this.globalContext = new ConcurrentHashMap<>();
+        this.registeredFunctions = new ConcurrentHashMap<>();
+        this.compileCache = new JavaScriptCompileCache();
+        this.contextGeneration = new AtomicInteger(1);
+        this.watchdog = new JavaScriptWatchdog();
+        this.accounting = new JavaScriptAccounting();
+        this.threadMXBean = ManagementFactory.getThreadMXBean();
+        this.cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
         this.swc4j = new Swc4j();
         this.enginePool = initializeEngine();
         this.enabled = (enginePool != null);
@@ -71,64 +90,131 @@ public class JavaScriptEngine {
      * Execute JavaScript code synchronously
      */
     public Object execute(String code) throws JavaScriptException {
-        if (!enabled) {
-            throw new JavaScriptException("JavaScript engine not initialized");
-        }
-
-        IJavetEngine<V8Runtime> engine = null;
-        try {
-            engine = enginePool.getEngine();
-            V8Runtime runtime = engine.getV8Runtime();
-            
-            // Inject global context
-            V8ValueObject globalObject = runtime.getGlobalObject();
-            for (Map.Entry<String, Object> entry : globalContext.entrySet()) {
-                globalObject.set(entry.getKey(), entry.getValue());
-            }
-            
-            V8Value result = runtime.getExecutor(code).execute();
-            return convertV8Value(result);
-        } catch (Exception e) {
-            throw new JavaScriptException("Error executing JavaScript: " + e.getMessage(), e);
-        } finally {
-            enginePool.releaseEngine(engine);
-        }
+        return execute(code, Collections.emptyMap(), null);
     }
 
     /**
      * Execute JavaScript code with context variables
      */
     public Object execute(String code, Map<String, Object> variables) throws JavaScriptException {
+        return execute(code, variables, null);
+    }
+
+    /**
+     * Execute named JavaScript code with context variables.
+     * The name is used as V8 resource name and in compile cache statistics.
+     */
+    public Object execute(String code, Map<String, Object> variables, String scriptName) throws JavaScriptException {
+        return execute(code, variables, scriptName, defaultBudget);
+    }
+
+    /**
+     * Execute named JavaScript code under a resource budget.
+     * The watchdog terminates the execution when the budget is exceeded.
+     */
+    public Object execute(String code, Map<String, Object> variables, String scriptName,
+                          JavaScriptBudget budget) throws JavaScriptException {
         if (!enabled) {
             throw new JavaScriptException("JavaScript engine not initialized");
         }
 
         IJavetEngine<V8Runtime> engine = null;
+        JavaScriptWatchdog.Execution execution = null;
+        long wallStart = System.nanoTime();
+        long cpuStart = currentThreadCpuTime();
+        boolean failed = false;
         try {
             engine = enginePool.getEngine();
             V8Runtime runtime = engine.getV8Runtime();
+            execution = watchdog.begin(scriptName, runtime, budget != null ? budget : JavaScriptBudget.UNLIMITED);
             
             V8ValueObject globalObject = runtime.getGlobalObject();
             
             // Inject global context
-            for (Map.Entry<String, Object> entry : globalContext.entrySet()) {
-                globalObject.set(entry.getKey(), entry.getValue());
-            }
+            bindGlobalContext(runtime, globalObject);
             
             // Inject variables
             for (Map.Entry<String, Object> entry : variables.entrySet()) {
                 globalObject.set(entry.getKey(), entry.getValue());
             }
             
-            V8Value result = runtime.getExecutor(code).execute();
-            return convertV8Value(result);
+            try (V8Value result = run(runtime, code, scriptName)) {
+                return convertV8Value(result);
+            }
         } catch (Exception e) {
+            failed = true;
+            if (execution != null && execution.isTerminated()) {
+                throw new JavaScriptException("Script '" + (scriptName != null ? scriptName : JavaScriptAccounting.ANONYMOUS)
+                    + "' terminated: " + execution.getTerminationReason(), e);
+            }
             throw new JavaScriptException("Error executing JavaScript: " + e.getMessage(), e);
         } finally {
+            if (execution != null) {
+                watchdog.end(execution);
+                if (execution.isTerminated()) {
+                    // A terminated isolate may still carry the termination flag
+                    resetRuntime(engine);
+                }
+                accounting.record(scriptName, currentThreadCpuTime() - cpuStart, System.nanoTime() - wallStart,
+                    execution.getHostCalls(), failed, execution.getTerminationReason());
+            }
             enginePool.releaseEngine(engine);
         }
     }
 
+    /**
+     * Replace the isolate of a pooled engine after its script was terminated
+     */
+    private void resetRuntime(IJavetEngine<V8Runtime> engine) {
+        try {
+            V8Runtime runtime = engine.getV8Runtime();
+            compileCache.invalidate(runtime);
+            runtime.resetIsolate();
+        } catch (Exception e) {
+            System.err.println("[JS Engine] Failed to reset terminated runtime: " + e.getMessage());
+        }
+    }
+
+    /**
+     * CPU time of the current thread in nanoseconds (0 if unsupported)
+     */
+    private long currentThreadCpuTime() {
+        return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0L;
+    }
+
+    /**
+     * Run code through the compiled script cache (or parse directly when disabled)
+     */
+    private V8Value run(V8Runtime runtime, String code, String scriptName) throws Exception {
+        if (!scriptCacheEnabled) {
+            return runtime.getExecutor(code).execute();
+        }
+        return compileCache.getScript(runtime, code, scriptName).execute();
+    }
+
+    /**
+     * Install global context on a runtime. In bind-once mode this only happens
+     * when the runtime is new, was reset by the pool, or the context changed.
+     */
+    private void bindGlobalContext(V8Runtime runtime, V8ValueObject globalObject) throws Exception {
+        if (!bindOncePerRuntime) {
+            for (Map.Entry<String, Object> entry : globalContext.entrySet()) {
+                globalObject.set(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+
+        JavaScriptCompileCache.RuntimeState state = compileCache.getRuntimeState(runtime);
+        int generation = contextGeneration.get();
+        if (state.getBoundGeneration() == generation) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : globalContext.entrySet()) {
+            globalObject.set(entry.getKey(), entry.getValue());
+        }
+        state.setBoundGeneration(generation);
+    }
+
     /**
      * Execute JavaScript code asynchronously
      */
@@ -159,17 +245,20 @@ public class JavaScriptEngine {
      * Register a custom Java function accessible from JavaScript
      */
     public void registerFunction(String name, JavaScriptFunction function) {
-        registeredFunctions.put(name, function);
-        globalContext.put(name, function);
+        JavaScriptFunction guarded = JavaScriptWatchdog.guard(function);
+        registeredFunctions.put(name, guarded);
+        globalContext.put(name, guarded);
+        contextGeneration.incrementAndGet();
     }
 
     /**
      * Register a simple Java function (lambda) - convenience method
      */
     public void registerFunctionLambda(String name, Function<Object[], Object> function) {
-        JavaScriptFunction wrapped = args -> function.apply(args);
+        JavaScriptFunction wrapped = JavaScriptWatchdog.guard(args -> function.apply(args));
         registeredFunctions.put(name, wrapped);
         globalContext.put(name, wrapped);
+        contextGeneration.incrementAndGet();
     }
 
     /**
@@ -177,6 +266,7 @@ public class JavaScriptEngine {
      */
     public void setGlobalVariable(String name, Object value) {
         globalContext.put(name, value);
+        contextGeneration.incrementAndGet();
     }
 
     /**
@@ -186,6 +276,54 @@ public class JavaScriptEngine {
         return globalContext.get(name);
     }
 
+    /**
+     * Enable/disable compiled script cache
+     */
+    public void setScriptCacheEnabled(boolean scriptCacheEnabled) {
+        this.scriptCacheEnabled = scriptCacheEnabled;
+    }
+
+    public boolean isScriptCacheEnabled() {
+        return scriptCacheEnabled;
+    }
+
+    /**
+     * Enable/disable binding global context once per pooled runtime
+     */
+    public void setBindOncePerRuntime(boolean bindOncePerRuntime) {
+        this.bindOncePerRuntime = bindOncePerRuntime;
+        contextGeneration.incrementAndGet();
+    }
+
+    public boolean isBindOncePerRuntime() {
+        return bindOncePerRuntime;
+    }
+
+    /**
+     * Set budget applied to executions without an explicit one
+     */
+    public void setDefaultBudget(JavaScriptBudget defaultBudget) {
+        this.defaultBudget = defaultBudget != null ? defaultBudget : JavaScriptBudget.UNLIMITED;
+    }
+
+    public JavaScriptBudget getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    /**
+     * Get per-script resource accounting
+     */
+    public JavaScriptAccounting getAccounting() {
+        return accounting;
+    }
+
+    /**
+     * Get compiled script cache
+     */
+    public JavaScriptCompileCache getCompileCache() {
+        return compileCache;
+    }
+
     /**
      * Check if JavaScript engine is enabled
      */
@@ -226,6 +364,8 @@ public class JavaScriptEngine {
      */
     public void shutdown() {
         try {
+            watchdog.shutdown();
+            compileCache.close();
             if (enginePool != null) {
                 enginePool.close();
             }
@@ -0,0 +1,185 @@
+package lxxv.shared.javascript;
+
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.interop.callback.IJavetGCCallback;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Watchdog for JavaScript executions
+ * Terminates isolate execution when a script runs past its budget
+ */
+public class JavaScriptWatchdog {
+    private static final ThreadLocal<Execution> CURRENT = new ThreadLocal<>();
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    public JavaScriptWatchdog() {
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "LXXV-Script-Watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Running script invocation
+     */
+    public static class Execution {
+        private final String scriptName;
+        private final V8Runtime runtime;
+        private final JavaScriptBudget budget;
+        private final Execution parent;
+        private final AtomicReference<String> terminationReason = new AtomicReference<>();
+        private long hostCalls;
+        private boolean finished;
+        private ScheduledFuture<?> deadline;
+        private IJavetGCCallback heapCheck;
+
+        Execution(String scriptName, V8Runtime runtime, JavaScriptBudget budget, Execution parent) {
+            this.scriptName = scriptName;
+            this.runtime = runtime;
+            this.budget = budget;
+            this.parent = parent;
+        }
+
+        public String getScriptName() {
+            return scriptName;
+        }
+
+        public long getHostCalls() {
+            return hostCalls;
+        }
+
+        public boolean isTerminated() {
+            return terminationReason.get() != null;
+        }
+
+        public String getTerminationReason() {
+            return terminationReason.get();
+        }
+
+        /**
+         * Terminate the running script; safe to call from any thread
+         */
+        synchronized void terminate(String reason) {
+            if (finished) {
+                return;
+            }
+            if (terminationReason.compareAndSet(null, reason)) {
+                try {
+                    runtime.terminateExecution();
+                } catch (Exception e) {
+                    System.err.println("[JS Watchdog] Failed to terminate '" + scriptName + "': " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Called on the executing thread before each host function call
+         */
+        void onHostCall() throws JavaScriptException {
+            if (isTerminated()) {
+                throw new JavaScriptException("Script '" + scriptName + "' terminated: " + getTerminationReason());
+            }
+            hostCalls++;
+            if (budget.getMaxHostCalls() > 0 && hostCalls > budget.getMaxHostCalls()) {
+                terminate("host call budget exceeded (" + budget.getMaxHostCalls() + ")");
+                throw new JavaScriptException("Script '" + scriptName + "' terminated: " + getTerminationReason());
+            }
+        }
+
+        synchronized void finish() {
+            finished = true;
+        }
+
+        /**
+         * Runs on the isolate thread after every V8 garbage collection, so a script that
+         * only allocates is checked as soon as its heap grows, host calls or not
+         */
+        void checkHeap() {
+            long used = usedHeapSize(runtime);
+            if (used > budget.getMaxHeapBytes()) {
+                terminate("heap budget exceeded (" + used / 1024 / 1024 + " MB used)");
+            }
+        }
+    }
+
+    /**
+     * Start watching an execution on the current thread
+     */
+    public Execution begin(String scriptName, V8Runtime runtime, JavaScriptBudget budget) {
+        Execution execution = new Execution(scriptName, runtime, budget, CURRENT.get());
+        if (budget.getMaxWallTimeMs() > 0) {
+            execution.deadline = timer.schedule(
+                () -> execution.terminate("wall time budget exceeded (" + budget.getMaxWallTimeMs() + " ms)"),
+                budget.getMaxWallTimeMs(), TimeUnit.MILLISECONDS);
+        }
+        if (budget.getMaxHeapBytes() > 0) {
+            // Javet has no per-isolate heap limit, V8 calls this back as the heap fills up
+            execution.heapCheck = (gcTypes, gcFlags) -> execution.checkHeap();
+            runtime.addGCEpilogueCallback(execution.heapCheck);
+        }
+        CURRENT.set(execution);
+        return execution;
+    }
+
+    /**
+     * Stop watching an execution
+     */
+    public void end(Execution execution) {
+        execution.finish();
+        if (execution.deadline != null) {
+            execution.deadline.cancel(false);
+        }
+        if (execution.heapCheck != null) {
+            execution.runtime.removeGCEpilogueCallback(execution.heapCheck);
+        }
+        if (execution.parent != null) {
+            CURRENT.set(execution.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Execution running on the current thread, or null
+     */
+    public static Execution current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Guard a host function with the budget of the calling script
+     */
+    public static JavaScriptFunction guard(JavaScriptFunction function) {
+        return args -> {
+            Execution execution = CURRENT.get();
+            if (execution != null) {
+                execution.onHostCall();
+            }
+            return function.call(args);
+        };
+    }
+
+    /**
+     * Used V8 heap of a runtime in bytes (0 if not available).
+     * Only call from the thread that owns the isolate.
+     */
+    static long usedHeapSize(V8Runtime runtime) {
+        try {
+            return runtime.getV8HeapStatistics().getUsedHeapSize();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Shutdown watchdog
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
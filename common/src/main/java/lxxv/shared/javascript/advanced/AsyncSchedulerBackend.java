@@ -0,0 +1,78 @@
+package lxxv.shared.javascript.advanced;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Async scheduler backend
+ * Runs tasks on a thread pool; for I/O-only tasks that never touch the world
+ */
+public class AsyncSchedulerBackend implements JavaScriptSchedulerBackend {
+    private final ScheduledThreadPoolExecutor executor;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder overdue = new LongAdder();
+
+    public AsyncSchedulerBackend(int threads) {
+        this.executor = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread t = new Thread(r, "LXXV-Script-Scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public void schedule(JavaScriptScheduler.Task task) {
+        long expected = System.currentTimeMillis() + task.delayMs;
+        Runnable runner = () -> {
+            if (System.currentTimeMillis() - task.nextRunAt > 50) {
+                overdue.increment();
+            }
+            executed.increment();
+            task.run();
+            task.nextRunAt += task.periodMs;
+        };
+        task.nextRunAt = expected;
+        if (task.periodMs > 0) {
+            task.future = executor.scheduleAtFixedRate(runner, task.delayMs, task.periodMs, TimeUnit.MILLISECONDS);
+        } else {
+            task.future = executor.schedule(runner, task.delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void cancel(JavaScriptScheduler.Task task) {
+        if (task.future != null) {
+            task.future.cancel(false);
+        }
+    }
+
+    @Override
+    public long getRemainingTime(JavaScriptScheduler.Task task) {
+        return task.future != null ? task.future.getDelay(TimeUnit.MILLISECONDS) : -1;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("threads", executor.getCorePoolSize());
+        metrics.put("queued", executor.getQueue().size());
+        metrics.put("executed", executed.sum());
+        metrics.put("overdue", overdue.sum());
+        return metrics;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+        }
+    }
+}
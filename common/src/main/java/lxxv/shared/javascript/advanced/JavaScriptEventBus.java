@@ -0,0 +1,430 @@
+package lxxv.shared.javascript.advanced;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Typed event bus
+ * Event names are interned to int ids on registration; each id holds a
+ * pre-sorted listener array so posting is a plain array walk without allocation.
+ * Async posts run on a bounded executor with a configurable backpressure policy.
+ */
+public class JavaScriptEventBus {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, EventType<?>> types = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Object writeLock = new Object();
+    // Copy-on-write: both levels are replaced on every subscription change
+    private volatile Subscription<?>[][] listeners = new Subscription<?>[INITIAL_CAPACITY][];
+
+    private final ThreadPoolExecutor asyncExecutor;
+    private final BlockingQueue<Runnable> asyncQueue;
+    private volatile Backpressure backpressure;
+    // Types holding a coalesced payload that no queued dispatch carries yet
+    private final Queue<EventType<?>> coalescing = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder postedAsync = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private static final Object EMPTY = new Object();
+
+    public JavaScriptEventBus() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), 4096, Backpressure.DROP);
+    }
+
+    public JavaScriptEventBus(int asyncThreads, int queueCapacity, Backpressure backpressure) {
+        this.asyncQueue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.asyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 30, TimeUnit.SECONDS, asyncQueue, r -> {
+            Thread t = new Thread(r, "LXXV-Event-Async-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy()) {
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                // Payloads coalesced while the queue was full go out after the events queued before them
+                if (asyncQueue.isEmpty()) {
+                    drainCoalesced();
+                }
+            }
+        };
+        this.asyncExecutor.prestartAllCoreThreads();
+        this.backpressure = backpressure;
+    }
+
+    /**
+     * What to do when the async queue is full
+     */
+    public enum Backpressure {
+        /** Drop the new event */
+        DROP,
+        /** While the queue is full, keep only the latest pending payload per event type */
+        COALESCE,
+        /** Block the posting thread until there is room */
+        BLOCK
+    }
+
+    /**
+     * Listener priority; LOWEST runs first, MONITOR last
+     */
+    public enum Priority {
+        LOWEST, LOW, NORMAL, HIGH, HIGHEST, MONITOR
+    }
+
+    /**
+     * Typed event listener
+     */
+    @FunctionalInterface
+    public interface EventListener<T> {
+        void onEvent(T event) throws Exception;
+    }
+
+    /**
+     * Interned event type
+     */
+    public static final class EventType<T> {
+        private final int id;
+        private final String name;
+        private final Class<T> payloadType;
+        // Latest payload rejected by a full queue, waiting for a coalesced dispatch
+        private final AtomicReference<Object> pending = new AtomicReference<>();
+
+        private EventType(int id, String name, Class<T> payloadType) {
+            this.id = id;
+            this.name = name;
+            this.payloadType = payloadType;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<T> getPayloadType() {
+            return payloadType;
+        }
+
+        @Override
+        public String toString() {
+            return name + "#" + id;
+        }
+    }
+
+    private static final class Subscription<T> {
+        final EventListener<T> listener;
+        final Priority priority;
+        final Object key;
+
+        Subscription(EventListener<T> listener, Priority priority, Object key) {
+            this.listener = listener;
+            this.priority = priority;
+            this.key = key;
+        }
+    }
+
+    // ===== REGISTRATION =====
+
+    /**
+     * Intern an event name; the same name always returns the same type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EventType<T> register(String name, Class<T> payloadType) {
+        EventType<?> type = types.computeIfAbsent(name, n -> new EventType<>(nextId.getAndIncrement(), n, payloadType));
+        if (type.payloadType != payloadType) {
+            throw new IllegalArgumentException("Event '" + name + "' is registered with payload "
+                + type.payloadType.getSimpleName() + ", not " + payloadType.getSimpleName());
+        }
+        return (EventType<T>) type;
+    }
+
+    /**
+     * Look up an interned event type by name, or null
+     */
+    public EventType<?> getType(String name) {
+        return types.get(name);
+    }
+
+    public <T> void subscribe(EventType<T> type, EventListener<T> listener) {
+        subscribe(type, listener, Priority.NORMAL, listener);
+    }
+
+    public <T> void subscribe(EventType<T> type, EventListener<T> listener, Priority priority) {
+        subscribe(type, listener, priority, listener);
+    }
+
+    /**
+     * Subscribe with a removal key (defaults to the listener itself)
+     */
+    public <T> void subscribe(EventType<T> type, EventListener<T> listener, Priority priority, Object key) {
+        synchronized (writeLock) {
+            Subscription<?>[][] table = ensureCapacity(type.id);
+            Subscription<?>[] current = table[type.id];
+            int length = current != null ? current.length : 0;
+            Subscription<?>[] updated = new Subscription<?>[length + 1];
+            // Insert after listeners of the same priority to keep registration order
+            int insertAt = 0;
+            while (insertAt < length && current[insertAt].priority.ordinal() <= priority.ordinal()) {
+                insertAt++;
+            }
+            if (current != null) {
+                System.arraycopy(current, 0, updated, 0, insertAt);
+                System.arraycopy(current, insertAt, updated, insertAt + 1, length - insertAt);
+            }
+            updated[insertAt] = new Subscription<>(listener, priority, key);
+            publish(table, type.id, updated);
+        }
+    }
+
+    /**
+     * Remove listeners registered with the given key
+     */
+    public boolean unsubscribe(EventType<?> type, Object key) {
+        synchronized (writeLock) {
+            Subscription<?>[][] table = listeners;
+            if (type.id >= table.length || table[type.id] == null) {
+                return false;
+            }
+            Subscription<?>[] current = table[type.id];
+            List<Subscription<?>> kept = new ArrayList<>(current.length);
+            for (Subscription<?> subscription : current) {
+                if (subscription.key != key) {
+                    kept.add(subscription);
+                }
+            }
+            if (kept.size() == current.length) {
+                return false;
+            }
+            publish(table, type.id, kept.isEmpty() ? null : kept.toArray(new Subscription<?>[0]));
+            return true;
+        }
+    }
+
+    /**
+     * Remove all listeners of an event type
+     */
+    public void unsubscribeAll(EventType<?> type) {
+        synchronized (writeLock) {
+            Subscription<?>[][] table = listeners;
+            if (type.id < table.length && table[type.id] != null) {
+                publish(table, type.id, null);
+            }
+        }
+    }
+
+    private Subscription<?>[][] ensureCapacity(int id) {
+        Subscription<?>[][] table = listeners;
+        if (id >= table.length) {
+            int capacity = table.length;
+            while (capacity <= id) {
+                capacity <<= 1;
+            }
+            table = Arrays.copyOf(table, capacity);
+        }
+        return table;
+    }
+
+    private void publish(Subscription<?>[][] table, int id, Subscription<?>[] updated) {
+        Subscription<?>[][] copy = table.clone();
+        copy[id] = updated;
+        listeners = copy;
+    }
+
+    // ===== DISPATCH =====
+
+    /**
+     * Post event synchronously on the calling thread
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void post(EventType<T> type, T event) {
+        Subscription<?>[][] table = listeners;
+        if (type.id >= table.length) {
+            return;
+        }
+        Subscription<?>[] subscriptions = table[type.id];
+        if (subscriptions == null) {
+            return;
+        }
+        for (Subscription<?> subscription : subscriptions) {
+            try {
+                ((EventListener<T>) subscription.listener).onEvent(event);
+            } catch (Exception e) {
+                failures.increment();
+                System.err.println("Error in event listener for '" + type.name + "': " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Post event synchronously; every listener runs, then the first failure is rethrown
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void postStrict(EventType<T> type, T event) throws ExecutionException {
+        Subscription<?>[][] table = listeners;
+        if (type.id >= table.length || table[type.id] == null) {
+            return;
+        }
+        Exception failure = null;
+        for (Subscription<?> subscription : table[type.id]) {
+            try {
+                ((EventListener<T>) subscription.listener).onEvent(event);
+            } catch (Exception e) {
+                failures.increment();
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw new ExecutionException("Event listener for '" + type.name + "' failed", failure);
+        }
+    }
+
+    /**
+     * Post event on the async executor, subject to the backpressure policy
+     * @return false if the event was dropped
+     */
+    public <T> boolean postAsync(EventType<T> type, T event) {
+        if (!hasListeners(type)) {
+            return true;
+        }
+        postedAsync.increment();
+        switch (backpressure) {
+            case COALESCE: {
+                if (asyncExecutor.isShutdown()) {
+                    dropped.increment();
+                    return false;
+                }
+                if (offer(() -> post(type, event))) {
+                    return true;
+                }
+                // Queue is full: park the payload, replacing an older one of the same type
+                Object payload = event != null ? event : EMPTY;
+                if (type.pending.getAndSet(payload) != null) {
+                    coalesced.increment();
+                    return true;
+                }
+                coalescing.add(type);
+                // A queued dispatch drains it; if the queue emptied meanwhile, this one does
+                offer(this::drainCoalesced);
+                return true;
+            }
+            case BLOCK: {
+                if (asyncExecutor.isShutdown()) {
+                    dropped.increment();
+                    return false;
+                }
+                try {
+                    // Workers are prestarted, so queueing directly is equivalent to execute()
+                    asyncQueue.put(() -> post(type, event));
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                    return false;
+                }
+            }
+            default:
+                if (offer(() -> post(type, event))) {
+                    return true;
+                }
+                dropped.increment();
+                return false;
+        }
+    }
+
+    private boolean offer(Runnable task) {
+        try {
+            asyncExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void drainCoalesced() {
+        EventType<?> type;
+        while ((type = coalescing.poll()) != null) {
+            postPending(type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void postPending(EventType<T> type) {
+        Object latest = type.pending.getAndSet(null);
+        if (latest != null) {
+            post(type, latest == EMPTY ? null : (T) latest);
+        }
+    }
+
+    public boolean hasListeners(EventType<?> type) {
+        return getListenerCount(type) > 0;
+    }
+
+    public int getListenerCount(EventType<?> type) {
+        Subscription<?>[][] table = listeners;
+        if (type.id >= table.length || table[type.id] == null) {
+            return 0;
+        }
+        return table[type.id].length;
+    }
+
+    /**
+     * Names of events that currently have listeners
+     */
+    public Set<String> getActiveEvents() {
+        Set<String> names = new HashSet<>();
+        for (EventType<?> type : types.values()) {
+            if (hasListeners(type)) {
+                names.add(type.name);
+            }
+        }
+        return names;
+    }
+
+    public void setBackpressure(Backpressure backpressure) {
+        this.backpressure = backpressure;
+    }
+
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("eventTypes", types.size());
+        metrics.put("backpressure", backpressure.name());
+        metrics.put("asyncThreads", asyncExecutor.getMaximumPoolSize());
+        metrics.put("asyncQueued", asyncQueue.size());
+        metrics.put("postedAsync", postedAsync.sum());
+        metrics.put("dropped", dropped.sum());
+        metrics.put("coalesced", coalesced.sum());
+        metrics.put("failures", failures.sum());
+        return metrics;
+    }
+
+    /**
+     * Shutdown async executor and drop all listeners
+     */
+    public void shutdown() {
+        asyncExecutor.shutdown();
+        try {
+            if (!asyncExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                asyncExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            asyncExecutor.shutdownNow();
+        }
+        synchronized (writeLock) {
+            listeners = new Subscription<?>[INITIAL_CAPACITY][];
+        }
+    }
+}
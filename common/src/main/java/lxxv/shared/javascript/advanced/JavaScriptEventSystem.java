@@ -2,19 +2,24 @@ package lxxv.shared.javascript.advanced;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.Consumer;
 
 /**
  * JavaScript Event System
- * Provides event-driven architecture for JavaScript scripts
+ * Provides event-driven architecture for JavaScript scripts.
+ * String-named events on top of {@link JavaScriptEventBus}. Java callers should
+ * resolve a handle once with {@link #event(String)} and emit through it: that
+ * skips the name lookup and, with an existing args array, allocates nothing.
+ * The string overloads are for dynamic names (scripts, REST).
  */
 public class JavaScriptEventSystem {
-    private final Map<String, List<Listener>> eventListeners;
-    private final ExecutorService asyncExecutor;
+    private final JavaScriptEventBus bus;
 
     public JavaScriptEventSystem() {
-        this.eventListeners = new ConcurrentHashMap<>();
-        this.asyncExecutor = Executors.newCachedThreadPool();
+        this(new JavaScriptEventBus());
+    }
+
+    public JavaScriptEventSystem(JavaScriptEventBus bus) {
+        this.bus = bus;
     }
 
     /**
@@ -29,50 +34,64 @@ public class JavaScriptEventSystem {
      * Register event listener
      */
     public void addEventListener(String eventName, Listener listener) {
-        eventListeners.computeIfAbsent(eventName, k -> new CopyOnWriteArrayList<>()).add(listener);
+        addEventListener(eventName, listener, JavaScriptEventBus.Priority.NORMAL);
+    }
+
+    /**
+     * Register event listener with priority (LOWEST runs first)
+     */
+    public void addEventListener(String eventName, Listener listener, JavaScriptEventBus.Priority priority) {
+        bus.subscribe(typeOf(eventName), listener::onEvent, priority, listener);
+    }
+
+    /**
+     * Resolve (and intern) the handle of a named event
+     */
+    public JavaScriptEventBus.EventType<Object[]> event(String eventName) {
+        return typeOf(eventName);
+    }
+
+    /**
+     * Emit event synchronously through a resolved handle
+     */
+    public void emit(JavaScriptEventBus.EventType<Object[]> type, Object[] args) {
+        bus.post(type, args);
+    }
+
+    /**
+     * Emit event asynchronously through a resolved handle
+     * @return false if the event was dropped by backpressure
+     */
+    public boolean emitAsync(JavaScriptEventBus.EventType<Object[]> type, Object[] args) {
+        return bus.postAsync(type, args);
     }
 
     /**
      * Emit event synchronously
      */
     public void emit(String eventName, Object... args) {
-        List<Listener> listeners = eventListeners.get(eventName);
-        if (listeners != null) {
-            for (Listener listener : listeners) {
-                try {
-                    listener.onEvent(args);
-                } catch (Exception e) {
-                    System.err.println("Error in event listener for '" + eventName + "': " + e.getMessage());
-                }
-            }
+        JavaScriptEventBus.EventType<Object[]> type = lookup(eventName);
+        if (type != null) {
+            bus.post(type, args);
         }
     }
 
     /**
-     * Emit event asynchronously
+     * Emit event asynchronously on the bounded event executor
+     * @return false if the event was dropped by backpressure
      */
-    public CompletableFuture<Void> emitAsync(String eventName, Object... args) {
-        return CompletableFuture.runAsync(() -> emit(eventName, args), asyncExecutor);
+    public boolean emitAsync(String eventName, Object... args) {
+        JavaScriptEventBus.EventType<Object[]> type = lookup(eventName);
+        return type == null || bus.postAsync(type, args);
     }
 
     /**
-     * Emit event and wait for all listeners
+     * Emit event and wait for all listeners; the first listener failure is rethrown
      */
-    public void emitWait(String eventName, Object... args) throws InterruptedException, ExecutionException {
-        List<Listener> listeners = eventListeners.get(eventName);
-        if (listeners != null) {
-            List<CompletableFuture<Void>> futures = new ArrayList<>();
-            for (Listener listener : listeners) {
-                CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-                    try {
-                        listener.onEvent(args);
-                    } catch (Exception e) {
-                        throw new CompletionException(e);
-                    }
-                }, asyncExecutor);
-                futures.add(future);
-            }
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    public void emitWait(String eventName, Object... args) throws ExecutionException {
+        JavaScriptEventBus.EventType<Object[]> type = lookup(eventName);
+        if (type != null) {
+            bus.postStrict(type, args);
         }
     }
 
@@ -80,9 +99,9 @@ public class JavaScriptEventSystem {
      * Remove event listener
      */
     public void removeEventListener(String eventName, Listener listener) {
-        List<Listener> listeners = eventListeners.get(eventName);
-        if (listeners != null) {
-            listeners.remove(listener);
+        JavaScriptEventBus.EventType<Object[]> type = lookup(eventName);
+        if (type != null) {
+            bus.unsubscribe(type, listener);
         }
     }
 
@@ -90,36 +109,63 @@ public class JavaScriptEventSystem {
      * Remove all listeners for event
      */
     public void removeAllListeners(String eventName) {
-        eventListeners.remove(eventName);
+        JavaScriptEventBus.EventType<Object[]> type = lookup(eventName);
+        if (type != null) {
+            bus.unsubscribeAll(type);
+        }
     }
 
     /**
      * Get listener count for event
      */
     public int getListenerCount(String eventName) {
-        List<Listener> listeners = eventListeners.get(eventName);
-        return listeners != null ? listeners.size() : 0;
+        JavaScriptEventBus.EventType<Object[]> type = lookup(eventName);
+        return type != null ? bus.getListenerCount(type) : 0;
     }
 
     /**
      * Get all registered event names
      */
     public Set<String> getRegisteredEvents() {
-        return new HashSet<>(eventListeners.keySet());
+        return bus.getActiveEvents();
+    }
+
+    /**
+     * Set what async emits do when the event queue is full
+     */
+    public void setBackpressure(JavaScriptEventBus.Backpressure backpressure) {
+        bus.setBackpressure(backpressure);
+    }
+
+    public Map<String, Object> getMetrics() {
+        return bus.getMetrics();
+    }
+
+    /**
+     * Get underlying typed bus
+     */
+    public JavaScriptEventBus getBus() {
+        return bus;
+    }
+
+    private JavaScriptEventBus.EventType<Object[]> typeOf(String eventName) {
+        return bus.register(eventName, Object[].class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JavaScriptEventBus.EventType<Object[]> lookup(String eventName) {
+        // Emitting never interns: events nobody listens to stay unknown
+        JavaScriptEventBus.EventType<?> type = bus.getType(eventName);
+        if (type == null || type.getPayloadType() != Object[].class) {
+            return null;
+        }
+        return (JavaScriptEventBus.EventType<Object[]>) type;
     }
 
     /**
      * Shutdown event system
      */
     public void shutdown() {
-        asyncExecutor.shutdown();
-        try {
-            if (!asyncExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                asyncExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            asyncExecutor.shutdownNow();
-        }
-        eventListeners.clear();
+        bus.shutdown();
     }
 }
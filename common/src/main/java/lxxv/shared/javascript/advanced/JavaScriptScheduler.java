@@ -4,122 +4,206 @@ import java.time.LocalTime;
 import java.time.DayOfWeek;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * JavaScript Scheduler
- * Provides setTimeout, setInterval, and advanced scheduling capabilities
+ * Provides setTimeout, setInterval, and advanced scheduling capabilities.
+ * Tasks run either tick-aligned on the main thread (TICK) or on a thread pool (ASYNC).
  */
 public class JavaScriptScheduler {
-    private final ScheduledExecutorService scheduler;
-    private final Map<String, ScheduledFuture<?>> scheduledTasks;
-    private final Map<String, TaskInfo> taskInfo;
+    private final JavaScriptSchedulerBackend asyncBackend;
+    private final TickSchedulerBackend tickBackend;
+    private final Map<Long, Task> tasks;
+    private final AtomicLong nextTaskId;
+    private volatile Mode defaultMode;
 
+    /**
+     * Async-only scheduler (no server tick available)
+     */
     public JavaScriptScheduler() {
-        this.scheduler = Executors.newScheduledThreadPool(4);
-        this.scheduledTasks = new ConcurrentHashMap<>();
-        this.taskInfo = new ConcurrentHashMap<>();
+        this(null);
+    }
+
+    /**
+     * Scheduler with a tick backend; TICK becomes the default mode
+     */
+    public JavaScriptScheduler(TickSchedulerBackend tickBackend) {
+        this.asyncBackend = new AsyncSchedulerBackend(4);
+        this.tickBackend = tickBackend;
+        this.tasks = new ConcurrentHashMap<>();
+        this.nextTaskId = new AtomicLong();
+        this.defaultMode = tickBackend != null ? Mode.TICK : Mode.ASYNC;
+    }
+
+    /**
+     * Where task callbacks run
+     */
+    public enum Mode {
+        /** Main thread, aligned to server ticks */
+        TICK,
+        /** Thread pool; for I/O-only tasks */
+        ASYNC
     }
 
     /**
      * Task information
      */
     public static class TaskInfo {
-        public final String id;
+        public final long id;
         public final String type;
+        public final String mode;
         public final long delay;
         public final long createdAt;
 
-        public TaskInfo(String id, String type, long delay) {
+        public TaskInfo(long id, String type, Mode mode, long delay) {
             this.id = id;
             this.type = type;
+            this.mode = mode.name();
             this.delay = delay;
             this.createdAt = System.currentTimeMillis();
         }
     }
 
     /**
-     * Schedule task after delay (setTimeout)
+     * Scheduled task; backend-specific fields are owned by the backend
      */
-    public String setTimeout(Runnable task, long delayMs) {
-        String taskId = UUID.randomUUID().toString();
-        ScheduledFuture<?> future = scheduler.schedule(() -> {
+    public static class Task {
+        final long id;
+        final Runnable runnable;
+        final long delayMs;
+        final long periodMs;
+        final Mode mode;
+        final TaskInfo info;
+        volatile boolean cancelled;
+        private final Runnable onComplete;
+
+        // Async backend
+        ScheduledFuture<?> future;
+        volatile long nextRunAt;
+
+        // Tick backend (main thread only)
+        long deadlineTick;
+        long periodTicks;
+        Task next;
+
+        Task(long id, String type, Runnable runnable, long delayMs, long periodMs, Mode mode, Runnable onComplete) {
+            this.id = id;
+            this.runnable = runnable;
+            this.delayMs = delayMs;
+            this.periodMs = periodMs;
+            this.mode = mode;
+            this.info = new TaskInfo(id, type, mode, periodMs > 0 ? periodMs : delayMs);
+            this.onComplete = onComplete;
+        }
+
+        void run() {
+            if (cancelled) {
+                return;
+            }
             try {
-                task.run();
+                runnable.run();
+            } catch (Exception e) {
+                System.err.println("[JS Scheduler] Task " + id + " failed: " + e.getMessage());
             } finally {
-                scheduledTasks.remove(taskId);
-                taskInfo.remove(taskId);
+                if (periodMs <= 0) {
+                    cancelled = true;
+                    onComplete.run();
+                }
             }
-        }, delayMs, TimeUnit.MILLISECONDS);
-        
-        scheduledTasks.put(taskId, future);
-        taskInfo.put(taskId, new TaskInfo(taskId, "timeout", delayMs));
-        return taskId;
+        }
+    }
+
+    /**
+     * Schedule task after delay (setTimeout)
+     */
+    public long setTimeout(Runnable task, long delayMs) {
+        return setTimeout(task, delayMs, defaultMode);
+    }
+
+    public long setTimeout(Runnable task, long delayMs, Mode mode) {
+        return schedule("timeout", task, delayMs, 0, mode);
     }
 
     /**
      * Schedule repeating task (setInterval)
      */
-    public String setInterval(Runnable task, long intervalMs) {
-        String taskId = UUID.randomUUID().toString();
-        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(
-            task, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
-        
-        scheduledTasks.put(taskId, future);
-        taskInfo.put(taskId, new TaskInfo(taskId, "interval", intervalMs));
-        return taskId;
+    public long setInterval(Runnable task, long intervalMs) {
+        return setInterval(task, intervalMs, defaultMode);
+    }
+
+    public long setInterval(Runnable task, long intervalMs, Mode mode) {
+        return schedule("interval", task, intervalMs, intervalMs, mode);
     }
 
     /**
      * Schedule daily task at specific time
      */
-    public String scheduleDailyTask(Runnable task, int hour, int minute) {
+    public long scheduleDailyTask(Runnable task, int hour, int minute) {
         LocalTime now = LocalTime.now();
         LocalTime scheduledTime = LocalTime.of(hour, minute);
-        
+
         long initialDelay = calculateInitialDelay(now, scheduledTime);
         long period = TimeUnit.DAYS.toMillis(1);
-        
-        String taskId = UUID.randomUUID().toString();
-        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(
-            task, initialDelay, period, TimeUnit.MILLISECONDS);
-        
-        scheduledTasks.put(taskId, future);
-        taskInfo.put(taskId, new TaskInfo(taskId, "daily", period));
-        return taskId;
+
+        return schedule("daily", task, initialDelay, period, defaultMode);
     }
 
     /**
      * Schedule weekly task
      */
-    public String scheduleWeeklyTask(Runnable task, DayOfWeek dayOfWeek, int hour, int minute) {
+    public long scheduleWeeklyTask(Runnable task, DayOfWeek dayOfWeek, int hour, int minute) {
         long initialDelay = calculateWeeklyDelay(dayOfWeek, hour, minute);
         long period = TimeUnit.DAYS.toMillis(7);
-        
-        String taskId = UUID.randomUUID().toString();
-        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(
-            task, initialDelay, period, TimeUnit.MILLISECONDS);
-        
-        scheduledTasks.put(taskId, future);
-        taskInfo.put(taskId, new TaskInfo(taskId, "weekly", period));
+
+        return schedule("weekly", task, initialDelay, period, defaultMode);
+    }
+
+    private long schedule(String type, Runnable runnable, long delayMs, long periodMs, Mode mode) {
+        long taskId = nextTaskId.incrementAndGet();
+        Mode effective = (mode == Mode.TICK && tickBackend == null) ? Mode.ASYNC : mode;
+        Task task = new Task(taskId, type, runnable, Math.max(0, delayMs), periodMs, effective,
+            () -> tasks.remove(taskId));
+        tasks.put(taskId, task);
+        backendFor(task).schedule(task);
         return taskId;
     }
 
+    private JavaScriptSchedulerBackend backendFor(Task task) {
+        return task.mode == Mode.TICK ? tickBackend : asyncBackend;
+    }
+
     /**
      * Clear timeout/interval
      */
-    public boolean clearTimeout(String taskId) {
-        ScheduledFuture<?> future = scheduledTasks.remove(taskId);
-        taskInfo.remove(taskId);
-        if (future != null) {
-            future.cancel(false);
+    public boolean clearTimeout(long taskId) {
+        Task task = tasks.remove(taskId);
+        if (task != null) {
+            task.cancelled = true;
+            backendFor(task).cancel(task);
             return true;
         }
         return false;
     }
 
+    /**
+     * Clear timeout/interval by id string (from scripts and REST)
+     */
+    public boolean clearTimeout(String taskId) {
+        try {
+            return clearTimeout((long) Double.parseDouble(taskId));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     /**
      * Clear interval (alias for clearTimeout)
      */
+    public boolean clearInterval(long taskId) {
+        return clearTimeout(taskId);
+    }
+
     public boolean clearInterval(String taskId) {
         return clearTimeout(taskId);
     }
@@ -127,10 +211,10 @@ public class JavaScriptScheduler {
     /**
      * Get remaining time until task execution
      */
-    public long getRemainingTime(String taskId) {
-        ScheduledFuture<?> future = scheduledTasks.get(taskId);
-        if (future != null) {
-            return future.getDelay(TimeUnit.MILLISECONDS);
+    public long getRemainingTime(long taskId) {
+        Task task = tasks.get(taskId);
+        if (task != null) {
+            return backendFor(task).getRemainingTime(task);
         }
         return -1;
     }
@@ -138,8 +222,44 @@ public class JavaScriptScheduler {
     /**
      * Get all active tasks
      */
-    public Map<String, TaskInfo> getActiveTasks() {
-        return new HashMap<>(taskInfo);
+    public Map<Long, TaskInfo> getActiveTasks() {
+        Map<Long, TaskInfo> result = new HashMap<>();
+        for (Task task : tasks.values()) {
+            result.put(task.id, task.info);
+        }
+        return result;
+    }
+
+    /**
+     * Set mode used when none is given
+     */
+    public void setDefaultMode(Mode mode) {
+        this.defaultMode = (mode == Mode.TICK && tickBackend == null) ? Mode.ASYNC : mode;
+    }
+
+    public Mode getDefaultMode() {
+        return defaultMode;
+    }
+
+    /**
+     * Get tick backend (null if async-only)
+     */
+    public TickSchedulerBackend getTickBackend() {
+        return tickBackend;
+    }
+
+    /**
+     * Scheduler metrics per backend
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("defaultMode", defaultMode.name());
+        metrics.put("activeTasks", tasks.size());
+        metrics.put("async", asyncBackend.getMetrics());
+        if (tickBackend != null) {
+            metrics.put("tick", tickBackend.getMetrics());
+        }
+        return metrics;
     }
 
     /**
@@ -148,7 +268,7 @@ public class JavaScriptScheduler {
     private long calculateInitialDelay(LocalTime now, LocalTime scheduledTime) {
         long nowMs = now.toNanoOfDay() / 1_000_000;
         long scheduledMs = scheduledTime.toNanoOfDay() / 1_000_000;
-        
+
         if (scheduledMs > nowMs) {
             return scheduledMs - nowMs;
         } else {
@@ -163,12 +283,12 @@ public class JavaScriptScheduler {
         // Simplified calculation
         LocalTime scheduledTime = LocalTime.of(hour, minute);
         long dailyDelay = calculateInitialDelay(LocalTime.now(), scheduledTime);
-        
+
         // Add days until target day of week
         int currentDay = java.time.LocalDate.now().getDayOfWeek().getValue();
         int targetDay = dayOfWeek.getValue();
         int daysUntil = (targetDay - currentDay + 7) % 7;
-        
+
         return dailyDelay + TimeUnit.DAYS.toMillis(daysUntil);
     }
 
@@ -176,15 +296,13 @@ public class JavaScriptScheduler {
      * Shutdown scheduler
      */
     public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
+        for (Task task : tasks.values()) {
+            task.cancelled = true;
+        }
+        asyncBackend.shutdown();
+        if (tickBackend != null) {
+            tickBackend.shutdown();
         }
-        scheduledTasks.clear();
-        taskInfo.clear();
+        tasks.clear();
     }
 }
@@ -0,0 +1,33 @@
+package lxxv.shared.javascript.advanced;
+
+import java.util.Map;
+
+/**
+ * Execution backend for JavaScriptScheduler tasks
+ */
+public interface JavaScriptSchedulerBackend {
+    /**
+     * Schedule task; first run after its delay, repeating if it has a period
+     */
+    void schedule(JavaScriptScheduler.Task task);
+
+    /**
+     * Cancel scheduled task (task is already marked cancelled)
+     */
+    void cancel(JavaScriptScheduler.Task task);
+
+    /**
+     * Remaining time until next run in milliseconds, or -1
+     */
+    long getRemainingTime(JavaScriptScheduler.Task task);
+
+    /**
+     * Backend metrics
+     */
+    Map<String, Object> getMetrics();
+
+    /**
+     * Shutdown backend
+     */
+    void shutdown();
+}
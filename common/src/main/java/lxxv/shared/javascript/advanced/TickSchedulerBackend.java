@@ -0,0 +1,209 @@
+package lxxv.shared.javascript.advanced;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tick-aligned scheduler backend
+ * Timers live in a hierarchical timing wheel keyed by server tick and are
+ * drained by {@link #tick()} on the main thread under a per-tick time budget
+ */
+public class TickSchedulerBackend implements JavaScriptSchedulerBackend {
+    public static final long MILLIS_PER_TICK = 50L;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // Longest delay the wheel can hold directly (~9.7 days); longer timers re-cascade
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    // Main thread only
+    private final JavaScriptScheduler.Task[][] wheel = new JavaScriptScheduler.Task[LEVELS][SLOTS];
+    private final ArrayDeque<JavaScriptScheduler.Task> ready = new ArrayDeque<>();
+    private volatile long currentTick;
+
+    // Tasks scheduled from any thread, moved into the wheel on the next tick
+    private final Queue<JavaScriptScheduler.Task> incoming = new ConcurrentLinkedQueue<>();
+
+    private volatile long tickBudgetNanos;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder overdue = new LongAdder();
+    private volatile long maxLatenessTicks;
+    private volatile long lastDrainNanos;
+    private volatile long maxDrainNanos;
+    private final LongAdder totalDrainNanos = new LongAdder();
+    private final LongAdder ticks = new LongAdder();
+
+    public TickSchedulerBackend(long tickBudgetMicros) {
+        this.tickBudgetNanos = tickBudgetMicros * 1_000L;
+    }
+
+    @Override
+    public void schedule(JavaScriptScheduler.Task task) {
+        task.periodTicks = task.periodMs > 0 ? toTicks(task.periodMs) : 0;
+        task.deadlineTick = currentTick + toTicks(task.delayMs);
+        incoming.add(task);
+    }
+
+    @Override
+    public void cancel(JavaScriptScheduler.Task task) {
+        // Lazy removal: cancelled tasks are dropped when the wheel reaches them
+    }
+
+    @Override
+    public long getRemainingTime(JavaScriptScheduler.Task task) {
+        return Math.max(0, task.deadlineTick - currentTick) * MILLIS_PER_TICK;
+    }
+
+    /**
+     * Advance one server tick and run due callbacks; call from the main thread
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        long tick = ++currentTick;
+
+        JavaScriptScheduler.Task task;
+        while ((task = incoming.poll()) != null) {
+            if (!task.cancelled) {
+                add(task);
+            }
+        }
+
+        // Cascade higher levels when lower level wraps
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            cascade(level, (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+        }
+
+        int slot = (int) (tick & SLOT_MASK);
+        task = wheel[0][slot];
+        wheel[0][slot] = null;
+        while (task != null) {
+            JavaScriptScheduler.Task next = task.next;
+            task.next = null;
+            if (!task.cancelled) {
+                if (task.deadlineTick <= tick) {
+                    ready.add(task);
+                } else {
+                    add(task);
+                }
+            }
+            task = next;
+        }
+
+        // Drain due callbacks under budget; the rest carry over to the next tick
+        long deadline = start + tickBudgetNanos;
+        while (!ready.isEmpty()) {
+            task = ready.poll();
+            if (task.cancelled) {
+                continue;
+            }
+            long lateness = tick - task.deadlineTick;
+            if (lateness > 0) {
+                overdue.increment();
+                if (lateness > maxLatenessTicks) {
+                    maxLatenessTicks = lateness;
+                }
+            }
+            executed.increment();
+            task.run();
+            if (task.periodTicks > 0 && !task.cancelled) {
+                // Fixed rate, but never replay missed periods in a burst
+                task.deadlineTick = Math.max(task.deadlineTick + task.periodTicks, tick + 1);
+                add(task);
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        lastDrainNanos = elapsed;
+        if (elapsed > maxDrainNanos) {
+            maxDrainNanos = elapsed;
+        }
+        totalDrainNanos.add(elapsed);
+        ticks.increment();
+    }
+
+    private void add(JavaScriptScheduler.Task task) {
+        long tick = currentTick;
+        long delta = task.deadlineTick - tick;
+        int level;
+        int slot;
+        if (delta < 1) {
+            // Already due: current slot is drained later in this tick
+            level = 0;
+            slot = (int) (tick & SLOT_MASK);
+        } else if (delta >= MAX_SPAN) {
+            // Park in the farthest top-level slot; it re-cascades until due
+            level = LEVELS - 1;
+            slot = (int) (((tick >>> (SLOT_BITS * level)) - 1) & SLOT_MASK);
+        } else {
+            level = 0;
+            while (delta >= (1L << (SLOT_BITS * (level + 1)))) {
+                level++;
+            }
+            slot = (int) ((task.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        }
+        task.next = wheel[level][slot];
+        wheel[level][slot] = task;
+    }
+
+    private void cascade(int level, int slot) {
+        JavaScriptScheduler.Task task = wheel[level][slot];
+        wheel[level][slot] = null;
+        while (task != null) {
+            JavaScriptScheduler.Task next = task.next;
+            task.next = null;
+            if (!task.cancelled) {
+                add(task);
+            }
+            task = next;
+        }
+    }
+
+    private static long toTicks(long millis) {
+        return Math.max(1L, (millis + MILLIS_PER_TICK - 1) / MILLIS_PER_TICK);
+    }
+
+    public void setTickBudgetMicros(long micros) {
+        this.tickBudgetNanos = Math.max(1, micros) * 1_000L;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long tickCount = ticks.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("currentTick", currentTick);
+        metrics.put("tickBudgetMicros", tickBudgetNanos / 1_000L);
+        metrics.put("executed", executed.sum());
+        metrics.put("overdue", overdue.sum());
+        metrics.put("maxLatenessTicks", maxLatenessTicks);
+        metrics.put("backlog", ready.size());
+        metrics.put("lastDrainMicros", lastDrainNanos / 1_000L);
+        metrics.put("maxDrainMicros", maxDrainNanos / 1_000L);
+        metrics.put("avgDrainMicros", tickCount > 0 ? totalDrainNanos.sum() / tickCount / 1_000L : 0);
+        return metrics;
+    }
+
+    @Override
+    public void shutdown() {
+        incoming.clear();
+        ready.clear();
+        for (JavaScriptScheduler.Task[] level : wheel) {
+            java.util.Arrays.fill(level, null);
+        }
+    }
+}
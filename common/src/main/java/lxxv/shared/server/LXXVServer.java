@@ -3,6 +3,8 @@ package lxxv.shared.server;
 import lxxv.shared.javascript.JavaScriptEngine;
 import lxxv.shared.javascript.advanced.JavaScriptEventSystem;
 import lxxv.shared.javascript.advanced.JavaScriptScheduler;
+import lxxv.shared.javascript.advanced.TickSchedulerBackend;
+import lxxv.shared.server.world.WorldCommandBuffer;
 import org.bukkit.Bukkit;
 import org.bukkit.block.Biome;
 import org.bukkit.GameMode;
@@ -12,7 +14,6 @@ import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.Sound;
 import org.bukkit.World;
-import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.Directional;
 import org.bukkit.block.data.Rotatable;
@@ -29,8 +30,11 @@ import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.permissions.PermissionAttachment;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scoreboard.Objective;
 import org.bukkit.scoreboard.Score;
 import org.bukkit.scoreboard.Scoreboard;
@@ -57,15 +61,41 @@ public class LXXVServer {
     private static final Map<String, BossBar> bossBars = new HashMap<>();
     private static Economy economy;
     private static Permission permissions;
+    private static WorldCommandBuffer worldBuffer;
+    private static BukkitTask schedulerTickTask;
+    // Plugins sharing the bridge; the first one runs its tasks
+    private static final Set<Plugin> owners = new LinkedHashSet<>();
 
     /**
      * Initialize LXXVServer with Bukkit server instance
      */
     public static void initialize(Server serverInstance, JavaScriptEngine engine) {
+        initialize(serverInstance, engine, JavaPlugin.getProvidingPlugin(LXXVServer.class));
+    }
+
+    /**
+     * Initialize LXXVServer with Bukkit server instance and owning plugin
+     * (used to apply buffered world mutations on the main thread).
+     * The bridge is shared: later plugins join the running one, and every
+     * plugin must release it with {@link #shutdown(Plugin)}.
+     */
+    public static synchronized void initialize(Server serverInstance, JavaScriptEngine engine, Plugin plugin) {
+        if (!owners.isEmpty()) {
+            owners.add(plugin);
+            return;
+        }
+        owners.add(plugin);
         server = serverInstance;
         jsEngine = engine;
         eventSystem = new JavaScriptEventSystem();
-        scheduler = new JavaScriptScheduler();
+
+        // Script timers drain on the main thread, aligned to server ticks
+        TickSchedulerBackend tickBackend = new TickSchedulerBackend(5_000);
+        scheduler = new JavaScriptScheduler(tickBackend);
+        schedulerTickTask = serverInstance.getScheduler().runTaskTimer(plugin, tickBackend::tick, 1L, 1L);
+
+        worldBuffer = new WorldCommandBuffer(plugin);
+        worldBuffer.start();
 
         registerConsoleFunctions();
         registerServerFunctions();
@@ -81,6 +111,43 @@ public class LXXVServer {
         registerVaultFunctions();
     }
 
+    /**
+     * Release the bridge for a plugin. The last plugin applies remaining buffered
+     * world mutations and stops everything; otherwise the tasks of a leaving
+     * plugin move to one that stays, since Bukkit cancels them on disable.
+     */
+    public static synchronized void shutdown(Plugin plugin) {
+        if (!owners.remove(plugin)) {
+            return;
+        }
+        if (owners.isEmpty()) {
+            stop();
+        } else if (schedulerTickTask != null && schedulerTickTask.getOwner() == plugin) {
+            Plugin next = owners.iterator().next();
+            schedulerTickTask.cancel();
+            schedulerTickTask = server.getScheduler().runTaskTimer(next, scheduler.getTickBackend()::tick, 1L, 1L);
+            worldBuffer.moveTo(next);
+        }
+    }
+
+    private static void stop() {
+        if (schedulerTickTask != null) {
+            schedulerTickTask.cancel();
+            schedulerTickTask = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (eventSystem != null) {
+            eventSystem.shutdown();
+            eventSystem = null;
+        }
+        if (worldBuffer != null) {
+            worldBuffer.stop();
+            worldBuffer = null;
+        }
+    }
+
     // ===== CONSOLE FUNCTIONS =====
 
     private static void registerConsoleFunctions() {
@@ -742,7 +809,12 @@ public class LXXVServer {
             if (world != null) {
                 try {
                     Material mat = Material.valueOf(materialName.toUpperCase());
-                    world.getBlockAt(x, y, z).setType(mat);
+                    // Apply directly only when nothing buffered could be overtaken
+                    if (Bukkit.isPrimaryThread() && worldBuffer.isEmpty()) {
+                        world.getBlockAt(x, y, z).setType(mat);
+                    } else {
+                        worldBuffer.setType(world, x, y, z, mat);
+                    }
                     return true;
                 } catch (IllegalArgumentException e) {
                     return false;
@@ -775,7 +847,12 @@ public class LXXVServer {
             if (world != null) {
                 try {
                     EntityType type = EntityType.valueOf(typeName.toUpperCase());
-                    return world.spawnEntity(new org.bukkit.Location(world, x, y, z), type);
+                    if (Bukkit.isPrimaryThread() && worldBuffer.isEmpty()) {
+                        return world.spawnEntity(new org.bukkit.Location(world, x, y, z), type);
+                    }
+                    // Buffered behind earlier mutations; no entity to return yet
+                    worldBuffer.spawnEntity(world, x, y, z, type);
+                    return true;
                 } catch (IllegalArgumentException e) {
                     return null;
                 }
@@ -835,10 +912,13 @@ public class LXXVServer {
             String dataString = args[4].toString();
             World world = server.getWorld(worldName);
             if (world != null) {
-                Block block = world.getBlockAt(x, y, z);
                 try {
                     BlockData data = Bukkit.createBlockData(dataString);
-                    block.setBlockData(data, false);
+                    if (Bukkit.isPrimaryThread() && worldBuffer.isEmpty()) {
+                        world.getBlockAt(x, y, z).setBlockData(data, false);
+                    } else {
+                        worldBuffer.setBlockData(world, x, y, z, data);
+                    }
                     return true;
                 } catch (Exception e) {
                     return false;
@@ -890,7 +970,7 @@ public class LXXVServer {
             return false;
         });
 
-        // Fill region (limited)
+        // Fill region (buffered, applied on the main thread per chunk)
         jsEngine.registerFunctionLambda("fill", args -> {
             String worldName = args[0].toString();
             int x1 = Integer.parseInt(args[1].toString());
@@ -904,17 +984,7 @@ public class LXXVServer {
             if (world != null) {
                 try {
                     Material mat = Material.valueOf(materialName.toUpperCase());
-                    int count = 0;
-                    for (int x = Math.min(x1, x2); x <= Math.max(x1, x2); x++) {
-                        for (int y = Math.min(y1, y2); y <= Math.max(y1, y2); y++) {
-                            for (int z = Math.min(z1, z2); z <= Math.max(z1, z2); z++) {
-                                world.getBlockAt(x, y, z).setType(mat, false);
-                                count++;
-                                if (count > 5000) return "limit"; // safety cap
-                            }
-                        }
-                    }
-                    return true;
+                    return worldBuffer.fill(world, x1, y1, z1, x2, y2, z2, mat) ? true : "limit";
                 } catch (Exception e) {
                     return false;
                 }
@@ -922,7 +992,7 @@ public class LXXVServer {
             return false;
         });
 
-        // Clone small region (limited)
+        // Clone region (buffered, snapshot then write on the main thread)
         jsEngine.registerFunctionLambda("cloneRegion", args -> {
             String worldName = args[0].toString();
             int x1 = Integer.parseInt(args[1].toString());
@@ -936,27 +1006,15 @@ public class LXXVServer {
             int dz = Integer.parseInt(args[9].toString());
             World world = server.getWorld(worldName);
             if (world != null) {
-                List<BlockSnapshot> snaps = new ArrayList<>();
-                int count = 0;
-                for (int x = Math.min(x1, x2); x <= Math.max(x1, x2); x++) {
-                    for (int y = Math.min(y1, y2); y <= Math.max(y1, y2); y++) {
-                        for (int z = Math.min(z1, z2); z <= Math.max(z1, z2); z++) {
-                            Block block = world.getBlockAt(x, y, z);
-                            snaps.add(new BlockSnapshot(block.getType(), block.getBlockData(), x, y, z));
-                            count++;
-                            if (count > 2000) return "limit";
-                        }
-                    }
-                }
-                for (BlockSnapshot snap : snaps) {
-                    Block target = world.getBlockAt(snap.x + dx, snap.y + dy, snap.z + dz);
-                    target.setType(snap.type, false);
-                    target.setBlockData(snap.data, false);
-                }
-                return true;
+                return worldBuffer.cloneRegion(world, x1, y1, z1, x2, y2, z2, dx, dy, dz) ? true : "limit";
             }
             return false;
         });
+
+        // Buffered world mutation stats
+        jsEngine.registerFunctionLambda("getWorldBufferStats", args -> {
+            return worldBuffer.getStats();
+        });
     }
 
     // ===== EVENT FUNCTIONS =====
@@ -984,8 +1042,7 @@ public class LXXVServer {
         jsEngine.registerFunctionLambda("emitAsync", args -> {
             String eventName = args[0].toString();
             Object[] eventArgs = Arrays.copyOfRange(args, 1, args.length);
-            eventSystem.emitAsync(eventName, eventArgs);
-            return null;
+            return eventSystem.emitAsync(eventName, eventArgs);
         });
 
         // Get listener count
@@ -993,6 +1050,11 @@ public class LXXVServer {
             String eventName = args[0].toString();
             return eventSystem.getListenerCount(eventName);
         });
+
+        // Get event bus metrics
+        jsEngine.registerFunctionLambda("getEventMetrics", args -> {
+            return eventSystem.getMetrics();
+        });
     }
 
     // ===== ENTITY / MOBS =====
@@ -1174,6 +1236,11 @@ public class LXXVServer {
         jsEngine.registerFunctionLambda("getActiveTasks", args -> {
             return scheduler.getActiveTasks();
         });
+
+        // Scheduler metrics (overdue timers, per-tick drain time)
+        jsEngine.registerFunctionLambda("getSchedulerMetrics", args -> {
+            return scheduler.getMetrics();
+        });
     }
 
     // ===== SCOREBOARD / STATS =====
@@ -1479,6 +1546,10 @@ public class LXXVServer {
         return scheduler;
     }
 
+    public static WorldCommandBuffer getWorldBuffer() {
+        return worldBuffer;
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     private static Object parseGameRuleValue(GameRule<?> rule, String value) {
         if (rule.getType() == Boolean.class) {
@@ -1503,8 +1574,6 @@ public class LXXVServer {
         }
     }
 
-    private record BlockSnapshot(Material type, BlockData data, int x, int y, int z) { }
-
     private static Economy ensureEconomy() {
         if (economy != null) return economy;
         try {
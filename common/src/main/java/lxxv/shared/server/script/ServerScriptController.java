@@ -65,6 +65,8 @@ public class ServerScriptController {
         
         // Info endpoints
         app.get("/api/script/info", this::getScriptInfo);
+        app.get("/api/script/cache", this::getCacheStats);
+        app.delete("/api/script/cache", this::clearCache);
     }
 
     /**
@@ -160,7 +162,7 @@ public class ServerScriptController {
         try {
             TimeoutRequest req = gson.fromJson(ctx.body(), TimeoutRequest.class);
             
-            String taskId = scheduler.setTimeout(() -> {
+            long taskId = scheduler.setTimeout(() -> {
                 try {
                     engine.execute(req.code);
                 } catch (JavaScriptException e) {
@@ -181,7 +183,7 @@ public class ServerScriptController {
         try {
             IntervalRequest req = gson.fromJson(ctx.body(), IntervalRequest.class);
             
-            String taskId = scheduler.setInterval(() -> {
+            long taskId = scheduler.setInterval(() -> {
                 try {
                     engine.execute(req.code);
                 } catch (JavaScriptException e) {
@@ -208,8 +210,8 @@ public class ServerScriptController {
      * Get active tasks
      */
     private void getActiveTasks(Context ctx) {
-        Map<String, JavaScriptScheduler.TaskInfo> tasks = scheduler.getActiveTasks();
-        ctx.json(Map.of("success", true, "tasks", tasks));
+        Map<Long, JavaScriptScheduler.TaskInfo> tasks = scheduler.getActiveTasks();
+        ctx.json(Map.of("success", true, "tasks", tasks, "metrics", scheduler.getMetrics()));
     }
 
     /**
@@ -262,12 +264,37 @@ public class ServerScriptController {
         info.put("transpiler", "swc4j");
         info.put("enabled", engine.isEnabled());
         info.put("events", eventSystem.getRegisteredEvents().size());
+        info.put("eventBus", eventSystem.getMetrics());
         info.put("tasks", scheduler.getActiveTasks().size());
+        info.put("scheduler", scheduler.getMetrics());
         info.put("modules", moduleManager.getRegisteredModules().size());
+        info.put("scriptCache", engine.isScriptCacheEnabled());
+        info.put("bindOncePerRuntime", engine.isBindOncePerRuntime());
+        info.put("cacheHits", engine.getCompileCache().getHits());
+        info.put("cacheMisses", engine.getCompileCache().getMisses());
+        info.put("cachedScripts", engine.getCompileCache().size());
+        info.put("budget", engine.getDefaultBudget());
+        info.put("terminations", engine.getAccounting().getTotalTerminations());
+        info.put("scripts", engine.getAccounting().getAllStats());
         
         ctx.json(Map.of("success", true, "info", info));
     }
 
+    /**
+     * Get compiled script cache statistics
+     */
+    private void getCacheStats(Context ctx) {
+        ctx.json(Map.of("success", true, "cache", engine.getCompileCache().getStats()));
+    }
+
+    /**
+     * Clear compiled script cache
+     */
+    private void clearCache(Context ctx) {
+        engine.getCompileCache().clear();
+        ctx.json(Map.of("success", true));
+    }
+
     // ===== REQUEST/RESPONSE CLASSES =====
 
     private static class ExecuteRequest {
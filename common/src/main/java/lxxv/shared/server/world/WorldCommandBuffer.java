@@ -0,0 +1,517 @@
+package lxxv.shared.server.world;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * World Command Buffer
+ * Scripts record block and entity mutations from any thread; the buffer is
+ * applied on the main thread in tick-budgeted slices, in submission order.
+ * Consecutive block/fill/spawn jobs are grouped by chunk (jobs in different
+ * chunks never touch the same block); a clone is a barrier that runs after
+ * everything submitted before it and before everything submitted after it.
+ */
+public class WorldCommandBuffer {
+    private static final int TIME_CHECK_INTERVAL = 64;
+
+    private Plugin plugin;
+    private final Queue<Job> incoming = new ConcurrentLinkedQueue<>();
+    // Main thread only: chunk batches (LinkedHashMap) and clone barriers, oldest first
+    private final ArrayDeque<Object> sequence = new ArrayDeque<>();
+    private BukkitTask task;
+
+    private volatile long tickBudgetNanos;
+    private volatile long maxRegionVolume;
+    private volatile long maxCloneVolume;
+
+    private final AtomicLong queuedBlocks = new AtomicLong();
+    private final LongAdder recordedJobs = new LongAdder();
+    private final LongAdder appliedBlocks = new LongAdder();
+    private final LongAdder spawnedEntities = new LongAdder();
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+
+    public WorldCommandBuffer(Plugin plugin) {
+        this(plugin, 2_000, 8_000_000L, 262_144L);
+    }
+
+    public WorldCommandBuffer(Plugin plugin, long tickBudgetMicros, long maxRegionVolume, long maxCloneVolume) {
+        this.plugin = plugin;
+        this.tickBudgetNanos = tickBudgetMicros * 1_000L;
+        this.maxRegionVolume = maxRegionVolume;
+        this.maxCloneVolume = maxCloneVolume;
+    }
+
+    /**
+     * Start applying buffered commands every tick
+     */
+    public void start() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Keep applying under another plugin (Bukkit cancels the tasks of a disabled plugin)
+     */
+    public void moveTo(Plugin plugin) {
+        this.plugin = plugin;
+        if (task != null) {
+            task.cancel();
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stop the applier; remaining commands are applied synchronously
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (Bukkit.isPrimaryThread()) {
+            drain(Long.MAX_VALUE);
+        }
+    }
+
+    // ===== RECORDING (any thread) =====
+
+    /**
+     * Record block type change (with physics, like Block.setType(Material))
+     */
+    public void setType(World world, int x, int y, int z, Material material) {
+        submit(new BlockJob(world, x, y, z, material, null));
+    }
+
+    /**
+     * Record block data change
+     */
+    public void setBlockData(World world, int x, int y, int z, BlockData data) {
+        submit(new BlockJob(world, x, y, z, null, data));
+    }
+
+    /**
+     * Record entity spawn
+     */
+    public void spawnEntity(World world, double x, double y, double z, EntityType type) {
+        submit(new SpawnJob(world, x, y, z, type));
+    }
+
+    /**
+     * Record region fill
+     * @return false if region exceeds max volume
+     */
+    public boolean fill(World world, int x1, int y1, int z1, int x2, int y2, int z2, Material material) {
+        Cuboid region = new Cuboid(x1, y1, z1, x2, y2, z2);
+        if (region.volume() > maxRegionVolume) {
+            return false;
+        }
+        submit(new FillJob(world, region, material));
+        return true;
+    }
+
+    /**
+     * Record region clone by offset
+     * @return false if region exceeds max clone volume
+     */
+    public boolean cloneRegion(World world, int x1, int y1, int z1, int x2, int y2, int z2, int dx, int dy, int dz) {
+        Cuboid region = new Cuboid(x1, y1, z1, x2, y2, z2);
+        if (region.volume() > maxCloneVolume) {
+            return false;
+        }
+        submit(new CloneJob(world, region, dx, dy, dz));
+        return true;
+    }
+
+    private void submit(Job job) {
+        queuedBlocks.addAndGet(job.remaining());
+        incoming.add(job);
+        recordedJobs.increment();
+    }
+
+    /**
+     * Whether nothing is waiting to be applied. Main-thread callers may only apply a
+     * mutation directly when this is true, otherwise it would overtake buffered ones.
+     */
+    public boolean isEmpty() {
+        return incoming.isEmpty() && sequence.isEmpty();
+    }
+
+    // ===== APPLYING (main thread) =====
+
+    private void tick() {
+        long start = System.nanoTime();
+        drain(start + tickBudgetNanos);
+        long elapsed = System.nanoTime() - start;
+        lastTickNanos = elapsed;
+        if (elapsed > maxTickNanos) {
+            maxTickNanos = elapsed;
+        }
+    }
+
+    /**
+     * Apply buffered commands until the deadline
+     */
+    private void drain(long deadline) {
+        Job job;
+        while ((job = incoming.poll()) != null) {
+            enqueue(job);
+        }
+
+        Object head;
+        while ((head = sequence.peek()) != null) {
+            if (head instanceof CloneJob clone) {
+                // Snapshots the source before writing, after all earlier jobs were applied
+                if (!clone.apply(this, deadline)) {
+                    return;
+                }
+            } else if (!applyBatch(batchOf(head), deadline)) {
+                return;
+            }
+            sequence.poll();
+        }
+    }
+
+    private boolean applyBatch(LinkedHashMap<ChunkKey, ArrayDeque<Job>> batch, long deadline) {
+        Iterator<Map.Entry<ChunkKey, ArrayDeque<Job>>> chunks = batch.entrySet().iterator();
+        while (chunks.hasNext()) {
+            ArrayDeque<Job> jobs = chunks.next().getValue();
+            while (!jobs.isEmpty()) {
+                if (!jobs.peek().apply(this, deadline)) {
+                    return false;
+                }
+                jobs.poll();
+            }
+            chunks.remove();
+        }
+        return true;
+    }
+
+    private void enqueue(Job job) {
+        if (job instanceof CloneJob clone) {
+            sequence.add(clone);
+        } else if (job instanceof FillJob fill) {
+            // Split into per-chunk sub-regions so each chunk is touched once
+            for (Cuboid part : fill.region.splitByChunk()) {
+                addPending(fill.world, part.minX >> 4, part.minZ >> 4, new FillJob(fill.world, part, fill.material));
+            }
+        } else {
+            addPending(job.world, job.chunkX(), job.chunkZ(), job);
+        }
+    }
+
+    private void addPending(World world, int chunkX, int chunkZ, Job job) {
+        // Jobs after a clone start a new batch so they cannot run before it
+        Object tail = sequence.peekLast();
+        LinkedHashMap<ChunkKey, ArrayDeque<Job>> batch;
+        if (tail == null || tail instanceof CloneJob) {
+            batch = new LinkedHashMap<>();
+            sequence.add(batch);
+        } else {
+            batch = batchOf(tail);
+        }
+        batch.computeIfAbsent(new ChunkKey(world.getUID(), chunkX, chunkZ), k -> new ArrayDeque<>()).add(job);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LinkedHashMap<ChunkKey, ArrayDeque<Job>> batchOf(Object entry) {
+        return (LinkedHashMap<ChunkKey, ArrayDeque<Job>>) entry;
+    }
+
+    private void blockApplied() {
+        appliedBlocks.increment();
+        queuedBlocks.decrementAndGet();
+    }
+
+    // ===== SETTINGS / STATS =====
+
+    public void setTickBudgetMicros(long micros) {
+        this.tickBudgetNanos = Math.max(1, micros) * 1_000L;
+    }
+
+    public long getTickBudgetMicros() {
+        return tickBudgetNanos / 1_000L;
+    }
+
+    public void setMaxRegionVolume(long maxRegionVolume) {
+        this.maxRegionVolume = maxRegionVolume;
+    }
+
+    public void setMaxCloneVolume(long maxCloneVolume) {
+        this.maxCloneVolume = maxCloneVolume;
+    }
+
+    public long getQueuedBlocks() {
+        return queuedBlocks.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tickBudgetMicros", getTickBudgetMicros());
+        stats.put("queuedBlocks", queuedBlocks.get());
+        stats.put("recordedJobs", recordedJobs.sum());
+        stats.put("appliedBlocks", appliedBlocks.sum());
+        stats.put("spawnedEntities", spawnedEntities.sum());
+        stats.put("lastTickMicros", lastTickNanos / 1_000L);
+        stats.put("maxTickMicros", maxTickNanos / 1_000L);
+        return stats;
+    }
+
+    // ===== JOBS =====
+
+    private record ChunkKey(UUID world, int x, int z) { }
+
+    private abstract static class Job {
+        final World world;
+
+        Job(World world) {
+            this.world = world;
+        }
+
+        int chunkX() {
+            return 0;
+        }
+
+        int chunkZ() {
+            return 0;
+        }
+
+        abstract long remaining();
+
+        /**
+         * @return true when the job is complete
+         */
+        abstract boolean apply(WorldCommandBuffer buffer, long deadline);
+    }
+
+    private static class BlockJob extends Job {
+        final int x, y, z;
+        final Material material;
+        final BlockData data;
+
+        BlockJob(World world, int x, int y, int z, Material material, BlockData data) {
+            super(world);
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.material = material;
+            this.data = data;
+        }
+
+        @Override
+        int chunkX() {
+            return x >> 4;
+        }
+
+        @Override
+        int chunkZ() {
+            return z >> 4;
+        }
+
+        @Override
+        long remaining() {
+            return 1;
+        }
+
+        @Override
+        boolean apply(WorldCommandBuffer buffer, long deadline) {
+            Block block = world.getBlockAt(x, y, z);
+            if (data != null) {
+                block.setBlockData(data, false);
+            } else {
+                block.setType(material);
+            }
+            buffer.blockApplied();
+            return true;
+        }
+    }
+
+    private static class SpawnJob extends Job {
+        final double x, y, z;
+        final EntityType type;
+
+        SpawnJob(World world, double x, double y, double z, EntityType type) {
+            super(world);
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.type = type;
+        }
+
+        @Override
+        int chunkX() {
+            return (int) Math.floor(x) >> 4;
+        }
+
+        @Override
+        int chunkZ() {
+            return (int) Math.floor(z) >> 4;
+        }
+
+        @Override
+        long remaining() {
+            return 0;
+        }
+
+        @Override
+        boolean apply(WorldCommandBuffer buffer, long deadline) {
+            world.spawnEntity(new Location(world, x, y, z), type);
+            buffer.spawnedEntities.increment();
+            return true;
+        }
+    }
+
+    private static class FillJob extends Job {
+        final Cuboid region;
+        final Material material;
+        long cursor;
+
+        FillJob(World world, Cuboid region, Material material) {
+            super(world);
+            this.region = region;
+            this.material = material;
+        }
+
+        @Override
+        long remaining() {
+            return region.volume() - cursor;
+        }
+
+        @Override
+        boolean apply(WorldCommandBuffer buffer, long deadline) {
+            long volume = region.volume();
+            while (cursor < volume) {
+                if ((cursor % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+                    return false;
+                }
+                world.getBlockAt(region.x(cursor), region.y(cursor), region.z(cursor)).setType(material, false);
+                buffer.blockApplied();
+                cursor++;
+            }
+            return true;
+        }
+    }
+
+    private static class CloneJob extends Job {
+        final Cuboid region;
+        final int dx, dy, dz;
+        final List<Cuboid> parts;
+        BlockData[] snapshot;
+        boolean writing;
+        int part;
+        long cursor;
+        int index;
+
+        CloneJob(World world, Cuboid region, int dx, int dy, int dz) {
+            super(world);
+            this.region = region;
+            this.dx = dx;
+            this.dy = dy;
+            this.dz = dz;
+            this.parts = region.splitByChunk();
+        }
+
+        @Override
+        long remaining() {
+            return region.volume();
+        }
+
+        @Override
+        boolean apply(WorldCommandBuffer buffer, long deadline) {
+            if (snapshot == null) {
+                snapshot = new BlockData[(int) region.volume()];
+            }
+            // Snapshot the whole source first so overlapping clones stay correct
+            while (part < parts.size()) {
+                Cuboid current = parts.get(part);
+                long volume = current.volume();
+                while (cursor < volume) {
+                    if ((cursor % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+                        return false;
+                    }
+                    int x = current.x(cursor), y = current.y(cursor), z = current.z(cursor);
+                    if (writing) {
+                        world.getBlockAt(x + dx, y + dy, z + dz).setBlockData(snapshot[index], false);
+                        buffer.blockApplied();
+                    } else {
+                        snapshot[index] = world.getBlockAt(x, y, z).getBlockData();
+                    }
+                    index++;
+                    cursor++;
+                }
+                part++;
+                cursor = 0;
+                if (part == parts.size() && !writing) {
+                    writing = true;
+                    part = 0;
+                    index = 0;
+                }
+            }
+            snapshot = null;
+            return true;
+        }
+    }
+
+    /**
+     * Inclusive block region with linear (y, z, x) cursor decoding
+     */
+    static class Cuboid {
+        final int minX, minY, minZ, maxX, maxY, maxZ;
+        final int sizeX, sizeZ;
+
+        Cuboid(int x1, int y1, int z1, int x2, int y2, int z2) {
+            this.minX = Math.min(x1, x2);
+            this.minY = Math.min(y1, y2);
+            this.minZ = Math.min(z1, z2);
+            this.maxX = Math.max(x1, x2);
+            this.maxY = Math.max(y1, y2);
+            this.maxZ = Math.max(z1, z2);
+            this.sizeX = maxX - minX + 1;
+            this.sizeZ = maxZ - minZ + 1;
+        }
+
+        long volume() {
+            return (long) sizeX * sizeZ * (maxY - minY + 1);
+        }
+
+        int x(long i) {
+            return minX + (int) (i % sizeX);
+        }
+
+        int z(long i) {
+            return minZ + (int) ((i / sizeX) % sizeZ);
+        }
+
+        int y(long i) {
+            return minY + (int) (i / ((long) sizeX * sizeZ));
+        }
+
+        /**
+         * Split into sub-regions that each lie within one chunk column
+         */
+        List<Cuboid> splitByChunk() {
+            List<Cuboid> parts = new ArrayList<>();
+            for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+                for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                    parts.add(new Cuboid(
+                        Math.max(minX, cx << 4), minY, Math.max(minZ, cz << 4),
+                        Math.min(maxX, (cx << 4) + 15), maxY, Math.min(maxZ, (cz << 4) + 15)));
+                }
+            }
+            return parts;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package lxxv.shared.collection;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * Test keys shaped like packed block positions
+ */
+final class Keys {
+
+    private Keys() {
+    }
+
+    /**
+     * A position in a small area around the origin: neighbouring keys share most bits,
+     * so probe runs collide and removals shift entries back
+     */
+    static long packed(Random random) {
+        long x = random.nextInt(40) - 20;
+        long y = random.nextInt(8);
+        long z = random.nextInt(40) - 20;
+        return (x & 0x3FFFFFF) << 38 | (z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+    }
+
+    static long[] sorted(long[] keys) {
+        long[] copy = keys.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    static long[] sorted(Collection<Long> keys) {
+        return keys.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+}
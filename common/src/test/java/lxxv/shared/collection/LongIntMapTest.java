@@ -0,0 +1,78 @@
+package lxxv.shared.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntMapTest {
+    private static final int NONE = -1;
+
+    @Test
+    void missingValueIsTheCallers() {
+        LongIntMap map = new LongIntMap();
+        assertEquals(NONE, map.get(7, NONE));
+        assertEquals(NONE, map.put(7, 0, NONE));
+        assertEquals(0, map.get(7, NONE));
+        assertEquals(0, map.put(7, 3, NONE));
+        assertEquals(3, map.remove(7, NONE));
+        assertEquals(NONE, map.remove(7, NONE));
+        assertFalse(map.containsKey(7));
+    }
+
+    @Test
+    void growsFromTheSmallestTable() {
+        LongIntMap map = new LongIntMap();
+        for (int i = 0; i < 100_000; i++) {
+            map.put(i * 31L - 50_000, i, NONE);
+        }
+        assertEquals(100_000, map.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, map.get(i * 31L - 50_000, NONE));
+        }
+        for (int i = 0; i < 100_000; i += 2) {
+            assertEquals(i, map.remove(i * 31L - 50_000, NONE));
+        }
+        assertEquals(50_000, map.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i % 2 == 0 ? NONE : i, map.get(i * 31L - 50_000, NONE));
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(5);
+        LongIntMap map = new LongIntMap(4);
+        Map<Long, Integer> model = new HashMap<>();
+        for (int step = 0; step < 300_000; step++) {
+            long key = Keys.packed(random);
+            int action = random.nextInt(10);
+            if (action < 4) {
+                assertEquals(model.getOrDefault(key, NONE), map.get(key, NONE));
+                assertEquals(model.containsKey(key), map.containsKey(key));
+            } else if (action < 7) {
+                int value = random.nextInt(1000);
+                Integer previous = model.put(key, value);
+                assertEquals(previous != null ? previous : NONE, map.put(key, value, NONE));
+            } else {
+                Integer removed = model.remove(key);
+                assertEquals(removed != null ? removed : NONE, map.remove(key, NONE));
+            }
+            assertEquals(model.size(), map.size());
+
+            if (step % 50_000 == 0) {
+                for (Map.Entry<Long, Integer> entry : model.entrySet()) {
+                    assertEquals(entry.getValue(), map.get(entry.getKey(), NONE));
+                }
+                assertArrayEquals(Keys.sorted(model.keySet()), Keys.sorted(map.keys()));
+            }
+        }
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(NONE, map.get(Keys.packed(random), NONE));
+    }
+}
@@ -0,0 +1,79 @@
+package lxxv.shared.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+    @Test
+    void putGetRemove() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.put(5, "a"));
+        assertEquals("a", map.put(5, "b"));
+        assertEquals("b", map.get(5));
+        assertTrue(map.containsKey(5));
+        assertNull(map.get(6));
+        assertEquals(1, map.size());
+
+        assertEquals("b", map.remove(5));
+        assertNull(map.remove(5));
+        assertTrue(map.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+
+    @Test
+    void everyLongIsAKey() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        for (long key : new long[] {0, -1, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            assertNull(map.put(key, Long.toString(key)));
+        }
+        for (long key : new long[] {0, -1, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            assertEquals(Long.toString(key), map.remove(key));
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(3);
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> model = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            // Packed positions of a small area, so probe runs collide and removals shift entries back
+            long key = Keys.packed(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(model.remove(key), map.remove(key));
+            } else {
+                long value = random.nextLong();
+                assertEquals(model.put(key, value), map.put(key, value));
+            }
+
+            if (step % 10_000 == 0) {
+                assertMatches(model, map);
+            }
+        }
+        assertMatches(model, map);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.keys().length);
+        assertFalse(map.values().iterator().hasNext());
+    }
+
+    private static void assertMatches(Map<Long, Long> model, LongObjectMap<Long> map) {
+        assertEquals(model.size(), map.size());
+        for (Map.Entry<Long, Long> entry : model.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+
+        Map<Long, Long> iterated = new HashMap<>();
+        map.forEach((key, value) -> assertNull(iterated.put(key, value)));
+        assertEquals(model, iterated);
+        assertEquals(model.size(), map.valueList().size());
+
+        assertArrayEquals(Keys.sorted(model.keySet()), Keys.sorted(map.keys()));
+    }
+}
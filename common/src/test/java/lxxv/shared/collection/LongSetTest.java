@@ -0,0 +1,57 @@
+package lxxv.shared.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongSetTest {
+
+    @Test
+    void matchesHashSetUnderRandomOperations() {
+        Random random = new Random(7);
+        LongSet set = new LongSet();
+        Set<Long> model = new HashSet<>();
+        for (int step = 0; step < 300_000; step++) {
+            long key = Keys.packed(random);
+            int action = random.nextInt(10);
+            if (action < 4) {
+                assertEquals(model.contains(key), set.contains(key));
+            } else if (action < 7) {
+                assertEquals(model.add(key), set.add(key));
+            } else {
+                assertEquals(model.remove(key), set.remove(key));
+            }
+            assertEquals(model.size(), set.size());
+
+            if (step % 50_000 == 0) {
+                Set<Long> iterated = new HashSet<>();
+                set.forEach(value -> assertTrue(iterated.add(value)));
+                assertEquals(model, iterated);
+                assertArrayEquals(Keys.sorted(model), Keys.sorted(set.toArray()));
+            }
+        }
+    }
+
+    @Test
+    void addAllAndClear() {
+        LongSet a = new LongSet();
+        LongSet b = new LongSet(1000);
+        for (long i = 0; i < 1000; i++) {
+            a.add(i);
+            b.add(i + 500);
+        }
+        a.addAll(b);
+        assertEquals(1500, a.size());
+        assertTrue(a.contains(1499));
+
+        a.clear();
+        assertTrue(a.isEmpty());
+        assertFalse(a.contains(0));
+        assertEquals(0, a.toArray().length);
+        assertTrue(a.add(0));
+    }
+}
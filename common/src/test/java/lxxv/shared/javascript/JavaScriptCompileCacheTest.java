@@ -0,0 +1,68 @@
+package lxxv.shared.javascript;
+
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import com.caoccao.javet.values.V8Value;
+import com.caoccao.javet.values.primitive.V8ValueInteger;
+import com.caoccao.javet.values.reference.V8Script;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaScriptCompileCacheTest {
+    private JavaScriptCompileCache cache;
+    private V8Runtime first;
+    private V8Runtime second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Every source maps to the same key
+        cache = new JavaScriptCompileCache(16, 16, source -> 42L);
+        first = V8Host.getV8Instance().createV8Runtime();
+        second = V8Host.getV8Instance().createV8Runtime();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        cache.close();
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void collidingSourcesNeverShareCompiledScripts() throws Exception {
+        assertEquals(2, run(first, "1 + 1"));
+        // Replaces the shared entry for the key
+        assertEquals(4, run(second, "2 + 2"));
+
+        // The first runtime still holds the script compiled for the old source
+        assertEquals(4, run(first, "2 + 2"));
+        assertEquals(2, run(first, "1 + 1"));
+        assertEquals(4, run(second, "2 + 2"));
+        assertEquals(0, cache.getHits());
+        assertEquals(5, cache.getMisses());
+
+        assertEquals(4, run(second, "2 + 2"));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void repeatedSourceIsCompiledOncePerRuntime() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(3, run(first, "1 + 2"));
+            assertEquals(3, run(second, "1 + 2"));
+        }
+        assertEquals(2, cache.getMisses());
+        assertEquals(4, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    private int run(V8Runtime runtime, String source) throws Exception {
+        V8Script script = cache.getScript(runtime, source, null);
+        try (V8Value result = script.execute()) {
+            return ((V8ValueInteger) result).getValue();
+        }
+    }
+}
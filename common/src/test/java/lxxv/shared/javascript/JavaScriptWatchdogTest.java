@@ -0,0 +1,69 @@
+package lxxv.shared.javascript;
+
+import com.caoccao.javet.exceptions.JavetException;
+import com.caoccao.javet.interop.V8Host;
+import com.caoccao.javet.interop.V8Runtime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaScriptWatchdogTest {
+    // Keeps about 64 MB reachable and never calls into Java
+    private static final String ALLOCATE = "const keep = [];"
+        + " for (let i = 0; i < 1024; i++) { keep.push(new Array(16384).fill(i)); }"
+        + " keep.length";
+
+    private JavaScriptWatchdog watchdog;
+    private V8Runtime runtime;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        watchdog = new JavaScriptWatchdog();
+        runtime = V8Host.getV8Instance().createV8Runtime();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        watchdog.shutdown();
+        runtime.close();
+    }
+
+    @Test
+    void allocationWithoutHostCallsIsTerminated() {
+        JavaScriptWatchdog.Execution execution = watchdog.begin("alloc", runtime,
+            new JavaScriptBudget(0, 16L * 1024 * 1024, 0));
+        try {
+            assertThrows(JavetException.class, () -> runtime.getExecutor(ALLOCATE).executeInteger());
+        } finally {
+            watchdog.end(execution);
+        }
+        assertTrue(execution.isTerminated());
+        assertTrue(execution.getTerminationReason().startsWith("heap budget exceeded"));
+        assertEquals(0, execution.getHostCalls());
+    }
+
+    @Test
+    void scriptWithinBudgetCompletes() throws Exception {
+        JavaScriptWatchdog.Execution execution = watchdog.begin("small", runtime,
+            new JavaScriptBudget(0, 512L * 1024 * 1024, 0));
+        try {
+            assertEquals(1024, runtime.getExecutor(ALLOCATE).executeInteger());
+        } finally {
+            watchdog.end(execution);
+        }
+        assertFalse(execution.isTerminated());
+    }
+
+    @Test
+    void heapCheckIsRemovedWhenTheExecutionEnds() throws Exception {
+        JavaScriptWatchdog.Execution execution = watchdog.begin("first", runtime,
+            new JavaScriptBudget(0, 16L * 1024 * 1024, 0));
+        watchdog.end(execution);
+
+        // Same runtime, no budget: the old heap limit must not apply any more
+        assertEquals(1024, runtime.getExecutor(ALLOCATE).executeInteger());
+        assertFalse(execution.isTerminated());
+    }
+}
@@ -0,0 +1,140 @@
+package lxxv.shared.javascript.advanced;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaScriptEventBusTest {
+    private JavaScriptEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    void listenersRunByPriorityThenRegistrationOrder() {
+        bus = new JavaScriptEventBus(1, 16, JavaScriptEventBus.Backpressure.DROP);
+        JavaScriptEventBus.EventType<String> type = bus.register("test", String.class);
+        List<String> calls = new ArrayList<>();
+        bus.subscribe(type, e -> calls.add("normal1"));
+        bus.subscribe(type, e -> calls.add("monitor"), JavaScriptEventBus.Priority.MONITOR);
+        bus.subscribe(type, e -> calls.add("lowest"), JavaScriptEventBus.Priority.LOWEST);
+        bus.subscribe(type, e -> calls.add("normal2"));
+
+        bus.post(type, "x");
+        assertEquals(List.of("lowest", "normal1", "normal2", "monitor"), calls);
+    }
+
+    @Test
+    void registerInternsNamesAndChecksPayload() {
+        bus = new JavaScriptEventBus(1, 16, JavaScriptEventBus.Backpressure.DROP);
+        JavaScriptEventBus.EventType<String> a = bus.register("a", String.class);
+        assertSame(a, bus.register("a", String.class));
+        assertNotEquals(a.getId(), bus.register("b", String.class).getId());
+        assertThrows(IllegalArgumentException.class, () -> bus.register("a", Integer.class));
+    }
+
+    @Test
+    void unsubscribeRemovesOnlyThatKey() {
+        bus = new JavaScriptEventBus(1, 16, JavaScriptEventBus.Backpressure.DROP);
+        JavaScriptEventBus.EventType<String> type = bus.register("test", String.class);
+        List<String> calls = new ArrayList<>();
+        JavaScriptEventBus.EventListener<String> first = e -> calls.add("first");
+        bus.subscribe(type, first);
+        bus.subscribe(type, e -> calls.add("second"));
+
+        assertTrue(bus.unsubscribe(type, first));
+        assertFalse(bus.unsubscribe(type, first));
+        bus.post(type, "x");
+        assertEquals(List.of("second"), calls);
+        assertEquals(1, bus.getListenerCount(type));
+    }
+
+    @Test
+    void handleAndNameEmitsReachTheSameListeners() {
+        JavaScriptEventSystem events = new JavaScriptEventSystem(new JavaScriptEventBus(1, 16, JavaScriptEventBus.Backpressure.DROP));
+        bus = events.getBus();
+        List<Object> received = new ArrayList<>();
+        events.addEventListener("score", args -> received.add(args[0]));
+
+        events.emit("score", 1);
+        events.emit(events.event("score"), new Object[] {2});
+        events.emit("unknown", 3);
+        assertEquals(List.of(1, 2), received);
+    }
+
+    @Test
+    void dropRejectsWhenQueueIsFull() throws Exception {
+        bus = new JavaScriptEventBus(1, 1, JavaScriptEventBus.Backpressure.DROP);
+        CountDownLatch release = blockWorker();
+        JavaScriptEventBus.EventType<Integer> type = bus.register("value", Integer.class);
+        bus.subscribe(type, v -> { });
+
+        assertTrue(bus.postAsync(type, 1));
+        assertFalse(bus.postAsync(type, 2));
+        release.countDown();
+        assertEquals(1L, bus.getMetrics().get("dropped"));
+    }
+
+    @Test
+    void coalesceKeepsEveryEventWhileQueueHasRoom() throws Exception {
+        bus = new JavaScriptEventBus(1, 16, JavaScriptEventBus.Backpressure.COALESCE);
+        CountDownLatch release = blockWorker();
+        JavaScriptEventBus.EventType<Integer> type = bus.register("value", Integer.class);
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(type, received::add);
+
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(bus.postAsync(type, i));
+        }
+        release.countDown();
+        bus.shutdown();
+        assertEquals(List.of(1, 2, 3, 4, 5), received);
+        assertEquals(0L, bus.getMetrics().get("coalesced"));
+    }
+
+    @Test
+    void coalesceKeepsLatestPayloadUnderPressure() throws Exception {
+        bus = new JavaScriptEventBus(1, 1, JavaScriptEventBus.Backpressure.COALESCE);
+        CountDownLatch release = blockWorker();
+        JavaScriptEventBus.EventType<Integer> type = bus.register("value", Integer.class);
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(type, received::add);
+
+        // 1 takes the only queue slot, 2..4 collapse into the latest
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(bus.postAsync(type, i));
+        }
+        release.countDown();
+        bus.shutdown();
+        assertEquals(List.of(1, 4), received);
+        assertEquals(2L, bus.getMetrics().get("coalesced"));
+        assertEquals(0L, bus.getMetrics().get("dropped"));
+    }
+
+    /**
+     * Occupy the single async worker until the returned latch is released
+     */
+    private CountDownLatch blockWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JavaScriptEventBus.EventType<String> blocker = bus.register("blocker", String.class);
+        bus.subscribe(blocker, e -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        });
+        bus.postAsync(blocker, "block");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+}
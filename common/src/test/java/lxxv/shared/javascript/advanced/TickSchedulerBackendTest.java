@@ -0,0 +1,125 @@
+package lxxv.shared.javascript.advanced;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickSchedulerBackendTest {
+    private TickSchedulerBackend backend;
+    private JavaScriptScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // Large budget so no callback carries over to the next tick
+        backend = new TickSchedulerBackend(1_000_000L);
+        scheduler = new JavaScriptScheduler(backend);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void timeoutsFireOnTheirTickAcrossAllLevels() {
+        // Delays around every level boundary (64, 64^2, 64^3) and past the wheel span
+        long[] delays = {1, 2, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262_143, 262_144, 262_145,
+            16_777_215, 16_777_216, 16_777_300};
+        long[] firedAt = new long[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            int index = i;
+            scheduler.setTimeout(() -> firedAt[index] = backend.getCurrentTick(),
+                delays[i] * TickSchedulerBackend.MILLIS_PER_TICK);
+        }
+
+        long last = delays[delays.length - 1];
+        for (long tick = 0; tick < last + 10; tick++) {
+            backend.tick();
+        }
+
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals(delays[i], firedAt[i], "delay " + delays[i]);
+        }
+        assertTrue(scheduler.getActiveTasks().isEmpty());
+    }
+
+    @Test
+    void timeoutScheduledLaterCountsFromCurrentTick() {
+        for (int i = 0; i < 1000; i++) {
+            backend.tick();
+        }
+        long[] firedAt = {-1};
+        scheduler.setTimeout(() -> firedAt[0] = backend.getCurrentTick(), 100 * TickSchedulerBackend.MILLIS_PER_TICK);
+
+        for (int i = 0; i < 200; i++) {
+            backend.tick();
+        }
+        assertEquals(1100, firedAt[0]);
+    }
+
+    @Test
+    void delaysRoundUpToWholeTicks() {
+        long[] firedAt = {-1, -1};
+        scheduler.setTimeout(() -> firedAt[0] = backend.getCurrentTick(), 0);
+        scheduler.setTimeout(() -> firedAt[1] = backend.getCurrentTick(), 51);
+
+        for (int i = 0; i < 5; i++) {
+            backend.tick();
+        }
+        assertEquals(1, firedAt[0]);
+        assertEquals(2, firedAt[1]);
+    }
+
+    @Test
+    void intervalRunsEveryPeriodUntilCleared() {
+        List<Long> runs = new ArrayList<>();
+        long id = scheduler.setInterval(() -> runs.add(backend.getCurrentTick()), 3 * TickSchedulerBackend.MILLIS_PER_TICK);
+
+        for (int i = 0; i < 10; i++) {
+            backend.tick();
+        }
+        assertEquals(List.of(3L, 6L, 9L), runs);
+
+        assertTrue(scheduler.clearInterval(id));
+        for (int i = 0; i < 10; i++) {
+            backend.tick();
+        }
+        assertEquals(3, runs.size());
+        assertTrue(scheduler.getActiveTasks().isEmpty());
+    }
+
+    @Test
+    void clearedTimeoutNeverRuns() {
+        int[] runs = {0};
+        long id = scheduler.setTimeout(() -> runs[0]++, 5000 * TickSchedulerBackend.MILLIS_PER_TICK);
+
+        for (int i = 0; i < 100; i++) {
+            backend.tick();
+        }
+        assertTrue(scheduler.clearTimeout(id));
+        for (int i = 0; i < 5000; i++) {
+            backend.tick();
+        }
+        assertEquals(0, runs[0]);
+        assertFalse(scheduler.clearTimeout(id));
+    }
+
+    @Test
+    void failingCallbackDoesNotStopInterval() {
+        int[] runs = {0};
+        scheduler.setInterval(() -> {
+            runs[0]++;
+            throw new IllegalStateException("boom");
+        }, TickSchedulerBackend.MILLIS_PER_TICK);
+
+        for (int i = 0; i < 5; i++) {
+            backend.tick();
+        }
+        assertEquals(5, runs[0]);
+    }
+}
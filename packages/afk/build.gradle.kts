@@ -12,6 +12,11 @@ dependencies {
     
     // Shared database library
     implementation(project(":common"))
+    
+    // Tests
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testImplementation("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks.withType<JavaCompile> {
@@ -22,3 +27,7 @@ tasks.jar {
     archiveBaseName.set("afk")
     archiveVersion.set("1.0.0")
 }
+
+tasks.test {
+    useJUnitPlatform()
+}
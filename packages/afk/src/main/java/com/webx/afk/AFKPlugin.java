@@ -1,28 +1,23 @@
 package com.webx.afk;
 
+import com.webx.afk.events.PlayerAFKEvent;
 import com.webx.afk.managers.AFKManager;
+import com.webx.afk.tasks.AFKCheckTask;
+import com.webx.afk.utils.EventRegistry;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerMoveEvent;
-import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
 public class AFKPlugin extends JavaPlugin implements Listener {
     private static AFKPlugin instance;
-    private Map<UUID, Long> lastActivity = new HashMap<>();
-    private Map<UUID, Boolean> afkStatus = new HashMap<>();
     
     private long afkTimeoutMillis;
     private String afkPrefix;
     private String afkSuffix;
     private AFKManager afkManager;
-
+    
     @Override
     public void onEnable() {
         instance = this;
@@ -31,58 +26,36 @@ public class AFKPlugin extends JavaPlugin implements Listener {
         afkTimeoutMillis = getConfig().getLong("afk-timeout-minutes", 5) * 60 * 1000;
         afkPrefix = getConfig().getString("afk-prefix", "&7[AFK] &r");
         afkSuffix = getConfig().getString("afk-suffix", " &7(AFK)");
+        boolean poolDetection = getConfig().getBoolean("afk-pool-detection.enabled", true);
+        long sampleTicks = Math.max(1, getConfig().getLong("afk-pool-detection.sample-interval-seconds", 5)) * 20;
+        double poolRadius = getConfig().getDouble("afk-pool-detection.radius", 3.0);
+        int poolSamples = getConfig().getInt("afk-pool-detection.samples", 12);
         
         // Initialize manager
-        afkManager = new AFKManager(afkTimeoutMillis);
+        afkManager = new AFKManager(afkTimeoutMillis, poolRadius, poolDetection ? poolSamples : 0);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            afkManager.addPlayer(player.getUniqueId());
+        }
         
         getServer().getPluginManager().registerEvents(this, this);
+        new EventRegistry(this).registerListeners(this);
         
-        // Проверка AFK каждую минуту
-        Bukkit.getScheduler().scheduleSyncRepeatingTask(this, this::checkAFKPlayers, 60, 1200);
+        // Проверка AFK каждую секунду: только игроки, у которых истёк таймаут
+        new AFKCheckTask(this).runTaskTimer(this, 20L, 20L);
+        if (poolDetection) {
+            Bukkit.getScheduler().runTaskTimer(this, afkManager::samplePositions, sampleTicks, sampleTicks);
+        }
         
         getLogger().info("AFK Plugin enabled!");
     }
-
-    @EventHandler
-    public void onPlayerMove(PlayerMoveEvent event) {
-        Player player = event.getPlayer();
-        UUID uuid = player.getUniqueId();
-        
-        // Обновляем время последней активности при движении
-        lastActivity.put(uuid, System.currentTimeMillis());
-        
-        // Снимаем AFK статус если игрок был AFK
-        if (afkStatus.getOrDefault(uuid, false)) {
-            afkStatus.put(uuid, false);
-            broadcastAFKStatus(player, false);
-        }
-    }
     
     @EventHandler
-    public void onPlayerQuit(PlayerQuitEvent event) {
-        UUID uuid = event.getPlayer().getUniqueId();
-        lastActivity.remove(uuid);
-        afkStatus.remove(uuid);
-    }
-    
-    private void checkAFKPlayers() {
-        long now = System.currentTimeMillis();
-        
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            UUID uuid = player.getUniqueId();
-            long lastActive = lastActivity.getOrDefault(uuid, now);
-            boolean isAFK = afkStatus.getOrDefault(uuid, false);
-            
-            if (now - lastActive > afkTimeoutMillis && !isAFK) {
-                // Игрок стал AFK
-                afkStatus.put(uuid, true);
-                broadcastAFKStatus(player, true);
-            }
-        }
+    public void onPlayerAFK(PlayerAFKEvent event) {
+        broadcastAFKStatus(event.getPlayer(), event.isAFK());
     }
     
     private void broadcastAFKStatus(Player player, boolean afk) {
-        String message = afk 
+        String message = afk
             ? afkPrefix + player.getName() + afkSuffix + " &7is now AFK"
             : "&7" + player.getName() + " &ris back!";
         
@@ -98,7 +71,7 @@ public class AFKPlugin extends JavaPlugin implements Listener {
     }
     
     public boolean isAFK(Player player) {
-        return afkStatus.getOrDefault(player.getUniqueId(), false);
+        return afkManager.isAFK(player.getUniqueId());
     }
     
     public AFKManager getAFKManager() {
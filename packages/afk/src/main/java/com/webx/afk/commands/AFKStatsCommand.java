@@ -18,7 +18,7 @@ public class AFKStatsCommand implements CommandExecutor {
         if (!(sender instanceof Player)) return true;
         
         Player player = (Player) sender;
-        var afkPlayer = plugin.getAFKManager().getAFKPlayers().get(player.getUniqueId());
+        var afkPlayer = plugin.getAFKManager().getAFKPlayer(player.getUniqueId());
         
         if (afkPlayer == null) {
             player.sendMessage("§cNo AFK data found!");
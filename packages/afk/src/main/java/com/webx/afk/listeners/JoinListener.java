@@ -14,6 +14,6 @@ public class JoinListener implements Listener {
     
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        plugin.getAFKManager().updateActivity(event.getPlayer().getUniqueId());
+        plugin.getAFKManager().addPlayer(event.getPlayer().getUniqueId());
     }
 }
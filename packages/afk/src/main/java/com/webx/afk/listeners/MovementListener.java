@@ -1,7 +1,9 @@
 package com.webx.afk.listeners;
 
 import com.webx.afk.AFKPlugin;
+import org.bukkit.Location;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
 
@@ -12,10 +14,15 @@ public class MovementListener implements Listener {
         this.plugin = plugin;
     }
     
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerMove(PlayerMoveEvent event) {
-        if (event.getFrom().getBlock() != event.getTo().getBlock()) {
-            plugin.getAFKManager().updateActivity(event.getPlayer().getUniqueId());
+        // Compare coordinates, not getBlock(): Block objects are new each call and never identical
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        boolean rotated = from.getYaw() != to.getYaw() || from.getPitch() != to.getPitch();
+        if (rotated || from.getBlockX() != to.getBlockX() || from.getBlockY() != to.getBlockY()
+                || from.getBlockZ() != to.getBlockZ()) {
+            plugin.getAFKManager().updateMovement(event.getPlayer().getUniqueId(), rotated);
         }
     }
 }
@@ -1,27 +1,108 @@
 package com.webx.afk.managers;
 
+import com.webx.afk.events.PlayerAFKEvent;
 import com.webx.afk.models.AFKPlayer;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
 
+/**
+ * Activity only writes a timestamp on the player (any thread). Transitions are driven by a
+ * queue ordered by deadline (last activity + timeout): a check only pops players whose
+ * deadline has passed, re-queues them if they were active meanwhile and marks the rest AFK.
+ * Players coming back are handed to the main thread through a queue.
+ */
 public class AFKManager {
-    private final Map<UUID, AFKPlayer> afkPlayers = new HashMap<>();
+    private final Map<UUID, AFKPlayer> afkPlayers = new ConcurrentHashMap<>();
+    private final PriorityQueue<AFKPlayer> deadlines = new PriorityQueue<>(Comparator.comparingLong(AFKPlayer::getDeadline));
+    private final Queue<AFKPlayer> returning = new ConcurrentLinkedQueue<>();
     private final long afkTimeoutMillis;
+    private final double poolRadius;
+    private final int poolSamples;
+    private final LongSupplier clock;
+    private final BiConsumer<UUID, Boolean> events; // AFK transitions, main thread
+    private int afkCount;
     
     public AFKManager(long afkTimeoutMillis) {
+        this(afkTimeoutMillis, 0, 0);
+    }
+    
+    /**
+     * @param poolSamples consecutive position samples before movement stops counting, 0 disables pool detection
+     */
+    public AFKManager(long afkTimeoutMillis, double poolRadius, int poolSamples) {
+        this(afkTimeoutMillis, poolRadius, poolSamples, System::currentTimeMillis, AFKManager::callEvent);
+    }
+    
+    AFKManager(long afkTimeoutMillis, double poolRadius, int poolSamples, LongSupplier clock,
+               BiConsumer<UUID, Boolean> events) {
         this.afkTimeoutMillis = afkTimeoutMillis;
+        this.poolRadius = poolRadius;
+        this.poolSamples = poolSamples;
+        this.clock = clock;
+        this.events = events;
+    }
+    
+    /**
+     * Start tracking a player (main thread, on join)
+     */
+    public void addPlayer(UUID uuid) {
+        AFKPlayer player = afkPlayers.computeIfAbsent(uuid, AFKPlayer::new);
+        player.touch(clock.getAsLong());
+        schedule(player);
     }
     
+    /**
+     * Chat, interaction, combat... Any thread
+     */
     public void updateActivity(UUID uuid) {
-        afkPlayers.computeIfAbsent(uuid, k -> new AFKPlayer(uuid)).updateActivity();
+        AFKPlayer player = afkPlayers.get(uuid);
+        if (player != null) {
+            if (player.isMovementIgnored()) {
+                player.clearMovementIgnored();
+            }
+            touch(player);
+        }
+    }
+    
+    /**
+     * Movement; ignored for players that look like they are in an AFK pool unless they turned
+     */
+    public void updateMovement(UUID uuid, boolean rotated) {
+        AFKPlayer player = afkPlayers.get(uuid);
+        if (player == null) {
+            return;
+        }
+        if (player.isMovementIgnored()) {
+            if (!rotated) return;
+            player.clearMovementIgnored();
+        }
+        touch(player);
+    }
+    
+    private void touch(AFKPlayer player) {
+        player.touch(clock.getAsLong());
+        if (player.isAFK() && player.markReturnPending()) {
+            returning.add(player);
+        }
     }
     
     public void setAFK(UUID uuid, boolean afk) {
         AFKPlayer player = afkPlayers.get(uuid);
-        if (player != null) {
-            player.setAFK(afk);
+        if (player == null || player.isAFK() == afk) {
+            return;
+        }
+        if (afk) {
+            markAFK(player);
+        } else {
+            player.touch(clock.getAsLong());
+            markActive(player);
         }
     }
     
@@ -30,25 +111,96 @@ public class AFKManager {
         return player != null && player.isAFK();
     }
     
+    public AFKPlayer getAFKPlayer(UUID uuid) {
+        return afkPlayers.get(uuid);
+    }
+    
     public Map<UUID, AFKPlayer> getAFKPlayers() {
         return new HashMap<>(afkPlayers);
     }
     
+    /**
+     * Apply pending transitions (main thread). Touches returning players and players whose
+     * deadline passed, not everyone online.
+     */
     public void checkAFKStatus() {
-        long now = System.currentTimeMillis();
+        AFKPlayer player;
+        while ((player = returning.poll()) != null) {
+            player.clearReturnPending();
+            if (player.isAFK() && afkPlayers.get(player.getUUID()) == player) {
+                markActive(player);
+            }
+        }
         
-        for (AFKPlayer afkPlayer : afkPlayers.values()) {
-            if (!afkPlayer.isAFK() && now - afkPlayer.getLastActivity() > afkTimeoutMillis) {
-                afkPlayer.setAFK(true);
+        long now = clock.getAsLong();
+        while ((player = deadlines.peek()) != null && player.getDeadline() <= now) {
+            deadlines.poll();
+            player.setQueued(false);
+            if (player.isAFK() || afkPlayers.get(player.getUUID()) != player) {
+                continue;
             }
+            
+            if (player.getLastActivity() + afkTimeoutMillis > now) {
+                schedule(player); // Active since it was queued
+            } else {
+                markAFK(player);
+            }
+        }
+    }
+    
+    /**
+     * Feed current positions to the AFK pool heuristic (main thread, every sample interval)
+     */
+    public void samplePositions() {
+        if (poolSamples <= 0) return;
+        
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            AFKPlayer player = afkPlayers.get(online.getUniqueId());
+            if (player == null || player.isAFK()) continue;
+            
+            Location location = online.getLocation();
+            player.sample(location.getX(), location.getY(), location.getZ(),
+                    location.getYaw(), location.getPitch(), poolRadius, poolSamples);
+        }
+    }
+    
+    private void schedule(AFKPlayer player) {
+        // An entry already queued re-reads the last activity when it comes due
+        if (player.isQueued()) return;
+        
+        player.setDeadline(player.getLastActivity() + afkTimeoutMillis);
+        player.setQueued(true);
+        deadlines.add(player);
+    }
+    
+    private void markAFK(AFKPlayer player) {
+        player.setAFK(true);
+        afkCount++;
+        events.accept(player.getUUID(), true);
+    }
+    
+    private void markActive(AFKPlayer player) {
+        player.setAFK(false);
+        afkCount--;
+        schedule(player);
+        events.accept(player.getUUID(), false);
+    }
+    
+    private static void callEvent(UUID uuid, boolean afk) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null) {
+            Bukkit.getPluginManager().callEvent(new PlayerAFKEvent(player, afk));
         }
     }
     
     public void removePlayer(UUID uuid) {
-        afkPlayers.remove(uuid);
+        AFKPlayer player = afkPlayers.remove(uuid);
+        if (player != null && player.isAFK()) {
+            afkCount--;
+        }
     }
     
     public int getAFKCount() {
-        return (int) afkPlayers.values().stream().filter(AFKPlayer::isAFK).count();
+        return afkCount;
     }
 }
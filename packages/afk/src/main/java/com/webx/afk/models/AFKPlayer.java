@@ -1,14 +1,30 @@
 package com.webx.afk.models;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class AFKPlayer {
+    // Activity closer together than this is not written again
+    private static final long ACTIVITY_RESOLUTION_MILLIS = 1000;
+    
     private final UUID uuid;
-    private long lastActivity;
-    private boolean isAFK;
+    private volatile long lastActivity;
+    private volatile boolean isAFK;
     private long afkSince;
     private int afkCounter;
     
+    // Deadline queue state (main thread only, see AFKManager)
+    private long deadline;
+    private boolean queued;
+    private final AtomicBoolean returnPending = new AtomicBoolean();
+    
+    // AFK pool detection from sampled positions
+    private volatile boolean movementIgnored;
+    private volatile boolean streakResetPending; // Activity seen off the main thread
+    private double anchorX, anchorY, anchorZ;
+    private float sampleYaw, samplePitch;
+    private int poolSamples;
+    
     public AFKPlayer(UUID uuid) {
         this.uuid = uuid;
         this.lastActivity = System.currentTimeMillis();
@@ -16,10 +32,12 @@ public class AFKPlayer {
         this.afkCounter = 0;
     }
     
-    public void updateActivity() {
-        this.lastActivity = System.currentTimeMillis();
-        if (isAFK) {
-            this.isAFK = false;
+    /**
+     * Record activity; safe from any thread and does not allocate
+     */
+    public void touch(long now) {
+        if (now - lastActivity >= ACTIVITY_RESOLUTION_MILLIS) {
+            lastActivity = now;
         }
     }
     
@@ -50,4 +68,81 @@ public class AFKPlayer {
     public int getAFKCounter() {
         return afkCounter;
     }
+    
+    public long getDeadline() {
+        return deadline;
+    }
+    
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+    
+    public boolean isQueued() {
+        return queued;
+    }
+    
+    public void setQueued(boolean queued) {
+        this.queued = queued;
+    }
+    
+    /**
+     * @return true for the first caller after the player was queued to return from AFK
+     */
+    public boolean markReturnPending() {
+        return returnPending.compareAndSet(false, true);
+    }
+    
+    public void clearReturnPending() {
+        returnPending.set(false);
+    }
+    
+    /**
+     * Movement alone no longer counts as activity (looks like an AFK pool)
+     */
+    public boolean isMovementIgnored() {
+        return movementIgnored;
+    }
+    
+    /**
+     * Movement counts again; safe from any thread. The sample streak belongs to the main
+     * thread, so it is only reset by the next sample.
+     */
+    public void clearMovementIgnored() {
+        movementIgnored = false;
+        streakResetPending = true;
+    }
+    
+    /**
+     * Feed one sampled position (main thread). A player whose view never turns while staying
+     * within radius of where the streak started is being moved around, not playing; after
+     * samplesToFlag such samples in a row their movement is ignored.
+     */
+    public void sample(double x, double y, double z, float yaw, float pitch, double radius, int samplesToFlag) {
+        // Activity elsewhere starts a new streak here, which also clears a flag set while
+        // the reset was on its way
+        boolean reset = streakResetPending;
+        if (reset) {
+            streakResetPending = false;
+        }
+        
+        double dx = x - anchorX;
+        double dy = y - anchorY;
+        double dz = z - anchorZ;
+        boolean sameView = yaw == sampleYaw && pitch == samplePitch;
+        sampleYaw = yaw;
+        samplePitch = pitch;
+        
+        if (!reset && sameView && dx * dx + dy * dy + dz * dz <= radius * radius) {
+            if (++poolSamples >= samplesToFlag) {
+                movementIgnored = true;
+            }
+            return;
+        }
+        
+        anchorX = x;
+        anchorY = y;
+        anchorZ = z;
+        poolSamples = 0;
+        movementIgnored = false;
+    }
 }
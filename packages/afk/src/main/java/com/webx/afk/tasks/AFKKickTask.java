@@ -17,7 +17,7 @@ public class AFKKickTask extends BukkitRunnable {
     @Override
     public void run() {
         for (Player player : Bukkit.getOnlinePlayers()) {
-            var afkPlayer = plugin.getAFKManager().getAFKPlayers().get(player.getUniqueId());
+            var afkPlayer = plugin.getAFKManager().getAFKPlayer(player.getUniqueId());
             if (afkPlayer != null && afkPlayer.isAFK() && afkPlayer.getAFKDuration() > kickAfterMillis) {
                 player.kickPlayer("§cKicked for being AFK too long!");
             }
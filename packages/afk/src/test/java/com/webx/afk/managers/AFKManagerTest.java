@@ -0,0 +1,157 @@
+package com.webx.afk.managers;
+
+import com.webx.afk.models.AFKPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AFKManagerTest {
+    private static final long TIMEOUT = 60_000;
+
+    private final List<String> events = new ArrayList<>();
+    private final UUID uuid = UUID.randomUUID();
+    private long now;
+    private AFKManager manager;
+
+    @BeforeEach
+    void setUp() {
+        // AFKPlayer starts from the system clock; start ahead of it so the first touch counts
+        now = System.currentTimeMillis() + 10_000;
+        manager = new AFKManager(TIMEOUT, 1.5, 3, () -> now,
+            (player, afk) -> events.add(player + (afk ? " afk" : " back")));
+    }
+
+    @Test
+    void goesAfkWhenTheDeadlinePasses() {
+        manager.addPlayer(uuid);
+        now += TIMEOUT - 1;
+        manager.checkAFKStatus();
+        assertFalse(manager.isAFK(uuid));
+
+        now += 1;
+        manager.checkAFKStatus();
+        assertTrue(manager.isAFK(uuid));
+        assertEquals(List.of(uuid + " afk"), events);
+        assertEquals(1, manager.getAFKCount());
+    }
+
+    @Test
+    void activityRequeuesThePlayer() {
+        manager.addPlayer(uuid);
+        long start = now;
+        now += TIMEOUT / 2;
+        manager.updateActivity(uuid);
+
+        // The first deadline only re-reads the activity and queues the next one
+        now = start + TIMEOUT;
+        manager.checkAFKStatus();
+        assertFalse(manager.isAFK(uuid));
+        assertEquals(start + TIMEOUT + TIMEOUT / 2, manager.getAFKPlayer(uuid).getDeadline());
+
+        now = start + TIMEOUT / 2 + TIMEOUT - 1;
+        manager.checkAFKStatus();
+        assertFalse(manager.isAFK(uuid));
+
+        now += 1;
+        manager.checkAFKStatus();
+        assertTrue(manager.isAFK(uuid));
+        assertEquals(List.of(uuid + " afk"), events);
+    }
+
+    @Test
+    void returnsFromAfkOnTheNextCheck() {
+        manager.addPlayer(uuid);
+        now += TIMEOUT;
+        manager.checkAFKStatus();
+        assertTrue(manager.isAFK(uuid));
+
+        // Chat thread: only queued, the main thread applies it
+        now += 5_000;
+        manager.updateActivity(uuid);
+        manager.updateActivity(uuid);
+        assertTrue(manager.isAFK(uuid));
+
+        manager.checkAFKStatus();
+        assertFalse(manager.isAFK(uuid));
+        assertEquals(0, manager.getAFKCount());
+        assertEquals(List.of(uuid + " afk", uuid + " back"), events);
+
+        // Back in the deadline queue from the return
+        long returned = now;
+        now = returned + TIMEOUT - 1;
+        manager.checkAFKStatus();
+        assertFalse(manager.isAFK(uuid));
+        now += 1;
+        manager.checkAFKStatus();
+        assertTrue(manager.isAFK(uuid));
+        assertEquals(List.of(uuid + " afk", uuid + " back", uuid + " afk"), events);
+    }
+
+    @Test
+    void rejoiningIgnoresTheEntriesOfTheLastSession() {
+        manager.addPlayer(uuid);
+        long start = now;
+        now += 10_000;
+        manager.removePlayer(uuid);
+        now = start + TIMEOUT - 5_000;
+        manager.addPlayer(uuid);
+
+        // The old deadline comes due for a player who is not online in that session
+        now = start + TIMEOUT;
+        manager.checkAFKStatus();
+        assertFalse(manager.isAFK(uuid));
+        assertTrue(events.isEmpty());
+
+        now = start + 2 * TIMEOUT - 5_000;
+        manager.checkAFKStatus();
+        assertTrue(manager.isAFK(uuid));
+        assertEquals(1, manager.getAFKCount());
+    }
+
+    @Test
+    void quittingWhileAfkKeepsTheCount() {
+        manager.addPlayer(uuid);
+        now += TIMEOUT;
+        manager.checkAFKStatus();
+        assertEquals(1, manager.getAFKCount());
+
+        // Activity queued just before the quit
+        now += 5_000;
+        manager.updateActivity(uuid);
+        manager.removePlayer(uuid);
+        assertEquals(0, manager.getAFKCount());
+
+        manager.addPlayer(uuid);
+        manager.checkAFKStatus();
+        assertFalse(manager.isAFK(uuid));
+        assertEquals(0, manager.getAFKCount());
+        assertEquals(List.of(uuid + " afk"), events);
+    }
+
+    @Test
+    void activityResetsThePoolStreakOnTheNextSample() {
+        manager.addPlayer(uuid);
+        AFKPlayer player = manager.getAFKPlayer(uuid);
+        for (int i = 0; i < 4; i++) {
+            player.sample(0, 64, i * 0.1, 90, 0, 1.5, 3);
+        }
+        assertTrue(player.isMovementIgnored());
+
+        now += 5_000;
+        manager.updateActivity(uuid);
+        assertFalse(player.isMovementIgnored());
+
+        // A new streak starts at the next sample and needs its full length again
+        for (int i = 0; i < 3; i++) {
+            player.sample(0, 64, 0, 90, 0, 1.5, 3);
+            assertFalse(player.isMovementIgnored());
+        }
+        player.sample(0, 64, 0, 90, 0, 1.5, 3);
+        assertTrue(player.isMovementIgnored());
+    }
+}
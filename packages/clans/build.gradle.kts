@@ -10,8 +10,16 @@ repositories {
 dependencies {
     compileOnly("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
     
+    // Balance change notifications for clan power (optional at runtime)
+    compileOnly(project(":economy"))
+    
     // Shared database library
     implementation(project(":common"))
+    
+    // Tests
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testImplementation("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks {
@@ -19,6 +27,10 @@ tasks {
         options.encoding = "UTF-8"
     }
 
+    test {
+        useJUnitPlatform()
+    }
+
     jar {
         archiveBaseName.set("clans")
         archiveVersion.set("0.1.0")
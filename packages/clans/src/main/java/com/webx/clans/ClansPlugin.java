@@ -41,18 +41,29 @@ public class ClansPlugin extends JavaPlugin {
         registerListeners();
         
         clanManager.loadClans();
+        territoryManager.loadTerritories();
         
-        // Start clan power updates
-        clanPowerManager.startUpdateTask();
+        // Rank clans by power, then follow balance changes from Economy
+        clanPowerManager.start();
+        
+        // Claims changed since the last save are written periodically, not only on shutdown
+        long autosaveTicks = Math.max(1, getConfig().getLong("clan.territory.autosave-seconds", 300)) * 20;
+        getServer().getScheduler().runTaskTimer(this, territoryManager::saveIfDirty, autosaveTicks, autosaveTicks);
         
         getLogger().info("Clans plugin enabled!");
     }
 
     @Override
     public void onDisable() {
+        if (clanPowerManager != null) {
+            clanPowerManager.stop();
+        }
         if (clanManager != null) {
             clanManager.saveClans();
         }
+        if (territoryManager != null) {
+            territoryManager.saveTerritories();
+        }
         
         getLogger().info("Clans plugin disabled!");
     }
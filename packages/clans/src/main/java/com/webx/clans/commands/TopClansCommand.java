@@ -13,7 +13,6 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -45,11 +44,8 @@ public class TopClansCommand implements CommandExecutor {
             }
         }
 
-        // Get top clans sorted by power
-        List<Clan> topClans = clanManager.getAllClans().stream()
-                .sorted(Comparator.comparingDouble(Clan::getPower).reversed())
-                .limit(limit)
-                .toList();
+        // Get top clans from the power ranking
+        List<Clan> topClans = plugin.getClanPowerManager().getTopClans(limit);
 
         if (topClans.isEmpty()) {
             sender.sendMessage(Component.text("No clans found", NamedTextColor.YELLOW));
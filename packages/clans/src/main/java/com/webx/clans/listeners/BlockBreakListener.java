@@ -14,7 +14,8 @@ public class BlockBreakListener implements Listener {
 
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
-        String claimingClan = plugin.getTerritoryManager().getClaimingClan(event.getBlock().getChunk());
+        var block = event.getBlock();
+        String claimingClan = plugin.getTerritoryManager().getClaimingClan(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
         if (claimingClan == null) return;
 
         var playerClan = plugin.getClanManager().getClanByMember(event.getPlayer().getUniqueId());
@@ -0,0 +1,42 @@
+package com.webx.clans.listeners;
+
+import com.webx.clans.managers.ClanPowerManager;
+import com.webx.economy.api.BalanceService;
+import org.bukkit.Bukkit;
+
+import java.util.UUID;
+
+/**
+ * Forwards Economy balance changes to the clan power ranking.
+ * Only create it when the Economy plugin is enabled; it is the one class that links against it.
+ */
+public class EconomyBalanceListener implements BalanceService.BalanceListener {
+    private final ClanPowerManager powerManager;
+    private final BalanceService balances;
+
+    public EconomyBalanceListener(ClanPowerManager powerManager) {
+        this.powerManager = powerManager;
+        this.balances = Bukkit.getServicesManager().load(BalanceService.class);
+        if (balances != null) {
+            balances.addListener(this);
+        }
+    }
+
+    @Override
+    public void onBalanceChange(UUID owner, double balance) {
+        powerManager.onBalanceChange(owner, balance);
+    }
+
+    /**
+     * Wallet balance, 0 for players without an account (none is created for them)
+     */
+    public double getBalance(UUID owner) {
+        return balances != null ? balances.findBalance(owner).orElse(0.0) : 0.0;
+    }
+
+    public void unregister() {
+        if (balances != null) {
+            balances.removeListener(this);
+        }
+    }
+}
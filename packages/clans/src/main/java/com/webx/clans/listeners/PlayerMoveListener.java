@@ -14,12 +14,16 @@ public class PlayerMoveListener implements Listener {
 
     @EventHandler
     public void onPlayerMove(PlayerMoveEvent event) {
-        if (event.getFrom().getBlockX() == event.getTo().getBlockX() &&
-            event.getFrom().getBlockZ() == event.getTo().getBlockZ()) {
+        // Ownership only changes at chunk borders
+        int chunkX = event.getTo().getBlockX() >> 4;
+        int chunkZ = event.getTo().getBlockZ() >> 4;
+        if (event.getFrom().getBlockX() >> 4 == chunkX &&
+            event.getFrom().getBlockZ() >> 4 == chunkZ &&
+            event.getFrom().getWorld() == event.getTo().getWorld()) {
             return;
         }
 
-        String claimingClan = plugin.getTerritoryManager().getClaimingClan(event.getTo().getChunk());
+        String claimingClan = plugin.getTerritoryManager().getClaimingClan(event.getTo().getWorld(), chunkX, chunkZ);
         // TODO: Send clan territory notifications
     }
 }
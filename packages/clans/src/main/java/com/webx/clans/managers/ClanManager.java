@@ -82,6 +82,7 @@ public class ClanManager {
 
         Clan clan = new Clan(name, leader);
         clans.put(name.toLowerCase(), clan);
+        plugin.getClanPowerManager().trackClan(clan);
         return clan;
     }
 
@@ -97,7 +98,11 @@ public class ClanManager {
     }
 
     public void deleteClan(String name) {
-        clans.remove(name.toLowerCase());
+        Clan clan = clans.remove(name.toLowerCase());
+        if (clan != null) {
+            plugin.getClanPowerManager().untrackClan(clan);
+        }
+        plugin.getTerritoryManager().unclaimAll(name);
     }
 
     public Collection<Clan> getAllClans() {
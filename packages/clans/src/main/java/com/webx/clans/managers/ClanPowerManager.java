@@ -1,109 +1,172 @@
 package com.webx.clans.managers;
 
 import com.webx.clans.ClansPlugin;
+import com.webx.clans.listeners.EconomyBalanceListener;
 import com.webx.clans.models.Clan;
 import org.bukkit.Bukkit;
-import org.bukkit.plugin.Plugin;
 
-import java.util.UUID;
+import java.util.*;
 
 /**
- * Manages clan power calculations based on member economy balances
+ * Clan power = sum of member wallet balances, kept up to date from Economy balance
+ * notifications: each change moves the member's clan by the delta and re-ranks only
+ * that clan, so top-N reads the first N entries of the ranking instead of sorting
+ * every clan. Balances are read once on start; without Economy every power stays 0.
+ * Members without an account count as 0, and reading their balance does not create one.
+ * Members must be added and removed through {@link MemberManager}.
  */
 public class ClanPowerManager {
+    private static final Comparator<Clan> BY_POWER = Comparator.comparingDouble(Clan::getPower).reversed()
+            .thenComparing(Clan::getId);
+
     private final ClansPlugin plugin;
     private final ClanManager clanManager;
+    private final Map<UUID, Double> contributions; // member -> balance counted in the clan power
+    private final Map<UUID, Clan> memberClans;
+    private final TreeSet<Clan> ranked;
+    private EconomyBalanceListener balanceListener;
+    private boolean loading;
 
     public ClanPowerManager(ClansPlugin plugin, ClanManager clanManager) {
         this.plugin = plugin;
         this.clanManager = clanManager;
+        this.contributions = new HashMap<>();
+        this.memberClans = new HashMap<>();
+        this.ranked = new TreeSet<>(BY_POWER);
     }
 
     /**
-     * Start periodic power update task (every 5 minutes)
+     * Index the loaded clans, subscribe to balance changes and read every member balance
+     * once in the background
      */
-    public void startUpdateTask() {
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-            updateAllClanPowers();
-        }, 20L * 60, 20L * 60 * 5); // Run every 5 minutes
-    }
+    public synchronized void start() {
+        contributions.clear();
+        memberClans.clear();
+        ranked.clear();
+        for (Clan clan : clanManager.getAllClans()) {
+            trackClan(clan);
+        }
 
-    /**
-     * Update power for all clans
-     */
-    public void updateAllClanPowers() {
-        Object accountManager = getAccountManager();
-        if (accountManager == null) {
-            plugin.getLogger().warning("Economy plugin not found, cannot update clan powers");
+        if (!Bukkit.getPluginManager().isPluginEnabled("Economy")) {
+            plugin.getLogger().warning("Economy plugin not found, clan power is disabled");
             return;
         }
 
-        int updated = 0;
-        for (Clan clan : clanManager.getAllClans()) {
-            double power = calculateClanPower(clan, accountManager);
-            clan.setPower(power);
-            updated++;
-        }
+        balanceListener = new EconomyBalanceListener(this);
+        loading = true;
+        List<UUID> members = new ArrayList<>(memberClans.keySet());
+        EconomyBalanceListener listener = balanceListener;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            Map<UUID, Double> balances = new HashMap<>();
+            for (UUID member : members) {
+                balances.put(member, listener.getBalance(member));
+            }
+            if (plugin.isEnabled()) {
+                // Clan members are only safe to read on the main thread
+                Bukkit.getScheduler().runTask(plugin, () -> finishLoading(balances));
+            }
+        });
+    }
 
-        plugin.getLogger().info("Updated power for " + updated + " clans");
+    public synchronized void stop() {
+        if (balanceListener != null) {
+            balanceListener.unregister();
+            balanceListener = null;
+        }
+        loading = false;
     }
 
     /**
-     * Update power for a specific clan
+     * Start ranking a clan with its current members
      */
-    public void updateClanPower(Clan clan) {
-        Object accountManager = getAccountManager();
-        if (accountManager == null) {
-            return;
+    public synchronized void trackClan(Clan clan) {
+        double power = 0;
+        for (UUID member : clan.getMembers()) {
+            memberClans.put(member, clan);
+            power += contributions.getOrDefault(member, 0.0);
         }
-
-        double power = calculateClanPower(clan, accountManager);
         clan.setPower(power);
+        ranked.add(clan);
     }
 
-    /**
-     * Calculate clan power as sum of all member coin balances
-     */
-    private double calculateClanPower(Clan clan, Object accountManager) {
-        double totalPower = 0;
-        
-        for (UUID memberUuid : clan.getMembers()) {
-            double balance = getPlayerBalance(accountManager, memberUuid);
-            totalPower += balance;
+    public synchronized void untrackClan(Clan clan) {
+        ranked.remove(clan);
+        for (UUID member : clan.getMembers()) {
+            memberClans.remove(member, clan);
         }
+    }
 
-        return totalPower;
+    public synchronized void onMemberAdded(Clan clan, UUID member) {
+        memberClans.put(member, clan);
+        Double balance = contributions.get(member);
+        if (balance != null) {
+            addPower(clan, balance);
+        } else if (balanceListener != null) {
+            // Unknown until the account changes; fetch it off the main thread
+            EconomyBalanceListener listener = balanceListener;
+            Bukkit.getScheduler().runTaskAsynchronously(plugin,
+                    () -> setMemberBalance(member, listener.getBalance(member), false));
+        }
     }
 
-    /**
-     * Get player balance using reflection
-     */
-    private double getPlayerBalance(Object accountManager, UUID uuid) {
-        try {
-            java.lang.reflect.Method method = accountManager.getClass().getMethod("getBalance", UUID.class);
-            Object result = method.invoke(accountManager, uuid);
-            return result instanceof Number ? ((Number) result).doubleValue() : 0.0;
-        } catch (Exception e) {
-            return 0.0;
+    public synchronized void onMemberRemoved(Clan clan, UUID member) {
+        if (memberClans.remove(member, clan)) {
+            addPower(clan, -contributions.getOrDefault(member, 0.0));
         }
     }
 
     /**
-     * Get AccountManager from Economy plugin using reflection
+     * Balance change from Economy (any thread)
      */
-    private Object getAccountManager() {
-        Plugin economyPlugin = Bukkit.getPluginManager().getPlugin("Economy");
-        if (economyPlugin == null || !economyPlugin.isEnabled()) {
-            return null;
+    public void onBalanceChange(UUID member, double balance) {
+        setMemberBalance(member, balance, true);
+    }
+
+    private synchronized void setMemberBalance(UUID member, double balance, boolean replace) {
+        Double previous = replace ? contributions.put(member, balance) : contributions.putIfAbsent(member, balance);
+        if (!replace && previous != null) return;
+
+        Clan clan = memberClans.get(member);
+        if (clan != null && !loading) {
+            addPower(clan, balance - (previous != null ? previous : 0.0));
+        }
+    }
+
+    private synchronized void finishLoading(Map<UUID, Double> balances) {
+        if (!loading) return;
+
+        // Balances announced while loading are newer than the ones read here
+        balances.forEach(contributions::putIfAbsent);
+        List<Clan> clans = new ArrayList<>(ranked);
+        ranked.clear();
+        for (Clan clan : clans) {
+            double power = 0;
+            for (UUID member : clan.getMembers()) {
+                power += contributions.getOrDefault(member, 0.0);
+            }
+            clan.setPower(power);
+            ranked.add(clan);
         }
+        loading = false;
+        plugin.getLogger().info("Calculated power for " + ranked.size() + " clans");
+    }
+
+    private void addPower(Clan clan, double delta) {
+        if (delta == 0 || !ranked.remove(clan)) return;
 
-        try {
-            Class<?> economyClass = economyPlugin.getClass();
-            java.lang.reflect.Method method = economyClass.getMethod("getAccountManager");
-            return method.invoke(economyPlugin);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to get AccountManager: " + e.getMessage());
-            return null;
+        clan.setPower(clan.getPower() + delta);
+        ranked.add(clan);
+    }
+
+    /**
+     * Strongest clans first
+     */
+    public synchronized List<Clan> getTopClans(int limit) {
+        List<Clan> top = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Clan clan : ranked) {
+            if (top.size() >= limit) break;
+            top.add(clan);
         }
+        return top;
     }
 }
@@ -14,21 +14,36 @@ public class MemberManager {
     public void addMember(String clanName, UUID uuid, String rank) {
         var clan = plugin.getClanManager().getClan(clanName);
         if (clan != null) {
+            boolean joined = !clan.getMembers().contains(uuid);
             clan.addMember(uuid, rank);
+            if (joined) {
+                plugin.getClanPowerManager().onMemberAdded(clan, uuid);
+            }
         }
     }
 
     public void removeMember(String clanName, UUID uuid) {
         var clan = plugin.getClanManager().getClan(clanName);
-        if (clan != null) {
+        if (clan != null && clan.getMembers().contains(uuid)) {
             clan.removeMember(uuid);
+            plugin.getClanPowerManager().onMemberRemoved(clan, uuid);
         }
     }
 
-    public void setMemberRank(String clanName, UUID uuid, String rank) {
+    /**
+     * Change the rank of an existing member; players join through addMember, so the
+     * clan's power stays in step
+     * @return false if the clan does not exist or the player is not a member
+     */
+    public boolean setMemberRank(String clanName, UUID uuid, String rank) {
         var clan = plugin.getClanManager().getClan(clanName);
-        if (clan != null) {
-            clan.addMember(uuid, rank);
+        if (clan == null || !clan.getMembers().contains(uuid)) {
+            return false;
+        }
+        if (!"DEPUTY".equals(rank)) {
+            clan.removeDeputy(uuid);
         }
+        clan.addMember(uuid, rank);
+        return true;
     }
 }
@@ -1,43 +1,420 @@
 package com.webx.clans.managers;
 
 import com.webx.clans.ClansPlugin;
+import com.webx.clans.models.Clan;
+import lxxv.shared.collection.LongIntMap;
+import lxxv.shared.collection.LongSet;
 import org.bukkit.Chunk;
+import org.bukkit.World;
 
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
 
+/**
+ * Chunk claims, indexed both ways: packed chunk -> clan id for O(1) owner lookups
+ * (called on every player move), and clan id -> packed chunks for counts and bulk
+ * unclaims. A packed chunk holds the world id (16 bits) and the chunk X and Z (24 bits
+ * each). World and clan ids are only valid while the server runs; territories.dat
+ * stores names.
+ *
+ * Claims are main-thread state. Changes mark the manager dirty; the autosave encodes a
+ * snapshot on the main thread and writes it off the main thread (see saveIfDirty).
+ */
 public class TerritoryManager {
-    private final ClansPlugin plugin;
-    private final Map<String, Set<String>> territories; // clanName -> chunks
+    private static final int NONE = -1;
+    private static final int MAGIC = 0x434C5452; // "CLTR"
+    private static final int VERSION = 1;
+    private static final long CHUNK_MASK = (1L << 48) - 1;
+
+    private final File dataFile;
+    private final Logger logger;
+    // Stored clan name -> current name, or null if the clan no longer exists
+    private final UnaryOperator<String> clanLookup;
+    private final Executor writer;
+    private final LongIntMap owners; // packed chunk -> clan id
+    private final List<LongSet> clanChunks; // clan id -> packed chunks
+    private final List<String> clanNames; // clan id -> clan name
+    private final Map<String, Integer> clanIds; // lower-case clan name -> clan id
+    private final List<String> worldNames; // world id -> world name
+    private final Map<String, Integer> worldIds;
+    // Set again by a failed write, which runs off the main thread
+    private volatile boolean dirty;
+    // Snapshots are numbered so a slow write never replaces a newer file
+    private final Object writeLock = new Object();
+    private long snapshots;
+    private long written;
 
     public TerritoryManager(ClansPlugin plugin) {
-        this.plugin = plugin;
-        this.territories = new HashMap<>();
+        this(new File(plugin.getDataFolder(), "territories.dat"), plugin.getLogger(), name -> {
+            Clan clan = plugin.getClanManager().getClan(name);
+            return clan != null ? clan.getName() : null;
+        }, task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+    TerritoryManager(File dataFile, Logger logger, UnaryOperator<String> clanLookup, Executor writer) {
+        this.dataFile = dataFile;
+        this.logger = logger;
+        this.clanLookup = clanLookup;
+        this.writer = writer;
+        this.owners = new LongIntMap(1024);
+        this.clanChunks = new ArrayList<>();
+        this.clanNames = new ArrayList<>();
+        this.clanIds = new HashMap<>();
+        this.worldNames = new ArrayList<>();
+        this.worldIds = new HashMap<>();
+    }
+
+    static long pack(int worldId, int chunkX, int chunkZ) {
+        return ((long) worldId << 48) | ((long) (chunkX & 0xFFFFFF) << 24) | (chunkZ & 0xFFFFFF);
     }
 
-    public void claimTerritory(String clanName, Chunk chunk) {
-        String chunkKey = chunk.getWorld().getName() + ":" + chunk.getX() + ":" + chunk.getZ();
-        territories.computeIfAbsent(clanName, k -> new HashSet<>()).add(chunkKey);
+    private int worldId(String world) {
+        Integer id = worldIds.get(world);
+        if (id == null) {
+            id = worldNames.size();
+            worldNames.add(world);
+            worldIds.put(world, id);
+        }
+        return id;
     }
 
-    public void unclaimTerritory(String clanName, Chunk chunk) {
-        String chunkKey = chunk.getWorld().getName() + ":" + chunk.getX() + ":" + chunk.getZ();
-        Set<String> chunks = territories.get(clanName);
-        if (chunks != null) {
-            chunks.remove(chunkKey);
+    private int clanId(String clanName) {
+        Integer id = clanIds.get(clanName.toLowerCase());
+        if (id == null) {
+            id = clanNames.size();
+            clanNames.add(clanName);
+            clanChunks.add(new LongSet());
+            clanIds.put(clanName.toLowerCase(), id);
+        } else {
+            clanNames.set(id, clanName);
         }
+        return id;
+    }
+
+    private int existingClanId(String clanName) {
+        Integer id = clanIds.get(clanName.toLowerCase());
+        return id != null ? id : NONE;
+    }
+
+    private int ownerId(World world, int chunkX, int chunkZ) {
+        Integer worldId = worldIds.get(world.getName());
+        return worldId != null ? owners.get(pack(worldId, chunkX, chunkZ), NONE) : NONE;
+    }
+
+    private boolean claim(int clanId, long key) {
+        int owner = owners.get(key, NONE);
+        if (owner != NONE) return false;
+
+        owners.put(key, clanId, NONE);
+        clanChunks.get(clanId).add(key);
+        dirty = true;
+        return true;
+    }
+
+    private boolean unclaim(int clanId, long key) {
+        if (owners.get(key, NONE) != clanId) return false;
+
+        owners.remove(key, NONE);
+        clanChunks.get(clanId).remove(key);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * @return false if the chunk already belongs to a clan
+     */
+    public boolean claimTerritory(String clanName, Chunk chunk) {
+        return claim(clanId(clanName), pack(worldId(chunk.getWorld().getName()), chunk.getX(), chunk.getZ()));
+    }
+
+    /**
+     * Claim every free chunk in a rectangle (chunk coordinates, inclusive)
+     * @return number of chunks claimed
+     */
+    public int claimTerritory(String clanName, World world, int minX, int minZ, int maxX, int maxZ) {
+        int clanId = clanId(clanName);
+        int worldId = worldId(world.getName());
+        int claimed = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (claim(clanId, pack(worldId, x, z))) claimed++;
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * @return false if the chunk did not belong to the clan
+     */
+    public boolean unclaimTerritory(String clanName, Chunk chunk) {
+        int clanId = existingClanId(clanName);
+        Integer worldId = worldIds.get(chunk.getWorld().getName());
+        return clanId != NONE && worldId != null && unclaim(clanId, pack(worldId, chunk.getX(), chunk.getZ()));
+    }
+
+    /**
+     * Unclaim the clan's chunks in a rectangle (chunk coordinates, inclusive)
+     * @return number of chunks unclaimed
+     */
+    public int unclaimTerritory(String clanName, World world, int minX, int minZ, int maxX, int maxZ) {
+        int clanId = existingClanId(clanName);
+        Integer worldId = worldIds.get(world.getName());
+        if (clanId == NONE || worldId == null) return 0;
+
+        int unclaimed = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (unclaim(clanId, pack(worldId, x, z))) unclaimed++;
+            }
+        }
+        return unclaimed;
+    }
+
+    /**
+     * Release every chunk of a clan (disband)
+     * @return number of chunks unclaimed
+     */
+    public int unclaimAll(String clanName) {
+        int clanId = existingClanId(clanName);
+        if (clanId == NONE) return 0;
+
+        LongSet chunks = clanChunks.get(clanId);
+        chunks.forEach(key -> owners.remove(key, NONE));
+        int unclaimed = chunks.size();
+        chunks.clear();
+        if (unclaimed > 0) dirty = true;
+        return unclaimed;
     }
 
     public String getClaimingClan(Chunk chunk) {
-        String chunkKey = chunk.getWorld().getName() + ":" + chunk.getX() + ":" + chunk.getZ();
-        return territories.entrySet().stream()
-                .filter(entry -> entry.getValue().contains(chunkKey))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+        return getClaimingClan(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Owner of a chunk without loading it
+     */
+    public String getClaimingClan(World world, int chunkX, int chunkZ) {
+        int owner = ownerId(world, chunkX, chunkZ);
+        return owner != NONE ? clanNames.get(owner) : null;
+    }
+
+    /**
+     * Claimed chunk with at least one side facing a chunk the same clan does not own
+     */
+    public boolean isBorderChunk(World world, int chunkX, int chunkZ) {
+        int owner = ownerId(world, chunkX, chunkZ);
+        return owner != NONE && (ownerId(world, chunkX + 1, chunkZ) != owner
+                || ownerId(world, chunkX - 1, chunkZ) != owner
+                || ownerId(world, chunkX, chunkZ + 1) != owner
+                || ownerId(world, chunkX, chunkZ - 1) != owner);
+    }
+
+    /**
+     * Whether a side of the chunk touches the clan's territory (claims must stay connected)
+     */
+    public boolean isAdjacentToTerritory(String clanName, World world, int chunkX, int chunkZ) {
+        int clanId = existingClanId(clanName);
+        return clanId != NONE && (ownerId(world, chunkX + 1, chunkZ) == clanId
+                || ownerId(world, chunkX - 1, chunkZ) == clanId
+                || ownerId(world, chunkX, chunkZ + 1) == clanId
+                || ownerId(world, chunkX, chunkZ - 1) == clanId);
     }
 
     public int getClaimedChunks(String clanName) {
-        Set<String> chunks = territories.get(clanName);
-        return chunks != null ? chunks.size() : 0;
+        int clanId = existingClanId(clanName);
+        return clanId != NONE ? clanChunks.get(clanId).size() : 0;
+    }
+
+    public int getTotalClaimedChunks() {
+        return owners.size();
+    }
+
+    /**
+     * Read territories.dat; claims of clans missing from clans.json are dropped
+     */
+    public void loadTerritories() {
+        owners.clear();
+        clanChunks.forEach(LongSet::clear);
+
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        int dropped = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(dataFile)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a territories file");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported territories version " + version);
+            }
+
+            int[] worlds = new int[readVarInt(in)];
+            for (int i = 0; i < worlds.length; i++) {
+                worlds[i] = worldId(in.readUTF());
+            }
+
+            int clanCount = readVarInt(in);
+            for (int c = 0; c < clanCount; c++) {
+                String name = in.readUTF();
+                int chunkCount = readVarInt(in);
+                String current = clanLookup.apply(name);
+                int clanId = current != null ? clanId(current) : NONE;
+
+                long stored = 0;
+                for (int i = 0; i < chunkCount; i++) {
+                    stored += readVarLong(in);
+                    if (clanId == NONE) {
+                        dropped++;
+                        continue;
+                    }
+                    claim(clanId, ((long) worlds[(int) (stored >>> 48)] << 48) | (stored & CHUNK_MASK));
+                }
+            }
+
+            dirty = false;
+            logger.info("Loaded " + owners.size() + " claimed chunks"
+                    + (dropped > 0 ? " (dropped " + dropped + " of deleted clans)" : ""));
+        } catch (IOException | RuntimeException e) {
+            logger.severe("Failed to load territories: " + e.getMessage());
+            e.printStackTrace();
+            owners.clear();
+            clanChunks.forEach(LongSet::clear);
+            // Keep the unreadable file instead of overwriting it on the next save
+            File aside = new File(dataFile.getParentFile(), dataFile.getName() + ".corrupt");
+            if (!dataFile.renameTo(aside)) {
+                logger.warning("Could not rename " + dataFile);
+            }
+        }
+    }
+
+    /**
+     * Write territories.dat now (plugin disable)
+     */
+    public void saveTerritories() {
+        try {
+            byte[] data = encode();
+            write(data, ++snapshots);
+        } catch (IOException e) {
+            logger.severe("Failed to save territories: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Autosave: if claims changed since the last save, snapshot them here (main thread)
+     * and write the file asynchronously
+     * @return true if a save was started
+     */
+    public boolean saveIfDirty() {
+        if (!dirty) return false;
+
+        byte[] data;
+        try {
+            data = encode();
+        } catch (IOException e) {
+            logger.severe("Failed to save territories: " + e.getMessage());
+            return false;
+        }
+        long version = ++snapshots;
+        writer.execute(() -> {
+            try {
+                write(data, version);
+            } catch (IOException e) {
+                logger.severe("Failed to save territories: " + e.getMessage());
+                // Retried by the next autosave
+                dirty = true;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * territories.dat contents: world names, then per clan its chunks sorted and
+     * delta-encoded, so neighbouring claims take one or two bytes each
+     */
+    private byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + owners.size() * 2);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarInt(out, worldNames.size());
+        for (String world : worldNames) {
+            out.writeUTF(world);
+        }
+
+        int clanCount = 0;
+        for (LongSet chunks : clanChunks) {
+            if (!chunks.isEmpty()) clanCount++;
+        }
+        writeVarInt(out, clanCount);
+        for (int clanId = 0; clanId < clanChunks.size(); clanId++) {
+            long[] chunks = clanChunks.get(clanId).toArray();
+            if (chunks.length == 0) continue;
+
+            Arrays.sort(chunks);
+            out.writeUTF(clanNames.get(clanId));
+            writeVarInt(out, chunks.length);
+            long previous = 0;
+            for (long key : chunks) {
+                writeVarLong(out, key - previous);
+                previous = key;
+            }
+        }
+        out.flush();
+        dirty = false;
+        return bytes.toByteArray();
+    }
+
+    private void write(byte[] data, long version) throws IOException {
+        synchronized (writeLock) {
+            if (version <= written) return;
+
+            if (!dataFile.getParentFile().exists()) {
+                dataFile.getParentFile().mkdirs();
+            }
+            File temp = new File(dataFile.getParentFile(), dataFile.getName() + ".tmp");
+            Files.write(temp.toPath(), data);
+            Files.move(temp.toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written = version;
+        }
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("VarInt too large");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarLong too long");
     }
 }
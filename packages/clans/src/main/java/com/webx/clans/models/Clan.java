@@ -11,7 +11,7 @@ public class Clan {
     private final Map<UUID, String> members; // UUID to Rank
     private int level;
     private long experience;
-    private double power; // Clan power based on total member coins
+    private volatile double power; // Clan power based on total member coins, see ClanPowerManager
     private String description;
     private long createdAt;
 
@@ -0,0 +1,154 @@
+package com.webx.clans.managers;
+
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TerritoryManagerTest {
+    private static final Logger LOGGER = Logger.getLogger("TerritoryManagerTest");
+    private static final World OVERWORLD = world("world");
+    private static final World NETHER = world("world_nether");
+
+    @TempDir
+    File directory;
+
+    @Test
+    void claimsSurviveASaveAndLoad() {
+        Random random = new Random(17);
+        TerritoryManager saved = manager(UnaryOperator.identity());
+        Map<String, String> expected = new HashMap<>();
+        String[] clans = {"Alpha", "Beta", "Gamma"};
+        for (int i = 0; i < 3000; i++) {
+            World world = random.nextBoolean() ? OVERWORLD : NETHER;
+            // Wide spread with negative coordinates, so deltas and 24-bit packing are exercised
+            int x = random.nextInt(2_000_000) - 1_000_000;
+            int z = random.nextInt(200) - 100;
+            String clan = clans[random.nextInt(clans.length)];
+            if (saved.claimTerritory(clan, chunk(world, x, z))) {
+                expected.put(key(world, x, z), clan);
+            }
+        }
+        saved.claimTerritory("Alpha", OVERWORLD, 0, 0, 9, 9);
+        for (int x = 0; x <= 9; x++) {
+            for (int z = 0; z <= 9; z++) {
+                expected.putIfAbsent(key(OVERWORLD, x, z), "Alpha");
+            }
+        }
+        saved.saveTerritories();
+
+        TerritoryManager loaded = manager(UnaryOperator.identity());
+        loaded.loadTerritories();
+        assertEquals(expected.size(), loaded.getTotalClaimedChunks());
+        for (String clan : clans) {
+            assertEquals(saved.getClaimedChunks(clan), loaded.getClaimedChunks(clan));
+        }
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            String[] parts = entry.getKey().split(":");
+            World world = parts[0].equals("world") ? OVERWORLD : NETHER;
+            assertEquals(entry.getValue(), loaded.getClaimingClan(world, Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+        }
+        assertNull(loaded.getClaimingClan(OVERWORLD, 10, 10));
+        assertTrue(loaded.isBorderChunk(OVERWORLD, 9, 9));
+        assertFalse(loaded.isBorderChunk(OVERWORLD, 5, 5));
+    }
+
+    @Test
+    void deletedAndRenamedClansAreResolvedOnLoad() {
+        TerritoryManager saved = manager(UnaryOperator.identity());
+        saved.claimTerritory("Alpha", OVERWORLD, 0, 0, 2, 2);
+        saved.claimTerritory("Beta", NETHER, -3, -3, -1, -1);
+        saved.saveTerritories();
+
+        // Beta was deleted; alpha is stored in another case than clans.json has it
+        TerritoryManager loaded = manager(name -> name.equalsIgnoreCase("alpha") ? "ALPHA" : null);
+        loaded.loadTerritories();
+        assertEquals(9, loaded.getTotalClaimedChunks());
+        assertEquals("ALPHA", loaded.getClaimingClan(OVERWORLD, 1, 1));
+        assertNull(loaded.getClaimingClan(NETHER, -2, -2));
+        assertEquals(0, loaded.getClaimedChunks("Beta"));
+    }
+
+    @Test
+    void autosaveWritesOnlyChangedClaims() {
+        List<Runnable> writes = new ArrayList<>();
+        TerritoryManager manager = new TerritoryManager(file(), LOGGER, UnaryOperator.identity(), writes::add);
+        assertFalse(manager.saveIfDirty());
+
+        manager.claimTerritory("Alpha", chunk(OVERWORLD, 1, 2));
+        assertTrue(manager.saveIfDirty());
+        assertFalse(manager.saveIfDirty());
+        manager.unclaimAll("Alpha");
+        assertTrue(manager.saveIfDirty());
+
+        // The older snapshot finishing last must not replace the newer file
+        writes.get(1).run();
+        writes.get(0).run();
+        TerritoryManager loaded = manager(UnaryOperator.identity());
+        loaded.loadTerritories();
+        assertEquals(0, loaded.getTotalClaimedChunks());
+    }
+
+    @Test
+    void unreadableFileIsSetAside() throws IOException {
+        TerritoryManager saved = manager(UnaryOperator.identity());
+        saved.claimTerritory("Alpha", OVERWORLD, 0, 0, 20, 20);
+        saved.saveTerritories();
+        byte[] data = Files.readAllBytes(file().toPath());
+        Files.write(file().toPath(), Arrays.copyOf(data, data.length / 2));
+
+        TerritoryManager loaded = manager(UnaryOperator.identity());
+        loaded.loadTerritories();
+        assertEquals(0, loaded.getTotalClaimedChunks());
+        assertFalse(file().exists());
+        assertArrayEquals(Arrays.copyOf(data, data.length / 2),
+            Files.readAllBytes(new File(directory, "territories.dat.corrupt").toPath()));
+
+        // Nothing on disk means nothing claimed, not an error
+        TerritoryManager fresh = manager(UnaryOperator.identity());
+        fresh.loadTerritories();
+        assertEquals(0, fresh.getTotalClaimedChunks());
+    }
+
+    private TerritoryManager manager(UnaryOperator<String> clanLookup) {
+        return new TerritoryManager(file(), LOGGER, clanLookup, Runnable::run);
+    }
+
+    private File file() {
+        return new File(directory, "territories.dat");
+    }
+
+    private static String key(World world, int x, int z) {
+        return world.getName() + ":" + x + ":" + z;
+    }
+
+    private static World world(String name) {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] {World.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getName" -> name;
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> name.hashCode();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private static Chunk chunk(World world, int x, int z) {
+        return (Chunk) Proxy.newProxyInstance(Chunk.class.getClassLoader(), new Class<?>[] {Chunk.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getWorld" -> world;
+                case "getX" -> x;
+                case "getZ" -> z;
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
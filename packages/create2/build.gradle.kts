@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.webx"
@@ -16,6 +17,16 @@ dependencies {
     
     // Shared database library
     implementation(project(":common"))
+    
+    // Tests
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testImplementation("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    
+    // Benchmarks (./gradlew :create2:jmh)
+    jmh("org.openjdk.jmh:jmh-core:1.37")
+    jmh("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+    jmh("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
 }
 
 // Toolchain disabled - using system JDK instead
@@ -31,6 +42,10 @@ tasks {
         archiveVersion.set(version.toString())
     }
     
+    test {
+        useJUnitPlatform()
+    }
+    
     processResources {
         filesMatching("plugin.yml") {
             expand("version" to version)
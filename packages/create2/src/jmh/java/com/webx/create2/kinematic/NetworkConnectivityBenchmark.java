@@ -0,0 +1,142 @@
+package com.webx.create2.kinematic;
+
+import com.webx.create2.spatial.BlockPos;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a plane of shafts into one network, then dismantles it in random order,
+ * resolving splits every few removals like the manager does once per tick.
+ * Lookups are timed separately on a built plane.
+ * Run with ./gradlew :create2:jmh
+ */
+@State(Scope.Thread)
+@Fork(1)
+public class NetworkConnectivityBenchmark {
+    private static final String WORLD = "world";
+    // Removals between two split resolutions (one server tick)
+    private static final int REMOVALS_PER_TICK = 64;
+
+    @Param({"100000"})
+    public int nodes;
+
+    private int side;
+    private long[] placeOrder;
+    private long[] removeOrder;
+    private Grid built;
+    private long[] lookups;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        side = (int) Math.ceil(Math.sqrt(nodes));
+        placeOrder = new long[nodes];
+        for (int i = 0; i < nodes; i++) {
+            placeOrder[i] = BlockPos.pack(i % side, 64, i / side);
+        }
+        removeOrder = placeOrder.clone();
+        Random random = new Random(42);
+        for (int i = removeOrder.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = removeOrder[i];
+            removeOrder[i] = removeOrder[j];
+            removeOrder[j] = swap;
+        }
+
+        built = new Grid();
+        for (long pos : placeOrder) {
+            built.add(pos);
+        }
+        lookups = new long[4096];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = placeOrder[random.nextInt(nodes)];
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public Grid build() {
+        Grid grid = new Grid();
+        for (long pos : placeOrder) {
+            grid.add(pos);
+        }
+        return grid;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public int buildAndDismantle() {
+        Grid grid = build();
+        int splits = 0;
+        for (int i = 0; i < removeOrder.length; i++) {
+            grid.remove(removeOrder[i]);
+            if (i % REMOVALS_PER_TICK == REMOVALS_PER_TICK - 1) {
+                splits += grid.graph.resolveSplits().size();
+            }
+        }
+        splits += grid.graph.resolveSplits().size();
+        return splits;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public void getNetwork(Blackhole blackhole) {
+        blackhole.consume(built.graph.getNetwork(lookups[next++ & (lookups.length - 1)]));
+    }
+
+    /**
+     * Placement and removal as KinematicNetworkManager does them, without the plugin
+     */
+    static final class Grid {
+        final NetworkConnectivity graph = new NetworkConnectivity();
+
+        void add(long key) {
+            KinematicNode node = new KinematicNode(BlockPos.toVector(key), KinematicNodeType.SHAFT);
+            Map<KinematicNetwork, Long> adjacent = new LinkedHashMap<>();
+            for (int face = 0; face < BlockPos.FACES; face++) {
+                long neighbour = BlockPos.neighbour(key, face);
+                KinematicNetwork network = graph.getNetwork(neighbour);
+                if (network != null) {
+                    adjacent.putIfAbsent(network, neighbour);
+                }
+            }
+
+            if (adjacent.isEmpty()) {
+                KinematicNetwork network = new KinematicNetwork(WORLD);
+                network.addComponent(key, node);
+                graph.addRoot(key, network);
+                return;
+            }
+            KinematicNetwork main = Collections.max(adjacent.keySet(), Comparator.comparingInt(KinematicNetwork::getSize));
+            long anchor = adjacent.get(main);
+            main.addComponent(key, node);
+            graph.addTo(key, anchor);
+            for (Map.Entry<KinematicNetwork, Long> entry : adjacent.entrySet()) {
+                KinematicNetwork other = entry.getKey();
+                if (other == main) continue;
+
+                main.merge(other);
+                graph.union(anchor, entry.getValue(), main);
+                graph.transferPending(other, main);
+            }
+        }
+
+        void remove(long key) {
+            KinematicNetwork network = graph.getNetwork(key);
+            network.removeComponent(key);
+            graph.remove(key, network);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.webx.create2.kinematic;
+
+import com.webx.create2.spatial.BlockPos;
+import org.joml.Vector3i;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of 200 networks of 2000 components that all recalculate: compute on the
+ * solver (threads = 1 is the single-threaded mode), then commit on the calling thread.
+ * Run with ./gradlew :create2:jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkSolverBenchmark {
+    private static final String WORLD = "world";
+    private static final int NETWORKS = 200;
+    private static final int SIZE = 2000;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private NetworkSolver solver;
+    private List<KinematicNetwork> networks;
+
+    @Setup
+    public void setUp() {
+        solver = new NetworkSolver(threads, 0);
+        networks = new ArrayList<>(NETWORKS);
+        for (int n = 0; n < NETWORKS; n++) {
+            KinematicNetwork network = new KinematicNetwork(WORLD);
+            for (int x = 0; x < SIZE; x++) {
+                KinematicNode node = new KinematicNode(new Vector3i(x, 64, n * 2), KinematicNodeType.SHAFT);
+                if (x == 0) {
+                    node.setStressCapacity(SIZE * 2);
+                    node.setRpm(64);
+                }
+                network.addComponent(BlockPos.pack(x, 64, n * 2), node);
+            }
+            networks.add(network);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        solver.shutdown();
+    }
+
+    @Benchmark
+    public int tick() {
+        int again = 0;
+        for (KinematicNetwork network : networks) {
+            network.markDirty();
+        }
+        solver.compute(networks);
+        for (KinematicNetwork network : networks) {
+            if (network.commit()) {
+                again++;
+            }
+        }
+        return again;
+    }
+}
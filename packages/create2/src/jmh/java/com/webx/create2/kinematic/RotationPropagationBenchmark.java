@@ -0,0 +1,162 @@
+package com.webx.create2.kinematic;
+
+import com.webx.create2.spatial.BlockPos;
+import org.joml.Vector3i;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rotation spread over a cube of shafts and neighbour lookups: packed positions in
+ * a SpatialIndex vs the previous Vector3i-keyed map with allocated neighbours.
+ * Run with ./gradlew :create2:jmh
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RotationPropagationBenchmark {
+    private static final String WORLD = "world";
+
+    // Cube side; 47^3 is about 100k components
+    @Param({"47"})
+    public int side;
+
+    private KinematicNetwork network;
+    private LegacyNetwork legacy;
+    private RotationPropagator propagator;
+    private Vector3i source;
+    private long[] probes;
+    private Vector3i[] legacyProbes;
+    private double rpm = 32;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        network = new KinematicNetwork(WORLD);
+        legacy = new LegacyNetwork();
+        for (int x = 0; x < side; x++) {
+            for (int y = 0; y < side; y++) {
+                for (int z = 0; z < side; z++) {
+                    KinematicNode node = new KinematicNode(new Vector3i(x, 64 + y, z), KinematicNodeType.SHAFT);
+                    network.addComponent(BlockPos.pack(x, 64 + y, z), node);
+                    legacy.nodes.put(new Vector3i(x, 64 + y, z), node);
+                }
+            }
+        }
+        // Only the propagation maths is used; it never touches the plugin
+        propagator = new RotationPropagator(null);
+        source = new Vector3i(0, 64, 0);
+
+        Random random = new Random(42);
+        probes = new long[4096];
+        legacyProbes = new Vector3i[probes.length];
+        for (int i = 0; i < probes.length; i++) {
+            Vector3i pos = new Vector3i(random.nextInt(side + 2) - 1, 63 + random.nextInt(side + 2), random.nextInt(side + 2) - 1);
+            probes[i] = BlockPos.pack(pos);
+            legacyProbes[i] = pos;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void propagateBaseline() {
+        legacy.propagateRotation(source, nextRpm());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void propagate() {
+        propagator.propagateRotation(network, source, nextRpm());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void neighboursBaseline(Blackhole blackhole) {
+        Vector3i pos = legacyProbes[next++ & (legacyProbes.length - 1)];
+        int found = 0;
+        for (Vector3i neighbour : LegacyNetwork.getNeighbors(pos)) {
+            if (legacy.nodes.containsKey(neighbour)) {
+                found++;
+            }
+        }
+        blackhole.consume(found);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void neighbours(Blackhole blackhole) {
+        long pos = probes[next++ & (probes.length - 1)];
+        int found = 0;
+        for (int face = 0; face < BlockPos.FACES; face++) {
+            if (network.contains(BlockPos.neighbour(pos, face))) {
+                found++;
+            }
+        }
+        blackhole.consume(found);
+    }
+
+    // Alternate, so every run writes every node
+    private double nextRpm() {
+        rpm = rpm == 32 ? 64 : 32;
+        return rpm;
+    }
+
+    /**
+     * Components and propagation as they were before packed positions
+     */
+    static class LegacyNetwork {
+        final Map<Vector3i, KinematicNode> nodes = new ConcurrentHashMap<>();
+
+        void propagateRotation(Vector3i sourcePos, double rpm) {
+            KinematicNode source = nodes.get(sourcePos);
+            if (source == null) return;
+
+            source.setRpm(rpm);
+            Set<Vector3i> visited = new HashSet<>();
+            Queue<Step> queue = new LinkedList<>();
+            queue.add(new Step(sourcePos, rpm, false));
+
+            while (!queue.isEmpty()) {
+                Step step = queue.poll();
+
+                if (visited.contains(step.position)) continue;
+                visited.add(step.position);
+
+                KinematicNode current = nodes.get(step.position);
+                if (current == null) continue;
+
+                current.setRpm(step.reversed ? -step.rpm : step.rpm);
+                for (Vector3i neighbor : getNeighbors(step.position)) {
+                    if (visited.contains(neighbor)) continue;
+
+                    KinematicNode neighborNode = nodes.get(neighbor);
+                    if (neighborNode == null || !current.canConnectTo(neighborNode)) continue;
+
+                    queue.add(new Step(neighbor, Math.abs(current.getOutputRpm(neighborNode)), current.isReversed()));
+                }
+            }
+        }
+
+        static List<Vector3i> getNeighbors(Vector3i pos) {
+            List<Vector3i> neighbors = new ArrayList<>();
+            neighbors.add(new Vector3i(pos.x + 1, pos.y, pos.z));
+            neighbors.add(new Vector3i(pos.x - 1, pos.y, pos.z));
+            neighbors.add(new Vector3i(pos.x, pos.y + 1, pos.z));
+            neighbors.add(new Vector3i(pos.x, pos.y - 1, pos.z));
+            neighbors.add(new Vector3i(pos.x, pos.y, pos.z + 1));
+            neighbors.add(new Vector3i(pos.x, pos.y, pos.z - 1));
+            return neighbors;
+        }
+
+        record Step(Vector3i position, double rpm, boolean reversed) {
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.webx.create2.logistics;
+
+import com.webx.create2.spatial.BlockPos;
+import com.webx.create2.spatial.SpatialIndex;
+import org.bukkit.inventory.ItemStack;
+import org.joml.Vector3i;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One belt tick of 10k items on 400 straight lines of 25 belts: the line lanes vs the
+ * previous per-segment item lists. Items leaving a line end go back to its start, where
+ * a container would take them, so the item count stays the same.
+ * Both sides look up a stand-in for the kinematic network: once per line, or once per
+ * belt as the previous tick did.
+ * Run with ./gradlew :create2:jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeltLineBenchmark {
+    private static final int LINES = 400;
+    private static final int LENGTH = 25;
+    private static final double SPACING = 0.25;
+    private static final double SPEED = 0.1;
+
+    private BeltLine[] lines;
+    private SpatialIndex<Object> networks;
+    private SpatialIndex<LegacySegment> legacy;
+
+    @Setup
+    public void setUp() {
+        lines = new BeltLine[LINES];
+        networks = new SpatialIndex<>();
+        legacy = new SpatialIndex<>();
+        Object network = new Object();
+        Vector3i east = new Vector3i(1, 0, 0);
+        for (int l = 0; l < LINES; l++) {
+            // Lines side by side, two blocks apart so they do not feed each other
+            int z = l * 2;
+            BeltSegment[] segments = new BeltSegment[LENGTH];
+            LegacySegment first = null;
+            for (int x = 0; x < LENGTH; x++) {
+                segments[x] = new BeltSegment(new Vector3i(x, 64, z), east);
+                long pos = BlockPos.pack(x, 64, z);
+                networks.put(pos, network);
+
+                LegacySegment segment = new LegacySegment(BlockPos.pack(x + 1, 64, z));
+                if (first == null) {
+                    first = segment;
+                }
+                segment.lineStart = first;
+                segment.items.add(new LegacyItem(stack()));
+                legacy.put(pos, segment);
+            }
+            lines[l] = new BeltLine(segments);
+            for (int i = 0; i < LENGTH; i++) {
+                lines[l].place(i, stack());
+            }
+        }
+    }
+
+    @Benchmark
+    public int tickBaseline() {
+        int[] moved = new int[1];
+        legacy.forEach((pos, segment) -> {
+            if (segment.items.isEmpty()) return;
+
+            double speed = networks.get(pos) != null ? SPEED : 0.0;
+            moved[0] += segment.tick(speed, legacy.get(segment.next));
+        });
+        return moved[0];
+    }
+
+    @Benchmark
+    public int tick() {
+        int moved = 0;
+        for (BeltLine line : lines) {
+            if (line.isEmpty()) continue;
+
+            double speed = networks.get(line.getStart()) != null ? SPEED : 0.0;
+            if (line.advance(speed, SPACING)) {
+                ItemStack front = line.pollFront();
+                if (!line.insert(0.0, front, SPACING)) {
+                    // Start is crowded: the item waits at the end, as with a full container
+                    line.place(line.getLength(), front);
+                }
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private static ItemStack stack() {
+        // Distinct instances without a server; only moved around
+        return new ItemStack() {
+        };
+    }
+
+    /**
+     * A belt block with its own item list, as belts were before lines
+     * (the stack clone on every handoff is left out)
+     */
+    static class LegacySegment {
+        final List<LegacyItem> items = new ArrayList<>();
+        final long next;
+        LegacySegment lineStart;
+
+        LegacySegment(long next) {
+            this.next = next;
+        }
+
+        int tick(double speed, LegacySegment nextSegment) {
+            if (speed <= 0) return 0;
+            int moved = 0;
+            Iterator<LegacyItem> iter = items.iterator();
+            while (iter.hasNext()) {
+                LegacyItem item = iter.next();
+                item.progress += speed;
+                if (item.progress >= 1.0) {
+                    // Handoff, or back to the start of the line in place of a container
+                    (nextSegment != null ? nextSegment : lineStart).items.add(new LegacyItem(item.stack));
+                    iter.remove();
+                    moved++;
+                }
+            }
+            return moved;
+        }
+    }
+
+    static class LegacyItem {
+        final ItemStack stack;
+        double progress;
+
+        LegacyItem(ItemStack stack) {
+            this.stack = stack;
+        }
+    }
+}
@@ -4,9 +4,11 @@ import com.webx.create2.kinematic.KinematicNetworkManager;
 import com.webx.create2.kinematic.RotationPropagator;
 import com.webx.create2.commands.Create2Command;
 import com.webx.create2.listeners.BlockListener;
+import com.webx.create2.listeners.ChunkListener;
 import com.webx.create2.logistics.LogisticsManager;
 import com.webx.create2.fluid.FluidManager;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
@@ -22,6 +24,7 @@ public class Create2Plugin extends JavaPlugin {
     private RotationPropagator rotationPropagator;
     private LogisticsManager logisticsManager;
     private FluidManager fluidManager;
+    private final WorldTickTimings tickTimings = new WorldTickTimings();
     
     @Override
     public void onEnable() {
@@ -44,6 +47,7 @@ public class Create2Plugin extends JavaPlugin {
         
         // Start kinematic tick
         startKinematicTick();
+        startAutosave();
         
         getLogger().info("Create2 enabled! Mechanical systems online.");
         getLogger().info("Max network size: " + getConfig().getInt("kinematic.max-network-size"));
@@ -55,11 +59,13 @@ public class Create2Plugin extends JavaPlugin {
         // Save all networks
         if (networkManager != null) {
             networkManager.saveAll();
-            getLogger().info("Saved " + networkManager.getNetworkCount() + " kinematic networks");
         }
         
         // Cancel tasks
         Bukkit.getScheduler().cancelTasks(this);
+        if (networkManager != null) {
+            networkManager.shutdown();
+        }
         
         getLogger().info("Create2 disabled. Mechanical systems offline.");
     }
@@ -80,6 +86,7 @@ public class Create2Plugin extends JavaPlugin {
     
     private void registerListeners() {
         getServer().getPluginManager().registerEvents(new BlockListener(this), this);
+        getServer().getPluginManager().registerEvents(new ChunkListener(this), this);
         getLogger().info("Registered event listeners");
     }
     
@@ -89,17 +96,19 @@ public class Create2Plugin extends JavaPlugin {
         Bukkit.getScheduler().runTaskTimer(this, () -> {
             long startTime = System.nanoTime();
             
-            // Update all kinematic networks
-            networkManager.tick();
-
-            // Update logistics (belts, funnels, deployers)
-            if (!getServer().getWorlds().isEmpty()) {
-                logisticsManager.tick(getServer().getWorlds().get(0));
-            }
-
-            // Update fluids
-            if (!getServer().getWorlds().isEmpty()) {
-                fluidManager.tick(getServer().getWorlds().get(0));
+            for (World world : getServer().getWorlds()) {
+                long worldStart = System.nanoTime();
+                
+                // Update changed or decaying kinematic networks
+                int networksTicked = networkManager.tick(world);
+                
+                // Update logistics (belts, funnels, deployers)
+                logisticsManager.tick(world);
+                
+                // Update fluids
+                fluidManager.tick(world);
+                
+                tickTimings.record(world.getName(), System.nanoTime() - worldStart, networksTicked);
             }
             
             long duration = System.nanoTime() - startTime;
@@ -115,6 +124,14 @@ public class Create2Plugin extends JavaPlugin {
         getLogger().info("Started kinematic tick (rate: " + tickRate + " ticks)");
     }
     
+    private void startAutosave() {
+        if (networkManager.getRegionStore() == null) return;
+        
+        // Only changed regions are encoded; files are written on the I/O thread
+        int interval = Math.max(1, getConfig().getInt("persistence.flush-interval", 200));
+        Bukkit.getScheduler().runTaskTimer(this, networkManager::saveDirty, interval, interval);
+    }
+    
     // Getters
     public static Create2Plugin getInstance() {
         return instance;
@@ -135,6 +152,10 @@ public class Create2Plugin extends JavaPlugin {
     public FluidManager getFluidManager() {
         return fluidManager;
     }
+
+    public WorldTickTimings getTickTimings() {
+        return tickTimings;
+    }
     
     // Utility methods
     public double getMaxRPM() {
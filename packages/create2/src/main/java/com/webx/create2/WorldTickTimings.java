@@ -0,0 +1,71 @@
+package com.webx.create2;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-world simulation tick timings
+ * Tracks last, average and peak tick time and how many networks each world ticked
+ */
+public class WorldTickTimings {
+    
+    // Weight of the newest sample in the moving average
+    private static final double SMOOTHING = 0.05;
+    
+    private final Map<String, Timing> worlds = new ConcurrentHashMap<>();
+    
+    /**
+     * Record one simulation tick of a world
+     */
+    public void record(String world, long nanos, int networksTicked) {
+        Timing timing = worlds.computeIfAbsent(world, w -> new Timing());
+        timing.ticks++;
+        timing.lastNanos = nanos;
+        timing.averageNanos = timing.ticks == 1 ? nanos : timing.averageNanos + (nanos - timing.averageNanos) * SMOOTHING;
+        timing.maxNanos = Math.max(timing.maxNanos, nanos);
+        timing.lastNetworksTicked = networksTicked;
+    }
+    
+    /**
+     * Timings by world name, sorted
+     */
+    public Map<String, Timing> getAll() {
+        return new TreeMap<>(worlds);
+    }
+    
+    public void reset() {
+        worlds.clear();
+    }
+    
+    /**
+     * Timing counters of one world
+     */
+    public static class Timing {
+        private long ticks;
+        private long lastNanos;
+        private double averageNanos;
+        private long maxNanos;
+        private int lastNetworksTicked;
+        
+        public long getTicks() {
+            return ticks;
+        }
+        
+        public double getLastMs() {
+            return lastNanos / 1_000_000.0;
+        }
+        
+        public double getAverageMs() {
+            return averageNanos / 1_000_000.0;
+        }
+        
+        public double getMaxMs() {
+            return maxNanos / 1_000_000.0;
+        }
+        
+        public int getLastNetworksTicked() {
+            return lastNetworksTicked;
+        }
+    }
+}
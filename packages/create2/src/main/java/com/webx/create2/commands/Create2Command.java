@@ -1,9 +1,14 @@
 package com.webx.create2.commands;
 
 import com.webx.create2.Create2Plugin;
+import com.webx.create2.WorldTickTimings;
+import com.webx.create2.fluid.FluidManager;
+import com.webx.create2.fluid.FluidNetwork;
 import com.webx.create2.kinematic.KinematicNetwork;
 import com.webx.create2.kinematic.KinematicNetworkManager;
 import com.webx.create2.kinematic.KinematicNode;
+import com.webx.create2.logistics.BeltManager;
+import com.webx.create2.persistence.RegionStore;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -15,6 +20,7 @@ import org.joml.Vector3i;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Main command handler for Create2
@@ -66,6 +72,8 @@ public class Create2Command implements CommandExecutor, TabCompleter {
     private boolean handleStats(CommandSender sender) {
         KinematicNetworkManager manager = plugin.getNetworkManager();
         KinematicNetworkManager.NetworkStats stats = manager.getStats();
+        BeltManager belts = plugin.getLogisticsManager().getBeltManager();
+        FluidManager fluids = plugin.getFluidManager();
         
         sender.sendMessage(ChatColor.GOLD + "═══════════════════════════════");
         sender.sendMessage(ChatColor.YELLOW + "  Create2 Statistics");
@@ -76,6 +84,52 @@ public class Create2Command implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.GREEN + "Largest: " + ChatColor.WHITE + stats.largestNetwork);
         sender.sendMessage(ChatColor.GREEN + "Overstressed: " + ChatColor.WHITE + 
             (stats.overstressedNetworks > 0 ? ChatColor.RED : ChatColor.GREEN) + stats.overstressedNetworks);
+        sender.sendMessage(ChatColor.GREEN + "Solver: " + ChatColor.WHITE + (manager.getSolver().isParallel()
+            ? manager.getSolver().getThreads() + " threads" : "main thread"));
+        RegionStore regions = manager.getRegionStore();
+        if (regions != null) {
+            sender.sendMessage(ChatColor.GREEN + "Regions: " + ChatColor.WHITE + regions.getLoadedCount() + " loaded, "
+                + regions.getDirtyCount() + " changed, " + regions.getPendingWrites() + " writing");
+        }
+        
+        Map<String, WorldTickTimings.Timing> timings = plugin.getTickTimings().getAll();
+        if (!timings.isEmpty()) {
+            sender.sendMessage(ChatColor.GOLD + "───────────────────────────────");
+            sender.sendMessage(ChatColor.YELLOW + "Tick time per world:");
+            for (Map.Entry<String, WorldTickTimings.Timing> entry : timings.entrySet()) {
+                WorldTickTimings.Timing timing = entry.getValue();
+                sender.sendMessage(String.format("%s%s %savg %.3fms max %.3fms %s| active %d, sleeping %d",
+                    ChatColor.AQUA,
+                    entry.getKey(),
+                    ChatColor.WHITE,
+                    timing.getAverageMs(),
+                    timing.getMaxMs(),
+                    ChatColor.GRAY,
+                    manager.getScheduledCount(entry.getKey()),
+                    manager.getSleepingCount(entry.getKey())
+                ));
+                sender.sendMessage(String.format("%s  belts: %d lines, %d items",
+                    ChatColor.GRAY,
+                    belts.getLineCount(entry.getKey()),
+                    belts.getItemCount(entry.getKey())
+                ));
+                sender.sendMessage(String.format("%s  fluids: %d networks, %d active",
+                    ChatColor.GRAY,
+                    fluids.getNetworkCount(entry.getKey()),
+                    fluids.getActiveCount(entry.getKey())
+                ));
+                for (FluidNetwork network : fluids.getSlowestNetworks(entry.getKey(), 3)) {
+                    sender.sendMessage(String.format("%s    %s: %d nodes, %d pumps, avg %.3fms last %.3fms",
+                        ChatColor.DARK_GRAY,
+                        network.getId().toString().substring(0, 8),
+                        network.getSize(),
+                        network.getPumpCount(),
+                        network.getAverageMs(),
+                        network.getLastMs()
+                    ));
+                }
+            }
+        }
         sender.sendMessage(ChatColor.GOLD + "═══════════════════════════════");
         
         return true;
@@ -140,14 +194,14 @@ public class Create2Command implements CommandExecutor, TabCompleter {
         );
         
         KinematicNetworkManager manager = plugin.getNetworkManager();
-        KinematicNode node = manager.getNode(pos);
+        KinematicNode node = manager.getNode(player.getWorld(), pos);
         
         if (node == null) {
             sender.sendMessage(ChatColor.RED + "No kinematic component at your feet");
             return true;
         }
         
-        KinematicNetwork network = manager.getNetwork(pos);
+        KinematicNetwork network = manager.getNetwork(player.getWorld(), pos);
         
         sender.sendMessage(ChatColor.GOLD + "═══════════════════════════════");
         sender.sendMessage(ChatColor.YELLOW + "  Component Inspector");
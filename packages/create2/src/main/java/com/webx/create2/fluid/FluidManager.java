@@ -1,29 +1,35 @@
 package com.webx.create2.fluid;
 
 import com.webx.create2.Create2Plugin;
-import org.bukkit.Material;
+import com.webx.create2.spatial.BlockPos;
+import com.webx.create2.spatial.SpatialIndex;
 import org.bukkit.World;
-import org.bukkit.block.Block;
-import org.bukkit.block.BlockFace;
 import org.joml.Vector3i;
 
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Simplified fluid network: pipes equalize, pumps move from source to front, tanks store.
+ * Connected nodes form a FluidNetwork that is solved as a whole; only networks where fluid
+ * is still moving are ticked. A network is woken again when its nodes change or the block
+ * under one of its pumps changes.
  */
 public class FluidManager {
 
     private final Create2Plugin plugin;
-    private final Map<Vector3i, FluidNode> nodes = new ConcurrentHashMap<>();
+    // World name -> packed position -> node
+    private final Map<String, SpatialIndex<FluidNode>> worlds = new ConcurrentHashMap<>();
+    // World name -> networks
+    private final Map<String, Set<FluidNetwork>> networks = new ConcurrentHashMap<>();
+    // World name -> networks that need a tick
+    private final Map<String, Set<FluidNetwork>> active = new ConcurrentHashMap<>();
 
     public FluidManager(Create2Plugin plugin) {
         this.plugin = plugin;
     }
 
-    public void addNode(Vector3i pos, FluidNode.Type type) {
+    public void addNode(World world, Vector3i pos, FluidNode.Type type) {
         int capacity;
         switch (type) {
             case PIPE -> capacity = plugin.getConfig().getInt("fluids.pipe-capacity", 1000);
@@ -31,70 +37,165 @@ public class FluidManager {
             case PUMP -> capacity = plugin.getConfig().getInt("fluids.pipe-capacity", 1000);
             default -> capacity = 1000;
         }
-        nodes.put(pos, new FluidNode(pos, type, capacity));
+        removeNode(world, pos);
+
+        SpatialIndex<FluidNode> nodes = worlds.computeIfAbsent(world.getName(), w -> new SpatialIndex<>());
+        long key = BlockPos.pack(pos);
+        FluidNode node = new FluidNode(pos, type, capacity);
+        nodes.put(key, node);
+
+        // Join the largest adjacent network and merge the others into it
+        FluidNetwork network = null;
+        List<FluidNetwork> adjacent = new ArrayList<>(BlockPos.FACES);
+        for (int face = 0; face < BlockPos.FACES; face++) {
+            FluidNode neighbour = nodes.get(BlockPos.neighbour(key, face));
+            if (neighbour != null && !adjacent.contains(neighbour.getNetwork())) {
+                adjacent.add(neighbour.getNetwork());
+                if (network == null || neighbour.getNetwork().getSize() > network.getSize()) {
+                    network = neighbour.getNetwork();
+                }
+            }
+        }
+        Set<FluidNetwork> worldNetworks = networks.computeIfAbsent(world.getName(), w -> new LinkedHashSet<>());
+        if (network == null) {
+            network = new FluidNetwork(world.getName());
+            worldNetworks.add(network);
+        }
+        for (FluidNetwork other : adjacent) {
+            if (other == network) continue;
+            network.merge(other);
+            worldNetworks.remove(other);
+            deactivate(other);
+        }
+        network.addNode(key, node);
+        activate(network);
     }
 
-    public void removeNode(Vector3i pos) {
-        nodes.remove(pos);
+    public void removeNode(World world, Vector3i pos) {
+        SpatialIndex<FluidNode> nodes = worlds.get(world.getName());
+        if (nodes == null) return;
+        long key = BlockPos.pack(pos);
+        FluidNode node = nodes.remove(key);
+        if (node == null) return;
+
+        FluidNetwork network = node.getNetwork();
+        network.removeNode(key);
+        Set<FluidNetwork> worldNetworks = networks.get(world.getName());
+        if (network.isEmpty()) {
+            worldNetworks.remove(network);
+            deactivate(network);
+            return;
+        }
+
+        // Removing a node with two or more neighbours may cut the network; the largest part keeps it
+        int neighbours = 0;
+        for (int face = 0; face < BlockPos.FACES; face++) {
+            if (nodes.contains(BlockPos.neighbour(key, face))) {
+                neighbours++;
+            }
+        }
+        List<long[]> parts = neighbours > 1 ? network.findParts() : Collections.emptyList();
+        for (int i = 1; i < parts.size(); i++) {
+            FluidNetwork split = new FluidNetwork(world.getName());
+            for (long member : parts.get(i)) {
+                split.addNode(member, network.removeNode(member));
+            }
+            worldNetworks.add(split);
+            activate(split);
+        }
+        activate(network);
+    }
+
+    public boolean isNode(World world, Vector3i pos) {
+        SpatialIndex<FluidNode> nodes = worlds.get(world.getName());
+        return nodes != null && nodes.contains(BlockPos.pack(pos));
     }
 
-    public boolean isNode(Vector3i pos) {
-        return nodes.containsKey(pos);
+    /**
+     * A block changed; recheck the source of a pump standing on it
+     */
+    public void onBlockChange(World world, int x, int y, int z) {
+        SpatialIndex<FluidNode> nodes = worlds.get(world.getName());
+        if (nodes == null) return;
+        FluidNode above = nodes.get(BlockPos.pack(x, y + 1, z));
+        if (above != null && above.getType() == FluidNode.Type.PUMP) {
+            above.invalidateSource();
+            activate(above.getNetwork());
+        }
+    }
+
+    private void activate(FluidNetwork network) {
+        active.computeIfAbsent(network.getWorld(), w -> ConcurrentHashMap.newKeySet()).add(network);
+    }
+
+    private void deactivate(FluidNetwork network) {
+        Set<FluidNetwork> queue = active.get(network.getWorld());
+        if (queue != null) {
+            queue.remove(network);
+        }
     }
 
     public void tick(World world) {
+        Set<FluidNetwork> queue = active.get(world.getName());
+        if (queue == null || queue.isEmpty()) return;
+
         int pumpRate = plugin.getConfig().getInt("fluids.pump-rate", 200);
         double loss = plugin.getConfig().getDouble("fluids.viscosity-loss", 0.02);
 
-        // Pumps: pull from source below, push forward
-        nodes.values().stream()
-            .filter(n -> n.getType() == FluidNode.Type.PUMP)
-            .forEach(pump -> {
-                Block below = world.getBlockAt(pump.getPosition().x, pump.getPosition().y - 1, pump.getPosition().z);
-                boolean water = below.getType() == Material.WATER;
-                if (!water) return;
-
-                // take from infinite source
-                int pulled = pumpRate;
-                // push to front node if exists
-                Vector3i frontPos = new Vector3i(pump.getPosition().x + 1, pump.getPosition().y, pump.getPosition().z);
-                FluidNode front = nodes.get(frontPos);
-                if (front != null) {
-                    int leftover = front.insert(pulled);
-                    // drop overflow
-                    if (leftover > 0) {
-                        pump.setAmount(pump.getAmount() + leftover);
-                    }
-                }
-            });
-
-        // Equalize pipes with neighbors (simple averaging)
-        for (FluidNode node : nodes.values()) {
-            for (Vector3i neighborPos : neighbors(node.getPosition())) {
-                FluidNode neighbor = nodes.get(neighborPos);
-                if (neighbor == null) continue;
-                if (node.getAmount() == neighbor.getAmount()) continue;
-                int avg = (node.getAmount() + neighbor.getAmount()) / 2;
-                node.setAmount(avg);
-                neighbor.setAmount(avg);
+        List<FluidNetwork> batch = new ArrayList<>(queue);
+        queue.clear();
+        for (FluidNetwork network : batch) {
+            if (network.isEmpty()) continue;
+            // Networks reaching into unloaded chunks wait until they are loaded
+            if (!isLoaded(world, network)) {
+                queue.add(network);
+                continue;
+            }
+
+            long start = System.nanoTime();
+            boolean moving = network.tick(world, pumpRate, loss);
+            network.recordTick(System.nanoTime() - start);
+            if (moving) {
+                queue.add(network);
+            }
+        }
+    }
+
+    private static boolean isLoaded(World world, FluidNetwork network) {
+        for (long key : network.getChunks()) {
+            if (!world.isChunkLoaded(BlockPos.chunkX(key), BlockPos.chunkZ(key))) {
+                return false;
             }
         }
+        return true;
+    }
+
+    /**
+     * Number of fluid networks in a world
+     */
+    public int getNetworkCount(String world) {
+        Set<FluidNetwork> worldNetworks = networks.get(world);
+        return worldNetworks != null ? worldNetworks.size() : 0;
+    }
 
-        // Apply loss for distance (simple decay)
-        nodes.values().forEach(node -> {
-            int lose = (int) (node.getAmount() * loss);
-            node.setAmount(node.getAmount() - lose);
-        });
+    /**
+     * Number of fluid networks waiting for a tick in a world
+     */
+    public int getActiveCount(String world) {
+        Set<FluidNetwork> queue = active.get(world);
+        return queue != null ? queue.size() : 0;
     }
 
-    private Set<Vector3i> neighbors(Vector3i pos) {
-        return Set.of(
-            new Vector3i(pos.x + 1, pos.y, pos.z),
-            new Vector3i(pos.x - 1, pos.y, pos.z),
-            new Vector3i(pos.x, pos.y + 1, pos.z),
-            new Vector3i(pos.x, pos.y - 1, pos.z),
-            new Vector3i(pos.x, pos.y, pos.z + 1),
-            new Vector3i(pos.x, pos.y, pos.z - 1)
-        );
+    /**
+     * Networks of a world with the highest average solve time
+     */
+    public List<FluidNetwork> getSlowestNetworks(String world, int limit) {
+        Set<FluidNetwork> worldNetworks = networks.get(world);
+        if (worldNetworks == null) return Collections.emptyList();
+        return worldNetworks.stream()
+            .filter(network -> network.getTicks() > 0)
+            .sorted(Comparator.comparingDouble(FluidNetwork::getAverageMs).reversed())
+            .limit(limit)
+            .toList();
     }
 }
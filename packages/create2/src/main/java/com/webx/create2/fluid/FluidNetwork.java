@@ -0,0 +1,277 @@
+package com.webx.create2.fluid;
+
+import com.webx.create2.spatial.BlockPos;
+import com.webx.create2.spatial.LongQueue;
+import com.webx.create2.spatial.SpatialIndex;
+import lxxv.shared.collection.LongObjectMap;
+import lxxv.shared.collection.LongSet;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.joml.Vector3i;
+
+import java.util.*;
+
+/**
+ * A connected group of fluid nodes (pipes, pumps, tanks)
+ * The pressure graph (nodes, edges, pumps as flat arrays) is cached and only rebuilt
+ * when the network's nodes change. Each tick pumps with a water source fill themselves,
+ * then fluid flows along every edge from higher to lower fill ratio in one pass.
+ * Flow only moves fluid between nodes: a node never gives more than it holds and never
+ * takes more than its free space, so without loss the network total stays the same.
+ */
+public class FluidNetwork {
+
+    // Edge conductance as a fraction of the smaller capacity; a node has at most six
+    // edges, so 1/12 moves at most half its fluid per tick and never overshoots
+    // (trickles can still ask for more, which the per-node budgets in tick() scale down)
+    private static final int FLOW_DIVISOR = 12;
+    // Weight of the newest sample in the moving average
+    private static final double SMOOTHING = 0.05;
+
+    private final UUID id;
+    private final String world;
+    private final SpatialIndex<FluidNode> nodes;
+
+    // Cached pressure graph
+    private boolean graphDirty;
+    private FluidNode[] graphNodes;
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private FluidNode[] pumps;
+    // Per tick scratch: wanted flow of each edge, and what each node would give and take
+    private int[] flow;
+    private int[] outflow;
+    private int[] inflow;
+    private int[] delta;
+
+    private long ticks;
+    private long lastNanos;
+    private double averageNanos;
+
+    public FluidNetwork(String world) {
+        this.id = UUID.randomUUID();
+        this.world = world;
+        this.nodes = new SpatialIndex<>();
+        this.graphDirty = true;
+    }
+
+    public void addNode(long position, FluidNode node) {
+        nodes.put(position, node);
+        node.setNetwork(this);
+        graphDirty = true;
+    }
+
+    public FluidNode removeNode(long position) {
+        FluidNode node = nodes.remove(position);
+        if (node != null) {
+            graphDirty = true;
+        }
+        return node;
+    }
+
+    /**
+     * Move all nodes of another network into this one
+     */
+    public void merge(FluidNetwork other) {
+        if (other == this) return;
+        other.nodes.forEach(this::addNode);
+        other.nodes.clear();
+    }
+
+    /**
+     * Connected parts of this network, largest first
+     */
+    public List<long[]> findParts() {
+        List<long[]> parts = new ArrayList<>();
+        LongSet visited = new LongSet(nodes.size());
+        LongQueue queue = new LongQueue();
+        for (long start : nodes.keys()) {
+            if (!visited.add(start)) continue;
+            queue.clear();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                long current = queue.poll();
+                for (int face = 0; face < BlockPos.FACES; face++) {
+                    long neighbour = BlockPos.neighbour(current, face);
+                    if (nodes.contains(neighbour) && visited.add(neighbour)) {
+                        queue.add(neighbour);
+                    }
+                }
+            }
+            parts.add(queue.history());
+        }
+        parts.sort((a, b) -> Integer.compare(b.length, a.length));
+        return parts;
+    }
+
+    private void rebuildGraph() {
+        int size = nodes.size();
+        graphNodes = new FluidNode[size];
+        LongObjectMap<Integer> index = new LongObjectMap<>(size);
+        List<FluidNode> pumpList = new ArrayList<>();
+        int[] count = {0};
+        nodes.forEach((pos, node) -> {
+            index.put(pos, count[0]);
+            graphNodes[count[0]++] = node;
+            if (node.getType() == FluidNode.Type.PUMP) {
+                pumpList.add(node);
+            }
+        });
+
+        // Each edge once: only look in the positive direction of every axis
+        int[] from = new int[size * 3];
+        int[] to = new int[size * 3];
+        int edges = 0;
+        for (long pos : nodes.keys()) {
+            int a = index.get(pos);
+            for (int face = 0; face < BlockPos.FACES; face += 2) {
+                Integer b = index.get(BlockPos.neighbour(pos, face));
+                if (b != null) {
+                    from[edges] = a;
+                    to[edges] = b;
+                    edges++;
+                }
+            }
+        }
+        edgeFrom = Arrays.copyOf(from, edges);
+        edgeTo = Arrays.copyOf(to, edges);
+        pumps = pumpList.toArray(new FluidNode[0]);
+        flow = new int[edges];
+        outflow = new int[size];
+        inflow = new int[size];
+        delta = new int[size];
+        graphDirty = false;
+    }
+
+    /**
+     * Solve one tick of flow
+     * @return true if any fluid moved, so the network should tick again
+     */
+    public boolean tick(World world, int pumpRate, double loss) {
+        if (nodes.isEmpty()) return false;
+        if (graphDirty) {
+            rebuildGraph();
+        }
+        boolean changed = false;
+
+        // Pumps: pull from a water source below
+        for (FluidNode pump : pumps) {
+            if (!pump.isSourceChecked()) {
+                Vector3i pos = pump.getPosition();
+                if (!world.isChunkLoaded(pos.x >> 4, pos.z >> 4)) continue;
+                pump.setSource(world.getBlockAt(pos.x, pos.y - 1, pos.z).getType() == Material.WATER);
+            }
+            if (pump.hasSource() && pump.insert(pumpRate) < pumpRate) {
+                changed = true;
+            }
+        }
+
+        // Wanted flow along edges, from the amounts at the start of the pass
+        for (int e = 0; e < edgeFrom.length; e++) {
+            FluidNode a = graphNodes[edgeFrom[e]];
+            FluidNode b = graphNodes[edgeTo[e]];
+            double pressure = (double) a.getAmount() / a.getCapacity() - (double) b.getAmount() / b.getCapacity();
+            int wanted = (int) (pressure * Math.min(a.getCapacity(), b.getCapacity()) / FLOW_DIVISOR);
+            if (wanted == 0 && pressure != 0) {
+                // Trickle 1 mB where that does not reverse the pressure, so small gradients
+                // still even out instead of stalling on integer truncation
+                wanted = pressure > 0 ? trickle(a, b) : -trickle(b, a);
+            }
+            flow[e] = wanted;
+            if (wanted > 0) {
+                outflow[edgeFrom[e]] += wanted;
+                inflow[edgeTo[e]] += wanted;
+            } else if (wanted < 0) {
+                outflow[edgeTo[e]] -= wanted;
+                inflow[edgeFrom[e]] -= wanted;
+            }
+        }
+
+        // Scale each edge down to the giver's amount and the taker's free space, shared
+        // in proportion between its edges; rounding down keeps both budgets exact
+        for (int e = 0; e < edgeFrom.length; e++) {
+            int wanted = flow[e];
+            if (wanted == 0) continue;
+            int giver = wanted > 0 ? edgeFrom[e] : edgeTo[e];
+            int taker = wanted > 0 ? edgeTo[e] : edgeFrom[e];
+            int moved = share(Math.abs(wanted), graphNodes[giver].getAmount(), outflow[giver]);
+            FluidNode target = graphNodes[taker];
+            moved = share(moved, target.getCapacity() - target.getAmount(), inflow[taker]);
+            delta[giver] -= moved;
+            delta[taker] += moved;
+        }
+
+        // Apply flow and loss for distance (simple decay)
+        for (int i = 0; i < graphNodes.length; i++) {
+            FluidNode node = graphNodes[i];
+            int amount = node.getAmount() + delta[i];
+            delta[i] = 0;
+            outflow[i] = 0;
+            inflow[i] = 0;
+            amount -= (int) (amount * loss);
+            if (amount != node.getAmount()) {
+                node.setAmount(amount);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // Part of a wanted flow that fits when all wanted flows of a node total more than its budget
+    private static int share(int wanted, int budget, int total) {
+        return total <= budget ? wanted : (int) ((long) wanted * budget / total);
+    }
+
+    private static int trickle(FluidNode from, FluidNode to) {
+        return (long) (from.getAmount() - 1) * to.getCapacity() >= (long) (to.getAmount() + 1) * from.getCapacity() ? 1 : 0;
+    }
+
+    /**
+     * Record how long one solve took
+     */
+    void recordTick(long nanos) {
+        ticks++;
+        lastNanos = nanos;
+        averageNanos = ticks == 1 ? nanos : averageNanos + (nanos - averageNanos) * SMOOTHING;
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public int getSize() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public long[] getChunks() {
+        return nodes.chunkKeys();
+    }
+
+    public int getPumpCount() {
+        if (graphDirty) {
+            rebuildGraph();
+        }
+        return pumps.length;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public double getLastMs() {
+        return lastNanos / 1_000_000.0;
+    }
+
+    public double getAverageMs() {
+        return averageNanos / 1_000_000.0;
+    }
+}
@@ -9,6 +9,10 @@ public class FluidNode {
     private final Type type;
     private final int capacity;
     private int amount;
+    private FluidNetwork network;
+    // Pumps only: whether the block below was checked since it last changed, and the result
+    private boolean sourceChecked;
+    private boolean source;
 
     public FluidNode(Vector3i position, Type type, int capacity) {
         this.position = position;
@@ -49,4 +53,32 @@ public class FluidNode {
         amount -= taken;
         return taken;
     }
+
+    public FluidNetwork getNetwork() {
+        return network;
+    }
+
+    void setNetwork(FluidNetwork network) {
+        this.network = network;
+    }
+
+    public boolean isSourceChecked() {
+        return sourceChecked;
+    }
+
+    public boolean hasSource() {
+        return source;
+    }
+
+    void setSource(boolean source) {
+        this.source = source;
+        this.sourceChecked = true;
+    }
+
+    /**
+     * The block below changed; check it again on the next tick
+     */
+    void invalidateSource() {
+        this.sourceChecked = false;
+    }
 }
@@ -1,96 +1,209 @@
 package com.webx.create2.kinematic;
 
+import com.webx.create2.spatial.BlockPos;
+import com.webx.create2.spatial.SpatialIndex;
+import lxxv.shared.collection.LongObjectMap;
 import org.bukkit.Location;
 import org.joml.Vector3i;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a kinematic network - a connected system of rotating components
  * Inspired by Create's Rotational Network system
+ * 
+ * Changes only mark the network dirty; stress and RPM are recalculated on the next tick
  */
 public class KinematicNetwork {
     
+    /**
+     * Told when the network or one of its nodes is changed from outside the tick
+     * (main thread), so the network can be scheduled and its region saved
+     */
+    public interface ChangeListener {
+        void nodeChanged(KinematicNetwork network, long position);
+        
+        void networkChanged(KinematicNetwork network);
+    }
+    
     private final UUID id;
-    private final Set<Vector3i> components;
-    private final Map<Vector3i, KinematicNode> nodes;
+    private final String world;
+    // Packed position -> node; its chunk tables double as the set of chunks the network spans
+    private final SpatialIndex<KinematicNode> nodes;
     private double rpm;
     private double stress;
     private double stressCapacity;
     private boolean valid;
+    private boolean dirty;
+    private boolean rpmChanged;
+    // Result of compute(), applied by commit()
+    private boolean computed;
+    private boolean nextRecalculated;
+    private boolean nextRpmChanged;
+    private double nextRpm;
+    private double nextStress;
+    private double nextCapacity;
+    private ChangeListener listener;
     
-    public KinematicNetwork() {
+    public KinematicNetwork(String world) {
         this.id = UUID.randomUUID();
-        this.components = ConcurrentHashMap.newKeySet();
-        this.nodes = new ConcurrentHashMap<>();
+        this.world = world;
+        this.nodes = new SpatialIndex<>();
         this.rpm = 0.0;
         this.stress = 0.0;
         this.stressCapacity = 0.0;
         this.valid = true;
+        this.dirty = true;
     }
     
     /**
      * Add a component to this network
      */
-    public void addComponent(Vector3i position, KinematicNode node) {
-        components.add(position);
+    public void addComponent(long position, KinematicNode node) {
         nodes.put(position, node);
-        recalculateNetwork();
+        node.setNetwork(this);
+        dirty = true;
+    }
+    
+    public void addComponent(Vector3i position, KinematicNode node) {
+        addComponent(BlockPos.pack(position), node);
     }
     
     /**
      * Remove a component from this network
      */
-    public void removeComponent(Vector3i position) {
-        components.remove(position);
-        nodes.remove(position);
+    public void removeComponent(long position) {
+        KinematicNode node = nodes.remove(position);
+        if (node != null && node.getNetwork() == this) {
+            node.setNetwork(null);
+        }
         
-        if (components.isEmpty()) {
+        if (nodes.isEmpty()) {
             valid = false;
         } else {
-            recalculateNetwork();
+            dirty = true;
+        }
+    }
+    
+    /**
+     * Force a recalculation on the next tick (e.g. a source changed its RPM or capacity)
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+    
+    /**
+     * A component's RPM, stress or capacity was set
+     */
+    void nodeChanged(KinematicNode node) {
+        dirty = true;
+        if (listener != null) {
+            listener.nodeChanged(this, BlockPos.pack(node.getPosition()));
         }
     }
     
+    public void setChangeListener(ChangeListener listener) {
+        this.listener = listener;
+    }
+    
     /**
      * Check if network contains this position
      */
+    public boolean contains(long position) {
+        return nodes.contains(position);
+    }
+    
     public boolean contains(Vector3i position) {
-        return components.contains(position);
+        return contains(BlockPos.pack(position));
     }
     
     /**
      * Get node at position
      */
-    public KinematicNode getNode(Vector3i position) {
+    public KinematicNode getNode(long position) {
         return nodes.get(position);
     }
     
+    public KinematicNode getNode(Vector3i position) {
+        return getNode(BlockPos.pack(position));
+    }
+    
+    /**
+     * Visit every component without copying
+     */
+    public void forEachNode(LongObjectMap.EntryConsumer<KinematicNode> action) {
+        nodes.forEach(action);
+    }
+    
+    /**
+     * Update network state (called while scheduled)
+     * @return true if the network needs another tick (still decaying)
+     */
+    public boolean tick() {
+        compute();
+        return commit();
+    }
+    
     /**
-     * Update network state (called every tick)
+     * Compute the next stress and RPM without changing the network or its nodes
+     * Pure maths over node values, so networks can be computed in parallel while the
+     * main thread waits; the result is applied by commit()
      */
-    public void tick() {
+    public void compute() {
         if (!valid) return;
         
+        nextRpm = rpm;
+        nextStress = stress;
+        nextCapacity = stressCapacity;
+        nextRecalculated = dirty;
+        nextRpmChanged = false;
+        if (dirty) {
+            recalculateNetwork();
+            nextRpmChanged = nextRpm != rpm;
+        }
+        
         // Apply stress decay if overloaded
-        if (stress > stressCapacity) {
+        if (nextStress > nextCapacity && nextRpm > 0) {
             double decayRate = 0.1; // TODO: from config
-            rpm *= (1.0 - decayRate);
+            nextRpm *= (1.0 - decayRate);
             
-            if (rpm < 0.1) {
-                rpm = 0.0;
+            if (nextRpm < 0.1) {
+                nextRpm = 0.0;
             }
+            nextRpmChanged = true;
         }
+        computed = true;
+    }
+    
+    /**
+     * Apply the result of compute() (main thread)
+     * @return true if the network needs another tick (still decaying)
+     */
+    public boolean commit() {
+        if (!valid || !computed) return false;
+        computed = false;
         
-        // Update all nodes with current RPM
-        for (KinematicNode node : nodes.values()) {
-            node.setRpm(rpm);
+        if (nextRecalculated) {
+            dirty = false;
+        }
+        rpm = nextRpm;
+        stress = nextStress;
+        stressCapacity = nextCapacity;
+        rpmChanged |= nextRpmChanged;
+        
+        // Update all nodes only when RPM actually changed
+        if (rpmChanged) {
+            rpmChanged = false;
+            for (KinematicNode node : nodes.values()) {
+                node.applyRpm(rpm);
+            }
         }
+        
+        return stress > stressCapacity && rpm > 0;
     }
     
     /**
-     * Recalculate network properties (stress, capacity, etc.)
+     * Recalculate network properties (stress, capacity, etc.) into the next state
      * Inspired by Create's StressImpact system
      */
     private void recalculateNetwork() {
@@ -115,14 +228,14 @@ public class KinematicNetwork {
             }
         }
         
-        this.stress = totalStress;
-        this.stressCapacity = totalCapacity;
+        this.nextStress = totalStress;
+        this.nextCapacity = totalCapacity;
         
         // Set RPM only if we have capacity
         if (totalCapacity > 0) {
-            this.rpm = sourceRpm;
+            this.nextRpm = sourceRpm;
         } else {
-            this.rpm = 0.0;
+            this.nextRpm = 0.0;
         }
     }
     
@@ -133,97 +246,57 @@ public class KinematicNetwork {
         if (other == this) return;
         
         // Transfer all components
-        for (Vector3i pos : other.components) {
-            KinematicNode node = other.nodes.get(pos);
-            if (node != null) {
-                addComponent(pos, node);
-            }
-        }
+        other.nodes.forEach(this::addComponent);
         
         // Invalidate the other network
         other.valid = false;
-        other.components.clear();
         other.nodes.clear();
     }
     
     /**
-     * Split network at a position (when component removed)
+     * Move components to another network (used when a part is cut off)
      */
-    public List<KinematicNetwork> split(Vector3i splitPosition) {
-        List<KinematicNetwork> newNetworks = new ArrayList<>();
-        
-        // Find connected components using BFS
-        Set<Vector3i> visited = new HashSet<>();
-        
-        for (Vector3i start : components) {
-            if (visited.contains(start)) continue;
-            if (start.equals(splitPosition)) continue;
-            
-            // BFS to find connected group
-            Set<Vector3i> group = new HashSet<>();
-            Queue<Vector3i> queue = new LinkedList<>();
-            queue.add(start);
-            
-            while (!queue.isEmpty()) {
-                Vector3i current = queue.poll();
-                if (visited.contains(current)) continue;
-                if (current.equals(splitPosition)) continue;
-                
-                visited.add(current);
-                group.add(current);
-                
-                // Check neighbors (6 directions)
-                for (Vector3i neighbor : getNeighbors(current)) {
-                    if (components.contains(neighbor) && !visited.contains(neighbor)) {
-                        queue.add(neighbor);
-                    }
-                }
-            }
-            
-            // Create new network for this group
-            if (!group.isEmpty()) {
-                KinematicNetwork newNetwork = new KinematicNetwork();
-                for (Vector3i pos : group) {
-                    KinematicNode node = nodes.get(pos);
-                    if (node != null) {
-                        newNetwork.addComponent(pos, node);
-                    }
-                }
-                newNetworks.add(newNetwork);
+    public void moveComponentsTo(long[] positions, KinematicNetwork target) {
+        for (long pos : positions) {
+            KinematicNode node = nodes.get(pos);
+            if (node != null) {
+                removeComponent(pos);
+                target.addComponent(pos, node);
             }
         }
-        
-        // Invalidate this network
-        this.valid = false;
-        
-        return newNetworks;
+    }
+    
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+    
+    public String getWorld() {
+        return world;
     }
     
     /**
-     * Get neighboring positions (6 directions)
+     * Chunk keys this network has components in
      */
-    private List<Vector3i> getNeighbors(Vector3i pos) {
-        List<Vector3i> neighbors = new ArrayList<>();
-        neighbors.add(new Vector3i(pos.x + 1, pos.y, pos.z));
-        neighbors.add(new Vector3i(pos.x - 1, pos.y, pos.z));
-        neighbors.add(new Vector3i(pos.x, pos.y + 1, pos.z));
-        neighbors.add(new Vector3i(pos.x, pos.y - 1, pos.z));
-        neighbors.add(new Vector3i(pos.x, pos.y, pos.z + 1));
-        neighbors.add(new Vector3i(pos.x, pos.y, pos.z - 1));
-        return neighbors;
+    public long[] getChunks() {
+        return nodes.chunkKeys();
     }
     
-    // Getters
-    public UUID getId() {
-        return id;
+    /**
+     * Packed positions of all components
+     */
+    public long[] getPositions() {
+        return nodes.keys();
     }
     
     public Set<Vector3i> getComponents() {
-        return new HashSet<>(components);
+        Set<Vector3i> components = new HashSet<>(nodes.size() * 2);
+        nodes.forEach((pos, node) -> components.add(BlockPos.toVector(pos)));
+        return components;
     }
     
     public int getSize() {
-        return components.size();
+        return nodes.size();
     }
     
     public double getRpm() {
@@ -232,6 +305,10 @@ public class KinematicNetwork {
     
     public void setRpm(double rpm) {
         this.rpm = Math.max(0, rpm);
+        this.rpmChanged = true;
+        if (listener != null) {
+            listener.networkChanged(this);
+        }
     }
     
     public double getStress() {
@@ -246,6 +323,10 @@ public class KinematicNetwork {
         return valid;
     }
     
+    public boolean isDirty() {
+        return dirty || rpmChanged;
+    }
+    
     public boolean isOverstressed() {
         return stress > stressCapacity;
     }
@@ -259,7 +340,7 @@ public class KinematicNetwork {
     public String toString() {
         return String.format("Network{id=%s, size=%d, rpm=%.1f, stress=%.1f/%.1f (%.1f%%)}", 
             id.toString().substring(0, 8), 
-            components.size(), 
+            nodes.size(), 
             rpm, 
             stress, 
             stressCapacity, 
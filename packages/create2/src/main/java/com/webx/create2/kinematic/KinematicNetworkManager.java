@@ -1,7 +1,13 @@
 package com.webx.create2.kinematic;
 
 import com.webx.create2.Create2Plugin;
+import com.webx.create2.persistence.RegionFile;
+import com.webx.create2.persistence.RegionStore;
+import com.webx.create2.spatial.BlockPos;
+import lxxv.shared.collection.LongObjectMap;
+import org.bukkit.Chunk;
 import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.joml.Vector3i;
 
@@ -11,248 +17,530 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages all kinematic networks in the world
+ * Manages all kinematic networks in every world
  * Handles network creation, merging, splitting
  * Inspired by Create's RotationPropagator
+ * 
+ * Only scheduled networks are ticked: a network is scheduled when it changes and
+ * unscheduled once it is idle again. Networks with a component in an unloaded chunk
+ * sleep until that chunk loads.
+ * 
+ * Components are stored per region (32x32 chunks, see RegionFile). A region is read when
+ * its first chunk loads and its components join networks like placed blocks would; changed
+ * regions are written back periodically on the I/O thread.
+ * 
+ * Networks report changes to their nodes' RPM, stress and capacity (and their own RPM)
+ * back here, which schedules them and marks their regions changed.
  */
-public class KinematicNetworkManager {
+public class KinematicNetworkManager implements KinematicNetwork.ChangeListener {
     
     private final Create2Plugin plugin;
     private final Map<UUID, KinematicNetwork> networks;
-    private final Map<Vector3i, UUID> positionToNetwork;
+    // World name -> component connectivity (position -> network)
+    private final Map<String, NetworkConnectivity> connectivity;
+    // World name -> networks that need a tick
+    private final Map<String, Set<KinematicNetwork>> scheduled;
+    // World name -> chunk key -> networks waiting for that chunk
+    private final Map<String, Map<Long, Set<KinematicNetwork>>> sleeping;
+    private final NetworkSolver solver;
+    // Null when persistence is disabled
+    private final RegionStore regions;
     
     public KinematicNetworkManager(Create2Plugin plugin) {
         this.plugin = plugin;
         this.networks = new ConcurrentHashMap<>();
-        this.positionToNetwork = new ConcurrentHashMap<>();
+        this.connectivity = new ConcurrentHashMap<>();
+        this.scheduled = new ConcurrentHashMap<>();
+        this.sleeping = new ConcurrentHashMap<>();
+        
+        // 0 threads = one per core, leaving one for the server
+        int threads = plugin.getConfig().getInt("performance.threads", 0);
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+        if (!plugin.getConfig().getBoolean("performance.async-calculations", true)) {
+            threads = 1;
+        }
+        this.solver = new NetworkSolver(threads, plugin.getConfig().getInt("performance.parallel-min-components", 2048));
+        this.regions = plugin.getConfig().getBoolean("persistence.enabled", true)
+            ? new RegionStore(new File(plugin.getDataFolder(), plugin.getConfig().getString("persistence.directory", "regions")), plugin.getLogger())
+            : null;
+    }
+    
+    private void register(KinematicNetwork network) {
+        network.setChangeListener(this);
+        networks.put(network.getId(), network);
+    }
+    
+    private NetworkConnectivity connectivity(String world) {
+        return connectivity.computeIfAbsent(world, w -> new NetworkConnectivity());
     }
     
     /**
      * Create a new kinematic node at position
      */
-    public void createNode(Vector3i position, KinematicNodeType type) {
+    public void createNode(World world, Vector3i position, KinematicNodeType type) {
+        NetworkConnectivity graph = connectivity(world.getName());
+        long key = BlockPos.pack(position);
+        
         // Check if already exists
-        if (positionToNetwork.containsKey(position)) {
+        if (graph.contains(key)) {
             plugin.getLogger().warning("Node already exists at " + position);
             return;
         }
         
         // Create new node
         KinematicNode node = new KinematicNode(position, type);
-        
-        // Find adjacent networks
-        List<KinematicNetwork> adjacentNetworks = findAdjacentNetworks(position, node);
+        insertNode(world.getName(), graph, key, node, true);
+        markRegionDirty(world.getName(), key);
+    }
+    
+    /**
+     * Join a node to the networks around it (placed or loaded from a region file)
+     */
+    private void insertNode(String world, NetworkConnectivity graph, long key, KinematicNode node, boolean announce) {
+        // Find adjacent networks (and one connecting neighbour of each)
+        Map<KinematicNetwork, Long> adjacentNetworks = findAdjacentNetworks(graph, key, node);
         
         if (adjacentNetworks.isEmpty()) {
             // Create new network
-            KinematicNetwork network = new KinematicNetwork();
-            network.addComponent(position, node);
-            networks.put(network.getId(), network);
-            positionToNetwork.put(position, network.getId());
+            KinematicNetwork network = new KinematicNetwork(world);
+            network.addComponent(key, node);
+            register(network);
+            graph.addRoot(key, network);
+            schedule(network);
             
-            plugin.getLogger().info("Created new network: " + network.getId());
+            if (announce) {
+                plugin.getLogger().info("Created new network: " + network.getId());
+            }
         } else if (adjacentNetworks.size() == 1) {
             // Add to existing network
-            KinematicNetwork network = adjacentNetworks.get(0);
-            network.addComponent(position, node);
-            positionToNetwork.put(position, network.getId());
+            Map.Entry<KinematicNetwork, Long> adjacent = adjacentNetworks.entrySet().iterator().next();
+            KinematicNetwork network = adjacent.getKey();
+            network.addComponent(key, node);
+            graph.addTo(key, adjacent.getValue());
+            schedule(network);
             
-            plugin.getLogger().info("Added node to network: " + network.getId());
+            if (announce) {
+                plugin.getLogger().info("Added node to network: " + network.getId());
+            }
         } else {
-            // Merge multiple networks
-            KinematicNetwork mainNetwork = adjacentNetworks.get(0);
-            mainNetwork.addComponent(position, node);
-            positionToNetwork.put(position, mainNetwork.getId());
+            // Merge multiple networks into the largest, so only the smaller ones move nodes
+            KinematicNetwork mainNetwork = Collections.max(adjacentNetworks.keySet(),
+                Comparator.comparingInt(KinematicNetwork::getSize));
+            long anchor = adjacentNetworks.get(mainNetwork);
+            mainNetwork.addComponent(key, node);
+            graph.addTo(key, anchor);
             
-            // Merge other networks into main
-            for (int i = 1; i < adjacentNetworks.size(); i++) {
-                KinematicNetwork other = adjacentNetworks.get(i);
+            for (Map.Entry<KinematicNetwork, Long> adjacent : adjacentNetworks.entrySet()) {
+                KinematicNetwork other = adjacent.getKey();
+                if (other == mainNetwork) continue;
+                
                 mainNetwork.merge(other);
                 networks.remove(other.getId());
-                
-                // Update position mappings
-                for (Vector3i pos : other.getComponents()) {
-                    positionToNetwork.put(pos, mainNetwork.getId());
-                }
+                graph.union(anchor, adjacent.getValue(), mainNetwork);
+                graph.transferPending(other, mainNetwork);
             }
+            schedule(mainNetwork);
             
-            plugin.getLogger().info("Merged " + adjacentNetworks.size() + " networks into: " + mainNetwork.getId());
+            if (announce) {
+                plugin.getLogger().info("Merged " + adjacentNetworks.size() + " networks into: " + mainNetwork.getId());
+            }
         }
     }
     
     /**
      * Remove a node at position
+     * A split is resolved before the next tick of the world, batched with other removals
      */
-    public void removeNode(Vector3i position) {
-        UUID networkId = positionToNetwork.remove(position);
-        if (networkId == null) return;
+    public void removeNode(World world, Vector3i position) {
+        NetworkConnectivity graph = connectivity.get(world.getName());
+        if (graph == null) return;
         
-        KinematicNetwork network = networks.get(networkId);
+        long key = BlockPos.pack(position);
+        KinematicNetwork network = graph.getNetwork(key);
         if (network == null) return;
         
         // Remove from network
-        network.removeComponent(position);
+        network.removeComponent(key);
+        graph.remove(key, network);
+        markRegionDirty(world.getName(), key);
         
-        // Check if network should split
-        if (network.getSize() > 1) {
-            // Split network
-            List<KinematicNetwork> newNetworks = network.split(position);
-            
-            // Remove old network
-            networks.remove(networkId);
-            
-            // Add new networks
-            for (KinematicNetwork newNetwork : newNetworks) {
-                networks.put(newNetwork.getId(), newNetwork);
-                
-                // Update position mappings
-                for (Vector3i pos : newNetwork.getComponents()) {
-                    positionToNetwork.put(pos, newNetwork.getId());
-                }
-            }
-            
-            plugin.getLogger().info("Split network into " + newNetworks.size() + " networks");
+        if (network.isValid()) {
+            schedule(network);
         } else {
             // Network is now empty, remove it
-            networks.remove(networkId);
-            plugin.getLogger().info("Removed empty network: " + networkId);
+            networks.remove(network.getId());
+            plugin.getLogger().info("Removed empty network: " + network.getId());
         }
     }
     
     /**
-     * Get node at position
+     * Split networks cut apart by removals in a world
      */
-    public KinematicNode getNode(Vector3i position) {
-        UUID networkId = positionToNetwork.get(position);
-        if (networkId == null) return null;
+    private void resolveSplits(NetworkConnectivity graph) {
+        if (!graph.hasPendingSplits()) return;
         
-        KinematicNetwork network = networks.get(networkId);
+        List<KinematicNetwork> created = graph.resolveSplits();
+        for (KinematicNetwork network : created) {
+            register(network);
+            schedule(network);
+        }
+        if (!created.isEmpty()) {
+            plugin.getLogger().info("Split off " + created.size() + " networks");
+        }
+    }
+    
+    /**
+     * Get node at position
+     */
+    public KinematicNode getNode(World world, Vector3i position) {
+        long key = BlockPos.pack(position);
+        KinematicNetwork network = getNetwork(world, key);
         if (network == null) return null;
         
-        return network.getNode(position);
+        return network.getNode(key);
     }
     
     /**
      * Get network containing position
      */
-    public KinematicNetwork getNetwork(Vector3i position) {
-        UUID networkId = positionToNetwork.get(position);
-        if (networkId == null) return null;
+    public KinematicNetwork getNetwork(World world, Vector3i position) {
+        return getNetwork(world, BlockPos.pack(position));
+    }
+    
+    /**
+     * Get network containing a packed position (see BlockPos)
+     */
+    public KinematicNetwork getNetwork(World world, long position) {
+        NetworkConnectivity graph = connectivity.get(world.getName());
+        return graph != null ? graph.getNetwork(position) : null;
+    }
+    
+    /**
+     * Recalculate network on its next tick (a node's RPM, stress or capacity changed)
+     */
+    public void markDirty(KinematicNetwork network) {
+        network.markDirty();
+        schedule(network);
+        markRegionsDirty(network);
+    }
+    
+    @Override
+    public void nodeChanged(KinematicNetwork network, long position) {
+        if (!network.isValid()) return;
+        schedule(network);
+        markRegionDirty(network.getWorld(), position);
+    }
+    
+    @Override
+    public void networkChanged(KinematicNetwork network) {
+        if (!network.isValid()) return;
+        markDirty(network);
+    }
+    
+    private void markRegionDirty(String world, long position) {
+        if (regions != null) {
+            regions.markDirty(world, RegionFile.regionKeyOf(position));
+        }
+    }
+    
+    /**
+     * Mark every region a network has components in as changed
+     */
+    private void markRegionsDirty(KinematicNetwork network) {
+        if (regions == null) return;
         
-        return networks.get(networkId);
+        for (long chunk : network.getChunks()) {
+            regions.markDirty(network.getWorld(), RegionFile.regionKey(BlockPos.chunkX(chunk), BlockPos.chunkZ(chunk)));
+        }
+    }
+    
+    private void schedule(KinematicNetwork network) {
+        scheduled.computeIfAbsent(network.getWorld(), w -> ConcurrentHashMap.newKeySet()).add(network);
+    }
+    
+    /**
+     * Read the chunk's region if it is the first of it to load, then wake networks
+     * that were waiting for this chunk
+     */
+    public void onChunkLoad(World world, int chunkX, int chunkZ) {
+        loadRegion(world.getName(), RegionFile.regionKey(chunkX, chunkZ));
+        
+        Map<Long, Set<KinematicNetwork>> waiting = sleeping.get(world.getName());
+        if (waiting == null) return;
+        
+        Set<KinematicNetwork> woken = waiting.remove(BlockPos.chunkKey(chunkX, chunkZ));
+        if (woken == null) return;
+        
+        for (KinematicNetwork network : woken) {
+            if (network.isValid()) {
+                // Re-checked on tick; sleeps again if another chunk is still unloaded
+                schedule(network);
+            }
+        }
+    }
+    
+    /**
+     * Returns an unloaded chunk the network has components in, or null if all are loaded
+     */
+    private Long findUnloadedChunk(World world, KinematicNetwork network) {
+        for (long key : network.getChunks()) {
+            if (!world.isChunkLoaded(BlockPos.chunkX(key), BlockPos.chunkZ(key))) {
+                return key;
+            }
+        }
+        return null;
     }
     
     /**
      * Find adjacent networks that can connect to this node
      */
-    private List<KinematicNetwork> findAdjacentNetworks(Vector3i position, KinematicNode newNode) {
-        Set<KinematicNetwork> adjacentSet = new HashSet<>();
+    private Map<KinematicNetwork, Long> findAdjacentNetworks(NetworkConnectivity graph, long position, KinematicNode newNode) {
+        Map<KinematicNetwork, Long> adjacent = new LinkedHashMap<>();
         
         // Check all 6 neighbors
-        Vector3i[] neighbors = {
-            new Vector3i(position.x + 1, position.y, position.z),
-            new Vector3i(position.x - 1, position.y, position.z),
-            new Vector3i(position.x, position.y + 1, position.z),
-            new Vector3i(position.x, position.y - 1, position.z),
-            new Vector3i(position.x, position.y, position.z + 1),
-            new Vector3i(position.x, position.y, position.z - 1)
-        };
-        
-        for (Vector3i neighbor : neighbors) {
-            UUID networkId = positionToNetwork.get(neighbor);
-            if (networkId != null) {
-                KinematicNetwork network = networks.get(networkId);
-                if (network != null && network.isValid()) {
-                    KinematicNode neighborNode = network.getNode(neighbor);
-                    
-                    // Check if nodes can connect
-                    if (neighborNode != null && newNode.canConnectTo(neighborNode)) {
-                        adjacentSet.add(network);
-                    }
+        for (int face = 0; face < BlockPos.FACES; face++) {
+            long neighbor = BlockPos.neighbour(position, face);
+            KinematicNetwork network = graph.getNetwork(neighbor);
+            if (network != null && network.isValid()) {
+                KinematicNode neighborNode = network.getNode(neighbor);
+                
+                // Check if nodes can connect
+                if (neighborNode != null && newNode.canConnectTo(neighborNode)) {
+                    adjacent.putIfAbsent(network, neighbor);
                 }
             }
         }
         
-        return new ArrayList<>(adjacentSet);
+        return adjacent;
     }
     
     /**
-     * Update all networks (called every tick)
+     * Update scheduled networks of a world (called every tick)
+     * @return number of networks ticked
      */
-    public void tick() {
-        // Remove invalid networks
-        networks.values().removeIf(network -> !network.isValid());
+    public int tick(World world) {
+        NetworkConnectivity graph = connectivity.get(world.getName());
+        if (graph != null) {
+            resolveSplits(graph);
+        }
+        
+        Set<KinematicNetwork> queue = scheduled.get(world.getName());
+        if (queue == null || queue.isEmpty()) return 0;
         
-        // Update all networks
-        for (KinematicNetwork network : networks.values()) {
-            network.tick();
+        List<KinematicNetwork> batch = new ArrayList<>(queue);
+        queue.clear();
+        
+        List<KinematicNetwork> due = new ArrayList<>(batch.size());
+        for (KinematicNetwork network : batch) {
+            if (!network.isValid()) continue;
+            
+            Long unloaded = findUnloadedChunk(world, network);
+            if (unloaded != null) {
+                sleeping.computeIfAbsent(world.getName(), w -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(unloaded, k -> ConcurrentHashMap.newKeySet())
+                    .add(network);
+                continue;
+            }
+            due.add(network);
         }
+        
+        // Maths first (possibly in parallel), then every result is applied here on the main thread
+        solver.compute(due);
+        for (KinematicNetwork network : due) {
+            double rpm = network.getRpm();
+            if (network.commit()) {
+                queue.add(network);
+            }
+            if (network.getRpm() != rpm) {
+                markRegionsDirty(network);
+            }
+        }
+        return due.size();
+    }
+    
+    public NetworkSolver getSolver() {
+        return solver;
+    }
+    
+    public RegionStore getRegionStore() {
+        return regions;
+    }
+    
+    /**
+     * Stop solver threads and finish queued region writes (plugin disable)
+     */
+    public void shutdown() {
+        solver.shutdown();
+        if (regions != null) {
+            regions.close();
+        }
+    }
+    
+    /**
+     * Queue writes of every region changed since the last save (autosave timer)
+     * Regions are encoded here on the main thread, so the I/O thread never sees live nodes
+     * @return number of regions queued
+     */
+    public int saveDirty() {
+        if (regions == null) return 0;
+        
+        int saved = 0;
+        for (String world : regions.getDirtyWorlds()) {
+            for (long region : regions.drainDirty(world)) {
+                saveRegion(world, region);
+                saved++;
+            }
+        }
+        return saved;
     }
     
     /**
-     * Save all networks to disk
+     * Save every changed region (plugin disable); shutdown() waits for the writes
      */
     public void saveAll() {
-        if (!plugin.getConfig().getBoolean("persistence.enabled", true)) return;
-
-        File file = new File(plugin.getDataFolder(), plugin.getConfig().getString("persistence.file", "networks.yml"));
-        YamlConfiguration yaml = new YamlConfiguration();
-
-        int idx = 0;
-        for (KinematicNetwork network : networks.values()) {
-            List<Map<String, Object>> list = new ArrayList<>();
-            for (Vector3i pos : network.getComponents()) {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("x", pos.x);
-                entry.put("y", pos.y);
-                entry.put("z", pos.z);
-                entry.put("type", network.getNode(pos).getType().name());
-                list.add(entry);
+        int saved = saveDirty();
+        if (saved > 0) {
+            plugin.getLogger().info("Saving " + saved + " changed regions");
+        }
+    }
+    
+    private void saveRegion(String world, long region) {
+        // A region that was never read must not be overwritten with what little is in memory
+        if (!regions.isLoaded(world, region)) return;
+        
+        LongObjectMap<KinematicNode> nodes = new LongObjectMap<>();
+        NetworkConnectivity graph = connectivity.get(world);
+        if (graph != null) {
+            int side = 1 << RegionFile.REGION_SHIFT;
+            int baseX = BlockPos.chunkX(region) * side;
+            int baseZ = BlockPos.chunkZ(region) * side;
+            for (int dx = 0; dx < side; dx++) {
+                for (int dz = 0; dz < side; dz++) {
+                    graph.forEachInChunk(baseX + dx, baseZ + dz, (pos, network) -> nodes.put(pos, network.getNode(pos)));
+                }
             }
-            yaml.set("networks." + idx + ".nodes", list);
-            idx++;
         }
-
+        
         try {
-            yaml.save(file);
-            plugin.getLogger().info("Saved " + networks.size() + " networks to " + file.getName());
+            regions.write(world, region, nodes.isEmpty() ? null : RegionFile.encode(nodes));
         } catch (IOException e) {
-            plugin.getLogger().warning("Failed to save networks: " + e.getMessage());
+            plugin.getLogger().warning("Failed to encode region " + world + "/" + RegionFile.fileName(region) + ": " + e.getMessage());
         }
     }
     
     /**
-     * Load networks from disk
+     * Import the legacy YAML file if present, then read the regions of chunks already loaded
+     * Other regions are read as their chunks load
      */
     public void loadAll() {
-        if (!plugin.getConfig().getBoolean("persistence.enabled", true)) return;
-
-        File file = new File(plugin.getDataFolder(), plugin.getConfig().getString("persistence.file", "networks.yml"));
-        if (!file.exists()) return;
-
-        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        if (regions == null) return;
+        
         networks.clear();
-        positionToNetwork.clear();
-
-        if (!yaml.isConfigurationSection("networks")) return;
-
-        for (String key : Objects.requireNonNull(yaml.getConfigurationSection("networks")).getKeys(false)) {
-            List<Map<?, ?>> list = yaml.getMapList("networks." + key + ".nodes");
-            KinematicNetwork network = new KinematicNetwork();
-            for (Map<?, ?> entry : list) {
-                int x = entry.get("x") != null ? ((Number) entry.get("x")).intValue() : 0;
-                int y = entry.get("y") != null ? ((Number) entry.get("y")).intValue() : 0;
-                int z = entry.get("z") != null ? ((Number) entry.get("z")).intValue() : 0;
-                String typeStr = (String) entry.get("type");
-                KinematicNodeType type = KinematicNodeType.valueOf(typeStr);
-                Vector3i pos = new Vector3i(x, y, z);
-                KinematicNode node = new KinematicNode(pos, type);
-                network.addComponent(pos, node);
-                positionToNetwork.put(pos, network.getId());
+        connectivity.clear();
+        scheduled.clear();
+        sleeping.clear();
+        
+        File legacy = new File(plugin.getDataFolder(), plugin.getConfig().getString("persistence.file", "networks.yml"));
+        if (legacy.exists()) {
+            importYaml(legacy);
+        }
+        
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                loadRegion(world.getName(), RegionFile.regionKey(chunk.getX(), chunk.getZ()));
+            }
+        }
+        plugin.getLogger().info("Loaded " + networks.size() + " networks from " + regions.getLoadedCount() + " regions");
+    }
+    
+    /**
+     * Read a region the first time one of its chunks loads
+     * Its components join networks one by one, merging with neighbouring regions already loaded
+     */
+    private void loadRegion(String world, long region) {
+        if (regions == null || !regions.markLoaded(world, region)) return;
+        
+        try {
+            byte[] data = regions.read(world, region);
+            if (data == null) return;
+            
+            NetworkConnectivity graph = connectivity(world);
+            int skipped = RegionFile.decode(region, data, (pos, node) -> {
+                if (!graph.contains(pos)) {
+                    insertNode(world, graph, pos, node, false);
+                }
+            });
+            if (skipped > 0) {
+                plugin.getLogger().warning("Skipped " + skipped + " components of unknown types in " + world + "/" + RegionFile.fileName(region));
             }
-            networks.put(network.getId(), network);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to load region " + world + "/" + RegionFile.fileName(region) + ": " + e.getMessage());
+            // Keep the file for inspection; the region is saved afresh from what is in memory
+            regions.setAside(world, region);
         }
-        plugin.getLogger().info("Loaded " + networks.size() + " networks from " + file.getName());
+    }
+    
+    /**
+     * One-time import of the YAML file older versions saved every network to
+     * The file is renamed afterwards, so it is not imported again
+     */
+    private void importYaml(File file) {
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        
+        // Files written before networks were per world belong to the main world
+        List<World> worlds = plugin.getServer().getWorlds();
+        String defaultWorld = worlds.isEmpty() ? "world" : worlds.get(0).getName();
+        
+        // World -> region key -> components
+        Map<String, LongObjectMap<LongObjectMap<KinematicNode>>> byRegion = new HashMap<>();
+        int count = 0;
+        ConfigurationSection section = yaml.getConfigurationSection("networks");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                String world = yaml.getString("networks." + key + ".world", defaultWorld);
+                LongObjectMap<LongObjectMap<KinematicNode>> worldRegions = byRegion.computeIfAbsent(world, w -> new LongObjectMap<>());
+                for (Map<?, ?> entry : yaml.getMapList("networks." + key + ".nodes")) {
+                    int x = entry.get("x") != null ? ((Number) entry.get("x")).intValue() : 0;
+                    int y = entry.get("y") != null ? ((Number) entry.get("y")).intValue() : 0;
+                    int z = entry.get("z") != null ? ((Number) entry.get("z")).intValue() : 0;
+                    KinematicNodeType type;
+                    try {
+                        type = KinematicNodeType.valueOf(String.valueOf(entry.get("type")));
+                    } catch (IllegalArgumentException e) {
+                        continue;
+                    }
+                    
+                    long pos = BlockPos.pack(x, y, z);
+                    long region = RegionFile.regionKeyOf(pos);
+                    LongObjectMap<KinematicNode> nodes = worldRegions.get(region);
+                    if (nodes == null) {
+                        nodes = new LongObjectMap<>();
+                        worldRegions.put(region, nodes);
+                    }
+                    nodes.put(pos, new KinematicNode(new Vector3i(x, y, z), type));
+                    count++;
+                }
+            }
+        }
+        
+        try {
+            for (Map.Entry<String, LongObjectMap<LongObjectMap<KinematicNode>>> world : byRegion.entrySet()) {
+                for (long region : world.getValue().keys()) {
+                    regions.writeNow(world.getKey(), region, RegionFile.encode(world.getValue().get(region)));
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to import " + file.getName() + ": " + e.getMessage());
+            return;
+        }
+        
+        File imported = new File(file.getParentFile(), file.getName() + ".imported");
+        if (!file.renameTo(imported)) {
+            plugin.getLogger().warning("Could not rename " + file.getName() + "; it will be imported again on next start");
+        }
+        plugin.getLogger().info("Imported " + count + " components from " + file.getName() + " into region files");
     }
     
     /**
@@ -273,14 +561,30 @@ public class KinematicNetworkManager {
      * Get total component count
      */
     public int getTotalComponentCount() {
-        return positionToNetwork.size();
+        return connectivity.values().stream().mapToInt(NetworkConnectivity::size).sum();
+    }
+    
+    /**
+     * Number of networks waiting for a tick in a world
+     */
+    public int getScheduledCount(String world) {
+        Set<KinematicNetwork> queue = scheduled.get(world);
+        return queue != null ? queue.size() : 0;
+    }
+    
+    /**
+     * Number of networks asleep in unloaded chunks of a world
+     */
+    public int getSleepingCount(String world) {
+        Map<Long, Set<KinematicNetwork>> waiting = sleeping.get(world);
+        return waiting != null ? waiting.values().stream().mapToInt(Set::size).sum() : 0;
     }
     
     /**
      * Get network statistics
      */
     public NetworkStats getStats() {
-        int totalComponents = positionToNetwork.size();
+        int totalComponents = getTotalComponentCount();
         int totalNetworks = networks.size();
         double avgSize = totalNetworks > 0 ? (double) totalComponents / totalNetworks : 0;
         
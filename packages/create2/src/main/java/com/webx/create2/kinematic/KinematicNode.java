@@ -17,6 +17,8 @@ public class KinematicNode {
     private double stressCapacity;
     private RotationAxis axis;
     private boolean reversed;
+    // Network this node is a component of; told when RPM, stress or capacity change
+    private KinematicNetwork network;
     
     public KinematicNode(Vector3i position, KinematicNodeType type) {
         this.position = position;
@@ -144,7 +146,19 @@ public class KinematicNode {
         return rpm;
     }
     
+    /**
+     * Set this node's RPM; its network is recalculated on the next tick
+     */
     public void setRpm(double rpm) {
+        if (this.rpm == rpm) return;
+        this.rpm = rpm;
+        changed();
+    }
+    
+    /**
+     * Network RPM applied on commit; not a change of its own
+     */
+    void applyRpm(double rpm) {
         this.rpm = rpm;
     }
     
@@ -153,7 +167,9 @@ public class KinematicNode {
     }
     
     public void setStressImpact(double stressImpact) {
+        if (this.stressImpact == stressImpact) return;
         this.stressImpact = stressImpact;
+        changed();
     }
     
     public double getStressCapacity() {
@@ -161,7 +177,23 @@ public class KinematicNode {
     }
     
     public void setStressCapacity(double stressCapacity) {
+        if (this.stressCapacity == stressCapacity) return;
         this.stressCapacity = stressCapacity;
+        changed();
+    }
+    
+    private void changed() {
+        if (network != null) {
+            network.nodeChanged(this);
+        }
+    }
+    
+    KinematicNetwork getNetwork() {
+        return network;
+    }
+    
+    void setNetwork(KinematicNetwork network) {
+        this.network = network;
     }
     
     public RotationAxis getAxis() {
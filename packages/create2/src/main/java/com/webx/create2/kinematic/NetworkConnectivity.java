@@ -0,0 +1,354 @@
+package com.webx.create2.kinematic;
+
+import com.webx.create2.spatial.BlockPos;
+import com.webx.create2.spatial.LongQueue;
+import com.webx.create2.spatial.SpatialIndex;
+import lxxv.shared.collection.LongObjectMap;
+import lxxv.shared.collection.LongSet;
+
+import java.util.*;
+
+/**
+ * Component connectivity of one world
+ * Union-find over component positions: each root cell owns the network of its tree, so
+ * looking up a network and merging two networks is near-constant. Removals cannot be undone
+ * in a union-find, so splits are resolved lazily: a removal only records the neighbours it
+ * may have disconnected, and those are checked in one batch before the next tick.
+ * Most removals are bridged by a short detour, which a budgeted local search finds without
+ * walking the network.
+ * Positions are packed longs (see BlockPos).
+ */
+public class NetworkConnectivity {
+
+    // Positions a local search may visit before the cut is checked network-wide
+    private static final int LOCAL_SEARCH_BUDGET = 512;
+
+    private final SpatialIndex<Cell> cells = new SpatialIndex<>();
+    // Network -> seed groups; a group holds the remaining neighbours of one cluster of
+    // adjacent removed components, which may now be disconnected from each other
+    private final Map<KinematicNetwork, List<LongSet>> pendingSplits = new HashMap<>();
+
+    /**
+     * Union-find entry of one position
+     * Removed cells stay in the tree as long as other cells point through them
+     */
+    private static final class Cell {
+        Cell parent = this;
+        int rank;
+        // Only meaningful on a root
+        KinematicNetwork network;
+    }
+
+    private static Cell find(Cell cell) {
+        // Path halving
+        while (cell.parent != cell) {
+            cell.parent = cell.parent.parent;
+            cell = cell.parent;
+        }
+        return cell;
+    }
+
+    /**
+     * Network containing position, or null
+     */
+    public KinematicNetwork getNetwork(long position) {
+        Cell cell = cells.get(position);
+        return cell != null ? find(cell).network : null;
+    }
+
+    public boolean contains(long position) {
+        return cells.contains(position);
+    }
+
+    /**
+     * Visit every position of one chunk with its network
+     */
+    public void forEachInChunk(int chunkX, int chunkZ, LongObjectMap.EntryConsumer<KinematicNetwork> action) {
+        LongObjectMap<Cell> chunk = cells.getChunk(chunkX, chunkZ);
+        if (chunk != null) {
+            chunk.forEach((pos, cell) -> action.accept(pos, find(cell).network));
+        }
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    /**
+     * Register a component as its own new network
+     */
+    public void addRoot(long position, KinematicNetwork network) {
+        Cell cell = new Cell();
+        cell.network = network;
+        cells.put(position, cell);
+    }
+
+    /**
+     * Register a component in the network of an existing member (usually a neighbour)
+     */
+    public void addTo(long position, long member) {
+        Cell cell = new Cell();
+        cell.parent = find(cells.get(member));
+        cells.put(position, cell);
+    }
+
+    /**
+     * Join the networks of two positions; survivor owns the result
+     */
+    public void union(long a, long b, KinematicNetwork survivor) {
+        Cell rootA = find(cells.get(a));
+        Cell rootB = find(cells.get(b));
+        Cell root = rootA;
+        if (rootA != rootB) {
+            if (rootA.rank < rootB.rank) {
+                root = rootB;
+                rootA.parent = rootB;
+            } else {
+                rootB.parent = rootA;
+                if (rootA.rank == rootB.rank) {
+                    rootA.rank++;
+                }
+            }
+            rootA.network = null;
+            rootB.network = null;
+        }
+        root.network = survivor;
+    }
+
+    /**
+     * Move pending split seeds of an absorbed network to the network that absorbed it
+     */
+    public void transferPending(KinematicNetwork absorbed, KinematicNetwork survivor) {
+        List<LongSet> groups = pendingSplits.remove(absorbed);
+        if (groups != null) {
+            pendingSplits.computeIfAbsent(survivor, n -> new ArrayList<>()).addAll(groups);
+        }
+    }
+
+    /**
+     * Remove a component; the network must already have dropped it
+     * Records a pending split check if the component joined two or more remaining neighbours
+     */
+    public void remove(long position, KinematicNetwork network) {
+        if (cells.remove(position) == null) return;
+
+        List<LongSet> groups = pendingSplits.get(network);
+        if (!network.isValid()) {
+            pendingSplits.remove(network);
+            return;
+        }
+
+        // A removed seed is adjacent to an earlier removal: join (and merge) those clusters
+        LongSet cluster = null;
+        if (groups != null) {
+            Iterator<LongSet> it = groups.iterator();
+            while (it.hasNext()) {
+                LongSet group = it.next();
+                if (!group.remove(position)) continue;
+                if (cluster == null) {
+                    cluster = group;
+                } else {
+                    cluster.addAll(group);
+                    it.remove();
+                }
+            }
+        }
+
+        long[] neighbours = new long[BlockPos.FACES];
+        int count = 0;
+        for (int face = 0; face < BlockPos.FACES; face++) {
+            long neighbour = BlockPos.neighbour(position, face);
+            if (network.contains(neighbour)) {
+                neighbours[count++] = neighbour;
+            }
+        }
+        if (cluster != null) {
+            // The removed seed hands its role to its remaining neighbours
+            for (int i = 0; i < count; i++) {
+                cluster.add(neighbours[i]);
+            }
+        } else if (count > 1) {
+            // A component with one neighbour is a leaf; removing it cannot disconnect anything
+            LongSet group = new LongSet(count);
+            for (int i = 0; i < count; i++) {
+                group.add(neighbours[i]);
+            }
+            pendingSplits.computeIfAbsent(network, n -> new ArrayList<>()).add(group);
+        }
+    }
+
+    public boolean hasPendingSplits() {
+        return !pendingSplits.isEmpty();
+    }
+
+    /**
+     * Split every network with pending removals into its connected parts
+     * @return networks created for the parts that were cut off
+     */
+    public List<KinematicNetwork> resolveSplits() {
+        if (pendingSplits.isEmpty()) return Collections.emptyList();
+
+        List<KinematicNetwork> created = new ArrayList<>();
+        Map<KinematicNetwork, List<LongSet>> pending = new HashMap<>(pendingSplits);
+        pendingSplits.clear();
+
+        for (Map.Entry<KinematicNetwork, List<LongSet>> entry : pending.entrySet()) {
+            KinematicNetwork network = entry.getKey();
+            if (!network.isValid()) continue;
+
+            // Clusters whose neighbours still meet nearby did not cut anything
+            LongSet unresolved = new LongSet();
+            for (LongSet group : entry.getValue()) {
+                long[] seeds = liveSeeds(network, group);
+                if (seeds.length < 2) continue;
+                List<long[]> parts = findDetachedParts(network, seeds, LOCAL_SEARCH_BUDGET);
+                if (parts == null || !parts.isEmpty()) {
+                    for (long seed : seeds) {
+                        unresolved.add(seed);
+                    }
+                }
+            }
+            if (unresolved.size() < 2) continue;
+
+            for (long[] part : findDetachedParts(network, unresolved.toArray(), Integer.MAX_VALUE)) {
+                KinematicNetwork split = new KinematicNetwork(network.getWorld());
+                network.moveComponentsTo(part, split);
+
+                // Fresh tree for the moved part; the old cells are dropped
+                Cell root = null;
+                for (long pos : part) {
+                    Cell cell = new Cell();
+                    if (root == null) {
+                        root = cell;
+                        root.network = split;
+                    } else {
+                        cell.parent = root;
+                    }
+                    cells.put(pos, cell);
+                }
+                created.add(split);
+            }
+        }
+        return created;
+    }
+
+    private static long[] liveSeeds(KinematicNetwork network, LongSet group) {
+        long[] seeds = group.toArray();
+        int count = 0;
+        for (long seed : seeds) {
+            if (network.contains(seed)) {
+                seeds[count++] = seed;
+            }
+        }
+        return Arrays.copyOf(seeds, count);
+    }
+
+    /**
+     * Search outward from every seed at the same pace, merging searches that meet
+     * Searches that run out of positions without meeting another are detached parts.
+     * Stops once a single search is left, so the cost is bounded by the size of the
+     * detached parts rather than the whole network.
+     * @return detached parts, or null if the budget ran out first
+     */
+    private List<long[]> findDetachedParts(KinematicNetwork network, long[] starts, int budget) {
+        int count = starts.length;
+        if (count < 2) return Collections.emptyList();
+
+        int[] group = new int[count];
+        // Each queue keeps its polled positions, so it is also the search's visit log
+        LongQueue[] queues = new LongQueue[count];
+        List<List<Integer>> members = new ArrayList<>(count);
+        LongObjectMap<Integer> owner = new LongObjectMap<>();
+        for (int i = 0; i < count; i++) {
+            group[i] = i;
+            queues[i] = new LongQueue();
+            queues[i].add(starts[i]);
+            members.add(new ArrayList<>(List.of(i)));
+            owner.put(starts[i], i);
+        }
+
+        // Searches still running; merged and finished ones are dropped each round
+        int[] live = new int[count];
+        for (int i = 0; i < count; i++) {
+            live[i] = i;
+        }
+        int liveCount = count;
+        List<Integer> finished = new ArrayList<>();
+        int active = count;
+        while (active > 1) {
+            int kept = 0;
+            for (int k = 0; k < liveCount && active > 1; k++) {
+                int i = live[k];
+                if (group[i] != i) continue;
+
+                if (budget-- <= 0) return null;
+
+                if (queues[i].isEmpty()) {
+                    finished.add(i);
+                    active--;
+                    continue;
+                }
+                long current = queues[i].poll();
+                live[kept++] = i;
+
+                for (int face = 0; face < BlockPos.FACES; face++) {
+                    long next = BlockPos.neighbour(current, face);
+                    if (!network.contains(next)) continue;
+
+                    Integer claimed = owner.get(next);
+                    if (claimed == null) {
+                        owner.put(next, i);
+                        queues[i].add(next);
+                        continue;
+                    }
+                    int other = groupOf(group, claimed);
+                    if (other == i) continue;
+
+                    // Searches met: same part. Keep the larger queue to bound copying;
+                    // the logs of both queues stay with their members
+                    group[other] = i;
+                    if (queues[other].size() > queues[i].size()) {
+                        LongQueue swap = queues[i];
+                        queues[i] = queues[other];
+                        queues[other] = swap;
+                    }
+                    queues[other].drainTo(queues[i]);
+                    members.get(i).addAll(members.get(other));
+                    active--;
+                }
+            }
+            liveCount = kept;
+        }
+
+        // If every search ran dry, the last one is the part that keeps the network
+        if (active == 0 && !finished.isEmpty()) {
+            finished.remove(finished.size() - 1);
+        }
+
+        List<long[]> parts = new ArrayList<>(finished.size());
+        for (int root : finished) {
+            // Drained positions appear in two logs
+            LongSet part = new LongSet();
+            for (int member : members.get(root)) {
+                for (long pos : queues[member].history()) {
+                    part.add(pos);
+                }
+            }
+            parts.add(part.toArray());
+        }
+        return parts;
+    }
+
+    private static int groupOf(int[] group, int i) {
+        while (group[i] != i) {
+            group[i] = group[group[i]];
+            i = group[i];
+        }
+        return i;
+    }
+
+    public void clear() {
+        cells.clear();
+        pendingSplits.clear();
+    }
+}
@@ -0,0 +1,113 @@
+package com.webx.create2.kinematic;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the maths of due networks, in parallel when enabled
+ * Networks are independent graphs, so the due list is split into shards of whole networks
+ * (balanced by component count) and computed on a ForkJoinPool while the main thread waits.
+ * Nothing is applied here; the caller commits every network on the main thread afterwards.
+ * Single-threaded mode runs the same compute step on the calling thread in list order.
+ */
+public class NetworkSolver {
+
+    // Components per shard before it is split further
+    private static final int SHARD_COMPONENTS = 1024;
+
+    // Null in single-threaded mode
+    private final ForkJoinPool pool;
+    // Smaller batches are cheaper to compute inline than to hand to the pool
+    private final int minComponents;
+
+    /**
+     * @param threads worker threads; 1 or less computes on the calling thread
+     * @param minComponents total components a batch needs before it goes parallel
+     */
+    public NetworkSolver(int threads, int minComponents) {
+        this.minComponents = minComponents;
+        this.pool = threads > 1 ? new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("Create2-Solver-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false) : null;
+    }
+
+    /**
+     * Run compute() of every network; returns once all are done
+     */
+    public void compute(List<KinematicNetwork> networks) {
+        if (pool == null || networks.size() < 2) {
+            computeRange(networks, 0, networks.size());
+            return;
+        }
+
+        // Prefix sums of component counts, for balanced shards
+        long[] weight = new long[networks.size() + 1];
+        for (int i = 0; i < networks.size(); i++) {
+            weight[i + 1] = weight[i] + networks.get(i).getSize();
+        }
+        if (weight[networks.size()] < minComponents) {
+            computeRange(networks, 0, networks.size());
+            return;
+        }
+        pool.invoke(new Shard(networks, weight, 0, networks.size()));
+    }
+
+    private static void computeRange(List<KinematicNetwork> networks, int from, int to) {
+        for (int i = from; i < to; i++) {
+            networks.get(i).compute();
+        }
+    }
+
+    /**
+     * Networks [from, to) of the batch
+     */
+    private static final class Shard extends RecursiveAction {
+        private final List<KinematicNetwork> networks;
+        private final long[] weight;
+        private final int from;
+        private final int to;
+
+        Shard(List<KinematicNetwork> networks, long[] weight, int from, int to) {
+            this.networks = networks;
+            this.weight = weight;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 || weight[to] - weight[from] <= SHARD_COMPONENTS) {
+                computeRange(networks, from, to);
+                return;
+            }
+            // Split where half of the components are on each side
+            long half = (weight[from] + weight[to]) / 2;
+            int mid = Arrays.binarySearch(weight, from + 1, to, half);
+            if (mid < 0) {
+                mid = -mid - 1;
+            }
+            mid = Math.max(from + 1, Math.min(to - 1, mid));
+            invokeAll(new Shard(networks, weight, from, mid), new Shard(networks, weight, mid, to));
+        }
+    }
+
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    public int getThreads() {
+        return pool != null ? pool.getParallelism() : 1;
+    }
+
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.webx.create2.kinematic;
 
 import com.webx.create2.Create2Plugin;
+import com.webx.create2.spatial.BlockPos;
+import com.webx.create2.spatial.LongQueue;
+import lxxv.shared.collection.LongObjectMap;
+import lxxv.shared.collection.LongSet;
 import org.joml.Vector3i;
 
 import java.util.*;
@@ -25,24 +29,24 @@ public class RotationPropagator {
     public void propagateRotation(KinematicNetwork network, Vector3i sourcePos, double rpm) {
         if (network == null || !network.isValid()) return;
         
-        KinematicNode source = network.getNode(sourcePos);
+        long sourceKey = BlockPos.pack(sourcePos);
+        KinematicNode source = network.getNode(sourceKey);
         if (source == null) return;
         
         // Set source RPM
         source.setRpm(rpm);
         
         // Track visited nodes to avoid loops
-        Set<Vector3i> visited = new HashSet<>();
-        Queue<PropagationStep> queue = new LinkedList<>();
+        LongSet visited = new LongSet(network.getSize());
+        Queue<PropagationStep> queue = new ArrayDeque<>();
         
         // Start from source
-        queue.add(new PropagationStep(sourcePos, rpm, false));
+        queue.add(new PropagationStep(sourceKey, rpm, false));
         
         while (!queue.isEmpty()) {
             PropagationStep step = queue.poll();
             
-            if (visited.contains(step.position)) continue;
-            visited.add(step.position);
+            if (!visited.add(step.position)) continue;
             
             KinematicNode current = network.getNode(step.position);
             if (current == null) continue;
@@ -52,7 +56,8 @@ public class RotationPropagator {
             current.setRpm(currentRpm);
             
             // Propagate to neighbors
-            for (Vector3i neighbor : getNeighbors(step.position)) {
+            for (int face = 0; face < BlockPos.FACES; face++) {
+                long neighbor = BlockPos.neighbour(step.position, face);
                 if (visited.contains(neighbor)) continue;
                 
                 KinematicNode neighborNode = network.getNode(neighbor);
@@ -122,30 +127,29 @@ public class RotationPropagator {
     public boolean validateNetwork(KinematicNetwork network) {
         if (network == null || !network.isValid()) return false;
         
-        Set<Vector3i> components = network.getComponents();
-        if (components.isEmpty()) return false;
+        long[] components = network.getPositions();
+        if (components.length == 0) return false;
         
         // BFS to check all components are connected
-        Set<Vector3i> visited = new HashSet<>();
-        Queue<Vector3i> queue = new LinkedList<>();
+        LongSet visited = new LongSet(components.length);
+        LongQueue queue = new LongQueue();
         
-        Vector3i start = components.iterator().next();
-        queue.add(start);
+        visited.add(components[0]);
+        queue.add(components[0]);
         
         while (!queue.isEmpty()) {
-            Vector3i current = queue.poll();
-            if (visited.contains(current)) continue;
-            visited.add(current);
+            long current = queue.poll();
             
-            for (Vector3i neighbor : getNeighbors(current)) {
-                if (components.contains(neighbor) && !visited.contains(neighbor)) {
+            for (int face = 0; face < BlockPos.FACES; face++) {
+                long neighbor = BlockPos.neighbour(current, face);
+                if (network.contains(neighbor) && visited.add(neighbor)) {
                     queue.add(neighbor);
                 }
             }
         }
         
         // All components should be visited
-        return visited.size() == components.size();
+        return visited.size() == components.length;
     }
     
     /**
@@ -156,21 +160,27 @@ public class RotationPropagator {
         if (network == null || from == null || to == null) return Collections.emptyList();
         
         // Dijkstra's algorithm with stress capacity as weight
-        Map<Vector3i, Double> capacity = new HashMap<>();
-        Map<Vector3i, Vector3i> previous = new HashMap<>();
-        PriorityQueue<Vector3i> queue = new PriorityQueue<>(
-            Comparator.comparingDouble(pos -> -capacity.getOrDefault(pos, 0.0))
+        long fromKey = BlockPos.pack(from);
+        long toKey = BlockPos.pack(to);
+        LongObjectMap<Double> capacity = new LongObjectMap<>();
+        LongObjectMap<Long> previous = new LongObjectMap<>();
+        PriorityQueue<Long> queue = new PriorityQueue<>(
+            Comparator.comparingDouble(pos -> {
+                Double value = capacity.get(pos);
+                return value != null ? -value : 0.0;
+            })
         );
         
-        capacity.put(from, Double.MAX_VALUE);
-        queue.add(from);
+        capacity.put(fromKey, Double.MAX_VALUE);
+        queue.add(fromKey);
         
         while (!queue.isEmpty()) {
-            Vector3i current = queue.poll();
+            long current = queue.poll();
             
-            if (current.equals(to)) break;
+            if (current == toKey) break;
             
-            for (Vector3i neighbor : getNeighbors(current)) {
+            for (int face = 0; face < BlockPos.FACES; face++) {
+                long neighbor = BlockPos.neighbour(current, face);
                 KinematicNode node = network.getNode(neighbor);
                 if (node == null) continue;
                 
@@ -179,7 +189,8 @@ public class RotationPropagator {
                     node.getStressCapacity()
                 );
                 
-                if (newCapacity > capacity.getOrDefault(neighbor, 0.0)) {
+                Double known = capacity.get(neighbor);
+                if (newCapacity > (known != null ? known : 0.0)) {
                     capacity.put(neighbor, newCapacity);
                     previous.put(neighbor, current);
                     queue.add(neighbor);
@@ -189,38 +200,24 @@ public class RotationPropagator {
         
         // Reconstruct path
         List<Vector3i> path = new ArrayList<>();
-        Vector3i current = to;
+        Long current = toKey;
         while (current != null) {
-            path.add(0, current);
+            path.add(0, BlockPos.toVector(current));
             current = previous.get(current);
         }
         
         return path;
     }
     
-    /**
-     * Get neighboring positions (6 directions)
-     */
-    private List<Vector3i> getNeighbors(Vector3i pos) {
-        List<Vector3i> neighbors = new ArrayList<>();
-        neighbors.add(new Vector3i(pos.x + 1, pos.y, pos.z));
-        neighbors.add(new Vector3i(pos.x - 1, pos.y, pos.z));
-        neighbors.add(new Vector3i(pos.x, pos.y + 1, pos.z));
-        neighbors.add(new Vector3i(pos.x, pos.y - 1, pos.z));
-        neighbors.add(new Vector3i(pos.x, pos.y, pos.z + 1));
-        neighbors.add(new Vector3i(pos.x, pos.y, pos.z - 1));
-        return neighbors;
-    }
-    
     /**
      * Helper class for BFS propagation
      */
     private static class PropagationStep {
-        final Vector3i position;
+        final long position;
         final double rpm;
         final boolean reversed;
         
-        PropagationStep(Vector3i position, double rpm, boolean reversed) {
+        PropagationStep(long position, double rpm, boolean reversed) {
             this.position = position;
             this.rpm = rpm;
             this.reversed = reversed;
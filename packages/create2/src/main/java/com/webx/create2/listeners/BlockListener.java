@@ -6,13 +6,19 @@ import com.webx.create2.kinematic.KinematicNodeType;
 import com.webx.create2.logistics.LogisticsManager;
 import com.webx.create2.fluid.FluidManager;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
 import org.joml.Vector3i;
 
 /**
@@ -31,6 +37,7 @@ public class BlockListener implements Listener {
     public void onBlockPlace(BlockPlaceEvent event) {
         Block block = event.getBlock();
         Material material = block.getType();
+        onBlockChange(block);
         
         // Check if this is a kinematic component
         KinematicNodeType type = getNodeType(material);
@@ -43,8 +50,9 @@ public class BlockListener implements Listener {
             block.getZ()
         );
         
+        World world = block.getWorld();
         KinematicNetworkManager manager = plugin.getNetworkManager();
-        manager.createNode(position, type);
+        manager.createNode(world, position, type);
 
         // Logistics / fluid extras
         LogisticsManager logistics = plugin.getLogisticsManager();
@@ -52,12 +60,12 @@ public class BlockListener implements Listener {
         BlockFace facing = event.getPlayer() != null ? event.getPlayer().getFacing() : BlockFace.NORTH;
 
         switch (type) {
-            case BELT -> logistics.getBeltManager().addBelt(position, facing);
-            case FUNNEL -> logistics.addFunnel(position, facing);
-            case DEPLOYER -> logistics.addDeployer(position, facing);
-            case PIPE -> fluids.addNode(position, com.webx.create2.fluid.FluidNode.Type.PIPE);
-            case PUMP -> fluids.addNode(position, com.webx.create2.fluid.FluidNode.Type.PUMP);
-            case TANK -> fluids.addNode(position, com.webx.create2.fluid.FluidNode.Type.TANK);
+            case BELT -> logistics.getBeltManager().addBelt(world, position, facing);
+            case FUNNEL -> logistics.addFunnel(world, position, facing);
+            case DEPLOYER -> logistics.addDeployer(world, position, facing);
+            case PIPE -> fluids.addNode(world, position, com.webx.create2.fluid.FluidNode.Type.PIPE);
+            case PUMP -> fluids.addNode(world, position, com.webx.create2.fluid.FluidNode.Type.PUMP);
+            case TANK -> fluids.addNode(world, position, com.webx.create2.fluid.FluidNode.Type.TANK);
             default -> {}
         }
         
@@ -67,6 +75,7 @@ public class BlockListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
         Block block = event.getBlock();
+        onBlockChange(block);
         
         Vector3i position = new Vector3i(
             block.getX(),
@@ -74,21 +83,55 @@ public class BlockListener implements Listener {
             block.getZ()
         );
         
+        World world = block.getWorld();
         KinematicNetworkManager manager = plugin.getNetworkManager();
         LogisticsManager logistics = plugin.getLogisticsManager();
         FluidManager fluids = plugin.getFluidManager();
         
         // Check if this is a kinematic component
-        if (manager.getNode(position) != null) {
-            manager.removeNode(position);
+        if (manager.getNode(world, position) != null) {
+            manager.removeNode(world, position);
             plugin.getLogger().info("Removed kinematic component at " + position);
         }
 
         // Cleanup logistics/fluid data
-        logistics.getBeltManager().removeBelt(position);
-        logistics.removeFunnel(position);
-        logistics.removeDeployer(position);
-        fluids.removeNode(position);
+        logistics.getBeltManager().removeBelt(world, position);
+        logistics.removeFunnel(world, position);
+        logistics.removeDeployer(world, position);
+        fluids.removeNode(world, position);
+    }
+    
+    // Events that can turn a block into or out of a water source under a pump
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFluidFlow(BlockFromToEvent event) {
+        onBlockChange(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    /**
+     * Drop cached pump source checks that depend on this block
+     */
+    private void onBlockChange(Block block) {
+        plugin.getFluidManager().onBlockChange(block.getWorld(), block.getX(), block.getY(), block.getZ());
     }
     
     /**
@@ -0,0 +1,26 @@
+package com.webx.create2.listeners;
+
+import com.webx.create2.Create2Plugin;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+
+/**
+ * Wakes kinematic networks that slept while part of them was unloaded
+ */
+public class ChunkListener implements Listener {
+    
+    private final Create2Plugin plugin;
+    
+    public ChunkListener(Create2Plugin plugin) {
+        this.plugin = plugin;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        plugin.getNetworkManager().onChunkLoad(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+}
@@ -0,0 +1,182 @@
+package com.webx.create2.logistics;
+
+import com.webx.create2.spatial.BlockPos;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+
+/**
+ * A straight run of belt segments facing the same way, simulated as one item lane
+ * Items are kept front first in parallel arrays: positions along the line in blocks
+ * (0 = back of the first segment, length = front of the last) and their stacks.
+ * Items never get closer than the item spacing, so a blocked front compresses the
+ * lane behind it instead of overlapping.
+ */
+public class BeltLine {
+
+    private final BeltSegment[] segments;
+    // Packed position of the first segment and of the block the line feeds into
+    private final long start;
+    private final long output;
+    // Chunks the segments lie in
+    private final long[] chunks;
+
+    private double[] positions = new double[4];
+    private ItemStack[] stacks = new ItemStack[4];
+    private int count;
+
+    public BeltLine(BeltSegment[] segments) {
+        this.segments = segments;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i].setLine(this, i);
+        }
+        BeltSegment first = segments[0];
+        BeltSegment last = segments[segments.length - 1];
+        this.start = BlockPos.pack(first.getPosition());
+        this.output = last.getNext();
+
+        long[] keys = new long[segments.length];
+        int distinct = 0;
+        for (BeltSegment segment : segments) {
+            long key = BlockPos.chunkKey(segment.getPosition().x >> 4, segment.getPosition().z >> 4);
+            // A straight line enters each chunk once
+            if (distinct == 0 || keys[distinct - 1] != key) {
+                keys[distinct++] = key;
+            }
+        }
+        this.chunks = Arrays.copyOf(keys, distinct);
+    }
+
+    /**
+     * Place an item at a position if it keeps its spacing to both neighbours
+     * @return false if the lane is too crowded there
+     */
+    public boolean insert(double position, ItemStack stack, double spacing) {
+        int index = indexFor(position);
+        if (index > 0 && positions[index - 1] - position < spacing) return false;
+        if (index < count && position - positions[index] < spacing) return false;
+        insertAt(index, position, stack);
+        return true;
+    }
+
+    /**
+     * Place an item regardless of spacing (used when lines are rebuilt)
+     */
+    void place(double position, ItemStack stack) {
+        insertAt(indexFor(position), Math.max(0, Math.min(segments.length, position)), stack);
+    }
+
+    // First index whose item is behind position
+    private int indexFor(double position) {
+        int index = 0;
+        while (index < count && positions[index] >= position) {
+            index++;
+        }
+        return index;
+    }
+
+    private void insertAt(int index, double position, ItemStack stack) {
+        if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+            stacks = Arrays.copyOf(stacks, count * 2);
+        }
+        System.arraycopy(positions, index, positions, index + 1, count - index);
+        System.arraycopy(stacks, index, stacks, index + 1, count - index);
+        positions[index] = position;
+        stacks[index] = stack;
+        count++;
+    }
+
+    /**
+     * Move every item forward in one pass
+     * @param speed blocks per tick
+     * @return true if the front item has reached the end of the line
+     */
+    public boolean advance(double speed, double spacing) {
+        if (count == 0) return false;
+        double length = segments.length;
+        double limit = length;
+        for (int i = 0; i < count; i++) {
+            double next = Math.min(positions[i] + speed, limit);
+            // A compressed item behind a blocked one keeps its place
+            if (next > positions[i]) {
+                positions[i] = next;
+            }
+            limit = positions[i] - spacing;
+        }
+        return positions[0] >= length;
+    }
+
+    /**
+     * Item at the front of the lane, or null
+     */
+    public ItemStack peekFront() {
+        return count > 0 ? stacks[0] : null;
+    }
+
+    /**
+     * Remove the front item after it left the line
+     */
+    public ItemStack pollFront() {
+        if (count == 0) return null;
+        ItemStack front = stacks[0];
+        System.arraycopy(positions, 1, positions, 0, count - 1);
+        System.arraycopy(stacks, 1, stacks, 0, count - 1);
+        stacks[--count] = null;
+        return front;
+    }
+
+    /**
+     * Callback for item iteration
+     */
+    @FunctionalInterface
+    public interface ItemConsumer {
+        void accept(double position, ItemStack stack);
+    }
+
+    public void forEachItem(ItemConsumer action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(positions[i], stacks[i]);
+        }
+    }
+
+    /**
+     * Segment an item position lies on
+     */
+    public BeltSegment segmentAt(double position) {
+        int index = (int) position;
+        return segments[Math.max(0, Math.min(segments.length - 1, index))];
+    }
+
+    public BeltSegment[] getSegments() {
+        return segments;
+    }
+
+    public BeltSegment getLast() {
+        return segments[segments.length - 1];
+    }
+
+    public int getLength() {
+        return segments.length;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getOutput() {
+        return output;
+    }
+
+    public long[] getChunks() {
+        return chunks;
+    }
+
+    public int getItemCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+}
@@ -3,58 +3,254 @@ package com.webx.create2.logistics;
 import com.webx.create2.Create2Plugin;
 import com.webx.create2.kinematic.KinematicNetwork;
 import com.webx.create2.kinematic.KinematicNetworkManager;
+import com.webx.create2.spatial.BlockPos;
+import com.webx.create2.spatial.SpatialIndex;
+import lxxv.shared.collection.LongObjectMap;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
 import org.bukkit.inventory.ItemStack;
 import org.joml.Vector3i;
 
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages belt segments and item movement.
+ * Belts are grouped into lines (straight runs facing the same way); a tick advances each
+ * line's lane in one pass and only touches the world where a line ends. Items leaving lines
+ * into the same container are inserted in one batch per tick.
  */
 public class BeltManager {
 
     private final Create2Plugin plugin;
     private final KinematicNetworkManager networkManager;
-    private final Map<Vector3i, BeltSegment> belts = new ConcurrentHashMap<>();
+    // World name -> packed position -> belt
+    private final Map<String, SpatialIndex<BeltSegment>> belts = new ConcurrentHashMap<>();
+    // World name -> belt lines
+    private final Map<String, Set<BeltLine>> lines = new ConcurrentHashMap<>();
 
     public BeltManager(Create2Plugin plugin, KinematicNetworkManager networkManager) {
         this.plugin = plugin;
         this.networkManager = networkManager;
     }
 
-    public void addBelt(Vector3i pos, BlockFace face) {
-        Vector3i dir = faceToVector(face);
-        belts.put(pos, new BeltSegment(pos, dir));
+    /**
+     * Item taken off a line while lines are rebuilt
+     */
+    private static final class Carried {
+        final BeltSegment segment;
+        final double offset;
+        final ItemStack stack;
+
+        Carried(BeltSegment segment, double offset, ItemStack stack) {
+            this.segment = segment;
+            this.offset = offset;
+            this.stack = stack;
+        }
+    }
+
+    private SpatialIndex<BeltSegment> belts(World world) {
+        return belts.computeIfAbsent(world.getName(), w -> new SpatialIndex<>());
+    }
+
+    private Set<BeltLine> lines(World world) {
+        return lines.computeIfAbsent(world.getName(), w -> new LinkedHashSet<>());
     }
 
-    public void removeBelt(Vector3i pos) {
-        belts.remove(pos);
+    public void addBelt(World world, Vector3i pos, BlockFace face) {
+        removeBelt(world, pos);
+
+        Vector3i dir = faceToVector(face);
+        SpatialIndex<BeltSegment> worldBelts = belts(world);
+        BeltSegment segment = new BeltSegment(pos, dir);
+        worldBelts.put(BlockPos.pack(pos), segment);
+
+        // Walk back to the head of the straight run, then collect it forward
+        BeltSegment head = segment;
+        BeltSegment previous;
+        while ((previous = straightPrevious(worldBelts, head)) != null) {
+            head = previous;
+        }
+        List<BeltSegment> chain = new ArrayList<>();
+        for (BeltSegment s = head; s != null; s = straightNext(worldBelts, s)) {
+            chain.add(s);
+        }
+
+        // The new segment joins the lines in front of and behind it
+        Set<BeltLine> worldLines = lines(world);
+        List<Carried> carried = new ArrayList<>();
+        for (BeltSegment s : chain) {
+            BeltLine old = s.getLine();
+            if (old != null && worldLines.remove(old)) {
+                take(old, carried);
+            }
+        }
+        BeltLine line = new BeltLine(chain.toArray(new BeltSegment[0]));
+        worldLines.add(line);
+        for (Carried item : carried) {
+            line.place(item.segment.getIndex() + item.offset, item.stack);
+        }
     }
 
-    public void insertIntoBelt(Vector3i pos, ItemStack stack) {
-        BeltSegment belt = belts.get(pos);
-        if (belt != null) {
-            belt.insert(stack);
+    public void removeBelt(World world, Vector3i pos) {
+        SpatialIndex<BeltSegment> worldBelts = belts.get(world.getName());
+        if (worldBelts == null) return;
+        BeltSegment removed = worldBelts.remove(BlockPos.pack(pos));
+        if (removed == null) return;
+
+        BeltLine line = removed.getLine();
+        Set<BeltLine> worldLines = lines(world);
+        worldLines.remove(line);
+        List<Carried> carried = new ArrayList<>();
+        take(line, carried);
+
+        // The rest of the line falls apart into the runs before and after the removed belt
+        BeltSegment[] segments = line.getSegments();
+        int at = removed.getIndex();
+        BeltLine before = at > 0 ? new BeltLine(Arrays.copyOfRange(segments, 0, at)) : null;
+        BeltLine after = at < segments.length - 1 ? new BeltLine(Arrays.copyOfRange(segments, at + 1, segments.length)) : null;
+        if (before != null) worldLines.add(before);
+        if (after != null) worldLines.add(after);
+
+        for (Carried item : carried) {
+            if (item.segment == removed) {
+                // Items on the broken belt drop with it
+                world.dropItemNaturally(new Location(world, pos.x + 0.5, pos.y + 0.5, pos.z + 0.5), item.stack);
+            } else {
+                item.segment.getLine().place(item.segment.getIndex() + item.offset, item.stack);
+            }
         }
     }
 
+    // Items with the segment they are on, before the segments are assigned new lines
+    private static void take(BeltLine line, List<Carried> carried) {
+        line.forEachItem((position, stack) -> {
+            BeltSegment segment = line.segmentAt(position);
+            carried.add(new Carried(segment, position - segment.getIndex(), stack));
+        });
+    }
+
+    private static BeltSegment straightNext(SpatialIndex<BeltSegment> worldBelts, BeltSegment segment) {
+        BeltSegment next = worldBelts.get(segment.getNext());
+        return next != null && next.getDirection().equals(segment.getDirection()) ? next : null;
+    }
+
+    private static BeltSegment straightPrevious(SpatialIndex<BeltSegment> worldBelts, BeltSegment segment) {
+        Vector3i pos = segment.getPosition();
+        Vector3i dir = segment.getDirection();
+        BeltSegment previous = worldBelts.get(BlockPos.pack(pos.x - dir.x, pos.y - dir.y, pos.z - dir.z));
+        return previous != null && previous.getDirection().equals(dir) ? previous : null;
+    }
+
+    /**
+     * Put an item at the start of the belt at pos
+     * @return false if there is no belt there or it has no room
+     */
+    public boolean insertIntoBelt(World world, Vector3i pos, ItemStack stack) {
+        if (stack == null || stack.getAmount() <= 0) return false;
+        SpatialIndex<BeltSegment> worldBelts = belts.get(world.getName());
+        BeltSegment belt = worldBelts != null ? worldBelts.get(BlockPos.pack(pos)) : null;
+        if (belt == null) return false;
+        return belt.getLine().insert(belt.getIndex(), stack.clone(), itemSpacing());
+    }
+
+    private double itemSpacing() {
+        return plugin.getConfig().getDouble("components.belt.item-spacing", 0.25);
+    }
+
     public void tick(World world) {
+        SpatialIndex<BeltSegment> worldBelts = belts.get(world.getName());
+        Set<BeltLine> worldLines = lines.get(world.getName());
+        if (worldBelts == null || worldLines == null || worldLines.isEmpty()) return;
+
         double speedPerRpm = plugin.getConfig().getDouble("components.belt.speed-per-rpm", 0.02);
-        belts.values().forEach(belt -> {
-            KinematicNetwork network = networkManager.getNetwork(belt.getPosition());
+        double spacing = itemSpacing();
+        // Output block -> lines whose front item is waiting to leave into it
+        LongObjectMap<List<BeltLine>> outputs = null;
+
+        for (BeltLine line : worldLines) {
+            // Empty lines and lines in unloaded chunks have nothing to do
+            if (line.isEmpty() || !isLoaded(world, line)) continue;
+
+            KinematicNetwork network = networkManager.getNetwork(world, line.getStart());
             double rpm = network != null ? network.getRpm() : 0.0;
             double speed = Math.max(0, rpm * speedPerRpm);
-            Vector3i nextPos = new Vector3i(
-                belt.getPosition().x + belt.getDirection().x,
-                belt.getPosition().y + belt.getDirection().y,
-                belt.getPosition().z + belt.getDirection().z
-            );
-            BeltSegment next = belts.get(nextPos);
-            belt.tick(world, speed, next);
-        });
+            if (speed <= 0 || !line.advance(speed, spacing)) continue;
+
+            // Hand off to the line of a belt ahead; a full target keeps the item waiting
+            BeltSegment target = worldBelts.get(line.getOutput());
+            if (target != null) {
+                if (target.getLine().insert(target.getIndex(), line.peekFront(), spacing)) {
+                    line.pollFront();
+                }
+                continue;
+            }
+            if (outputs == null) {
+                outputs = new LongObjectMap<>();
+            }
+            List<BeltLine> waiting = outputs.get(line.getOutput());
+            if (waiting == null) {
+                waiting = new ArrayList<>(1);
+                outputs.put(line.getOutput(), waiting);
+            }
+            waiting.add(line);
+        }
+
+        if (outputs != null) {
+            outputs.forEach((pos, waiting) -> flushOutput(world, pos, waiting));
+        }
+    }
+
+    private static boolean isLoaded(World world, BeltLine line) {
+        for (long key : line.getChunks()) {
+            if (!world.isChunkLoaded(BlockPos.chunkX(key), BlockPos.chunkZ(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move the front items of lines ending at pos into the container there in one call,
+     * or drop them if there is none
+     */
+    private void flushOutput(World world, long pos, List<BeltLine> waiting) {
+        int x = BlockPos.x(pos);
+        int y = BlockPos.y(pos);
+        int z = BlockPos.z(pos);
+        // Touching a block in an unloaded chunk would load it; wait instead
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) return;
+
+        // Live state; a snapshot would copy the whole container on every call
+        BlockState state = world.getBlockAt(x, y, z).getState(false);
+        if (!(state instanceof Container container)) {
+            for (BeltLine line : waiting) {
+                BeltSegment last = line.getLast();
+                Vector3i p = last.getPosition();
+                Vector3i d = last.getDirection();
+                Location drop = new Location(world, p.x + 0.5 + d.x * 0.5, p.y + 0.5 + d.y * 0.5, p.z + 0.5 + d.z * 0.5);
+                world.dropItemNaturally(drop, line.pollFront());
+            }
+            return;
+        }
+
+        ItemStack[] batch = new ItemStack[waiting.size()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = waiting.get(i).peekFront();
+        }
+        HashMap<Integer, ItemStack> left = container.getInventory().addItem(batch);
+        for (int i = 0; i < batch.length; i++) {
+            ItemStack remainder = left.get(i);
+            if (remainder == null) {
+                waiting.get(i).pollFront();
+            } else {
+                // Not fully inserted; the rest waits at the end of the line
+                waiting.get(i).peekFront().setAmount(remainder.getAmount());
+            }
+        }
     }
 
     private Vector3i faceToVector(BlockFace face) {
@@ -69,7 +265,29 @@ public class BeltManager {
         };
     }
 
-    public boolean isBelt(Vector3i pos) {
-        return belts.containsKey(pos);
+    public boolean isBelt(World world, Vector3i pos) {
+        SpatialIndex<BeltSegment> worldBelts = belts.get(world.getName());
+        return worldBelts != null && worldBelts.contains(BlockPos.pack(pos));
+    }
+
+    /**
+     * Number of belt lines in a world
+     */
+    public int getLineCount(String world) {
+        Set<BeltLine> worldLines = lines.get(world);
+        return worldLines != null ? worldLines.size() : 0;
+    }
+
+    /**
+     * Number of items moving on belts in a world
+     */
+    public int getItemCount(String world) {
+        Set<BeltLine> worldLines = lines.get(world);
+        if (worldLines == null) return 0;
+        int items = 0;
+        for (BeltLine line : worldLines) {
+            items += line.getItemCount();
+        }
+        return items;
     }
 }
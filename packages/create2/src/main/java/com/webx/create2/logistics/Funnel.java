@@ -49,13 +49,16 @@ public class Funnel {
             if (stack == null || stack.getAmount() == 0) continue;
             ItemStack toMove = stack.clone();
             toMove.setAmount(1);
-            stack.setAmount(stack.getAmount() - 1);
-            moved++;
 
             Vector3i targetPos = new Vector3i(ahead.getX(), ahead.getY(), ahead.getZ());
-            if (beltManager.isBelt(targetPos)) {
-                beltManager.insertIntoBelt(targetPos, toMove);
+            if (beltManager.isBelt(world, targetPos)) {
+                // A crowded belt keeps the item in the inventory
+                if (!beltManager.insertIntoBelt(world, targetPos, toMove)) break;
+                stack.setAmount(stack.getAmount() - 1);
+                moved++;
             } else {
+                stack.setAmount(stack.getAmount() - 1);
+                moved++;
                 Inventory toInv = getInventory(ahead);
                 if (toInv != null) {
                     toInv.addItem(toMove);
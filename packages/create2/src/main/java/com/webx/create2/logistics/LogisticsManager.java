@@ -16,8 +16,9 @@ public class LogisticsManager {
 
     private final Create2Plugin plugin;
     private final BeltManager beltManager;
-    private final Map<Vector3i, Funnel> funnels = new ConcurrentHashMap<>();
-    private final Map<Vector3i, Deployer> deployers = new ConcurrentHashMap<>();
+    // World name -> position -> component
+    private final Map<String, Map<Vector3i, Funnel>> funnels = new ConcurrentHashMap<>();
+    private final Map<String, Map<Vector3i, Deployer>> deployers = new ConcurrentHashMap<>();
 
     public LogisticsManager(Create2Plugin plugin, KinematicNetworkManager networkManager) {
         this.plugin = plugin;
@@ -28,35 +29,63 @@ public class LogisticsManager {
         return beltManager;
     }
 
-    public void addFunnel(Vector3i pos, BlockFace face) {
+    public void addFunnel(World world, Vector3i pos, BlockFace face) {
         int rate = plugin.getConfig().getInt("components.funnel.transfer-rate", 4);
-        funnels.put(pos, new Funnel(pos, face, rate));
+        funnels.computeIfAbsent(world.getName(), w -> new ConcurrentHashMap<>()).put(pos, new Funnel(pos, face, rate));
     }
 
-    public void removeFunnel(Vector3i pos) {
-        funnels.remove(pos);
+    public void removeFunnel(World world, Vector3i pos) {
+        Map<Vector3i, Funnel> worldFunnels = funnels.get(world.getName());
+        if (worldFunnels != null) {
+            worldFunnels.remove(pos);
+        }
     }
 
-    public void addDeployer(Vector3i pos, BlockFace face) {
+    public void addDeployer(World world, Vector3i pos, BlockFace face) {
         int cooldown = plugin.getConfig().getInt("components.deployer.cooldown", 20);
-        deployers.put(pos, new Deployer(pos, face, cooldown));
+        deployers.computeIfAbsent(world.getName(), w -> new ConcurrentHashMap<>()).put(pos, new Deployer(pos, face, cooldown));
     }
 
-    public void removeDeployer(Vector3i pos) {
-        deployers.remove(pos);
+    public void removeDeployer(World world, Vector3i pos) {
+        Map<Vector3i, Deployer> worldDeployers = deployers.get(world.getName());
+        if (worldDeployers != null) {
+            worldDeployers.remove(pos);
+        }
     }
 
     public void tick(World world) {
         beltManager.tick(world);
-        funnels.values().forEach(f -> f.tick(world, beltManager));
-        deployers.values().forEach(d -> d.tick(world));
+
+        // Components in unloaded chunks sleep; touching their blocks would load the chunk
+        Map<Vector3i, Funnel> worldFunnels = funnels.get(world.getName());
+        if (worldFunnels != null) {
+            for (Funnel funnel : worldFunnels.values()) {
+                if (isLoaded(world, funnel.getPosition())) {
+                    funnel.tick(world, beltManager);
+                }
+            }
+        }
+        Map<Vector3i, Deployer> worldDeployers = deployers.get(world.getName());
+        if (worldDeployers != null) {
+            for (Deployer deployer : worldDeployers.values()) {
+                if (isLoaded(world, deployer.getPosition())) {
+                    deployer.tick(world);
+                }
+            }
+        }
+    }
+
+    private static boolean isLoaded(World world, Vector3i pos) {
+        return world.isChunkLoaded(pos.x >> 4, pos.z >> 4);
     }
 
-    public boolean isFunnel(Vector3i pos) {
-        return funnels.containsKey(pos);
+    public boolean isFunnel(World world, Vector3i pos) {
+        Map<Vector3i, Funnel> worldFunnels = funnels.get(world.getName());
+        return worldFunnels != null && worldFunnels.containsKey(pos);
     }
 
-    public boolean isDeployer(Vector3i pos) {
-        return deployers.containsKey(pos);
+    public boolean isDeployer(World world, Vector3i pos) {
+        Map<Vector3i, Deployer> worldDeployers = deployers.get(world.getName());
+        return worldDeployers != null && worldDeployers.containsKey(pos);
     }
 }
@@ -0,0 +1,217 @@
+package com.webx.create2.persistence;
+
+import com.webx.create2.kinematic.KinematicNode;
+import com.webx.create2.kinematic.KinematicNodeType;
+import com.webx.create2.spatial.BlockPos;
+import lxxv.shared.collection.LongObjectMap;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Binary format of one region (32x32 chunks) of kinematic components
+ *
+ * Layout:
+ *   int     magic "C2RG"
+ *   byte    version
+ *   varint  type palette size, then the type names (UTF) - ordinals may change between versions
+ *   varint  component count, then per component in ascending local order:
+ *     varint  local position minus the previous one (see local())
+ *     varint  palette index
+ *     byte    axis (bits 0-1), reversed, and which of the doubles below follow
+ *     double  rpm, stress impact, stress capacity - only those that differ from the defaults
+ */
+public final class RegionFile {
+
+    // Chunks per region side = 1 << REGION_SHIFT
+    public static final int REGION_SHIFT = 5;
+    public static final String EXTENSION = ".c2r";
+
+    private static final int MAGIC = 0x43325247;
+    private static final int VERSION = 1;
+
+    private static final int FLAG_REVERSED = 1 << 2;
+    private static final int FLAG_RPM = 1 << 3;
+    private static final int FLAG_IMPACT = 1 << 4;
+    private static final int FLAG_CAPACITY = 1 << 5;
+
+    private RegionFile() {
+    }
+
+    /**
+     * Callback for decoded components
+     */
+    @FunctionalInterface
+    public interface NodeConsumer {
+        void accept(long position, KinematicNode node);
+    }
+
+    /**
+     * Key of the region containing a chunk
+     */
+    public static long regionKey(int chunkX, int chunkZ) {
+        return BlockPos.chunkKey(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+    }
+
+    /**
+     * Key of the region containing a packed block position
+     */
+    public static long regionKeyOf(long pos) {
+        return BlockPos.chunkKey(BlockPos.x(pos) >> (REGION_SHIFT + 4), BlockPos.z(pos) >> (REGION_SHIFT + 4));
+    }
+
+    public static String fileName(long regionKey) {
+        return "r." + BlockPos.chunkX(regionKey) + "." + BlockPos.chunkZ(regionKey) + EXTENSION;
+    }
+
+    /**
+     * Position inside its region: y (12 bits), z (9 bits), x (9 bits), never negative
+     */
+    private static int local(long pos) {
+        return ((BlockPos.y(pos) + 2048) << 18) | ((BlockPos.z(pos) & 511) << 9) | (BlockPos.x(pos) & 511);
+    }
+
+    private static long global(long regionKey, int local) {
+        int x = (BlockPos.chunkX(regionKey) << (REGION_SHIFT + 4)) + (local & 511);
+        int z = (BlockPos.chunkZ(regionKey) << (REGION_SHIFT + 4)) + ((local >> 9) & 511);
+        int y = (local >>> 18) - 2048;
+        return BlockPos.pack(x, y, z);
+    }
+
+    /**
+     * Encode the components of one region
+     * @param nodes packed position -> component; every position must lie in the region
+     */
+    public static byte[] encode(LongObjectMap<KinematicNode> nodes) throws IOException {
+        long[] positions = nodes.keys();
+        int count = positions.length;
+        // Local position in the high half gives the sort order, the array slot rides in the low half
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (long) local(positions[i]) << 32 | i;
+        }
+        Arrays.sort(order);
+
+        Map<KinematicNodeType, Integer> palette = new EnumMap<>(KinematicNodeType.class);
+        for (long pos : positions) {
+            palette.putIfAbsent(nodes.get(pos).getType(), palette.size());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + nodes.size() * 4);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarInt(out, palette.size());
+        KinematicNodeType[] types = new KinematicNodeType[palette.size()];
+        palette.forEach((type, index) -> types[index] = type);
+        for (KinematicNodeType type : types) {
+            out.writeUTF(type.name());
+        }
+
+        writeVarInt(out, count);
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int local = (int) (order[i] >>> 32);
+            KinematicNode node = nodes.get(positions[(int) order[i]]);
+            KinematicNodeType type = node.getType();
+
+            writeVarInt(out, local - previous);
+            previous = local;
+            writeVarInt(out, palette.get(type));
+
+            int flags = node.getAxis().ordinal();
+            if (node.isReversed()) flags |= FLAG_REVERSED;
+            if (node.getRpm() != 0.0) flags |= FLAG_RPM;
+            if (node.getStressImpact() != type.getDefaultStressImpact()) flags |= FLAG_IMPACT;
+            if (node.getStressCapacity() != type.getDefaultStressCapacity()) flags |= FLAG_CAPACITY;
+            out.writeByte(flags);
+            if ((flags & FLAG_RPM) != 0) out.writeDouble(node.getRpm());
+            if ((flags & FLAG_IMPACT) != 0) out.writeDouble(node.getStressImpact());
+            if ((flags & FLAG_CAPACITY) != 0) out.writeDouble(node.getStressCapacity());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a region written by encode()
+     * Components of types this version no longer knows are skipped
+     * @return number of skipped components
+     * @throws IOException if the data is truncated, corrupt or of another version
+     */
+    public static int decode(long regionKey, byte[] data, NodeConsumer consumer) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a Create2 region file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported region version " + version);
+        }
+
+        int paletteSize = readVarInt(in);
+        if (paletteSize < 0 || paletteSize > data.length) {
+            throw new IOException("Corrupt region palette (" + paletteSize + " types)");
+        }
+        KinematicNodeType[] palette = new KinematicNodeType[paletteSize];
+        for (int i = 0; i < palette.length; i++) {
+            String name = in.readUTF();
+            try {
+                palette[i] = KinematicNodeType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                palette[i] = null;
+            }
+        }
+
+        int count = readVarInt(in);
+        int local = 0;
+        int skipped = 0;
+        KinematicNode.RotationAxis[] axes = KinematicNode.RotationAxis.values();
+        for (int i = 0; i < count; i++) {
+            local += readVarInt(in);
+            int typeIndex = readVarInt(in);
+            if (typeIndex < 0 || typeIndex >= palette.length) {
+                throw new IOException("Corrupt region component (type " + typeIndex + " of " + palette.length + ")");
+            }
+            KinematicNodeType type = palette[typeIndex];
+            int flags = in.readUnsignedByte();
+            double rpm = (flags & FLAG_RPM) != 0 ? in.readDouble() : 0.0;
+            double impact = (flags & FLAG_IMPACT) != 0 ? in.readDouble() : Double.NaN;
+            double capacity = (flags & FLAG_CAPACITY) != 0 ? in.readDouble() : Double.NaN;
+            if (type == null) {
+                skipped++;
+                continue;
+            }
+
+            long pos = global(regionKey, local);
+            KinematicNode node = new KinematicNode(BlockPos.toVector(pos), type);
+            node.setAxis(axes[Math.min(flags & 3, axes.length - 1)]);
+            node.setReversed((flags & FLAG_REVERSED) != 0);
+            node.setRpm(rpm);
+            if (!Double.isNaN(impact)) node.setStressImpact(impact);
+            if (!Double.isNaN(capacity)) node.setStressCapacity(capacity);
+            consumer.accept(pos, node);
+        }
+        return skipped;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too long");
+    }
+}
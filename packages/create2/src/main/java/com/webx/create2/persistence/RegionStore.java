@@ -0,0 +1,166 @@
+package com.webx.create2.persistence;
+
+
+import lxxv.shared.collection.LongSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Region files on disk, one directory per world
+ * Tracks which regions are in memory and which changed since they were written. Reads
+ * happen on the main thread (once per region, when its first chunk loads); writes go to
+ * a single I/O thread in submission order, so a later save of a region always wins.
+ * Files are written to a temporary file and moved into place, so a crash mid-write
+ * keeps the previous version.
+ */
+public class RegionStore {
+
+    private final File directory;
+    private final Logger logger;
+    private final ExecutorService io;
+    // World name -> region keys read from disk (or found empty)
+    private final Map<String, LongSet> loaded = new ConcurrentHashMap<>();
+    // World name -> region keys changed since their last write
+    private final Map<String, LongSet> dirty = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    public RegionStore(File directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+        this.io = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "Create2-IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private File file(String world, long regionKey) {
+        return new File(new File(directory, world), RegionFile.fileName(regionKey));
+    }
+
+    /**
+     * Mark a region as in memory
+     * @return true if it was not loaded yet
+     */
+    public boolean markLoaded(String world, long regionKey) {
+        return loaded.computeIfAbsent(world, w -> new LongSet()).add(regionKey);
+    }
+
+    public boolean isLoaded(String world, long regionKey) {
+        LongSet regions = loaded.get(world);
+        return regions != null && regions.contains(regionKey);
+    }
+
+    /**
+     * Read a region file
+     * @return file contents, or null if the region was never saved
+     */
+    public byte[] read(String world, long regionKey) throws IOException {
+        File file = file(world, regionKey);
+        return file.exists() ? Files.readAllBytes(file.toPath()) : null;
+    }
+
+    /**
+     * Rename an unreadable region file so the next save does not replace it
+     */
+    public void setAside(String world, long regionKey) {
+        File file = file(world, regionKey);
+        File aside = new File(file.getParentFile(), file.getName() + ".corrupt");
+        if (!file.renameTo(aside)) {
+            logger.warning("Could not set aside " + file);
+        }
+    }
+
+    public void markDirty(String world, long regionKey) {
+        dirty.computeIfAbsent(world, w -> new LongSet()).add(regionKey);
+    }
+
+    /**
+     * Take the dirty regions of a world, leaving none
+     */
+    public long[] drainDirty(String world) {
+        LongSet regions = dirty.get(world);
+        if (regions == null || regions.isEmpty()) return new long[0];
+
+        long[] keys = regions.toArray();
+        regions.clear();
+        return keys;
+    }
+
+    /**
+     * Worlds with dirty regions
+     */
+    public Iterable<String> getDirtyWorlds() {
+        return dirty.keySet();
+    }
+
+    /**
+     * Queue a region write on the I/O thread; null data deletes the file
+     */
+    public void write(String world, long regionKey, byte[] data) {
+        pendingWrites.incrementAndGet();
+        io.execute(() -> {
+            try {
+                writeNow(world, regionKey, data);
+            } catch (IOException e) {
+                logger.warning("Failed to save region " + world + "/" + RegionFile.fileName(regionKey) + ": " + e.getMessage());
+            } finally {
+                pendingWrites.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Write a region on the calling thread (importer)
+     */
+    public void writeNow(String world, long regionKey, byte[] data) throws IOException {
+        File file = file(world, regionKey);
+        if (data == null) {
+            Files.deleteIfExists(file.toPath());
+            return;
+        }
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File temp = new File(parent, file.getName() + ".tmp");
+        Files.write(temp.toPath(), data);
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getLoadedCount() {
+        return loaded.values().stream().mapToInt(LongSet::size).sum();
+    }
+
+    public int getDirtyCount() {
+        return dirty.values().stream().mapToInt(LongSet::size).sum();
+    }
+
+    public int getPendingWrites() {
+        return pendingWrites.get();
+    }
+
+    /**
+     * Finish queued writes and stop the I/O thread (plugin disable)
+     */
+    public void close() {
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warning("Gave up waiting for " + pendingWrites.get() + " region writes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.webx.create2.spatial;
+
+import org.joml.Vector3i;
+
+/**
+ * Block positions packed into one long
+ * Layout (high to low): x 26 bits, z 26 bits, y 12 bits - the same split vanilla uses,
+ * which covers the whole world border and build height
+ */
+public final class BlockPos {
+
+    // Face order: +X, -X, +Y, -Y, +Z, -Z
+    public static final int FACES = 6;
+    private static final int[] DX = {1, -1, 0, 0, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1, 0, 0};
+    private static final int[] DZ = {0, 0, 0, 0, 1, -1};
+
+    private BlockPos() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static long pack(Vector3i position) {
+        return pack(position.x, position.y, position.z);
+    }
+
+    public static int x(long pos) {
+        return (int) (pos >> 38);
+    }
+
+    public static int y(long pos) {
+        return (int) (pos << 52 >> 52);
+    }
+
+    public static int z(long pos) {
+        return (int) (pos << 26 >> 38);
+    }
+
+    public static Vector3i toVector(long pos) {
+        return new Vector3i(x(pos), y(pos), z(pos));
+    }
+
+    public static long offset(long pos, int dx, int dy, int dz) {
+        return pack(x(pos) + dx, y(pos) + dy, z(pos) + dz);
+    }
+
+    /**
+     * Neighbour across a face (0..5), without allocating
+     */
+    public static long neighbour(long pos, int face) {
+        return pack(x(pos) + DX[face], y(pos) + DY[face], z(pos) + DZ[face]);
+    }
+
+    /**
+     * Pack chunk coordinates into one key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Key of the chunk containing pos
+     */
+    public static long chunkKey(long pos) {
+        return chunkKey(x(pos) >> 4, z(pos) >> 4);
+    }
+
+    public static int chunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    public static int chunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+}
@@ -0,0 +1,62 @@
+package com.webx.create2.spatial;
+
+import java.util.Arrays;
+
+/**
+ * FIFO queue of longs for breadth-first searches over packed positions
+ * Polled values stay in the backing array until clear(), so the queue doubles as
+ * the log of everything the search has visited
+ */
+public class LongQueue {
+
+    private long[] values = new long[16];
+    private int head;
+    private int tail;
+
+    public void add(long value) {
+        if (tail == values.length) {
+            values = Arrays.copyOf(values, values.length << 1);
+        }
+        values[tail++] = value;
+    }
+
+    /**
+     * Next value; the queue must not be empty
+     */
+    public long poll() {
+        return values[head++];
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * Values still waiting to be polled
+     */
+    public int size() {
+        return tail - head;
+    }
+
+    /**
+     * Move the waiting values to the end of another queue
+     */
+    public void drainTo(LongQueue other) {
+        for (int i = head; i < tail; i++) {
+            other.add(values[i]);
+        }
+        head = tail;
+    }
+
+    /**
+     * Every value added since the last clear, polled or not
+     */
+    public long[] history() {
+        return Arrays.copyOf(values, tail);
+    }
+
+    public void clear() {
+        head = 0;
+        tail = 0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.webx.create2.spatial;
+
+import lxxv.shared.collection.LongObjectMap;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Block-position index split into per-chunk tables
+ * Lookups go chunk table -> position; per-chunk iteration lets a tick check whether a
+ * chunk is loaded once and skip all of its entries
+ */
+public class SpatialIndex<V> {
+
+    private final LongObjectMap<LongObjectMap<V>> chunks = new LongObjectMap<>();
+    private int size;
+
+    /**
+     * Callback for per-chunk iteration
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer<V> {
+        void accept(int chunkX, int chunkZ, LongObjectMap<V> entries);
+    }
+
+    public V get(long pos) {
+        LongObjectMap<V> chunk = chunks.get(BlockPos.chunkKey(pos));
+        return chunk != null ? chunk.get(pos) : null;
+    }
+
+    public boolean contains(long pos) {
+        return get(pos) != null;
+    }
+
+    /**
+     * @return previous value, or null
+     */
+    public V put(long pos, V value) {
+        long key = BlockPos.chunkKey(pos);
+        LongObjectMap<V> chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = new LongObjectMap<>();
+            chunks.put(key, chunk);
+        }
+        V previous = chunk.put(pos, value);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * @return removed value, or null
+     */
+    public V remove(long pos) {
+        long key = BlockPos.chunkKey(pos);
+        LongObjectMap<V> chunk = chunks.get(key);
+        if (chunk == null) {
+            return null;
+        }
+        V removed = chunk.remove(pos);
+        if (removed != null) {
+            size--;
+            if (chunk.isEmpty()) {
+                chunks.remove(key);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Entries of one chunk, or null if it has none (do not modify)
+     */
+    public LongObjectMap<V> getChunk(int chunkX, int chunkZ) {
+        return chunks.get(BlockPos.chunkKey(chunkX, chunkZ));
+    }
+
+    public void forEachChunk(ChunkConsumer<V> action) {
+        chunks.forEach((key, entries) -> action.accept(BlockPos.chunkX(key), BlockPos.chunkZ(key), entries));
+    }
+
+    public void forEach(LongObjectMap.EntryConsumer<? super V> action) {
+        chunks.forEachValue(chunk -> chunk.forEach(action));
+    }
+
+    /**
+     * Live view of all values; the index must not change while it is iterated
+     */
+    public Iterable<V> values() {
+        return () -> new Iterator<>() {
+            private final Iterator<LongObjectMap<V>> chunkIterator = chunks.values().iterator();
+            private Iterator<V> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && chunkIterator.hasNext()) {
+                    current = chunkIterator.next().values().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * Snapshot of the positions
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int[] n = {0};
+        forEach((pos, value) -> result[n[0]++] = pos);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Keys (see BlockPos.chunkKey) of the chunks that have entries
+     */
+    public long[] chunkKeys() {
+        return chunks.keys();
+    }
+
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    public void clear() {
+        chunks.clear();
+        size = 0;
+    }
+}
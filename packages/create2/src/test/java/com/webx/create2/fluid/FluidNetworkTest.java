@@ -0,0 +1,79 @@
+package com.webx.create2.fluid;
+
+import com.webx.create2.spatial.BlockPos;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FluidNetworkTest {
+    private static final String WORLD = "world";
+    private static final int TICKS = 500;
+
+    @Test
+    void flowWithoutLossKeepsTheTotal() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            FluidNetwork network = new FluidNetwork(WORLD);
+            List<FluidNode> nodes = new ArrayList<>();
+            // A lumpy blob of pipes and tanks with very different capacities
+            for (int x = 0; x < 8; x++) {
+                for (int y = 0; y < 4; y++) {
+                    for (int z = 0; z < 8; z++) {
+                        if (random.nextInt(4) == 0) continue;
+                        boolean tank = random.nextInt(5) == 0;
+                        int capacity = tank ? 1_000 + random.nextInt(64_000) : 1 + random.nextInt(250);
+                        FluidNode node = new FluidNode(new Vector3i(x, 64 + y, z), tank ? FluidNode.Type.TANK : FluidNode.Type.PIPE, capacity);
+                        node.setAmount(random.nextInt(4) == 0 ? 0 : random.nextInt(capacity + 1));
+                        network.addNode(BlockPos.pack(x, 64 + y, z), node);
+                        nodes.add(node);
+                    }
+                }
+            }
+            long total = total(nodes);
+
+            for (int tick = 0; tick < TICKS; tick++) {
+                network.tick(null, 0, 0.0);
+                for (FluidNode node : nodes) {
+                    assertTrue(node.getAmount() >= 0 && node.getAmount() <= node.getCapacity());
+                }
+                assertEquals(total, total(nodes), "tick " + tick);
+            }
+        }
+    }
+
+    @Test
+    void manyTricklesFromANearlyEmptyNodeDoNotCreateFluid() {
+        FluidNetwork network = new FluidNetwork(WORLD);
+        // 2 mB in a small pipe surrounded by six huge empty tanks: each wants a 1 mB trickle
+        FluidNode pipe = add(network, 0, 64, 0, FluidNode.Type.PIPE, 1_000, 2);
+        List<FluidNode> nodes = new ArrayList<>(List.of(pipe));
+        for (int face = 0; face < BlockPos.FACES; face++) {
+            long pos = BlockPos.neighbour(BlockPos.pack(0, 64, 0), face);
+            Vector3i v = BlockPos.toVector(pos);
+            nodes.add(add(network, v.x, v.y, v.z, FluidNode.Type.TANK, 1_000_000, 0));
+        }
+
+        network.tick(null, 0, 0.0);
+        assertEquals(2, total(nodes));
+    }
+
+    private static FluidNode add(FluidNetwork network, int x, int y, int z, FluidNode.Type type, int capacity, int amount) {
+        FluidNode node = new FluidNode(new Vector3i(x, y, z), type, capacity);
+        node.setAmount(amount);
+        network.addNode(BlockPos.pack(x, y, z), node);
+        return node;
+    }
+
+    private static long total(List<FluidNode> nodes) {
+        long total = 0;
+        for (FluidNode node : nodes) {
+            total += node.getAmount();
+        }
+        return total;
+    }
+}
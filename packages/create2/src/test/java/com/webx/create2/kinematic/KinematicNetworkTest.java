@@ -0,0 +1,104 @@
+package com.webx.create2.kinematic;
+
+import com.webx.create2.spatial.BlockPos;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KinematicNetworkTest {
+    private static final String WORLD = "world";
+
+    @Test
+    void settingNodeValuesReportsTheNode() {
+        Recorder recorder = new Recorder();
+        KinematicNetwork network = new KinematicNetwork(WORLD);
+        network.setChangeListener(recorder);
+        KinematicNode source = add(network, 0, 64, 0);
+        network.tick();
+        assertFalse(network.isDirty());
+
+        source.setStressCapacity(256);
+        source.setRpm(32);
+        source.setStressImpact(4);
+        assertEquals(List.of(BlockPos.pack(0, 64, 0), BlockPos.pack(0, 64, 0), BlockPos.pack(0, 64, 0)), recorder.nodes);
+        assertTrue(network.isDirty());
+
+        // Same value again is no change
+        source.setRpm(32);
+        assertEquals(3, recorder.nodes.size());
+    }
+
+    @Test
+    void commitDoesNotReportItsOwnRpm() {
+        Recorder recorder = new Recorder();
+        KinematicNetwork network = new KinematicNetwork(WORLD);
+        KinematicNode source = add(network, 0, 64, 0);
+        KinematicNode shaft = add(network, 1, 64, 0);
+        source.setStressCapacity(256);
+        source.setRpm(64);
+        network.setChangeListener(recorder);
+
+        network.tick();
+        assertEquals(64, shaft.getRpm(), 0);
+        assertTrue(recorder.nodes.isEmpty());
+        assertTrue(recorder.networks.isEmpty());
+    }
+
+    @Test
+    void settingNetworkRpmReportsTheNetwork() {
+        Recorder recorder = new Recorder();
+        KinematicNetwork network = new KinematicNetwork(WORLD);
+        network.setChangeListener(recorder);
+        add(network, 0, 64, 0);
+
+        network.setRpm(16);
+        assertEquals(List.of(network), recorder.networks);
+    }
+
+    @Test
+    void movedNodesReportTheirNewNetwork() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        KinematicNetwork left = new KinematicNetwork(WORLD);
+        left.setChangeListener(first);
+        KinematicNetwork right = new KinematicNetwork(WORLD);
+        right.setChangeListener(second);
+        KinematicNode node = add(left, 0, 64, 0);
+        add(right, 1, 64, 0);
+
+        right.merge(left);
+        node.setRpm(8);
+        assertTrue(first.nodes.isEmpty());
+        assertEquals(1, second.nodes.size());
+
+        // Removed nodes belong to no network
+        right.removeComponent(BlockPos.pack(0, 64, 0));
+        node.setRpm(12);
+        assertEquals(1, second.nodes.size());
+    }
+
+    private static KinematicNode add(KinematicNetwork network, int x, int y, int z) {
+        KinematicNode node = new KinematicNode(new Vector3i(x, y, z), KinematicNodeType.SHAFT);
+        network.addComponent(BlockPos.pack(x, y, z), node);
+        return node;
+    }
+
+    private static final class Recorder implements KinematicNetwork.ChangeListener {
+        final List<Long> nodes = new ArrayList<>();
+        final List<KinematicNetwork> networks = new ArrayList<>();
+
+        @Override
+        public void nodeChanged(KinematicNetwork network, long position) {
+            nodes.add(position);
+        }
+
+        @Override
+        public void networkChanged(KinematicNetwork network) {
+            networks.add(network);
+        }
+    }
+}
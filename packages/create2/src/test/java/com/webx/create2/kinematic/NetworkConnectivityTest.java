@@ -0,0 +1,203 @@
+package com.webx.create2.kinematic;
+
+import com.webx.create2.spatial.BlockPos;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkConnectivityTest {
+    private static final String WORLD = "world";
+
+    @Test
+    void placingNextToNetworksJoinsAndMergesThem() {
+        Grid grid = new Grid();
+        grid.add(0, 64, 0);
+        grid.add(2, 64, 0);
+        assertNotSame(grid.network(0, 64, 0), grid.network(2, 64, 0));
+
+        grid.add(1, 64, 0);
+        KinematicNetwork network = grid.network(0, 64, 0);
+        assertSame(network, grid.network(1, 64, 0));
+        assertSame(network, grid.network(2, 64, 0));
+        assertEquals(3, network.getSize());
+        assertEquals(1, grid.networks().size());
+    }
+
+    @Test
+    void cuttingALineSplitsIt() {
+        Grid grid = new Grid();
+        for (int x = 0; x < 9; x++) {
+            grid.add(x, 64, 0);
+        }
+
+        grid.remove(4, 64, 0);
+        assertTrue(grid.graph.hasPendingSplits());
+        grid.resolve();
+        assertFalse(grid.graph.hasPendingSplits());
+
+        KinematicNetwork left = grid.network(0, 64, 0);
+        KinematicNetwork right = grid.network(8, 64, 0);
+        assertNotSame(left, right);
+        assertEquals(4, left.getSize());
+        assertEquals(4, right.getSize());
+        assertSame(left, grid.network(3, 64, 0));
+        assertSame(right, grid.network(5, 64, 0));
+        assertNull(grid.network(4, 64, 0));
+    }
+
+    @Test
+    void removingFromALoopKeepsOneNetwork() {
+        Grid grid = new Grid();
+        for (int x = 0; x < 5; x++) {
+            grid.add(x, 64, 0);
+            grid.add(x, 64, 4);
+        }
+        for (int z = 1; z < 4; z++) {
+            grid.add(0, 64, z);
+            grid.add(4, 64, z);
+        }
+
+        grid.remove(2, 64, 0);
+        grid.resolve();
+        assertEquals(1, grid.networks().size());
+        assertEquals(15, grid.network(0, 64, 0).getSize());
+    }
+
+    @Test
+    void removingTheLastComponentDropsTheNetwork() {
+        Grid grid = new Grid();
+        grid.add(0, 64, 0);
+        KinematicNetwork network = grid.network(0, 64, 0);
+
+        grid.remove(0, 64, 0);
+        grid.resolve();
+        assertFalse(network.isValid());
+        assertNull(grid.network(0, 64, 0));
+        assertEquals(0, grid.graph.size());
+    }
+
+    @Test
+    void matchesFloodFillUnderRandomEdits() {
+        Random random = new Random(7);
+        Grid grid = new Grid();
+        for (int round = 0; round < 300; round++) {
+            // Several edits between resolves, like removals batched within one tick
+            int edits = 1 + random.nextInt(8);
+            for (int i = 0; i < edits; i++) {
+                int x = random.nextInt(8);
+                int y = 64 + random.nextInt(3);
+                int z = random.nextInt(8);
+                if (grid.graph.contains(BlockPos.pack(x, y, z))) {
+                    grid.remove(x, y, z);
+                } else if (random.nextInt(3) > 0) {
+                    grid.add(x, y, z);
+                }
+            }
+            grid.resolve();
+            assertMatchesFloodFill(grid);
+        }
+    }
+
+    private static void assertMatchesFloodFill(Grid grid) {
+        Set<Long> unvisited = new HashSet<>(grid.occupied);
+        Set<KinematicNetwork> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (!unvisited.isEmpty()) {
+            long start = unvisited.iterator().next();
+            List<Long> component = new ArrayList<>();
+            Deque<Long> queue = new ArrayDeque<>(List.of(start));
+            unvisited.remove(start);
+            while (!queue.isEmpty()) {
+                long pos = queue.poll();
+                component.add(pos);
+                for (int face = 0; face < BlockPos.FACES; face++) {
+                    long next = BlockPos.neighbour(pos, face);
+                    if (unvisited.remove(next)) {
+                        queue.add(next);
+                    }
+                }
+            }
+
+            KinematicNetwork network = grid.graph.getNetwork(start);
+            assertNotNull(network);
+            assertTrue(network.isValid());
+            assertTrue(seen.add(network), "two components share a network");
+            assertEquals(component.size(), network.getSize());
+            for (long pos : component) {
+                assertSame(network, grid.graph.getNetwork(pos));
+                assertTrue(network.contains(pos));
+            }
+        }
+        assertEquals(grid.occupied.size(), grid.graph.size());
+        assertEquals(seen.size(), grid.networks().size());
+    }
+
+    /**
+     * Network bookkeeping as KinematicNetworkManager does it, with every neighbour connecting
+     */
+    private static final class Grid {
+        final NetworkConnectivity graph = new NetworkConnectivity();
+        final Set<Long> occupied = new HashSet<>();
+        final Set<KinematicNetwork> all = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        void add(int x, int y, int z) {
+            long key = BlockPos.pack(x, y, z);
+            KinematicNode node = new KinematicNode(new Vector3i(x, y, z), KinematicNodeType.SHAFT);
+            Map<KinematicNetwork, Long> adjacent = new LinkedHashMap<>();
+            for (int face = 0; face < BlockPos.FACES; face++) {
+                long neighbour = BlockPos.neighbour(key, face);
+                KinematicNetwork network = graph.getNetwork(neighbour);
+                if (network != null) {
+                    adjacent.putIfAbsent(network, neighbour);
+                }
+            }
+
+            if (adjacent.isEmpty()) {
+                KinematicNetwork network = new KinematicNetwork(WORLD);
+                network.addComponent(key, node);
+                graph.addRoot(key, network);
+                all.add(network);
+            } else {
+                KinematicNetwork main = Collections.max(adjacent.keySet(), Comparator.comparingInt(KinematicNetwork::getSize));
+                long anchor = adjacent.get(main);
+                main.addComponent(key, node);
+                graph.addTo(key, anchor);
+                for (Map.Entry<KinematicNetwork, Long> entry : adjacent.entrySet()) {
+                    KinematicNetwork other = entry.getKey();
+                    if (other == main) continue;
+
+                    main.merge(other);
+                    all.remove(other);
+                    graph.union(anchor, entry.getValue(), main);
+                    graph.transferPending(other, main);
+                }
+            }
+            occupied.add(key);
+        }
+
+        void remove(int x, int y, int z) {
+            long key = BlockPos.pack(x, y, z);
+            KinematicNetwork network = graph.getNetwork(key);
+            network.removeComponent(key);
+            graph.remove(key, network);
+            if (!network.isValid()) {
+                all.remove(network);
+            }
+            occupied.remove(key);
+        }
+
+        void resolve() {
+            all.addAll(graph.resolveSplits());
+        }
+
+        KinematicNetwork network(int x, int y, int z) {
+            return graph.getNetwork(BlockPos.pack(x, y, z));
+        }
+
+        Set<KinematicNetwork> networks() {
+            return all;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.webx.create2.kinematic;
+
+import com.webx.create2.spatial.BlockPos;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkSolverTest {
+    private static final String WORLD = "world";
+
+    @Test
+    void parallelSolveMatchesSequential() {
+        List<KinematicNetwork> sequential = networks(new Random(11));
+        List<KinematicNetwork> parallel = networks(new Random(11));
+        NetworkSolver single = new NetworkSolver(1, 0);
+        // No size threshold, so the ~40k components are split into shards across threads
+        NetworkSolver pool = new NetworkSolver(4, 0);
+        assertTrue(pool.isParallel());
+        try {
+            for (int tick = 0; tick < 40; tick++) {
+                if (tick == 20) {
+                    // Change sources half way, as placing a generator would
+                    Random random = new Random(tick);
+                    for (int i = 0; i < sequential.size(); i += 3) {
+                        double rpm = 16 + random.nextInt(240);
+                        sequential.get(i).forEachNode((pos, node) -> setSourceRpm(node, rpm));
+                        parallel.get(i).forEachNode((pos, node) -> setSourceRpm(node, rpm));
+                    }
+                }
+                solve(single, sequential);
+                solve(pool, parallel);
+                for (int i = 0; i < sequential.size(); i++) {
+                    assertSameState(sequential.get(i), parallel.get(i), "tick " + tick + ", network " + i);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void solve(NetworkSolver solver, List<KinematicNetwork> networks) {
+        solver.compute(networks);
+        for (KinematicNetwork network : networks) {
+            network.commit();
+        }
+    }
+
+    private static void setSourceRpm(KinematicNode node, double rpm) {
+        if (node.isPowerSource()) {
+            node.setRpm(rpm);
+        }
+    }
+
+    private static void assertSameState(KinematicNetwork expected, KinematicNetwork actual, String where) {
+        assertEquals(expected.getRpm(), actual.getRpm(), where);
+        assertEquals(expected.getStress(), actual.getStress(), where);
+        assertEquals(expected.getStressCapacity(), actual.getStressCapacity(), where);
+        assertEquals(expected.isDirty(), actual.isDirty(), where);
+        expected.forEachNode((pos, node) -> assertEquals(node.getRpm(), actual.getNode(pos).getRpm(), where));
+    }
+
+    // Lines of shafts with generators and consumers; some are overstressed and decay
+    private static List<KinematicNetwork> networks(Random random) {
+        List<KinematicNetwork> networks = new ArrayList<>();
+        for (int n = 0; n < 200; n++) {
+            KinematicNetwork network = new KinematicNetwork(WORLD);
+            int length = 1 + random.nextInt(400);
+            for (int x = 0; x < length; x++) {
+                KinematicNode node = new KinematicNode(new Vector3i(x, 64, n * 2), KinematicNodeType.SHAFT);
+                int kind = random.nextInt(20);
+                if (kind == 0) {
+                    node.setStressCapacity(64 + random.nextInt(2048));
+                    node.setRpm(16 + random.nextInt(240));
+                } else if (kind < 4) {
+                    node.setStressImpact(random.nextInt(256));
+                }
+                network.addComponent(BlockPos.pack(x, 64, n * 2), node);
+            }
+            networks.add(network);
+        }
+        return networks;
+    }
+}
@@ -0,0 +1,123 @@
+package com.webx.create2.logistics;
+
+import com.webx.create2.spatial.BlockPos;
+import org.bukkit.inventory.ItemStack;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeltLineTest {
+    private static final double SPACING = 0.25;
+
+    @Test
+    void segmentsKnowTheirLineAndOutput() {
+        BeltLine line = line(14, 64, 3, 4);
+        BeltSegment[] segments = line.getSegments();
+        for (int i = 0; i < segments.length; i++) {
+            assertSame(line, segments[i].getLine());
+            assertEquals(i, segments[i].getIndex());
+        }
+        assertEquals(BlockPos.pack(14, 64, 3), line.getStart());
+        assertEquals(BlockPos.pack(18, 64, 3), line.getOutput());
+        // x 14..17 crosses from chunk 0 into chunk 1
+        assertArrayEquals(new long[] {BlockPos.chunkKey(0, 0), BlockPos.chunkKey(1, 0)}, line.getChunks());
+        assertSame(segments[0], line.segmentAt(0.5));
+        assertSame(segments[3], line.segmentAt(3.9));
+        assertSame(segments[3], line.segmentAt(4.0));
+    }
+
+    @Test
+    void insertKeepsItemsFrontFirstAndSpaced() {
+        BeltLine line = line(0, 64, 0, 3);
+        ItemStack back = stack();
+        ItemStack front = stack();
+        ItemStack middle = stack();
+        assertTrue(line.insert(0.5, back, SPACING));
+        assertTrue(line.insert(2.5, front, SPACING));
+        assertTrue(line.insert(1.5, middle, SPACING));
+        assertFalse(line.insert(1.6, stack(), SPACING));
+        assertFalse(line.insert(0.4, stack(), SPACING));
+
+        assertEquals(List.of(front, middle, back), stacks(line));
+        assertSame(front, line.peekFront());
+    }
+
+    @Test
+    void itemsMoveAndLeaveAtTheFront() {
+        BeltLine line = line(0, 64, 0, 2);
+        ItemStack first = stack();
+        ItemStack second = stack();
+        line.insert(1.0, first, SPACING);
+        line.insert(0.0, second, SPACING);
+
+        assertFalse(line.advance(0.5, SPACING));
+        assertEquals(List.of(1.5, 0.5), positions(line));
+        assertTrue(line.advance(0.5, SPACING));
+
+        assertSame(first, line.pollFront());
+        assertSame(second, line.peekFront());
+        assertEquals(1, line.getItemCount());
+        assertFalse(line.advance(0.5, SPACING));
+        assertTrue(line.advance(0.5, SPACING));
+        assertSame(second, line.pollFront());
+        assertTrue(line.isEmpty());
+        assertNull(line.pollFront());
+    }
+
+    @Test
+    void blockedFrontCompressesTheLane() {
+        BeltLine line = line(0, 64, 0, 3);
+        for (int i = 0; i < 5; i++) {
+            line.place(i * 0.5, stack());
+        }
+
+        // Nothing is polled, so the front stays at the end and the rest queue behind it
+        for (int tick = 0; tick < 100; tick++) {
+            line.advance(0.1, SPACING);
+        }
+        List<Double> positions = positions(line);
+        assertEquals(5, positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            assertEquals(3.0 - i * SPACING, positions.get(i), 1e-9);
+        }
+    }
+
+    @Test
+    void placeClampsToTheLine() {
+        BeltLine line = line(0, 64, 0, 2);
+        line.place(-1, stack());
+        line.place(5, stack());
+        assertEquals(List.of(2.0, 0.0), positions(line));
+    }
+
+    private static BeltLine line(int x, int y, int z, int length) {
+        Vector3i east = new Vector3i(1, 0, 0);
+        BeltSegment[] segments = new BeltSegment[length];
+        for (int i = 0; i < length; i++) {
+            segments[i] = new BeltSegment(new Vector3i(x + i, y, z), east);
+        }
+        return new BeltLine(segments);
+    }
+
+    private static ItemStack stack() {
+        // Distinct instances without a server; the lane only moves them around
+        return new ItemStack() {
+        };
+    }
+
+    private static List<ItemStack> stacks(BeltLine line) {
+        List<ItemStack> stacks = new ArrayList<>();
+        line.forEachItem((position, stack) -> stacks.add(stack));
+        return stacks;
+    }
+
+    private static List<Double> positions(BeltLine line) {
+        List<Double> positions = new ArrayList<>();
+        line.forEachItem((position, stack) -> positions.add(position));
+        return positions;
+    }
+}
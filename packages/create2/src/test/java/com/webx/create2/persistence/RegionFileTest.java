@@ -0,0 +1,141 @@
+package com.webx.create2.persistence;
+
+import com.webx.create2.kinematic.KinematicNode;
+import com.webx.create2.kinematic.KinematicNodeType;
+import com.webx.create2.spatial.BlockPos;
+import lxxv.shared.collection.LongObjectMap;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionFileTest {
+
+    @Test
+    void encodeThenDecodeKeepsEveryComponent() throws IOException {
+        Random random = new Random(3);
+        // One region on each side of the origin
+        for (long region : new long[] {RegionFile.regionKey(0, 0), RegionFile.regionKey(-33, 40)}) {
+            LongObjectMap<KinematicNode> nodes = randomRegion(random, region, 2000);
+            LongObjectMap<KinematicNode> decoded = new LongObjectMap<>();
+            int skipped = RegionFile.decode(region, RegionFile.encode(nodes), decoded::put);
+
+            assertEquals(0, skipped);
+            assertEquals(nodes.size(), decoded.size());
+            nodes.forEach((pos, node) -> {
+                KinematicNode copy = decoded.get(pos);
+                assertNotNull(copy, "missing " + BlockPos.toVector(pos));
+                assertEquals(node.getPosition(), copy.getPosition());
+                assertEquals(node.getType(), copy.getType());
+                assertEquals(node.getAxis(), copy.getAxis());
+                assertEquals(node.isReversed(), copy.isReversed());
+                assertEquals(node.getRpm(), copy.getRpm());
+                assertEquals(node.getStressImpact(), copy.getStressImpact());
+                assertEquals(node.getStressCapacity(), copy.getStressCapacity());
+            });
+        }
+    }
+
+    @Test
+    void unknownTypesAreSkipped() throws IOException {
+        long region = RegionFile.regionKey(0, 0);
+        LongObjectMap<KinematicNode> nodes = new LongObjectMap<>();
+        put(nodes, 1, 64, 1, KinematicNodeType.SHAFT);
+        put(nodes, 2, 64, 1, KinematicNodeType.SHAFT);
+        put(nodes, 3, 64, 1, KinematicNodeType.COGWHEEL);
+        byte[] data = RegionFile.encode(nodes);
+        // A type from another version: same length, so the layout is unchanged
+        replace(data, "SHAFT", "SHAFX");
+
+        LongObjectMap<KinematicNode> decoded = new LongObjectMap<>();
+        assertEquals(2, RegionFile.decode(region, data, decoded::put));
+        assertEquals(1, decoded.size());
+        assertEquals(KinematicNodeType.COGWHEEL, decoded.get(BlockPos.pack(3, 64, 1)).getType());
+    }
+
+    @Test
+    void truncatedDataIsRejected() throws IOException {
+        long region = RegionFile.regionKey(0, 0);
+        byte[] data = RegionFile.encode(randomRegion(new Random(5), region, 50));
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IOException.class, () -> RegionFile.decode(region, truncated, (pos, node) -> { }), "length " + length);
+        }
+    }
+
+    @Test
+    void corruptDataIsRejected() throws IOException {
+        long region = RegionFile.regionKey(0, 0);
+        byte[] data = RegionFile.encode(randomRegion(new Random(9), region, 50));
+
+        byte[] magic = data.clone();
+        magic[0] ^= 0x55;
+        IOException error = assertThrows(IOException.class, () -> RegionFile.decode(region, magic, (pos, node) -> { }));
+        assertTrue(error.getMessage().contains("region file"));
+
+        // Damage anywhere else either still decodes or fails as an IOException, never otherwise
+        Random random = new Random(13);
+        for (int i = 0; i < 5000; i++) {
+            byte[] damaged = data.clone();
+            damaged[5 + random.nextInt(damaged.length - 5)] = (byte) random.nextInt(256);
+            try {
+                RegionFile.decode(region, damaged, (pos, node) -> { });
+            } catch (IOException expected) {
+                // rejected
+            }
+        }
+    }
+
+    @Test
+    void otherVersionsAreRejected() throws IOException {
+        long region = RegionFile.regionKey(0, 0);
+        byte[] data = RegionFile.encode(randomRegion(new Random(1), region, 10));
+        data[4] = 2;
+        IOException error = assertThrows(IOException.class, () -> RegionFile.decode(region, data, (pos, node) -> { }));
+        assertTrue(error.getMessage().contains("version 2"));
+    }
+
+    private static LongObjectMap<KinematicNode> randomRegion(Random random, long region, int count) {
+        KinematicNodeType[] types = KinematicNodeType.values();
+        KinematicNode.RotationAxis[] axes = KinematicNode.RotationAxis.values();
+        int side = 16 << RegionFile.REGION_SHIFT;
+        int baseX = BlockPos.chunkX(region) * side;
+        int baseZ = BlockPos.chunkZ(region) * side;
+        LongObjectMap<KinematicNode> nodes = new LongObjectMap<>();
+        while (nodes.size() < count) {
+            int x = baseX + random.nextInt(side);
+            int y = -64 + random.nextInt(384);
+            int z = baseZ + random.nextInt(side);
+            KinematicNode node = put(nodes, x, y, z, types[random.nextInt(types.length)]);
+            node.setAxis(axes[random.nextInt(axes.length)]);
+            node.setReversed(random.nextBoolean());
+            if (random.nextBoolean()) node.setRpm(random.nextInt(513) - 256);
+            if (random.nextInt(4) == 0) node.setStressImpact(random.nextDouble() * 64);
+            if (random.nextInt(4) == 0) node.setStressCapacity(random.nextDouble() * 4096);
+        }
+        return nodes;
+    }
+
+    private static KinematicNode put(LongObjectMap<KinematicNode> nodes, int x, int y, int z, KinematicNodeType type) {
+        KinematicNode node = new KinematicNode(new Vector3i(x, y, z), type);
+        nodes.put(BlockPos.pack(x, y, z), node);
+        return node;
+    }
+
+    private static void replace(byte[] data, String from, String to) {
+        byte[] pattern = from.getBytes(StandardCharsets.UTF_8);
+        byte[] replacement = to.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i + pattern.length <= data.length; i++) {
+            if (Arrays.equals(data, i, i + pattern.length, pattern, 0, pattern.length)) {
+                System.arraycopy(replacement, 0, data, i, replacement.length);
+                return;
+            }
+        }
+        fail("no " + from + " in data");
+    }
+}
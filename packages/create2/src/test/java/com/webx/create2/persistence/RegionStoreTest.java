@@ -0,0 +1,78 @@
+package com.webx.create2.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionStoreTest {
+    private static final Logger LOGGER = Logger.getLogger("RegionStoreTest");
+    private static final String WORLD = "world";
+
+    @TempDir
+    File directory;
+
+    @Test
+    void queuedWritesAreReadBackAndTheLastOneWins() throws IOException {
+        RegionStore store = new RegionStore(directory, LOGGER);
+        long region = RegionFile.regionKey(-1, 2);
+        assertNull(store.read(WORLD, region));
+
+        store.write(WORLD, region, new byte[] {1, 2, 3});
+        store.write(WORLD, region, new byte[] {4, 5});
+        store.close();
+
+        RegionStore reopened = new RegionStore(directory, LOGGER);
+        assertArrayEquals(new byte[] {4, 5}, reopened.read(WORLD, region));
+        assertTrue(new File(new File(directory, WORLD), RegionFile.fileName(region)).isFile());
+        // No temporary file is left behind
+        assertEquals(1, new File(directory, WORLD).list().length);
+        reopened.close();
+    }
+
+    @Test
+    void writingNothingDeletesTheRegion() throws IOException {
+        RegionStore store = new RegionStore(directory, LOGGER);
+        long region = RegionFile.regionKey(0, 0);
+        store.writeNow(WORLD, region, new byte[] {7});
+        store.write(WORLD, region, null);
+        store.close();
+
+        assertNull(new RegionStore(directory, LOGGER).read(WORLD, region));
+    }
+
+    @Test
+    void unreadableRegionIsSetAside() throws IOException {
+        RegionStore store = new RegionStore(directory, LOGGER);
+        long region = RegionFile.regionKey(3, 3);
+        store.writeNow(WORLD, region, new byte[] {0, 1, 2});
+
+        store.setAside(WORLD, region);
+        assertNull(store.read(WORLD, region));
+        File aside = new File(new File(directory, WORLD), RegionFile.fileName(region) + ".corrupt");
+        assertArrayEquals(new byte[] {0, 1, 2}, Files.readAllBytes(aside.toPath()));
+        store.close();
+    }
+
+    @Test
+    void regionsAreLoadedOnceAndDirtyUntilDrained() {
+        RegionStore store = new RegionStore(directory, LOGGER);
+        long region = RegionFile.regionKey(5, -5);
+        assertTrue(store.markLoaded(WORLD, region));
+        assertFalse(store.markLoaded(WORLD, region));
+        assertTrue(store.isLoaded(WORLD, region));
+        assertFalse(store.isLoaded("other", region));
+
+        store.markDirty(WORLD, region);
+        store.markDirty(WORLD, region);
+        assertEquals(1, store.getDirtyCount());
+        assertArrayEquals(new long[] {region}, store.drainDirty(WORLD));
+        assertEquals(0, store.drainDirty(WORLD).length);
+        store.close();
+    }
+}
@@ -0,0 +1,70 @@
+package com.webx.create2.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockPosTest {
+    // World border and build height limits
+    private static final int MAX_XZ = 30_000_000;
+    private static final int MIN_Y = -2048;
+    private static final int MAX_Y = 2047;
+
+    @Test
+    void packRoundTripsAtTheLimits() {
+        int[] xz = {0, 1, -1, 15, 16, -16, -17, MAX_XZ, -MAX_XZ};
+        int[] ys = {0, 1, -1, -64, 319, MIN_Y, MAX_Y};
+        for (int x : xz) {
+            for (int z : xz) {
+                for (int y : ys) {
+                    long pos = BlockPos.pack(x, y, z);
+                    assertEquals(x, BlockPos.x(pos));
+                    assertEquals(y, BlockPos.y(pos));
+                    assertEquals(z, BlockPos.z(pos));
+                }
+            }
+        }
+    }
+
+    @Test
+    void distinctPositionsPackToDistinctKeys() {
+        Random random = new Random(1);
+        Set<Long> keys = new HashSet<>();
+        Set<String> positions = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            int x = random.nextInt(64) - 32;
+            int y = random.nextInt(64) - 32;
+            int z = random.nextInt(64) - 32;
+            if (positions.add(x + "," + y + "," + z)) {
+                assertTrue(keys.add(BlockPos.pack(x, y, z)));
+            }
+        }
+    }
+
+    @Test
+    void neighboursAndOffsetsStepOneBlock() {
+        long pos = BlockPos.pack(-1, 0, 15);
+        int[][] expected = {{0, 0, 15}, {-2, 0, 15}, {-1, 1, 15}, {-1, -1, 15}, {-1, 0, 16}, {-1, 0, 14}};
+        for (int face = 0; face < BlockPos.FACES; face++) {
+            long neighbour = BlockPos.neighbour(pos, face);
+            assertEquals(BlockPos.pack(expected[face][0], expected[face][1], expected[face][2]), neighbour);
+            assertEquals(neighbour, BlockPos.offset(pos, expected[face][0] + 1, expected[face][1], expected[face][2] - 15));
+        }
+    }
+
+    @Test
+    void chunkKeysFollowFloorDivision() {
+        long key = BlockPos.chunkKey(BlockPos.pack(-1, 70, 16));
+        assertEquals(-1, BlockPos.chunkX(key));
+        assertEquals(1, BlockPos.chunkZ(key));
+        assertEquals(BlockPos.chunkKey(-1, 1), key);
+
+        long far = BlockPos.chunkKey(-MAX_XZ >> 4, MAX_XZ >> 4);
+        assertEquals(-MAX_XZ >> 4, BlockPos.chunkX(far));
+        assertEquals(MAX_XZ >> 4, BlockPos.chunkZ(far));
+    }
+}
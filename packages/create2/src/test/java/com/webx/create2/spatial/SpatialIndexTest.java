@@ -0,0 +1,30 @@
+package com.webx.create2.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialIndexTest {
+
+    @Test
+    void emptyChunksAreDropped() {
+        SpatialIndex<String> index = new SpatialIndex<>();
+        long a = BlockPos.pack(0, 64, 0);
+        long b = BlockPos.pack(15, 64, 15);
+        long c = BlockPos.pack(-1, 64, 0);
+        index.put(a, "a");
+        index.put(b, "b");
+        index.put(c, "c");
+        assertEquals(3, index.size());
+        assertEquals(2, index.chunkCount());
+        assertEquals(2, index.getChunk(0, 0).size());
+        assertEquals("c", index.getChunk(-1, 0).get(c));
+
+        assertEquals("c", index.remove(c));
+        assertNull(index.getChunk(-1, 0));
+        assertEquals(1, index.chunkCount());
+        assertNull(index.remove(c));
+        assertEquals(2, index.size());
+        assertArrayEquals(new long[] {BlockPos.chunkKey(0, 0)}, index.chunkKeys());
+    }
+}
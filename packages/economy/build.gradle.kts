@@ -10,9 +10,16 @@ repositories {
 dependencies {
     compileOnly("io.papermc.paper:paper-api:1.20.4-R0.1-SNAPSHOT")
     implementation("com.google.code.gson:gson:2.10.1")
+    implementation("com.zaxxer:HikariCP:5.1.0")
     
     // Shared database library
     implementation(project(":common"))
+
+    // Tests
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testImplementation("com.h2database:h2:2.2.224")
+    testImplementation("org.xerial:sqlite-jdbc:3.45.1.0")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks {
@@ -20,6 +27,10 @@ tasks {
         options.encoding = "UTF-8"
     }
 
+    test {
+        useJUnitPlatform()
+    }
+
     jar {
         archiveBaseName.set("economy")
         archiveVersion.set("0.1.0")
@@ -1,15 +1,18 @@
 package com.webx.economy;
 
+import com.webx.economy.api.BalanceService;
 import com.webx.economy.commands.*;
 import com.webx.economy.listeners.PlayerJoinListener;
 import com.webx.economy.listeners.PlayerQuitListener;
 import com.webx.economy.managers.*;
+import com.webx.economy.storage.JdbcStorage;
+import com.webx.economy.storage.JournalStorage;
 import com.webx.economy.storage.JsonStorage;
-import com.webx.economy.storage.MySQLStorage;
 import com.webx.economy.storage.StorageProvider;
 import com.webx.economy.storage.YamlStorage;
 import com.webx.economy.utils.ConfigManager;
 import com.webx.economy.utils.MessageManager;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class EconomyPlugin extends JavaPlugin {
@@ -45,11 +48,16 @@ public class EconomyPlugin extends JavaPlugin {
         accountManager.loadAccounts();
         balTopManager.startUpdateTask();
         
+        // Typed access for other plugins (clans power, ...) without reflection
+        getServer().getServicesManager().register(BalanceService.class, accountManager, this, ServicePriority.Normal);
+        
         getLogger().info("Economy plugin enabled!");
     }
 
     @Override
     public void onDisable() {
+        getServer().getServicesManager().unregisterAll(this);
+        
         if (balTopManager != null) {
             balTopManager.stopUpdateTask();
         }
@@ -70,11 +78,22 @@ public class EconomyPlugin extends JavaPlugin {
         
         switch (type.toLowerCase()) {
             case "mysql":
-                storage = new MySQLStorage(this);
+                storage = new JdbcStorage(getJdbcUrl(),
+                        getConfig().getString("database.mysql.username", "root"),
+                        getConfig().getString("database.mysql.password", ""),
+                        getConfig().getInt("database.mysql.pool-size", 5),
+                        getConfig().getLong("database.mysql.flush-interval-ms", 1000L),
+                        getLogger());
                 break;
             case "yaml":
                 storage = new YamlStorage(this);
                 break;
+            case "journal":
+                storage = new JournalStorage(getDataFolder(),
+                        getConfig().getLong("database.journal.flush-interval-ms", 50L),
+                        getConfig().getInt("database.journal.compact-threshold", 100000),
+                        getLogger());
+                break;
             case "json":
             default:
                 storage = new JsonStorage(getDataFolder());
@@ -84,6 +103,16 @@ public class EconomyPlugin extends JavaPlugin {
         storage.initialize();
     }
 
+    private String getJdbcUrl() {
+        String url = getConfig().getString("database.mysql.jdbc-url", "");
+        if (url != null && !url.isEmpty()) {
+            return url;
+        }
+        return "jdbc:mysql://" + getConfig().getString("database.mysql.host", "localhost")
+                + ":" + getConfig().getInt("database.mysql.port", 3306)
+                + "/" + getConfig().getString("database.mysql.database", "economy");
+    }
+
     private void registerCommands() {
         getCommand("balance").setExecutor(new BalanceCommand(this));
         getCommand("pay").setExecutor(new PayCommand(this));
@@ -0,0 +1,43 @@
+package com.webx.economy.api;
+
+import java.util.OptionalDouble;
+import java.util.UUID;
+
+/**
+ * Wallet balances for other plugins, registered with Bukkit's ServicesManager:
+ * <pre>
+ * BalanceService balances = Bukkit.getServicesManager().load(BalanceService.class);
+ * </pre>
+ * Declare {@code softdepend: [Economy]} so the service exists when you enable.
+ */
+public interface BalanceService {
+
+    /**
+     * Current wallet balance (bank excluded); creates the account if it does not exist
+     */
+    double getBalance(UUID owner);
+
+    /**
+     * Wallet balance of an existing account, or empty if there is none
+     * Never creates an account or keeps it loaded; may read storage, so call it off the
+     * main thread.
+     */
+    OptionalDouble findBalance(UUID owner);
+
+    /**
+     * Be told about balance changes from now on
+     */
+    void addListener(BalanceListener listener);
+
+    void removeListener(BalanceListener listener);
+
+    /**
+     * Called after an account is saved with its new wallet balance
+     * May run on any thread, possibly with an unchanged balance; calls for one account
+     * arrive in order. Must not call back into the economy.
+     */
+    @FunctionalInterface
+    interface BalanceListener {
+        void onBalanceChange(UUID owner, double balance);
+    }
+}
@@ -39,6 +39,11 @@ public class BalTopCommand implements CommandExecutor {
             rank++;
         }
 
+        int ownRank = plugin.getBalTopManager().getRank(player.getUniqueId());
+        if (ownRank > 0) {
+            player.sendMessage(String.format("§7Your rank: §e#%d", ownRank));
+        }
+
         return true;
     }
 }
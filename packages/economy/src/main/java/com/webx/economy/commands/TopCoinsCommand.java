@@ -47,12 +47,19 @@ public class TopCoinsCommand implements CommandExecutor {
             }
         }
 
-        // Get top accounts
-        List<Account> topAccounts = accountManager.getTopAccounts(limit);
+        // Storage may be queried, so fetch off the main thread and reply on it
+        int count = limit;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<Account> topAccounts = accountManager.getTopAccounts(count);
+            Bukkit.getScheduler().runTask(plugin, () -> showTop(sender, topAccounts));
+        });
+        return true;
+    }
 
+    private void showTop(CommandSender sender, List<Account> topAccounts) {
         if (topAccounts.isEmpty()) {
             sender.sendMessage(Component.text("No accounts found", NamedTextColor.YELLOW));
-            return true;
+            return;
         }
 
         // Display header
@@ -89,8 +96,6 @@ public class TopCoinsCommand implements CommandExecutor {
         }
 
         sender.sendMessage(Component.text("═══════════════════", NamedTextColor.GOLD, TextDecoration.BOLD));
-
-        return true;
     }
 
     private NamedTextColor getMedalColor(int position) {
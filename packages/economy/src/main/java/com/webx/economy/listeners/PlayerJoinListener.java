@@ -3,6 +3,7 @@ package com.webx.economy.listeners;
 import com.webx.economy.EconomyPlugin;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 
 public class PlayerJoinListener implements Listener {
@@ -12,6 +13,14 @@ public class PlayerJoinListener implements Listener {
         this.plugin = plugin;
     }
 
+    @EventHandler
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        // Query lazy storage here, off the main thread
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            plugin.getAccountManager().preloadAccount(event.getUniqueId());
+        }
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         plugin.getAccountManager().getAccount(event.getPlayer());
@@ -1,7 +1,6 @@
 package com.webx.economy.listeners;
 
 import com.webx.economy.EconomyPlugin;
-import com.webx.economy.models.Account;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerQuitEvent;
@@ -15,7 +14,6 @@ public class PlayerQuitListener implements Listener {
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
-        Account account = plugin.getAccountManager().getAccount(event.getPlayer());
-        plugin.getAccountManager().saveAccount(account);
+        plugin.getAccountManager().unloadAccount(event.getPlayer().getUniqueId());
     }
 }
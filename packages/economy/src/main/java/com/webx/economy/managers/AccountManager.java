@@ -1,29 +1,49 @@
 package com.webx.economy.managers;
 
 import com.webx.economy.EconomyPlugin;
+import com.webx.economy.api.BalanceService;
 import com.webx.economy.models.Account;
 import com.webx.economy.storage.StorageProvider;
+import com.webx.economy.utils.BalanceIndex;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
 
-public class AccountManager {
+public class AccountManager implements BalanceService {
     private final EconomyPlugin plugin;
     private final StorageProvider storage;
     private final Map<UUID, Account> accounts;
+    // Ranked by total balance; kept in sync on every save
+    private final BalanceIndex balanceIndex;
+    // Told about every save (see BalanceService)
+    private final List<BalanceListener> listeners = new CopyOnWriteArrayList<>();
 
     public AccountManager(EconomyPlugin plugin, StorageProvider storage) {
         this.plugin = plugin;
         this.storage = storage;
-        this.accounts = new HashMap<>();
+        this.accounts = new ConcurrentHashMap<>();
+        this.balanceIndex = new BalanceIndex();
     }
 
     public void loadAccounts() {
         accounts.clear();
+        balanceIndex.clear();
+        if (storage.isLazyLoading()) {
+            // Accounts are loaded when players join; pick up players already online (reload)
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                getAccount(player.getUniqueId());
+            }
+            plugin.getLogger().info("Accounts are loaded on join (" + accounts.size() + " online)");
+            return;
+        }
         List<Account> loaded = storage.loadAccounts();
         for (Account account : loaded) {
             accounts.put(account.getOwner(), account);
+            balanceIndex.update(account.getOwner(), account.getTotalBalance());
         }
         plugin.getLogger().info("Loaded " + accounts.size() + " accounts");
     }
@@ -34,45 +54,177 @@ public class AccountManager {
     }
 
     public Account getAccount(UUID uuid) {
-        return accounts.computeIfAbsent(uuid, k -> createAccount(uuid));
+        Account account = accounts.get(uuid);
+        return account != null ? account : loadOrCreateAccount(uuid);
     }
 
     public Account getAccount(Player player) {
         return getAccount(player.getUniqueId());
     }
 
+    /**
+     * Storage is queried outside the map (no bin lock held during I/O); if two callers
+     * race, the first account published wins and only a new winner is saved
+     */
+    private Account loadOrCreateAccount(UUID uuid) {
+        Account loaded = storage.isLazyLoading() ? storage.loadAccount(uuid) : null;
+        Account account = loaded != null ? loaded : createAccount(uuid);
+        Account existing = accounts.putIfAbsent(uuid, account);
+        if (existing != null) {
+            return existing;
+        }
+        balanceIndex.update(uuid, account.getTotalBalance());
+        if (loaded == null) {
+            storage.saveAccount(account);
+        }
+        return account;
+    }
+
     private Account createAccount(UUID uuid) {
         double startingBalance = plugin.getConfig().getDouble("currency.starting-balance", 1000.0);
         Account account = new Account(uuid);
         account.setBalance(startingBalance);
-        accounts.put(uuid, account);
-        storage.saveAccount(account);
         return account;
     }
 
+    /**
+     * Load account ahead of join (call off the main thread); no-op unless storage is lazy
+     */
+    public void preloadAccount(UUID uuid) {
+        if (storage.isLazyLoading()) {
+            getAccount(uuid);
+        }
+    }
+
+    /**
+     * Save and drop account from memory on quit; only lazy storage can load it again
+     */
+    public void unloadAccount(UUID uuid) {
+        Account account = storage.isLazyLoading() ? accounts.remove(uuid) : accounts.get(uuid);
+        if (account != null) {
+            storage.saveAccount(account);
+            if (storage.isLazyLoading()) {
+                balanceIndex.remove(uuid);
+                storage.releaseAccount(uuid);
+            }
+        }
+    }
+
+    /**
+     * Accounts currently held in memory
+     */
+    public Collection<Account> getLoadedAccounts() {
+        return Collections.unmodifiableCollection(accounts.values());
+    }
+
     public void saveAccount(Account account) {
         accounts.put(account.getOwner(), account);
+        // Under the account lock so a racing save cannot index (or announce) an older total last
+        synchronized (account) {
+            balanceIndex.update(account.getOwner(), account.getTotalBalance());
+            if (!listeners.isEmpty()) {
+                notifyListeners(account.getOwner(), account.getBalance());
+            }
+        }
         storage.saveAccount(account);
     }
 
+    private void notifyListeners(UUID owner, double balance) {
+        for (BalanceListener listener : listeners) {
+            try {
+                listener.onBalanceChange(owner, balance);
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Balance listener failed", e);
+            }
+        }
+    }
+
+    @Override
+    public double getBalance(UUID owner) {
+        return getAccount(owner).getBalance();
+    }
+
+    /**
+     * Loaded account, else the stored one (lazy storage keeps only online players in memory);
+     * nothing is created or added to the loaded accounts
+     */
+    @Override
+    public OptionalDouble findBalance(UUID owner) {
+        Account account = accounts.get(owner);
+        if (account == null && storage.isLazyLoading()) {
+            account = storage.findAccount(owner);
+        }
+        return account != null ? OptionalDouble.of(account.getBalance()) : OptionalDouble.empty();
+    }
+
+    @Override
+    public void addListener(BalanceListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(BalanceListener listener) {
+        listeners.remove(listener);
+    }
+
     public boolean exists(UUID uuid) {
         return accounts.containsKey(uuid);
     }
 
     public void resetAccount(UUID uuid) {
         Account account = getAccount(uuid);
-        account.setBalance(plugin.getConfig().getDouble("currency.starting-balance", 1000.0));
-        account.setBankBalance(0);
+        double startingBalance = plugin.getConfig().getDouble("currency.starting-balance", 1000.0);
+        synchronized (account) {
+            account.setBalance(startingBalance);
+            account.setBankBalance(0);
+        }
         saveAccount(account);
     }
 
+    /**
+     * Lazy storage is queried for accounts not loaded, so call this off the main thread
+     */
     public List<Account> getTopAccounts(int limit) {
-        return accounts.values().stream()
+        List<Account> stored = storage.isLazyLoading() ? storage.loadTopAccounts(limit) : null;
+        if (stored == null) {
+            List<Account> top = new ArrayList<>(Math.min(limit, balanceIndex.size()));
+            for (Map.Entry<UUID, Double> entry : balanceIndex.top(limit)) {
+                Account account = accounts.get(entry.getKey());
+                if (account != null) {
+                    top.add(account);
+                }
+            }
+            return top;
+        }
+        // Loaded accounts are newer than their rows
+        Map<UUID, Account> merged = new HashMap<>();
+        for (Account account : stored) {
+            merged.put(account.getOwner(), account);
+        }
+        for (Account account : accounts.values()) {
+            merged.put(account.getOwner(), account);
+        }
+        return merged.values().stream()
                 .sorted((a, b) -> Double.compare(b.getTotalBalance(), a.getTotalBalance()))
                 .limit(limit)
                 .toList();
     }
 
+    /**
+     * 1-based baltop rank, or -1 if the account is not loaded
+     * With lazy storage only loaded accounts are ranked
+     */
+    public int getRank(UUID uuid) {
+        return balanceIndex.getRank(uuid);
+    }
+
+    /**
+     * Accounts ranked within radius of the given account, richest first
+     */
+    public List<Map.Entry<UUID, Double>> getAccountsAround(UUID uuid, int radius) {
+        return balanceIndex.around(uuid, radius);
+    }
+
     public int getAccountCount() {
         return accounts.size();
     }
@@ -86,7 +238,7 @@ public class AccountManager {
     public boolean deposit(UUID uuid, double amount) {
         if (amount <= 0) return false;
         Account account = getAccount(uuid);
-        account.setBalance(account.getBalance() + amount);
+        account.deposit(amount);
         saveAccount(account);
         return true;
     }
@@ -100,8 +252,7 @@ public class AccountManager {
     public boolean withdraw(UUID uuid, double amount) {
         if (amount <= 0) return false;
         Account account = getAccount(uuid);
-        if (account.getBalance() < amount) return false;
-        account.setBalance(account.getBalance() - amount);
+        if (!account.withdraw(amount)) return false;
         saveAccount(account);
         return true;
     }
@@ -28,8 +28,8 @@ public class BalTopManager {
             }
         };
 
-        updateTask.runTaskTimerAsynchronously(plugin, 20L, interval);
-        updateTopBalances();
+        // First update right away, off the main thread like the rest (storage may be queried)
+        updateTask.runTaskTimerAsynchronously(plugin, 0L, interval);
     }
 
     public void stopUpdateTask() {
@@ -51,12 +51,10 @@ public class BalTopManager {
         return Collections.unmodifiableList(topBalances);
     }
 
+    /**
+     * Live rank across all ranked accounts, not just the cached top list
+     */
     public int getRank(UUID uuid) {
-        for (int i = 0; i < topBalances.size(); i++) {
-            if (topBalances.get(i).getKey().equals(uuid)) {
-                return i + 1;
-            }
-        }
-        return -1;
+        return plugin.getAccountManager().getRank(uuid);
     }
 }
@@ -16,18 +16,18 @@ public class BankManager {
 
     public boolean depositToBank(Player player, double amount) {
         Account account = plugin.getAccountManager().getAccount(player);
-
-        if (!account.hasBalance(amount)) {
-            return false;
-        }
-
         double maxBalance = plugin.getConfig().getDouble("bank.max-balance", 10000000.0);
-        if (account.getBankBalance() + amount > maxBalance) {
-            return false;
-        }
 
-        account.withdraw(amount);
-        account.depositBank(amount);
+        synchronized (account) {
+            if (!account.hasBalance(amount)) {
+                return false;
+            }
+            if (account.getBankBalance() + amount > maxBalance) {
+                return false;
+            }
+            account.withdraw(amount);
+            account.depositBank(amount);
+        }
         plugin.getAccountManager().saveAccount(account);
 
         return true;
@@ -36,12 +36,12 @@ public class BankManager {
     public boolean withdrawFromBank(Player player, double amount) {
         Account account = plugin.getAccountManager().getAccount(player);
 
-        if (!account.hasBankBalance(amount)) {
-            return false;
+        synchronized (account) {
+            if (!account.withdrawBank(amount)) {
+                return false;
+            }
+            account.deposit(amount);
         }
-
-        account.withdrawBank(amount);
-        account.deposit(amount);
         plugin.getAccountManager().saveAccount(account);
 
         return true;
@@ -68,11 +68,16 @@ public class BankManager {
         double rate = plugin.getConfig().getDouble("bank.interest-rate", 0.5) / 100.0;
         long now = System.currentTimeMillis();
 
-        plugin.getAccountManager().getTopAccounts(Integer.MAX_VALUE).forEach(account -> {
-            if (account.getBankBalance() > 0) {
-                double interest = account.getBankBalance() * rate;
-                account.depositBank(interest);
-                account.setLastInterest(now);
+        plugin.getAccountManager().getLoadedAccounts().forEach(account -> {
+            boolean paid;
+            synchronized (account) {
+                paid = account.getBankBalance() > 0;
+                if (paid) {
+                    account.depositBank(account.getBankBalance() * rate);
+                    account.setLastInterest(now);
+                }
+            }
+            if (paid) {
                 plugin.getAccountManager().saveAccount(account);
             }
         });
@@ -15,27 +15,27 @@ public class TransactionManager {
     }
 
     public boolean transfer(Player from, Player to, double amount) {
-        Account fromAccount = plugin.getAccountManager().getAccount(from);
-        Account toAccount = plugin.getAccountManager().getAccount(to);
+        double fee = calculateFee(from, amount);
+        return transfer(from.getUniqueId(), to.getUniqueId(), amount, fee);
+    }
 
-        if (!fromAccount.hasBalance(amount)) {
+    /**
+     * Move amount between accounts, charging fee to the sender (see Account#transfer)
+     */
+    public boolean transfer(UUID from, UUID to, double amount, double fee) {
+        if (from.equals(to) || amount <= 0 || fee < 0) {
             return false;
         }
-
-        double fee = calculateFee(from, amount);
-        double totalCost = amount + fee;
-
-        if (!fromAccount.hasBalance(totalCost)) {
+        Account fromAccount = plugin.getAccountManager().getAccount(from);
+        Account toAccount = plugin.getAccountManager().getAccount(to);
+        if (!Account.transfer(fromAccount, toAccount, amount, fee)) {
             return false;
         }
 
-        fromAccount.withdraw(totalCost);
-        toAccount.deposit(amount);
-
         plugin.getAccountManager().saveAccount(fromAccount);
         plugin.getAccountManager().saveAccount(toAccount);
 
-        logTransaction(from.getUniqueId(), to.getUniqueId(), amount, fee, Transaction.TransactionType.PAYMENT);
+        logTransaction(from, to, amount, fee, Transaction.TransactionType.PAYMENT);
 
         return true;
     }
@@ -2,6 +2,11 @@ package com.webx.economy.models;
 
 import java.util.UUID;
 
+/**
+ * Player account
+ * Reads and mutations lock the account; operations spanning several accounts
+ * must lock them in owner UUID order (see #transfer)
+ */
 public class Account {
     private final UUID owner;
     private double balance;
@@ -26,23 +31,23 @@ public class Account {
         return owner;
     }
 
-    public double getBalance() {
+    public synchronized double getBalance() {
         return balance;
     }
 
-    public void setBalance(double balance) {
+    public synchronized void setBalance(double balance) {
         this.balance = Math.max(0, balance);
     }
 
-    public boolean hasBalance(double amount) {
+    public synchronized boolean hasBalance(double amount) {
         return balance >= amount;
     }
 
-    public void deposit(double amount) {
+    public synchronized void deposit(double amount) {
         this.balance += amount;
     }
 
-    public boolean withdraw(double amount) {
+    public synchronized boolean withdraw(double amount) {
         if (!hasBalance(amount)) {
             return false;
         }
@@ -50,23 +55,23 @@ public class Account {
         return true;
     }
 
-    public double getBankBalance() {
+    public synchronized double getBankBalance() {
         return bankBalance;
     }
 
-    public void setBankBalance(double bankBalance) {
+    public synchronized void setBankBalance(double bankBalance) {
         this.bankBalance = Math.max(0, bankBalance);
     }
 
-    public boolean hasBankBalance(double amount) {
+    public synchronized boolean hasBankBalance(double amount) {
         return bankBalance >= amount;
     }
 
-    public void depositBank(double amount) {
+    public synchronized void depositBank(double amount) {
         this.bankBalance += amount;
     }
 
-    public boolean withdrawBank(double amount) {
+    public synchronized boolean withdrawBank(double amount) {
         if (!hasBankBalance(amount)) {
             return false;
         }
@@ -74,15 +79,34 @@ public class Account {
         return true;
     }
 
-    public long getLastInterest() {
+    public synchronized long getLastInterest() {
         return lastInterest;
     }
 
-    public void setLastInterest(long lastInterest) {
+    public synchronized void setLastInterest(long lastInterest) {
         this.lastInterest = lastInterest;
     }
 
-    public double getTotalBalance() {
+    public synchronized double getTotalBalance() {
         return balance + bankBalance;
     }
+
+    /**
+     * Move amount from one account to another, charging fee to the sender
+     * Both accounts are locked in owner UUID order, so concurrent transfers
+     * in opposite directions cannot deadlock and no money is created or lost
+     */
+    public static boolean transfer(Account from, Account to, double amount, double fee) {
+        Account first = from.owner.compareTo(to.owner) < 0 ? from : to;
+        Account second = first == from ? to : from;
+        synchronized (first) {
+            synchronized (second) {
+                if (!from.withdraw(amount + fee)) {
+                    return false;
+                }
+                to.deposit(amount);
+                return true;
+            }
+        }
+    }
 }
@@ -0,0 +1,557 @@
+package com.webx.economy.storage;
+
+import com.webx.economy.models.Account;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+/**
+ * JDBC storage provider for player economic data (MySQL/MariaDB, PostgreSQL, SQLite, H2)
+ * Accounts are loaded per player on demand and written behind in batched statements.
+ * All JDBC runs on one storage thread; reads wait for it, so call them off the main
+ * thread. Every row carries a version; a write whose version no longer matches (another
+ * server changed the account) is rebased: the local change since the last load/save is
+ * re-applied on top of the current row, so neither update is lost.
+ */
+public class JdbcStorage implements StorageProvider {
+    private static final String TABLE = "economy_accounts";
+    private static final int MAX_CONFLICT_RETRIES = 5;
+
+    private static final String SELECT_SQL =
+            "SELECT balance, bank_balance, last_interest, version FROM " + TABLE + " WHERE uuid = ?";
+    private static final String UPDATE_SQL =
+            "UPDATE " + TABLE + " SET balance = ?, bank_balance = ?, last_interest = ?, version = version + 1"
+            + " WHERE uuid = ? AND version = ?";
+    private static final String DELETE_SQL = "DELETE FROM " + TABLE + " WHERE uuid = ?";
+    private static final String TOP_SQL =
+            "SELECT uuid, balance, bank_balance, last_interest FROM " + TABLE
+            + " ORDER BY balance + bank_balance DESC LIMIT ?";
+
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final int poolSize;
+    private final long flushIntervalMs;
+    private final Logger logger;
+    private final Dialect dialect;
+
+    private HikariDataSource dataSource;
+    private ScheduledExecutorService executor;
+
+    // Accounts changed since the last flush; values are read when the writer flushes
+    private final Map<UUID, Account> dirty = new ConcurrentHashMap<>();
+    // Accounts taken by the running flush, until it commits or puts them back
+    private final Map<UUID, Account> inFlight = new ConcurrentHashMap<>();
+    // Pending deletes; kept until their flush commits
+    private final Set<UUID> deleted = ConcurrentHashMap.newKeySet();
+    // State this server last read or wrote for each loaded account (storage thread and savers)
+    private final Map<UUID, Row> baseline = new ConcurrentHashMap<>();
+    // Accounts the server unloaded; their baseline goes once nothing of theirs is pending.
+    // The lock also orders saves and loads against that eviction.
+    private final Set<UUID> released = new HashSet<>();
+
+    public JdbcStorage(String jdbcUrl, String username, String password, int poolSize, long flushIntervalMs, Logger logger) {
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.poolSize = Math.max(1, poolSize);
+        this.flushIntervalMs = Math.max(10L, flushIntervalMs);
+        this.logger = logger;
+        this.dialect = Dialect.of(jdbcUrl);
+    }
+
+    /**
+     * SQL flavours; they differ only in insert-if-absent syntax
+     */
+    private enum Dialect {
+        MYSQL("INSERT INTO " + TABLE + " (uuid, balance, bank_balance, last_interest, version) VALUES (?, ?, ?, ?, 0)"
+                + " ON DUPLICATE KEY UPDATE uuid = uuid"),
+        POSTGRESQL("INSERT INTO " + TABLE + " (uuid, balance, bank_balance, last_interest, version) VALUES (?, ?, ?, ?, 0)"
+                + " ON CONFLICT (uuid) DO NOTHING"),
+        SQLITE(POSTGRESQL.insertSql),
+        H2("MERGE INTO " + TABLE + " t USING (VALUES (CAST(? AS CHAR(36)), CAST(? AS DOUBLE PRECISION),"
+                + " CAST(? AS DOUBLE PRECISION), CAST(? AS BIGINT))) s(uuid, balance, bank_balance, last_interest)"
+                + " ON t.uuid = s.uuid WHEN NOT MATCHED THEN INSERT (uuid, balance, bank_balance, last_interest, version)"
+                + " VALUES (s.uuid, s.balance, s.bank_balance, s.last_interest, 0)");
+
+        final String insertSql;
+
+        Dialect(String insertSql) {
+            this.insertSql = insertSql;
+        }
+
+        static Dialect of(String jdbcUrl) {
+            String url = jdbcUrl.toLowerCase(Locale.ROOT);
+            if (url.startsWith("jdbc:postgresql:")) return POSTGRESQL;
+            if (url.startsWith("jdbc:sqlite:")) return SQLITE;
+            if (url.startsWith("jdbc:h2:")) return H2;
+            return MYSQL;
+        }
+    }
+
+    /**
+     * Persisted account state with its row version (0 = created here, not yet confirmed)
+     */
+    private static final class Row {
+        final double balance;
+        final double bankBalance;
+        final long lastInterest;
+        final long version;
+
+        Row(double balance, double bankBalance, long lastInterest, long version) {
+            this.balance = balance;
+            this.bankBalance = bankBalance;
+            this.lastInterest = lastInterest;
+            this.version = version;
+        }
+    }
+
+    @Override
+    public void initialize() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Economy-JDBC");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            call(this::connect);
+        } catch (RuntimeException e) {
+            executor.shutdownNow();
+            throw e;
+        }
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("JDBC storage connected (" + dialect + ", pool " + poolSize + ")");
+    }
+
+    private Void connect() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setPoolName("Economy-JDBC");
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(Math.min(2, poolSize));
+        config.setConnectionTimeout(30000);
+        config.setIdleTimeout(600000);
+        if (dialect == Dialect.MYSQL) {
+            // Driver-side prepared statement cache, reused across flushes on the same connection
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "64");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+        }
+        dataSource = new HikariDataSource(config);
+
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                    + "uuid CHAR(36) NOT NULL PRIMARY KEY, "
+                    + "balance DOUBLE PRECISION NOT NULL, "
+                    + "bank_balance DOUBLE PRECISION NOT NULL, "
+                    + "last_interest BIGINT NOT NULL, "
+                    + "version BIGINT NOT NULL)");
+        } catch (SQLException e) {
+            dataSource.close();
+            throw new RuntimeException("Failed to initialize JDBC storage (" + dialect + ")", e);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        // Last flush on the storage thread, after anything already queued
+        executor.execute(this::flushQuietly);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.severe("JDBC storage did not finish its last flush in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!dirty.isEmpty() || !deleted.isEmpty()) {
+            logger.severe("JDBC storage closed with " + (dirty.size() + deleted.size()) + " unsaved account changes");
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * Run JDBC work on the storage thread and wait for it
+     */
+    private <T> T call(Callable<T> work) {
+        try {
+            return executor.submit(work).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for JDBC storage", e);
+        }
+    }
+
+    @Override
+    public boolean isLazyLoading() {
+        return true;
+    }
+
+    /**
+     * Accounts are loaded per player (see {@link #loadAccount(UUID)}), never all at once
+     */
+    @Override
+    public List<Account> loadAccounts() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public Account loadAccount(UUID uuid) {
+        return call(() -> read(uuid, true));
+    }
+
+    /**
+     * Like loadAccount, but the row does not become the base of later saves
+     */
+    @Override
+    public Account findAccount(UUID uuid) {
+        return call(() -> read(uuid, false));
+    }
+
+    /**
+     * Storage thread only
+     */
+    private Account read(UUID uuid, boolean track) {
+        if (track) {
+            // Loaded again: keep the baseline of a quick rejoin
+            synchronized (released) {
+                released.remove(uuid);
+            }
+        }
+        // A pending or in-flight write is newer than the row, so a quick rejoin never reads
+        // the row it is replacing. The flush publishes to inFlight before leaving dirty.
+        Account pending = dirty.get(uuid);
+        if (pending == null) {
+            pending = inFlight.get(uuid);
+        }
+        if (pending != null) {
+            return pending;
+        }
+        if (deleted.contains(uuid)) {
+            return null;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            Row row = selectRow(conn, uuid);
+            if (row == null) {
+                return null;
+            }
+            if (track) {
+                baseline.put(uuid, row);
+            }
+            return new Account(uuid, row.balance, row.bankBalance, row.lastInterest);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load account " + uuid, e);
+        }
+    }
+
+    @Override
+    public List<Account> loadTopAccounts(int limit) {
+        return call(() -> selectTop(limit));
+    }
+
+    private List<Account> selectTop(int limit) {
+        List<Account> accounts = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(TOP_SQL)) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    accounts.add(new Account(UUID.fromString(rs.getString(1)),
+                            rs.getDouble(2), rs.getDouble(3), rs.getLong(4)));
+                }
+            }
+        } catch (SQLException e) {
+            logger.warning("Failed to load top accounts: " + e.getMessage());
+        }
+        return accounts;
+    }
+
+    @Override
+    public void saveAccounts(List<Account> accounts) {
+        for (Account account : accounts) {
+            saveAccount(account);
+        }
+    }
+
+    @Override
+    public void saveAccount(Account account) {
+        UUID uuid = account.getOwner();
+        synchronized (released) {
+            // First save of an account this server created: its current values are the creation values
+            baseline.computeIfAbsent(uuid, k -> new Row(account.getBalance(), account.getBankBalance(), account.getLastInterest(), 0));
+            deleted.remove(uuid);
+            dirty.put(uuid, account);
+        }
+    }
+
+    @Override
+    public void deleteAccount(UUID uuid) {
+        dirty.remove(uuid);
+        deleted.add(uuid);
+    }
+
+    /**
+     * Forget the baseline of an unloaded account once its last save is written
+     */
+    @Override
+    public void releaseAccount(UUID uuid) {
+        synchronized (released) {
+            released.add(uuid);
+            evictReleased();
+        }
+    }
+
+    private void evictReleased() {
+        synchronized (released) {
+            Iterator<UUID> iterator = released.iterator();
+            while (iterator.hasNext()) {
+                UUID uuid = iterator.next();
+                if (!dirty.containsKey(uuid) && !inFlight.containsKey(uuid)) {
+                    baseline.remove(uuid);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Accounts with a baseline (loaded, or written and not yet released)
+     */
+    int getTrackedCount() {
+        return baseline.size();
+    }
+
+    /**
+     * Write pending changes now and wait for them
+     */
+    void flushNow() {
+        call(() -> {
+            flush();
+            return null;
+        });
+    }
+
+    // ===== WRITER (storage thread) =====
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warning("Failed to flush account changes, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write all pending changes in one transaction; on failure they stay pending
+     */
+    private void flush() throws SQLException {
+        if (dirty.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+        List<Account> batch = new ArrayList<>(dirty.size());
+        for (UUID uuid : new ArrayList<>(dirty.keySet())) {
+            Account account = dirty.get(uuid);
+            if (account == null) {
+                continue;
+            }
+            inFlight.put(uuid, account);
+            if (dirty.remove(uuid, account)) {
+                batch.add(account);
+            } else {
+                // Replaced by a newer save meanwhile; that one goes out next flush
+                inFlight.remove(uuid, account);
+            }
+        }
+        List<UUID> deletes = new ArrayList<>(deleted);
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Runnable> adjustments = new ArrayList<>();
+                Map<UUID, Row> written = writeBatch(conn, batch, adjustments);
+                deleteBatch(conn, deletes);
+                conn.commit();
+                adjustments.forEach(Runnable::run);
+                baseline.putAll(written);
+                for (UUID uuid : deletes) {
+                    baseline.remove(uuid);
+                }
+                deleted.removeAll(deletes);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            // Newer saves win over the failed batch; failed deletes are still in deleted
+            for (Account account : batch) {
+                dirty.putIfAbsent(account.getOwner(), account);
+            }
+            throw e;
+        } finally {
+            for (Account account : batch) {
+                inFlight.remove(account.getOwner(), account);
+            }
+            evictReleased();
+        }
+    }
+
+    private Map<UUID, Row> writeBatch(Connection conn, List<Account> batch, List<Runnable> adjustments) throws SQLException {
+        Map<UUID, Row> written = new HashMap<>();
+        if (batch.isEmpty()) {
+            return written;
+        }
+
+        // Values are captured once so the rebase below works from a consistent snapshot
+        List<Row> local = new ArrayList<>(batch.size());
+        for (Account account : batch) {
+            Row values = new Row(account.getBalance(), account.getBankBalance(), account.getLastInterest(), 0);
+            local.add(values);
+            // Re-saved after a delete: start over as a new account
+            baseline.putIfAbsent(account.getOwner(), values);
+        }
+
+        // Accounts created on this server: make sure a row exists (no-op if another server created it)
+        try (PreparedStatement insert = conn.prepareStatement(dialect.insertSql)) {
+            boolean any = false;
+            for (Account account : batch) {
+                Row base = baseline.get(account.getOwner());
+                if (base.version == 0) {
+                    insert.setString(1, account.getOwner().toString());
+                    insert.setDouble(2, base.balance);
+                    insert.setDouble(3, base.bankBalance);
+                    insert.setLong(4, base.lastInterest);
+                    insert.addBatch();
+                    any = true;
+                }
+            }
+            if (any) {
+                insert.executeBatch();
+            }
+        }
+
+        try (PreparedStatement update = conn.prepareStatement(UPDATE_SQL)) {
+            for (int i = 0; i < batch.size(); i++) {
+                Account account = batch.get(i);
+                Row values = local.get(i);
+                bindUpdate(update, account.getOwner(), values, baseline.get(account.getOwner()).version);
+                update.addBatch();
+            }
+            int[] counts = update.executeBatch();
+            for (int i = 0; i < batch.size(); i++) {
+                Account account = batch.get(i);
+                Row base = baseline.get(account.getOwner());
+                Row values = local.get(i);
+                if (counts[i] > 0 || (counts[i] == Statement.SUCCESS_NO_INFO && versionIs(conn, account.getOwner(), base.version + 1))) {
+                    written.put(account.getOwner(), new Row(values.balance, values.bankBalance, values.lastInterest, base.version + 1));
+                } else {
+                    written.put(account.getOwner(), rebase(conn, account, base, values, adjustments));
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Re-apply this server's change (values - base) on top of the current row
+     * The live account is brought up to date with the other server's change after commit
+     */
+    private Row rebase(Connection conn, Account account, Row base, Row values, List<Runnable> adjustments) throws SQLException {
+        UUID uuid = account.getOwner();
+        double balanceDelta = values.balance - base.balance;
+        double bankDelta = values.bankBalance - base.bankBalance;
+
+        for (int attempt = 0; attempt < MAX_CONFLICT_RETRIES; attempt++) {
+            Row current = selectRow(conn, uuid);
+            if (current == null) {
+                // Deleted elsewhere; recreate from local state
+                current = new Row(0, 0, values.lastInterest, 0);
+                try (PreparedStatement insert = conn.prepareStatement(dialect.insertSql)) {
+                    insert.setString(1, uuid.toString());
+                    insert.setDouble(2, 0);
+                    insert.setDouble(3, 0);
+                    insert.setLong(4, values.lastInterest);
+                    insert.executeUpdate();
+                }
+            }
+            Row merged = new Row(
+                    Math.max(0, current.balance + balanceDelta),
+                    Math.max(0, current.bankBalance + bankDelta),
+                    Math.max(current.lastInterest, values.lastInterest),
+                    current.version);
+            try (PreparedStatement update = conn.prepareStatement(UPDATE_SQL)) {
+                bindUpdate(update, uuid, merged, current.version);
+                if (update.executeUpdate() > 0) {
+                    double balanceAdjust = merged.balance - values.balance;
+                    double bankAdjust = merged.bankBalance - values.bankBalance;
+                    // The other server's change may be a debit: set through the clamped setters
+                    // so the live account never goes negative
+                    adjustments.add(() -> {
+                        synchronized (account) {
+                            account.setBalance(account.getBalance() + balanceAdjust);
+                            account.setBankBalance(account.getBankBalance() + bankAdjust);
+                        }
+                    });
+                    return new Row(merged.balance, merged.bankBalance, merged.lastInterest, current.version + 1);
+                }
+            }
+        }
+        throw new SQLException("Account " + uuid + " kept changing concurrently (" + MAX_CONFLICT_RETRIES + " retries)");
+    }
+
+    private void deleteBatch(Connection conn, List<UUID> deletes) throws SQLException {
+        if (deletes.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+            for (UUID uuid : deletes) {
+                delete.setString(1, uuid.toString());
+                delete.addBatch();
+            }
+            delete.executeBatch();
+        }
+    }
+
+    private static void bindUpdate(PreparedStatement update, UUID uuid, Row values, long expectedVersion) throws SQLException {
+        update.setDouble(1, values.balance);
+        update.setDouble(2, values.bankBalance);
+        update.setLong(3, values.lastInterest);
+        update.setString(4, uuid.toString());
+        update.setLong(5, expectedVersion);
+    }
+
+    private boolean versionIs(Connection conn, UUID uuid, long version) throws SQLException {
+        Row row = selectRow(conn, uuid);
+        return row != null && row.version == version;
+    }
+
+    private static Row selectRow(Connection conn, UUID uuid) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_SQL)) {
+            stmt.setString(1, uuid.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new Row(rs.getDouble(1), rs.getDouble(2), rs.getLong(3), rs.getLong(4));
+            }
+        }
+    }
+}
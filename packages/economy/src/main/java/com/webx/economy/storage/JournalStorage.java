@@ -0,0 +1,344 @@
+package com.webx.economy.storage;
+
+import com.webx.economy.models.Account;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Journal-based storage provider for player economic data
+ * Every saved account is one fixed-size record appended to an in-memory buffer;
+ * a background thread writes and fsyncs the buffer in batches (group commit) and
+ * periodically compacts the journal into a snapshot. Recovery loads the snapshot
+ * and replays the journal written after it.
+ */
+public class JournalStorage implements StorageProvider {
+    private static final int SNAPSHOT_MAGIC = 0x45434F4A; // "ECOJ"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_DELETE = 2;
+    // type + uuid + balance + bank balance + last interest + crc32
+    private static final int RECORD_SIZE = 1 + 16 + 8 + 8 + 8 + 4;
+
+    private final Path directory;
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final long flushIntervalMs;
+    private final int compactThreshold;
+    private final Logger logger;
+
+    // Latest persisted state of every account; updated together with the append
+    private final Map<UUID, AccountState> image = new HashMap<>();
+    private final Object appendLock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(64 * RECORD_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    // Journal file is only written under commitLock
+    private final Object commitLock = new Object();
+    private FileChannel journal;
+    private long journalRecords;
+    private ScheduledExecutorService committer;
+
+    public JournalStorage(File pluginDataFolder, long flushIntervalMs, int compactThreshold, Logger logger) {
+        this.directory = pluginDataFolder.toPath().resolve("journal");
+        this.journalPath = directory.resolve("accounts.journal");
+        this.snapshotPath = directory.resolve("accounts.snapshot");
+        this.flushIntervalMs = Math.max(1L, flushIntervalMs);
+        this.compactThreshold = Math.max(1, compactThreshold);
+        this.logger = logger;
+    }
+
+    /**
+     * Persisted account fields
+     */
+    private static final class AccountState {
+        final double balance;
+        final double bankBalance;
+        final long lastInterest;
+
+        AccountState(double balance, double bankBalance, long lastInterest) {
+            this.balance = balance;
+            this.bankBalance = bankBalance;
+            this.lastInterest = lastInterest;
+        }
+    }
+
+    @Override
+    public void initialize() {
+        try {
+            Files.createDirectories(directory);
+            loadSnapshot();
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            replayJournal();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to initialize journal storage", e);
+        }
+
+        committer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Economy-Journal");
+            t.setDaemon(true);
+            return t;
+        });
+        committer.scheduleWithFixedDelay(this::commitQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Journal storage loaded " + image.size() + " accounts (" + journalRecords + " journal records replayed)");
+    }
+
+    @Override
+    public void close() {
+        if (committer != null) {
+            committer.shutdown();
+            try {
+                committer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            compact();
+            journal.close();
+        } catch (IOException e) {
+            logger.severe("Could not close account journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Account> loadAccounts() {
+        List<Account> accounts = new ArrayList<>();
+        synchronized (appendLock) {
+            for (Map.Entry<UUID, AccountState> entry : image.entrySet()) {
+                AccountState state = entry.getValue();
+                accounts.add(new Account(entry.getKey(), state.balance, state.bankBalance, state.lastInterest));
+            }
+        }
+        return accounts;
+    }
+
+    @Override
+    public Account loadAccount(UUID uuid) {
+        AccountState state;
+        synchronized (appendLock) {
+            state = image.get(uuid);
+        }
+        return state != null ? new Account(uuid, state.balance, state.bankBalance, state.lastInterest) : null;
+    }
+
+    @Override
+    public void saveAccounts(List<Account> accounts) {
+        // One append batch, committed together
+        synchronized (appendLock) {
+            for (Account account : accounts) {
+                append(RECORD_PUT, account.getOwner(), account.getBalance(), account.getBankBalance(), account.getLastInterest());
+            }
+        }
+    }
+
+    @Override
+    public void saveAccount(Account account) {
+        synchronized (appendLock) {
+            append(RECORD_PUT, account.getOwner(), account.getBalance(), account.getBankBalance(), account.getLastInterest());
+        }
+    }
+
+    @Override
+    public void deleteAccount(UUID uuid) {
+        synchronized (appendLock) {
+            append(RECORD_DELETE, uuid, 0, 0, 0);
+        }
+    }
+
+    // ===== JOURNAL =====
+
+    private void append(byte type, UUID uuid, double balance, double bankBalance, long lastInterest) {
+        if (pending.remaining() < RECORD_SIZE) {
+            ByteBuffer grown = ByteBuffer.allocate(pending.capacity() * 2);
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        writeRecord(pending, crc, type, uuid, balance, bankBalance, lastInterest);
+        apply(type, uuid, balance, bankBalance, lastInterest);
+    }
+
+    private static void writeRecord(ByteBuffer buffer, CRC32 crc, byte type, UUID uuid, double balance, double bankBalance, long lastInterest) {
+        int start = buffer.position();
+        buffer.put(type);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        buffer.putDouble(balance);
+        buffer.putDouble(bankBalance);
+        buffer.putLong(lastInterest);
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + start, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void apply(byte type, UUID uuid, double balance, double bankBalance, long lastInterest) {
+        if (type == RECORD_DELETE) {
+            image.remove(uuid);
+        } else {
+            image.put(uuid, new AccountState(balance, bankBalance, lastInterest));
+        }
+    }
+
+    /**
+     * Write and fsync everything appended since the last commit
+     */
+    private void commit() throws IOException {
+        synchronized (commitLock) {
+            ByteBuffer batch;
+            synchronized (appendLock) {
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = spare;
+                spare = batch;
+            }
+            writeBatch(batch);
+            if (journalRecords >= compactThreshold) {
+                compact();
+            }
+        }
+    }
+
+    private void writeBatch(ByteBuffer batch) throws IOException {
+        batch.flip();
+        journalRecords += batch.remaining() / RECORD_SIZE;
+        journal.position(journal.size());
+        while (batch.hasRemaining()) {
+            journal.write(batch);
+        }
+        journal.force(false);
+        batch.clear();
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            logger.severe("Could not commit account journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the snapshot with the current image and start an empty journal
+     * A crash between snapshot rename and journal truncation is harmless:
+     * journal records hold absolute state, so replaying them over the new snapshot is idempotent
+     */
+    private void compact() throws IOException {
+        synchronized (commitLock) {
+            ByteBuffer batch;
+            Map<UUID, AccountState> copy;
+            synchronized (appendLock) {
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                copy = new HashMap<>(image);
+            }
+            writeBatch(batch);
+
+            CRC32 snapshotCrc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(12 + copy.size() * RECORD_SIZE);
+            buffer.putInt(SNAPSHOT_MAGIC);
+            buffer.putInt(SNAPSHOT_VERSION);
+            buffer.putInt(copy.size());
+            for (Map.Entry<UUID, AccountState> entry : copy.entrySet()) {
+                AccountState state = entry.getValue();
+                writeRecord(buffer, snapshotCrc, RECORD_PUT, entry.getKey(), state.balance, state.bankBalance, state.lastInterest);
+            }
+            buffer.flip();
+
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            journal.truncate(0);
+            journal.force(true);
+            journalRecords = 0;
+        }
+    }
+
+    // ===== RECOVERY =====
+
+    private void loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+        if (buffer.remaining() < 12 || buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Account snapshot " + snapshotPath + " is not a journal snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported account snapshot version " + version);
+        }
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < RECORD_SIZE || !readRecord(buffer)) {
+                // Snapshots are written to a temp file and renamed, so this is real corruption
+                throw new IOException("Account snapshot is corrupt at record " + i);
+            }
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        long size = journal.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        journal.position(0);
+        while (buffer.hasRemaining() && journal.read(buffer) >= 0) {
+            // read fully
+        }
+        buffer.flip();
+
+        long valid = 0;
+        while (buffer.remaining() >= RECORD_SIZE && readRecord(buffer)) {
+            valid += RECORD_SIZE;
+            journalRecords++;
+        }
+        if (valid < size) {
+            // Torn tail from a crash mid-commit; those records were never acknowledged as durable
+            logger.warning("Discarding " + (size - valid) + " bytes of incomplete account journal");
+            journal.truncate(valid);
+            journal.force(true);
+        }
+    }
+
+    private boolean readRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + start, RECORD_SIZE - 4);
+        byte type = buffer.get();
+        UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+        double balance = buffer.getDouble();
+        double bankBalance = buffer.getDouble();
+        long lastInterest = buffer.getLong();
+        int checksum = buffer.getInt();
+        if (checksum != (int) crc.getValue() || (type != RECORD_PUT && type != RECORD_DELETE)) {
+            buffer.position(start);
+            return false;
+        }
+        apply(type, uuid, balance, bankBalance, lastInterest);
+        return true;
+    }
+}
@@ -13,4 +13,23 @@ public interface StorageProvider {
     void saveAccounts(List<Account> accounts);
     void saveAccount(Account account);
     void deleteAccount(java.util.UUID uuid);
+
+    // Lazy providers load accounts per player via loadAccount instead of loadAccounts
+    default boolean isLazyLoading() {
+        return false;
+    }
+
+    // Read an account without keeping any state for it (lookups for other plugins); null if absent
+    default Account findAccount(java.util.UUID uuid) {
+        return loadAccount(uuid);
+    }
+
+    // Richest accounts straight from storage; null if the provider has no such query
+    default List<Account> loadTopAccounts(int limit) {
+        return null;
+    }
+
+    // The account was unloaded after its last save; lazy providers may drop what they track for it
+    default void releaseAccount(java.util.UUID uuid) {
+    }
 }
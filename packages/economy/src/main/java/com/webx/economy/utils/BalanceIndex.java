@@ -0,0 +1,214 @@
+package com.webx.economy.utils;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ranked index of account balances
+ * Indexable skip list ordered by (total balance desc, uuid); every forward link stores
+ * how many entries it skips, so update, rank and rank lookup are O(log n)
+ */
+public class BalanceIndex {
+    private static final int MAX_LEVEL = 32;
+
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private int level = 1;
+    private int size;
+
+    private static final class Node {
+        final UUID uuid;
+        final double total;
+        final Node[] next;
+        // Entries passed when following next[i] (to the end of the list if next[i] is null)
+        final int[] span;
+
+        Node(UUID uuid, double total, int levels) {
+            this.uuid = uuid;
+            this.total = total;
+            this.next = new Node[levels];
+            this.span = new int[levels];
+        }
+    }
+
+    /**
+     * Set balance for account (insert or move)
+     */
+    public synchronized void update(UUID uuid, double total) {
+        Node existing = nodes.get(uuid);
+        if (existing != null) {
+            if (existing.total == total) {
+                return;
+            }
+            delete(existing);
+        }
+        nodes.put(uuid, insert(uuid, total));
+    }
+
+    public synchronized void remove(UUID uuid) {
+        Node node = nodes.remove(uuid);
+        if (node != null) {
+            delete(node);
+        }
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(head.next, null);
+        Arrays.fill(head.span, 0);
+        nodes.clear();
+        level = 1;
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 1-based rank of account, or -1 if not indexed
+     */
+    public synchronized int getRank(UUID uuid) {
+        Node target = nodes.get(uuid);
+        if (target == null) {
+            return -1;
+        }
+        Node x = head;
+        int rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], target.total, target.uuid) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x == target) {
+                return rank;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Top entries, richest first
+     */
+    public synchronized List<Map.Entry<UUID, Double>> top(int limit) {
+        return range(1, limit);
+    }
+
+    /**
+     * Entries ranked within radius of account (inclusive), richest first
+     */
+    public synchronized List<Map.Entry<UUID, Double>> around(UUID uuid, int radius) {
+        int rank = getRank(uuid);
+        if (rank < 0) {
+            return new ArrayList<>();
+        }
+        int from = Math.max(1, rank - radius);
+        return range(from, rank + radius - from + 1);
+    }
+
+    /**
+     * Up to count entries starting at 1-based rank
+     */
+    public synchronized List<Map.Entry<UUID, Double>> range(int fromRank, int count) {
+        List<Map.Entry<UUID, Double>> result = new ArrayList<>(Math.max(0, Math.min(count, size - fromRank + 1)));
+        Node x = fromRank >= 1 ? nodeAt(fromRank) : null;
+        while (x != null && result.size() < count) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(x.uuid, x.total));
+            x = x.next[0];
+        }
+        return result;
+    }
+
+    private Node nodeAt(int rank) {
+        if (rank > size) {
+            return null;
+        }
+        Node x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    // Order: higher total first, then uuid
+    private static int compare(Node node, double total, UUID uuid) {
+        int byTotal = Double.compare(total, node.total);
+        return byTotal != 0 ? byTotal : node.uuid.compareTo(uuid);
+    }
+
+    private Node insert(UUID uuid, double total) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i], total, uuid) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(uuid, total, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return node;
+    }
+
+    private void delete(Node target) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i] != target && compare(x.next[i], target.total, target.uuid) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    private static int randomLevel() {
+        // p = 1/4, as in most indexable skip lists
+        int lvl = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (lvl < MAX_LEVEL && (random.nextInt() & 3) == 0) {
+            lvl++;
+        }
+        return lvl;
+    }
+}
@@ -0,0 +1,77 @@
+package com.webx.economy.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountTest {
+    private static final int ACCOUNTS = 16;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 500_000;
+    private static final long STARTING_BALANCE = 1_000;
+
+    @Test
+    void transferMovesAmountAndChargesFee() {
+        Account from = new Account(new UUID(0, 1), 100, 0, 0);
+        Account to = new Account(new UUID(0, 2), 0, 0, 0);
+
+        assertTrue(Account.transfer(from, to, 40, 2));
+        assertEquals(58, from.getBalance(), 0);
+        assertEquals(40, to.getBalance(), 0);
+
+        assertFalse(Account.transfer(from, to, 57, 2));
+        assertEquals(58, from.getBalance(), 0);
+        assertEquals(40, to.getBalance(), 0);
+    }
+
+    @Test
+    void concurrentTransfersConserveMoney() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(new Account(UUID.randomUUID(), STARTING_BALANCE, 0, 0));
+        }
+        AtomicLong feesCharged = new AtomicLong();
+
+        // 4M transfers in total. Whole amounts keep the double sums exact; pairs in both directions would deadlock with unordered locks
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    start.await();
+                    for (int n = 0; n < TRANSFERS_PER_THREAD; n++) {
+                        int from = random.nextInt(ACCOUNTS);
+                        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                        long amount = 1 + random.nextInt(200);
+                        long fee = random.nextInt(3);
+                        if (Account.transfer(accounts.get(from), accounts.get(to), amount, fee)) {
+                            feesCharged.addAndGet(fee);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            executor.shutdown();
+        });
+
+        double total = 0;
+        for (Account account : accounts) {
+            assertTrue(account.getBalance() >= 0, "negative balance");
+            total += account.getBalance();
+        }
+        assertEquals(ACCOUNTS * STARTING_BALANCE, total + feesCharged.get(), 0);
+    }
+}
@@ -0,0 +1,226 @@
+package com.webx.economy.storage;
+
+import com.webx.economy.models.Account;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against embedded H2 and SQLite; two storages on one database stand in for two servers
+ */
+class JdbcStorageTest {
+    private static final Logger LOGGER = Logger.getLogger("JdbcStorageTest");
+
+    @TempDir
+    File dataFolder;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "sqlite"})
+    void savedAccountIsLoadedBack(String database) {
+        String url = url(database);
+        UUID uuid = UUID.randomUUID();
+        JdbcStorage storage = open(url);
+        storage.saveAccount(new Account(uuid, 100, 25, 7));
+        storage.close();
+
+        JdbcStorage reopened = open(url);
+        Account account = reopened.loadAccount(uuid);
+        assertNotNull(account);
+        assertEquals(100, account.getBalance(), 0);
+        assertEquals(25, account.getBankBalance(), 0);
+        assertEquals(7, account.getLastInterest());
+        assertNull(reopened.loadAccount(UUID.randomUUID()));
+        reopened.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "sqlite"})
+    void findAccountReadsWithoutCreating(String database) {
+        String url = url(database);
+        UUID uuid = UUID.randomUUID();
+        JdbcStorage setup = open(url);
+        setup.saveAccount(new Account(uuid, 40, 0, 0));
+        setup.close();
+
+        JdbcStorage storage = open(url);
+        assertEquals(40, storage.findAccount(uuid).getBalance(), 0);
+        UUID missing = UUID.randomUUID();
+        assertNull(storage.findAccount(missing));
+        storage.close();
+
+        JdbcStorage check = open(url);
+        assertNull(check.loadAccount(missing));
+        check.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "sqlite"})
+    void pendingWriteIsReturnedBeforeFlush(String database) {
+        JdbcStorage storage = open(url(database), 60_000);
+        UUID uuid = UUID.randomUUID();
+        Account account = new Account(uuid, 50, 0, 0);
+        storage.saveAccount(account);
+
+        assertSame(account, storage.loadAccount(uuid));
+        storage.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "sqlite"})
+    void concurrentChangesFromTwoServersAreBothKept(String database) {
+        String url = url(database);
+        UUID uuid = UUID.randomUUID();
+        JdbcStorage setup = open(url);
+        setup.saveAccount(new Account(uuid, 100, 0, 0));
+        setup.close();
+
+        JdbcStorage serverA = open(url, 60_000);
+        JdbcStorage serverB = open(url, 60_000);
+        Account onA = serverA.loadAccount(uuid);
+        Account onB = serverB.loadAccount(uuid);
+
+        onA.deposit(50);
+        serverA.saveAccount(onA);
+        serverA.close();
+
+        // B still works from the row it loaded (100); its change is rebased onto A's 150
+        assertTrue(onB.withdraw(30));
+        serverB.saveAccount(onB);
+        serverB.close();
+        assertEquals(120, onB.getBalance(), 0);
+
+        JdbcStorage check = open(url);
+        assertEquals(120, check.loadAccount(uuid).getBalance(), 0);
+        check.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "sqlite"})
+    void rebasedDebitNeverLeavesNegativeBalance(String database) {
+        String url = url(database);
+        UUID uuid = UUID.randomUUID();
+        JdbcStorage setup = open(url);
+        setup.saveAccount(new Account(uuid, 100, 10, 0));
+        setup.close();
+
+        JdbcStorage serverA = open(url, 60_000);
+        JdbcStorage serverB = open(url, 60_000);
+        Account onA = serverA.loadAccount(uuid);
+        Account onB = serverB.loadAccount(uuid);
+
+        assertTrue(onA.withdraw(90));
+        assertTrue(onA.withdrawBank(10));
+        serverA.saveAccount(onA);
+        serverA.close();
+
+        // B spends 60 of a balance that is really 10 by now
+        assertTrue(onB.withdraw(60));
+        serverB.saveAccount(onB);
+        serverB.close();
+        assertEquals(0, onB.getBalance(), 0);
+        assertEquals(0, onB.getBankBalance(), 0);
+
+        JdbcStorage check = open(url);
+        Account stored = check.loadAccount(uuid);
+        assertEquals(0, stored.getBalance(), 0);
+        assertEquals(0, stored.getBankBalance(), 0);
+        check.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "sqlite"})
+    void deletedAccountIsGone(String database) {
+        String url = url(database);
+        UUID uuid = UUID.randomUUID();
+        JdbcStorage storage = open(url);
+        storage.saveAccount(new Account(uuid, 10, 0, 0));
+        storage.close();
+
+        JdbcStorage deleting = open(url, 60_000);
+        assertNotNull(deleting.loadAccount(uuid));
+        deleting.deleteAccount(uuid);
+        assertNull(deleting.loadAccount(uuid));
+        deleting.close();
+
+        JdbcStorage check = open(url);
+        assertNull(check.loadAccount(uuid));
+        check.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "sqlite"})
+    void releasedAccountIsForgottenAfterItsLastWrite(String database) {
+        String url = url(database);
+        UUID uuid = UUID.randomUUID();
+        JdbcStorage storage = open(url, 60_000);
+        Account account = new Account(uuid, 30, 0, 0);
+        storage.saveAccount(account);
+        assertEquals(1, storage.getTrackedCount());
+
+        // Quit: last save is still pending, so the baseline stays until it is written
+        account.setBalance(45);
+        storage.saveAccount(account);
+        storage.releaseAccount(uuid);
+        assertEquals(1, storage.getTrackedCount());
+        storage.flushNow();
+        assertEquals(0, storage.getTrackedCount());
+
+        // Rejoin: loaded and tracked again, later saves still land
+        Account rejoined = storage.loadAccount(uuid);
+        assertEquals(45, rejoined.getBalance(), 0);
+        assertEquals(1, storage.getTrackedCount());
+        rejoined.setBalance(60);
+        storage.saveAccount(rejoined);
+        storage.flushNow();
+        assertEquals(1, storage.getTrackedCount());
+        storage.close();
+
+        JdbcStorage check = open(url);
+        assertEquals(60, check.loadAccount(uuid).getBalance(), 0);
+        check.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"h2", "sqlite"})
+    void loadAfterReleaseKeepsTheBaseline(String database) {
+        String url = url(database);
+        UUID uuid = UUID.randomUUID();
+        JdbcStorage storage = open(url, 60_000);
+        storage.saveAccount(new Account(uuid, 20, 0, 0));
+        storage.releaseAccount(uuid);
+        // Quick rejoin before the flush: the pending account is handed back and stays tracked
+        Account rejoined = storage.loadAccount(uuid);
+        storage.flushNow();
+        assertEquals(1, storage.getTrackedCount());
+        rejoined.setBalance(25);
+        storage.saveAccount(rejoined);
+        storage.close();
+
+        JdbcStorage check = open(url);
+        assertEquals(25, check.loadAccount(uuid).getBalance(), 0);
+        check.close();
+    }
+
+    private String url(String database) {
+        if (database.equals("sqlite")) {
+            return "jdbc:sqlite:" + new File(dataFolder, "economy.db").getAbsolutePath();
+        }
+        return "jdbc:h2:" + new File(dataFolder, "economy").getAbsolutePath();
+    }
+
+    private JdbcStorage open(String url) {
+        return open(url, 50);
+    }
+
+    private JdbcStorage open(String url, long flushIntervalMs) {
+        JdbcStorage storage = new JdbcStorage(url, "", "", 2, flushIntervalMs, LOGGER);
+        storage.initialize();
+        return storage;
+    }
+}
@@ -0,0 +1,160 @@
+package com.webx.economy.storage;
+
+import com.webx.economy.models.Account;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalStorageTest {
+    // type + uuid + balance + bank balance + last interest + crc32
+    private static final int RECORD_SIZE = 1 + 16 + 8 + 8 + 8 + 4;
+    private static final Logger LOGGER = Logger.getLogger("JournalStorageTest");
+
+    @TempDir
+    File dataFolder;
+
+    @Test
+    void accountsSurviveCloseAndReopen() {
+        JournalStorage storage = open(1000, 10_000);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        storage.saveAccount(new Account(a, 10, 1, 100));
+        storage.saveAccount(new Account(b, 20, 2, 200));
+        storage.saveAccount(new Account(a, 15, 1, 100));
+        storage.deleteAccount(b);
+        storage.close();
+
+        JournalStorage reopened = open(1000, 10_000);
+        Account account = reopened.loadAccount(a);
+        assertNotNull(account);
+        assertEquals(15, account.getBalance(), 0);
+        assertEquals(1, account.getBankBalance(), 0);
+        assertEquals(100, account.getLastInterest());
+        assertNull(reopened.loadAccount(b));
+        assertEquals(1, reopened.loadAccounts().size());
+        reopened.close();
+    }
+
+    @Test
+    void committedRecordsAreReplayedAfterCrash() throws Exception {
+        JournalStorage storage = open(5, 10_000);
+        Map<UUID, Double> expected = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            UUID uuid = UUID.randomUUID();
+            storage.saveAccount(new Account(uuid, i, 0, 0));
+            expected.put(uuid, (double) i);
+        }
+        awaitJournalSize(50L * RECORD_SIZE);
+
+        // No close(): the journal is all that is on disk
+        JournalStorage recovered = open(1000, 10_000);
+        assertBalances(expected, recovered);
+        recovered.close();
+    }
+
+    @Test
+    void tornTailIsDiscarded() throws Exception {
+        JournalStorage storage = open(5, 10_000);
+        UUID uuid = UUID.randomUUID();
+        storage.saveAccount(new Account(uuid, 42, 0, 0));
+        awaitJournalSize(RECORD_SIZE);
+
+        // Half a record, as left by a crash in the middle of a write
+        try (FileChannel channel = FileChannel.open(journal(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[RECORD_SIZE / 2]));
+        }
+
+        JournalStorage recovered = open(1000, 10_000);
+        assertEquals(42, recovered.loadAccount(uuid).getBalance(), 0);
+        assertEquals(1, recovered.loadAccounts().size());
+        assertEquals(RECORD_SIZE, Files.size(journal()));
+        recovered.close();
+    }
+
+    @Test
+    void recordWithBadChecksumIsDiscarded() throws Exception {
+        JournalStorage storage = open(5, 10_000);
+        UUID kept = UUID.randomUUID();
+        UUID corrupted = UUID.randomUUID();
+        storage.saveAccount(new Account(kept, 1, 0, 0));
+        awaitJournalSize(RECORD_SIZE);
+        storage.saveAccount(new Account(corrupted, 2, 0, 0));
+        awaitJournalSize(2L * RECORD_SIZE);
+
+        // Flip a balance byte of the second record
+        try (FileChannel channel = FileChannel.open(journal(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            long position = RECORD_SIZE + 1 + 16;
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0x5A)).rewind();
+            channel.write(one, position);
+        }
+
+        JournalStorage recovered = open(1000, 10_000);
+        assertNotNull(recovered.loadAccount(kept));
+        assertNull(recovered.loadAccount(corrupted));
+        recovered.close();
+    }
+
+    @Test
+    void compactionWritesSnapshotAndTruncatesJournal() throws Exception {
+        JournalStorage storage = open(5, 10);
+        Map<UUID, Double> expected = new HashMap<>();
+        List<Account> batch = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            UUID uuid = UUID.randomUUID();
+            batch.add(new Account(uuid, i * 2, 0, 0));
+            expected.put(uuid, i * 2.0);
+        }
+        storage.saveAccounts(batch);
+        Path snapshot = dataFolder.toPath().resolve("journal").resolve("accounts.snapshot");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(snapshot) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(Files.exists(snapshot));
+        storage.close();
+        assertEquals(0, Files.size(journal()));
+
+        JournalStorage reopened = open(1000, 10_000);
+        assertBalances(expected, reopened);
+        reopened.close();
+    }
+
+    private JournalStorage open(long flushIntervalMs, int compactThreshold) {
+        JournalStorage storage = new JournalStorage(dataFolder, flushIntervalMs, compactThreshold, LOGGER);
+        storage.initialize();
+        return storage;
+    }
+
+    private Path journal() {
+        return dataFolder.toPath().resolve("journal").resolve("accounts.journal");
+    }
+
+    private void awaitJournalSize(long size) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.size(journal()) < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(size, Files.size(journal()));
+    }
+
+    private static void assertBalances(Map<UUID, Double> expected, JournalStorage storage) {
+        assertEquals(expected.size(), storage.loadAccounts().size());
+        for (Map.Entry<UUID, Double> entry : expected.entrySet()) {
+            Account account = storage.loadAccount(entry.getKey());
+            assertNotNull(account, "missing " + entry.getKey());
+            assertEquals(entry.getValue(), account.getBalance(), 0);
+        }
+    }
+}
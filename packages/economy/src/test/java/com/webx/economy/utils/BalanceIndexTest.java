@@ -0,0 +1,122 @@
+package com.webx.economy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceIndexTest {
+
+    @Test
+    void ranksByBalanceThenUuid() {
+        BalanceIndex index = new BalanceIndex();
+        UUID low = new UUID(0, 1);
+        UUID high = new UUID(0, 2);
+        UUID tieA = new UUID(0, 3);
+        UUID tieB = new UUID(0, 4);
+        index.update(low, 10);
+        index.update(high, 500);
+        index.update(tieB, 100);
+        index.update(tieA, 100);
+
+        assertEquals(4, index.size());
+        assertEquals(1, index.getRank(high));
+        assertEquals(2, index.getRank(tieA));
+        assertEquals(3, index.getRank(tieB));
+        assertEquals(4, index.getRank(low));
+        assertEquals(-1, index.getRank(UUID.randomUUID()));
+        assertEquals(List.of(high, tieA), uuids(index.top(2)));
+    }
+
+    @Test
+    void updateMovesAndRemoveDrops() {
+        BalanceIndex index = new BalanceIndex();
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        index.update(a, 10);
+        index.update(b, 20);
+
+        index.update(a, 30);
+        assertEquals(1, index.getRank(a));
+        assertEquals(2, index.size());
+
+        index.remove(a);
+        assertEquals(-1, index.getRank(a));
+        assertEquals(1, index.getRank(b));
+        assertEquals(1, index.size());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.top(10).isEmpty());
+    }
+
+    @Test
+    void aroundIsClampedAtTheTop() {
+        BalanceIndex index = new BalanceIndex();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            UUID uuid = new UUID(0, i);
+            ids.add(uuid);
+            index.update(uuid, 1000 - i);
+        }
+
+        assertEquals(ids.subList(0, 3), uuids(index.around(ids.get(0), 2)));
+        assertEquals(ids.subList(3, 8), uuids(index.around(ids.get(5), 2)));
+        assertEquals(ids.subList(7, 10), uuids(index.around(ids.get(9), 2)));
+        assertTrue(index.around(UUID.randomUUID(), 2).isEmpty());
+        assertTrue(index.range(11, 5).isEmpty());
+        assertTrue(index.range(0, 5).isEmpty());
+    }
+
+    @Test
+    void matchesSortedModelUnderRandomUpdates() {
+        Random random = new Random(42);
+        BalanceIndex index = new BalanceIndex();
+        Map<UUID, Double> model = new HashMap<>();
+        List<UUID> pool = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            pool.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+
+        for (int step = 0; step < 20_000; step++) {
+            UUID uuid = pool.get(random.nextInt(pool.size()));
+            if (random.nextInt(5) == 0) {
+                index.remove(uuid);
+                model.remove(uuid);
+            } else {
+                // Few distinct values so ties are common
+                double total = random.nextInt(50) * 10.0;
+                index.update(uuid, total);
+                model.put(uuid, total);
+            }
+
+            if (step % 500 == 0) {
+                assertMatches(model, index);
+            }
+        }
+        assertMatches(model, index);
+    }
+
+    private static void assertMatches(Map<UUID, Double> model, BalanceIndex index) {
+        List<UUID> expected = new ArrayList<>(model.keySet());
+        expected.sort(Comparator.comparingDouble((UUID uuid) -> -model.get(uuid)).thenComparing(Comparator.naturalOrder()));
+
+        assertEquals(expected.size(), index.size());
+        assertEquals(expected, uuids(index.top(Integer.MAX_VALUE)));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, index.getRank(expected.get(i)));
+        }
+        if (expected.size() > 20) {
+            assertEquals(expected.subList(10, 20), uuids(index.range(11, 10)));
+        }
+    }
+
+    private static List<UUID> uuids(List<Map.Entry<UUID, Double>> entries) {
+        List<UUID> result = new ArrayList<>();
+        for (Map.Entry<UUID, Double> entry : entries) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+}
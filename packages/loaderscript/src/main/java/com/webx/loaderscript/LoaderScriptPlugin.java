@@ -3,7 +3,9 @@ package com.webx.loaderscript;
 import com.webx.loaderscript.api.ScriptAPIController;
 import com.webx.loaderscript.commands.LoaderScriptCommand;
 import com.webx.loaderscript.manager.ScriptManager;
+import lxxv.shared.javascript.JavaScriptBudget;
 import lxxv.shared.javascript.JavaScriptEngine;
+import lxxv.shared.javascript.advanced.JavaScriptEventBus;
 import lxxv.shared.server.LXXVServer;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
@@ -29,9 +31,19 @@ public class LoaderScriptPlugin extends JavaPlugin {
             
             // Initialize JavaScript engine
             jsEngine = JavaScriptEngine.getInstance();
+            jsEngine.setScriptCacheEnabled(getConfig().getBoolean("script-cache", true));
+            jsEngine.setBindOncePerRuntime(getConfig().getBoolean("bind-once-per-runtime", true));
+            jsEngine.setDefaultBudget(new JavaScriptBudget(
+                getConfig().getLong("script-timeout", 30000L),
+                getConfig().getLong("script-max-heap-mb", 256L) * 1024L * 1024L,
+                getConfig().getLong("script-max-host-calls", 0L)
+            ));
             
             // Initialize LXXVServer bridge
-            LXXVServer.initialize(Bukkit.getServer(), jsEngine);
+            LXXVServer.initialize(Bukkit.getServer(), jsEngine, this);
+            LXXVServer.getWorldBuffer().setTickBudgetMicros(getConfig().getLong("world-buffer-tick-budget-micros", 2000L));
+            LXXVServer.getScheduler().getTickBackend().setTickBudgetMicros(getConfig().getLong("scheduler-tick-budget-micros", 5000L));
+            LXXVServer.getEventSystem().setBackpressure(parseBackpressure(getConfig().getString("event-async-backpressure", "drop")));
             
             // Create scripts folder
             File scriptsFolder = new File(getDataFolder().getParentFile().getParentFile(), "scripts");
@@ -88,6 +100,7 @@ public class LoaderScriptPlugin extends JavaPlugin {
             scriptManager.shutdown();
             scriptManager.unloadAllScripts();
         }
+        LXXVServer.shutdown(this);
         
         getLogger().info("LoaderScript disabled!");
     }
@@ -132,4 +145,13 @@ public class LoaderScriptPlugin extends JavaPlugin {
             getLogger().fine("WebX Dashboard not yet available for registration: " + e.getMessage());
         }
     }
+
+    private JavaScriptEventBus.Backpressure parseBackpressure(String value) {
+        try {
+            return JavaScriptEventBus.Backpressure.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            getLogger().warning("Unknown event-async-backpressure '" + value + "', using drop");
+            return JavaScriptEventBus.Backpressure.DROP;
+        }
+    }
 }
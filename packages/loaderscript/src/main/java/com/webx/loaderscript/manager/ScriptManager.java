@@ -149,7 +149,7 @@ public class ScriptManager {
                     context.put("LXXVServer", LXXVServer.class);
                     context.put("Bukkit", Bukkit.class);
                     
-                    Object result = jsEngine.execute(executableCode, context);
+                    Object result = jsEngine.execute(executableCode, context, scriptName);
                     
                     // Create script info on main thread
                     Bukkit.getScheduler().runTask(plugin, () -> {
@@ -268,7 +268,7 @@ public class ScriptManager {
                     context.put("LXXVServer", LXXVServer.class);
                     context.put("Bukkit", Bukkit.class);
                     
-                    Object result = jsEngine.execute(executableCode, context);
+                    Object result = jsEngine.execute(executableCode, context, scriptName);
                     
                     // Create script info
                     ScriptInfo info = new ScriptInfo(
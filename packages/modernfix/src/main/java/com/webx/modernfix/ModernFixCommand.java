@@ -1,11 +1,24 @@
 package com.webx.modernfix;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.webx.modernfix.optimization.EntityOptimizer;
+import com.webx.modernfix.profiler.LatencyHistogram;
+import com.webx.modernfix.profiler.PerformanceProfiler;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -45,6 +58,12 @@ public class ModernFixCommand implements CommandExecutor {
             case "metrics":
                 showMetrics(sender);
                 return true;
+            case "profile":
+                if (args.length > 1 && args[1].equalsIgnoreCase("export")) {
+                    return handleProfileExport(sender);
+                }
+                showProfile(sender);
+                return true;
             default:
                 sender.sendMessage("§c§lНеизвестная команда: §f" + subcommand);
                 showUsage(sender);
@@ -58,6 +77,7 @@ public class ModernFixCommand implements CommandExecutor {
         sender.sendMessage("§6╠═══════════════════════════════════╣");
         sender.sendMessage("§6║ §7/modernfix stats §8- Статистика §6║");
         sender.sendMessage("§6║ §7/modernfix metrics §8- Метрики  §6║");
+        sender.sendMessage("§6║ §7/modernfix profile §8- Задержки §6║");
         sender.sendMessage("§6║ §7/modernfix reload §8- Reload    §6║");
         sender.sendMessage("§6║ §7/modernfix gc §8- Очистка ОЗУ   §6║");
         sender.sendMessage("§6║ §7/modernfix optimize §8- Оптим.  §6║");
@@ -96,6 +116,12 @@ public class ModernFixCommand implements CommandExecutor {
         sender.sendMessage("§6╠═══════════════════════════════════╣");
         sender.sendMessage(String.format("§6║ §7Всего оптимизаций: §f%-14d§6║", plugin.getTotalOptimizations()));
         sender.sendMessage(String.format("§6║ §7Удалено сущностей: §f%-14d§6║", plugin.getTotalEntitiesRemoved()));
+        EntityOptimizer entityOptimizer = plugin.getEntityOptimizer();
+        EntityOptimizer.OptimizationResult round = entityOptimizer != null ? entityOptimizer.getLastRound() : null;
+        if (round != null) {
+            sender.sendMessage(String.format("§6║ §7Обход сущностей: §f%-16s§6║",
+                    String.format("%.0f мкс/тик", round.averageTickMicros)));
+        }
         sender.sendMessage(String.format("§6║ §7Память освобождено: §f%-10d §7МБ§6║", 
                 plugin.getTotalMemoryFreed() / 1024 / 1024));
         sender.sendMessage(String.format("§6║ §7Кэшировано чанков: §f%-15d§6║", plugin.getCachedChunksCount()));
@@ -127,9 +153,70 @@ public class ModernFixCommand implements CommandExecutor {
             }
         }
         
+        EntityOptimizer entityOptimizer = plugin.getEntityOptimizer();
+        if (entityOptimizer != null && entityOptimizer.getLastRound() != null) {
+            sender.sendMessage("§6║ §eDensest Chunks:");
+            for (EntityOptimizer.ChunkDensity chunk : entityOptimizer.getDensestChunks(5)) {
+                sender.sendMessage(String.format("§6║  §7%s §f%d, %d§7: §f%d",
+                        chunk.world, chunk.x, chunk.z, chunk.entities));
+            }
+        }
+        
         sender.sendMessage("§6╚═════════════════════════════════════╝");
     }
 
+    private void showProfile(CommandSender sender) {
+        PerformanceProfiler profiler = plugin.getProfiler();
+        
+        sender.sendMessage("§6╔═════════════════════════════════════╗");
+        sender.sendMessage(String.format("§6║   §eProfiler §7(last %ds)              §6║", PerformanceProfiler.WINDOW_SECONDS));
+        sender.sendMessage("§6╠═════════════════════════════════════╣");
+        
+        if (profiler.getAllEntries().isEmpty()) {
+            sender.sendMessage("§6║ §7No data yet - wait for tasks      §6║");
+        } else {
+            profiler.getAllEntries().values().stream()
+                .sorted(Comparator.comparing(PerformanceProfiler.ProfilerEntry::getOperationName))
+                .forEach(entry -> {
+                    LatencyHistogram window = entry.snapshot(PerformanceProfiler.WINDOW_SECONDS);
+                    sender.sendMessage(String.format("§6║ §e%s §8(§f%d§8)", entry.getOperationName(), window.getCount()));
+                    sender.sendMessage(String.format("§6║  §7p50 §f%s §7p95 §f%s §7p99 §f%s §7max §f%s",
+                            LatencyHistogram.formatNanos(window.getPercentile(50)),
+                            LatencyHistogram.formatNanos(window.getPercentile(95)),
+                            LatencyHistogram.formatNanos(window.getPercentile(99)),
+                            LatencyHistogram.formatNanos(window.getMaxNanos())));
+                });
+        }
+        
+        sender.sendMessage("§6╚═════════════════════════════════════╝");
+    }
+
+    private boolean handleProfileExport(CommandSender sender) {
+        if (!sender.hasPermission("modernfix.profile")) {
+            sender.sendMessage("§c§lНет прав! Требуется §fmodernfix.profile");
+            return true;
+        }
+
+        Map<String, Object> export = new LinkedHashMap<>();
+        export.put("timestamp", System.currentTimeMillis());
+        export.put("windowSeconds", PerformanceProfiler.WINDOW_SECONDS);
+        export.put("operations", plugin.getProfiler().export(PerformanceProfiler.WINDOW_SECONDS));
+
+        File file = new File(new File(plugin.getDataFolder(), "profiles"),
+                "profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), gson.toJson(export).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            sender.sendMessage("§c§lОшибка экспорта: §f" + e.getMessage());
+            return true;
+        }
+
+        sender.sendMessage("§a§l✓ §aГистограммы сохранены: §f" + file.getPath());
+        return true;
+    }
+
     private String formatMetricName(String key) {
         switch (key) {
             case "entity_cleanup": return "Entity Cleanup";
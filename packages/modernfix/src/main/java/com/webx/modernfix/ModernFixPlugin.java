@@ -1,16 +1,18 @@
 package com.webx.modernfix;
 
+import com.webx.modernfix.cache.ChunkCacheListener;
+import com.webx.modernfix.cache.ChunkCacheManager;
+import com.webx.modernfix.optimization.EntityOptimizer;
+import com.webx.modernfix.profiler.PerformanceProfiler;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.World;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.Item;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
-import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
@@ -40,7 +42,9 @@ public class ModernFixPlugin extends JavaPlugin {
     private BukkitTask tickOptimizationTask;
     
     // Advanced caching and optimization (inspired by PackResourcesCacheEngine)
-    private final Map<String, WeakReference<Chunk>> chunkCache = new ConcurrentHashMap<>();
+    // Filled and evicted by chunk events; the size is fixed until restart
+    private ChunkCacheManager chunkCache;
+    private boolean chunkCacheListening;
     
     // Thread pool with smart sizing (inspired by UtilMixin thread_priorities)
     private final ExecutorService asyncExecutor = Executors.newFixedThreadPool(
@@ -57,7 +61,11 @@ public class ModernFixPlugin extends JavaPlugin {
         }
     );
     
+    // Incremental entity sweeper; null while entity optimization is disabled
+    private EntityOptimizer entityOptimizer;
+    
     // Performance tracking (inspired by SparkLaunchProfiler)
+    private final PerformanceProfiler profiler = new PerformanceProfiler();
     private final Map<String, PerformanceMetric> performanceMetrics = new ConcurrentHashMap<>();
     private final AtomicLong totalOptimizations = new AtomicLong(0);
     private final AtomicLong totalMemoryFreed = new AtomicLong(0);
@@ -74,6 +82,10 @@ public class ModernFixPlugin extends JavaPlugin {
         // Load configuration
         saveDefaultConfig();
         config = new OptimizationConfig(getConfig());
+        chunkCache = new ChunkCacheManager(config.getChunkCacheSize());
+        
+        // Other plugins time their hot paths through the shared profiler
+        getServer().getServicesManager().register(PerformanceProfiler.class, profiler, this, ServicePriority.Normal);
         
         // Start optimization tasks
         if (config.isEntityOptimization()) {
@@ -110,6 +122,7 @@ public class ModernFixPlugin extends JavaPlugin {
         if (chunkOptimizationTask != null) chunkOptimizationTask.cancel();
         if (memoryOptimizationTask != null) memoryOptimizationTask.cancel();
         if (tickOptimizationTask != null) tickOptimizationTask.cancel();
+        getServer().getServicesManager().unregisterAll(this);
         
         // Shutdown async executor gracefully
         asyncExecutor.shutdown();
@@ -123,7 +136,7 @@ public class ModernFixPlugin extends JavaPlugin {
         }
         
         // Clear caches
-        chunkCache.clear();
+        if (chunkCache != null) chunkCache.clear();
         performanceMetrics.clear();
         
         logger.info("ModernFix отключен. Статистика:");
@@ -139,9 +152,17 @@ public class ModernFixPlugin extends JavaPlugin {
      */
     private void startEntityOptimization() {
         int intervalTicks = 600; // 30 seconds
-        entityOptimizationTask = Bukkit.getScheduler().runTaskTimer(this, 
-            this::optimizeEntities, intervalTicks, intervalTicks);
-        logger.info("Запущена оптимизация сущностей (каждые " + (intervalTicks / 20) + " секунд)");
+        entityOptimizer = new EntityOptimizer(config.getEntityMaxAge(), config.getEntitySweepBudget(),
+            config.getEntityMergeRadius(), intervalTicks, profiler);
+        // Runs every tick, but only within the sweep budget
+        entityOptimizationTask = Bukkit.getScheduler().runTaskTimer(this, () -> {
+            EntityOptimizer.OptimizationResult round = entityOptimizer.tick();
+            if (round != null) {
+                recordEntityRound(round);
+            }
+        }, 1, 1);
+        logger.info("Запущена оптимизация сущностей (каждые " + (intervalTicks / 20) + " секунд, до "
+            + config.getEntitySweepBudget() + " мкс за тик)");
     }
 
     /**
@@ -149,6 +170,17 @@ public class ModernFixPlugin extends JavaPlugin {
      * Inspired by: paper_chunk_patches/ChunkMapMixin and dynamic_resources/ModelBakeryMixin
      */
     private void startChunkOptimization() {
+        if (!chunkCacheListening) {
+            // Listeners cannot be unregistered one by one, so a reload keeps this one
+            getServer().getPluginManager().registerEvents(new ChunkCacheListener(chunkCache), this);
+            chunkCacheListening = true;
+            for (World world : Bukkit.getWorlds()) {
+                for (Chunk chunk : world.getLoadedChunks()) {
+                    chunkCache.put(chunk);
+                }
+            }
+        }
+        
         int intervalTicks = 1200; // 60 seconds
         chunkOptimizationTask = Bukkit.getScheduler().runTaskTimer(this,
             this::optimizeChunks, intervalTicks, intervalTicks);
@@ -187,84 +219,39 @@ public class ModernFixPlugin extends JavaPlugin {
     }
 
     /**
-     * Optimize entities with detailed tracking
+     * Finish the entity sweep round at once (manual optimization)
      */
     private void optimizeEntities() {
-        long startTime = System.nanoTime();
-        int removedItems = 0;
-        int totalEntities = 0;
-        int maxAge = config.getEntityMaxAge();
+        if (entityOptimizer == null) return;
         
         try {
-            for (World world : Bukkit.getWorlds()) {
-                List<Entity> entities = world.getEntities();
-                totalEntities += entities.size();
-                
-                for (Entity entity : entities) {
-                    if (entity instanceof Item) {
-                        Item item = (Item) entity;
-                        if (item.getTicksLived() > maxAge) {
-                            item.remove();
-                            removedItems++;
-                            totalEntitiesRemoved.incrementAndGet();
-                        }
-                    }
-                }
-            }
-            
-            if (removedItems > 0) {
-                long duration = (System.nanoTime() - startTime) / 1_000_000; // ms
-                totalOptimizations.addAndGet(removedItems);
-                updateMetric("entity_cleanup", duration, removedItems);
-                logger.fine(String.format("Оптимизация сущностей: удалено %d из %d за %d мс", 
-                                         removedItems, totalEntities, duration));
-            }
+            recordEntityRound(entityOptimizer.sweepAll());
         } catch (Exception e) {
             logger.warning("Ошибка оптимизации сущностей: " + e.getMessage());
         }
     }
+            
+    private void recordEntityRound(EntityOptimizer.OptimizationResult round) {
+        totalEntitiesRemoved.addAndGet(round.removed);
+        if (round.removed + round.merged > 0) {
+            totalOptimizations.addAndGet(round.removed + round.merged);
+            updateMetric("entity_cleanup", round.durationMs, round.removed + round.merged);
+        }
+        logger.fine(String.format("Оптимизация сущностей: удалено %d, объединено %d из %d за %d мс (%d тиков, %.1f мкс/тик)",
+                                 round.removed, round.merged, round.scanned, round.durationMs,
+                                 round.ticks, round.averageTickMicros));
+    }
 
     /**
-     * Optimize chunks with smart caching and unloading
+     * Report chunk cache state
+     * The cache itself is kept current by chunk load/unload events, so there is nothing to scan
      */
     private void optimizeChunks() {
         long startTime = System.nanoTime();
-        
-        for (World world : Bukkit.getWorlds()) {
-            asyncExecutor.submit(() -> {
-                try {
-                    int cachedChunks = 0;
-                    int cleanedCache = 0;
-                    Chunk[] loadedChunks = world.getLoadedChunks();
-                    
-                    // Clean up weak references in cache
-                    Iterator<Map.Entry<String, WeakReference<Chunk>>> it = chunkCache.entrySet().iterator();
-                    while (it.hasNext()) {
-                        if (it.next().getValue().get() == null) {
-                            it.remove();
-                            cleanedCache++;
-                        }
-                    }
-                    
-                    // Cache loaded chunks
-                    for (Chunk chunk : loadedChunks) {
-                        String key = world.getName() + ":" + chunk.getX() + ":" + chunk.getZ();
-                        chunkCache.put(key, new WeakReference<>(chunk));
-                        cachedChunks++;
-                    }
-                    
-                    long duration = (System.nanoTime() - startTime) / 1_000_000;
-                    updateMetric("chunk_optimization", duration, cachedChunks);
-                    
-                    if (cachedChunks > 0 || cleanedCache > 0) {
-                        logger.fine(String.format("Мир %s: кэшировано %d чанков, очищено %d ссылок за %d мс", 
-                                                 world.getName(), cachedChunks, cleanedCache, duration));
-                    }
-                } catch (Exception e) {
-                    logger.warning("Ошибка оптимизации чанков: " + e.getMessage());
-                }
-            });
-        }
+        ChunkCacheManager.CacheStats stats = chunkCache.getStats();
+        long duration = (System.nanoTime() - startTime) / 1_000_000;
+        updateMetric("chunk_optimization", duration, stats.size);
+        logger.fine("Кэш чанков: " + stats);
     }
 
     /**
@@ -281,15 +268,8 @@ public class ModernFixPlugin extends JavaPlugin {
         
         if (memoryUsagePercent > config.getMemoryThreshold()) {
             try {
-                // Clear weak references in chunk cache
-                int clearedCacheEntries = 0;
-                Iterator<Map.Entry<String, WeakReference<Chunk>>> it = chunkCache.entrySet().iterator();
-                while (it.hasNext()) {
-                    if (it.next().getValue().get() == null) {
-                        it.remove();
-                        clearedCacheEntries++;
-                    }
-                }
+                // Drop chunks that were only seen once; frequently used ones stay cached
+                int clearedCacheEntries = chunkCache.evictProbation();
                 
                 // Measure memory before GC
                 long heapBefore = memoryBean.getHeapMemoryUsage().getUsed();
@@ -388,12 +368,22 @@ public class ModernFixPlugin extends JavaPlugin {
         return totalEntitiesRemoved.get();
     }
     
+    public EntityOptimizer getEntityOptimizer() {
+        return entityOptimizer;
+    }
+    
+    public PerformanceProfiler getProfiler() {
+        return profiler;
+    }
+    
     public int getCachedChunksCount() {
-        // Clean up dead references before counting
-        chunkCache.values().removeIf(ref -> ref.get() == null);
         return chunkCache.size();
     }
     
+    public ChunkCacheManager getChunkCache() {
+        return chunkCache;
+    }
+    
     public static ModernFixPlugin getInstance() {
         return instance;
     }
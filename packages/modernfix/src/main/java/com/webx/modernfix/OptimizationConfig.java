@@ -25,6 +25,14 @@ public class OptimizationConfig {
         return config.getInt("optimizations.entity.max-age", 6000); // 5 minutes
     }
 
+    public long getEntitySweepBudget() {
+        return config.getLong("optimizations.entity.sweep-budget-us", 500); // per tick
+    }
+
+    public double getEntityMergeRadius() {
+        return config.getDouble("optimizations.entity.merge-radius", 1.5);
+    }
+
     public boolean isReduceEntityAI() {
         return config.getBoolean("optimizations.entity.reduce-ai", true);
     }
@@ -50,6 +58,10 @@ public class OptimizationConfig {
         return config.getInt("optimizations.chunk.max-simulation-distance", 8);
     }
 
+    public int getChunkCacheSize() {
+        return config.getInt("optimizations.chunk.cache-size", 4096);
+    }
+
     // Memory optimization settings
     public boolean isMemoryOptimization() {
         return config.getBoolean("optimizations.memory.enabled", true);
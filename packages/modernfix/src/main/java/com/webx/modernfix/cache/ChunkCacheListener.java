@@ -0,0 +1,57 @@
+package com.webx.modernfix.cache;
+
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps ChunkCacheManager in step with the server: loaded chunks are cached,
+ * unloaded chunks and worlds are evicted, and a player entering a chunk is a lookup,
+ * so chunks players keep coming back to are promoted out of probation
+ */
+public class ChunkCacheListener implements Listener {
+    private final ChunkCacheManager cache;
+    
+    public ChunkCacheListener(ChunkCacheManager cache) {
+        this.cache = cache;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        cache.put(event.getChunk());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        cache.remove(event.getWorld().getName(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        enter(event.getFrom(), event.getTo());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        enter(event.getFrom(), event.getTo());
+    }
+    
+    private void enter(Location from, Location to) {
+        int x = to.getBlockX() >> 4;
+        int z = to.getBlockZ() >> 4;
+        // Most moves stay within a chunk; only crossing into another one counts
+        if (x == from.getBlockX() >> 4 && z == from.getBlockZ() >> 4 && to.getWorld() == from.getWorld()) return;
+        cache.get(to.getWorld().getName(), x, z);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        cache.removeWorld(event.getWorld().getName());
+    }
+}
@@ -1,31 +1,113 @@
 package com.webx.modernfix.cache;
 
+import lxxv.shared.collection.LongIntMap;
 import org.bukkit.Chunk;
-import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Advanced chunk cache manager inspired by PackResourcesCacheEngine
- * Uses WeakReference for automatic memory management
+ * Segmented LRU bounded by entry count: new chunks enter a probation segment and move to
+ * the protected segment on their second access, so a burst of one-off chunks (flying,
+ * pregeneration) cannot push out the chunks players keep returning to. Accesses are
+ * get() calls; ChunkCacheListener makes one whenever a player enters a chunk.
+ *
+ * Entries are keyed by one long (world index + chunk coordinates) in a primitive index
+ * over fixed entry arrays, so lookups allocate nothing. Entries leave the cache when
+ * their chunk unloads (see ChunkCacheListener) or when the cache is full - never through GC.
+ * Statistics use striped counters, so concurrent readers do not contend on them.
  */
 public class ChunkCacheManager {
-    private final Map<String, WeakReference<Chunk>> cache = new ConcurrentHashMap<>();
-    private final AtomicLong hits = new AtomicLong(0);
-    private final AtomicLong misses = new AtomicLong(0);
-    private final AtomicLong evictions = new AtomicLong(0);
+    // Share of the capacity reserved for chunks accessed more than once
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int NIL = -1;
+    private static final byte FREE = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+    
+    private final int capacity;
+    private final int protectedCapacity;
+    
+    // Entry slots; next[] also links the free list
+    private final long[] keys;
+    private final Chunk[] values;
+    private final int[] prev;
+    private final int[] next;
+    private final byte[] segment;
+    private int freeHead;
+    
+    // Key -> slot; sized for the capacity, so it never grows
+    private final LongIntMap index;
+    
+    // Segment lists, most recently used first
+    private int probationHead = NIL;
+    private int probationTail = NIL;
+    private int protectedHead = NIL;
+    private int protectedTail = NIL;
+    private int size;
+    private int protectedSize;
+    
+    // World name -> index stored in the top bits of every key
+    private final Map<String, Integer> worldIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextWorldId = new AtomicInteger();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Entries pushed out because the cache was full; unloads are not counted
+    private final LongAdder evictions = new LongAdder();
+    
+    /**
+     * @param capacity Maximum number of cached chunks
+     */
+    public ChunkCacheManager(int capacity) {
+        this.capacity = Math.max(2, capacity);
+        this.protectedCapacity = Math.max(1, this.capacity * PROTECTED_PERCENT / 100);
+        this.keys = new long[this.capacity];
+        this.values = new Chunk[this.capacity];
+        this.prev = new int[this.capacity];
+        this.next = new int[this.capacity];
+        this.segment = new byte[this.capacity];
+        this.index = new LongIntMap(this.capacity);
+        resetFreeList();
+    }
     
     /**
-     * Cache a chunk with weak reference
+     * Cache a chunk
      * @param world World name
      * @param x Chunk X coordinate
      * @param z Chunk Z coordinate
      * @param chunk Chunk to cache
      */
     public void put(String world, int x, int z, Chunk chunk) {
-        String key = generateKey(world, x, z);
-        cache.put(key, new WeakReference<>(chunk));
+        long key = key(world, x, z);
+        synchronized (this) {
+            int slot = find(key);
+            if (slot != NIL) {
+                values[slot] = chunk;
+                touch(slot);
+                return;
+            }
+            if (size == capacity) {
+                // Probation goes first; protected entries only when every entry is protected
+                evict(probationTail != NIL ? probationTail : protectedTail);
+                evictions.increment();
+            }
+            slot = freeHead;
+            freeHead = next[slot];
+            keys[slot] = key;
+            values[slot] = chunk;
+            segment[slot] = PROBATION;
+            pushFront(slot);
+            index.put(key, slot, NIL);
+            size++;
+        }
+    }
+    
+    public void put(Chunk chunk) {
+        put(chunk.getWorld().getName(), chunk.getX(), chunk.getZ(), chunk);
     }
     
     /**
@@ -33,96 +115,216 @@ public class ChunkCacheManager {
      * @param world World name
      * @param x Chunk X coordinate
      * @param z Chunk Z coordinate
-     * @return Cached chunk or null if not found/evicted
+     * @return Cached chunk or null if not cached
      */
     public Chunk get(String world, int x, int z) {
-        String key = generateKey(world, x, z);
-        WeakReference<Chunk> ref = cache.get(key);
-        
-        if (ref == null) {
-            misses.incrementAndGet();
+        Integer worldId = worldIds.get(world);
+        if (worldId == null) {
+            misses.increment();
             return null;
         }
-        
-        Chunk chunk = ref.get();
-        if (chunk == null) {
-            misses.incrementAndGet();
-            cache.remove(key);
-            evictions.incrementAndGet();
-            return null;
+        long key = key(worldId, x, z);
+        synchronized (this) {
+            int slot = find(key);
+            if (slot == NIL) {
+                misses.increment();
+                return null;
+            }
+            touch(slot);
+            hits.increment();
+            return values[slot];
         }
-        
-        hits.incrementAndGet();
-        return chunk;
     }
     
     /**
-     * Remove chunk from cache
+     * Remove chunk from cache (chunk unloaded)
      */
     public void remove(String world, int x, int z) {
-        String key = generateKey(world, x, z);
-        cache.remove(key);
+        Integer worldId = worldIds.get(world);
+        if (worldId == null) return;
+        
+        long key = key(worldId, x, z);
+        synchronized (this) {
+            int slot = find(key);
+            if (slot != NIL) {
+                evict(slot);
+            }
+        }
     }
     
     /**
-     * Clean up evicted references
-     * @return Number of cleaned entries
+     * Remove every chunk of a world (world unloaded)
+     * @return Number of removed entries
      */
-    public int cleanup() {
-        int cleaned = 0;
-        var iterator = cache.entrySet().iterator();
-        while (iterator.hasNext()) {
-            var entry = iterator.next();
-            if (entry.getValue().get() == null) {
-                iterator.remove();
-                cleaned++;
-                evictions.incrementAndGet();
+    public int removeWorld(String world) {
+        Integer worldId = worldIds.get(world);
+        if (worldId == null) return 0;
+        
+        int removed = 0;
+        synchronized (this) {
+            for (int slot = 0; slot < capacity; slot++) {
+                if (segment[slot] != FREE && (int) (keys[slot] >>> 48) == worldId) {
+                    evict(slot);
+                    removed++;
+                }
             }
         }
-        return cleaned;
+        return removed;
+    }
+    
+    /**
+     * Drop chunks that were only accessed once (memory pressure)
+     * @return Number of removed entries
+     */
+    public synchronized int evictProbation() {
+        int removed = 0;
+        while (probationTail != NIL) {
+            evict(probationTail);
+            removed++;
+        }
+        return removed;
     }
     
     /**
      * Clear entire cache
      */
     public void clear() {
-        cache.clear();
-        hits.set(0);
-        misses.set(0);
-        evictions.set(0);
+        synchronized (this) {
+            Arrays.fill(values, null);
+            Arrays.fill(segment, FREE);
+            index.clear();
+            probationHead = probationTail = protectedHead = protectedTail = NIL;
+            size = 0;
+            protectedSize = 0;
+            resetFreeList();
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
     }
     
     /**
-     * Get cache size (excluding evicted entries)
+     * Get cache size
      */
-    public int size() {
-        cleanup();
-        return cache.size();
+    public synchronized int size() {
+        return size;
+    }
+    
+    public int getCapacity() {
+        return capacity;
     }
     
     /**
      * Get cache hit rate
      */
     public double getHitRate() {
-        long totalRequests = hits.get() + misses.get();
-        return totalRequests > 0 ? (double) hits.get() / totalRequests * 100 : 0;
+        long hitCount = hits.sum();
+        long totalRequests = hitCount + misses.sum();
+        return totalRequests > 0 ? (double) hitCount / totalRequests * 100 : 0;
     }
     
     /**
      * Get cache statistics
      */
     public CacheStats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long totalRequests = hitCount + missCount;
         return new CacheStats(
-            cache.size(),
-            hits.get(),
-            misses.get(),
-            evictions.get(),
-            getHitRate()
+            size(),
+            hitCount,
+            missCount,
+            evictions.sum(),
+            totalRequests > 0 ? (double) hitCount / totalRequests * 100 : 0
         );
     }
     
-    private String generateKey(String world, int x, int z) {
-        return world + ":" + x + ":" + z;
+    private long key(String world, int x, int z) {
+        return key(worldIds.computeIfAbsent(world, w -> nextWorldId.getAndIncrement() & 0xFFFF), x, z);
+    }
+    
+    // World index (16 bits), chunk X and Z (24 bits each - beyond the world border)
+    private static long key(int worldId, int x, int z) {
+        return ((long) worldId << 48) | ((long) (x & 0xFFFFFF) << 24) | (z & 0xFFFFFF);
+    }
+    
+    private int find(long key) {
+        return index.get(key, NIL);
+    }
+    
+    /**
+     * Record an access: probation entries are promoted, protected ones move to the front
+     */
+    private void touch(int slot) {
+        unlink(slot);
+        if (segment[slot] == PROBATION) {
+            segment[slot] = PROTECTED;
+            protectedSize++;
+            if (protectedSize > protectedCapacity) {
+                // Demoted entries get another chance in probation
+                int demoted = protectedTail;
+                unlink(demoted);
+                protectedSize--;
+                segment[demoted] = PROBATION;
+                pushFront(demoted);
+            }
+        }
+        pushFront(slot);
+    }
+    
+    private void evict(int slot) {
+        unlink(slot);
+        if (segment[slot] == PROTECTED) {
+            protectedSize--;
+        }
+        index.remove(keys[slot], NIL);
+        segment[slot] = FREE;
+        values[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+    
+    private void pushFront(int slot) {
+        prev[slot] = NIL;
+        if (segment[slot] == PROTECTED) {
+            next[slot] = protectedHead;
+            if (protectedHead != NIL) prev[protectedHead] = slot;
+            protectedHead = slot;
+            if (protectedTail == NIL) protectedTail = slot;
+        } else {
+            next[slot] = probationHead;
+            if (probationHead != NIL) prev[probationHead] = slot;
+            probationHead = slot;
+            if (probationTail == NIL) probationTail = slot;
+        }
+    }
+    
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        boolean isProtected = segment[slot] == PROTECTED;
+        if (before != NIL) {
+            next[before] = after;
+        } else if (isProtected) {
+            protectedHead = after;
+        } else {
+            probationHead = after;
+        }
+        if (after != NIL) {
+            prev[after] = before;
+        } else if (isProtected) {
+            protectedTail = before;
+        } else {
+            probationTail = before;
+        }
+    }
+    
+    private void resetFreeList() {
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : NIL;
+        }
+        freeHead = 0;
     }
     
     /**
@@ -1,49 +1,181 @@
 package com.webx.modernfix.optimization;
 
+import com.webx.modernfix.profiler.PerformanceProfiler;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.*;
+import org.bukkit.inventory.ItemStack;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Entity optimization manager inspired by faster_item_rendering and ticking_chunk_alloc
  * Provides intelligent entity cleanup and tracking
+ *
+ * Incremental sweeper: every round visits all loaded chunks, a few per tick, until a
+ * microsecond budget is spent, so no tick pays for the whole world. Each chunk only reads
+ * its own entities instead of copying the world's entity list. Old drops are removed and
+ * nearby item and experience stacks are merged. Runs on the main thread.
  */
 public class EntityOptimizer {
     private final int maxItemAge;
-    private final Map<EntityType, EntityStats> entityStats = new HashMap<>();
+    private final long budgetNanos;
+    private final double mergeRadius;
+    private final int roundInterval;
+    private final Supplier<List<World>> worlds;
+    // Every tick's slice of a round
+    private final PerformanceProfiler.ProfilerEntry sweepProfile;
+    private final Map<EntityType, EntityStats> entityStats = new ConcurrentHashMap<>();
     
-    public EntityOptimizer(int maxItemAge) {
+    // Chunks left in the current round
+    private final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+    private int ticksSinceRound;
+    private boolean inRound;
+    
+    // Current round totals
+    private long roundNanos;
+    private int roundTicks;
+    private int roundScanned;
+    private int roundRemoved;
+    private int roundMerged;
+    // World name -> chunk key -> entities; filled during a round, published when it ends
+    private Map<String, Map<Long, Integer>> roundDensity = new HashMap<>();
+    private volatile Map<String, Map<Long, Integer>> density = Collections.emptyMap();
+    private volatile OptimizationResult lastRound;
+    
+    /**
+     * @param maxItemAge Ticks before a drop is removed (arrows: half)
+     * @param budgetMicros Sweep time allowed per tick
+     * @param mergeRadius Cell size for merging stacks, 0 disables merging
+     * @param roundInterval Minimum ticks between round starts
+     * @param profiler Receives the cost of every tick's sweep as "entity_sweep"
+     */
+    public EntityOptimizer(int maxItemAge, long budgetMicros, double mergeRadius, int roundInterval,
+                           PerformanceProfiler profiler) {
+        this(maxItemAge, budgetMicros, mergeRadius, roundInterval, profiler, Bukkit::getWorlds);
+    }
+    
+    EntityOptimizer(int maxItemAge, long budgetMicros, double mergeRadius, int roundInterval,
+                    PerformanceProfiler profiler, Supplier<List<World>> worlds) {
         this.maxItemAge = maxItemAge;
+        this.budgetNanos = Math.max(1, budgetMicros) * 1000;
+        this.mergeRadius = mergeRadius;
+        this.roundInterval = roundInterval;
+        this.sweepProfile = profiler.entry("entity_sweep");
+        this.worlds = worlds;
+    }
+    
+    /**
+     * Sweep chunks until this tick's budget is spent (call every tick)
+     * @return Result of the round if it finished during this tick, otherwise null
+     */
+    public OptimizationResult tick() {
+        ticksSinceRound++;
+        if (!inRound) {
+            if (ticksSinceRound < roundInterval) return null;
+            startRound();
+        }
+        
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        int scannedBefore = roundScanned;
+        // Always at least one chunk, so a round finishes even with a tiny budget
+        do {
+            Chunk chunk = pending.poll();
+            if (chunk == null) break;
+            if (chunk.isLoaded()) {
+                sweep(chunk);
+            }
+        } while (System.nanoTime() < deadline);
+        
+        long elapsed = System.nanoTime() - start;
+        sweepProfile.record(elapsed, roundScanned - scannedBefore);
+        roundNanos += elapsed;
+        roundTicks++;
+        return pending.isEmpty() ? finishRound() : null;
+    }
+    
+    /**
+     * Finish the current round (or a whole new one) without a time budget
+     * @return Result of the round
+     */
+    public OptimizationResult sweepAll() {
+        if (!inRound) {
+            startRound();
+        }
+        long start = System.nanoTime();
+        Chunk chunk;
+        while ((chunk = pending.poll()) != null) {
+            if (chunk.isLoaded()) {
+                sweep(chunk);
+            }
+        }
+        roundNanos += System.nanoTime() - start;
+        roundTicks++;
+        return finishRound();
+    }
+    
+    private void startRound() {
+        // Only the chunk arrays are copied, once per round
+        for (World world : worlds.get()) {
+            Collections.addAll(pending, world.getLoadedChunks());
+        }
+        inRound = true;
+        ticksSinceRound = 0;
+        roundNanos = 0;
+        roundTicks = 0;
+        roundScanned = 0;
+        roundRemoved = 0;
+        roundMerged = 0;
+        roundDensity = new HashMap<>();
+    }
+    
+    private OptimizationResult finishRound() {
+        inRound = false;
+        density = roundDensity;
+        OptimizationResult result = new OptimizationResult(roundScanned, roundRemoved, roundMerged,
+            roundNanos / 1_000_000, roundTicks, roundNanos / 1000.0 / Math.max(1, roundTicks));
+        lastRound = result;
+        return result;
     }
     
     /**
-     * Optimize entities in a world
-     * @param world World to optimize
-     * @return Optimization result
+     * Clean up and merge the entities of one chunk
      */
-    public OptimizationResult optimize(World world) {
-        long startTime = System.nanoTime();
-        AtomicInteger removed = new AtomicInteger(0);
-        AtomicInteger scanned = new AtomicInteger(0);
+    private void sweep(Chunk chunk) {
+        Entity[] entities = chunk.getEntities();
+        roundScanned += entities.length;
+        if (entities.length > 0) {
+            roundDensity.computeIfAbsent(chunk.getWorld().getName(), w -> new HashMap<>())
+                .put(chunkKey(chunk.getX(), chunk.getZ()), entities.length);
+        }
         
-        List<Entity> entities = world.getEntities();
-        scanned.set(entities.size());
+        // Merge cell -> stack that others in the cell are merged into
+        MergeCells<Item> itemAnchors = null;
+        MergeCells<ExperienceOrb> orbAnchors = null;
         
         for (Entity entity : entities) {
-            scanned.incrementAndGet();
-            
-            // Track entity types
             EntityType type = entity.getType();
-            entityStats.computeIfAbsent(type, k -> new EntityStats()).increment();
+            EntityStats stats = entityStats.computeIfAbsent(type, k -> new EntityStats());
+            stats.increment();
             
-            // Remove old items
+            // Remove old items, merge the rest
             if (entity instanceof Item) {
                 Item item = (Item) entity;
                 if (item.getTicksLived() > maxItemAge) {
                     item.remove();
-                    removed.incrementAndGet();
-                    entityStats.get(type).incrementRemoved();
+                    roundRemoved++;
+                    stats.incrementRemoved();
+                } else if (mergeRadius > 0) {
+                    if (itemAnchors == null) itemAnchors = new MergeCells<>(mergeRadius);
+                    if (mergeItem(itemAnchors, item)) {
+                        roundMerged++;
+                        stats.incrementMerged();
+                    }
                 }
             }
             
@@ -52,24 +184,113 @@ public class EntityOptimizer {
                 Arrow arrow = (Arrow) entity;
                 if (arrow.getTicksLived() > maxItemAge / 2) {
                     arrow.remove();
-                    removed.incrementAndGet();
-                    entityStats.get(type).incrementRemoved();
+                    roundRemoved++;
+                    stats.incrementRemoved();
                 }
             }
             
-            // Remove old experience orbs
+            // Remove old experience orbs, merge the rest
             else if (entity instanceof ExperienceOrb) {
                 ExperienceOrb orb = (ExperienceOrb) entity;
                 if (orb.getTicksLived() > maxItemAge) {
                     orb.remove();
-                    removed.incrementAndGet();
-                    entityStats.get(type).incrementRemoved();
+                    roundRemoved++;
+                    stats.incrementRemoved();
+                } else if (mergeRadius > 0) {
+                    if (orbAnchors == null) orbAnchors = new MergeCells<>(mergeRadius);
+                    if (mergeOrb(orbAnchors, orb)) {
+                        roundMerged++;
+                        stats.incrementMerged();
+                    }
                 }
             }
         }
+    }
+    
+    /**
+     * Merge an item into an earlier similar stack of its cell
+     * @return true if the item was merged and removed
+     */
+    private boolean mergeItem(MergeCells<Item> anchors, Item item) {
+        // Display items of other plugins never get picked up; leave them alone
+        if (item.getPickupDelay() >= Short.MAX_VALUE) return false;
         
-        long duration = (System.nanoTime() - startTime) / 1_000_000; // ms
-        return new OptimizationResult(scanned.get(), removed.get(), duration);
+        ItemStack stack = item.getItemStack();
+        Location location = item.getLocation();
+        int type = stack.getType().ordinal();
+        Item anchor = anchors.get(location, type);
+        if (anchor != null) {
+            ItemStack target = anchor.getItemStack();
+            int total = target.getAmount() + stack.getAmount();
+            // Stacks reserved for or dropped by different players stay apart, like vanilla merging
+            if (target.isSimilar(stack) && total <= target.getMaxStackSize()
+                    && Objects.equals(anchor.getOwner(), item.getOwner())
+                    && Objects.equals(anchor.getThrower(), item.getThrower())) {
+                target.setAmount(total);
+                anchor.setItemStack(target);
+                // The merged stack lives as long as its younger part
+                anchor.setTicksLived(Math.max(1, Math.min(anchor.getTicksLived(), item.getTicksLived())));
+                item.remove();
+                return true;
+            }
+        }
+        // A full or different stack hands the cell over to this one
+        anchors.put(location, type, item);
+        return false;
+    }
+    
+    /**
+     * Merge an experience orb into an earlier orb of its cell
+     * @return true if the orb was merged and removed
+     */
+    private boolean mergeOrb(MergeCells<ExperienceOrb> anchors, ExperienceOrb orb) {
+        Location location = orb.getLocation();
+        ExperienceOrb anchor = anchors.get(location, 0);
+        if (anchor == null) {
+            anchors.put(location, 0, orb);
+            return false;
+        }
+        anchor.setExperience(anchor.getExperience() + orb.getExperience());
+        orb.remove();
+        return true;
+    }
+    
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Entities in a chunk at its last visit (0 if none or not visited)
+     */
+    public int getDensity(String world, int x, int z) {
+        Map<Long, Integer> chunks = density.get(world);
+        Integer count = chunks != null ? chunks.get(chunkKey(x, z)) : null;
+        return count != null ? count : 0;
+    }
+    
+    /**
+     * Most crowded chunks of the last finished round, densest first
+     */
+    public List<ChunkDensity> getDensestChunks(int limit) {
+        PriorityQueue<ChunkDensity> top = new PriorityQueue<>(Comparator.comparingInt(d -> d.entities));
+        density.forEach((world, chunks) -> chunks.forEach((key, count) -> {
+            if (top.size() < limit) {
+                top.add(new ChunkDensity(world, (int) (key >> 32), (int) (long) key, count));
+            } else if (limit > 0 && count > top.peek().entities) {
+                top.poll();
+                top.add(new ChunkDensity(world, (int) (key >> 32), (int) (long) key, count));
+            }
+        }));
+        List<ChunkDensity> result = new ArrayList<>(top);
+        result.sort((a, b) -> Integer.compare(b.entities, a.entities));
+        return result;
+    }
+    
+    /**
+     * Result of the last finished round, or null before the first
+     */
+    public OptimizationResult getLastRound() {
+        return lastRound;
     }
     
     /**
@@ -86,42 +307,111 @@ public class EntityOptimizer {
         entityStats.clear();
     }
     
+    /**
+     * Merge anchors of one chunk by cell
+     * Every axis keeps its full int cell coordinate: y and the type discriminator pick a
+     * layer, x and z are packed into the layer's key, so no two cells share a key however
+     * small the merge radius is
+     */
+    static final class MergeCells<T> {
+        private final double size;
+        private final Map<Long, Map<Long, T>> layers = new HashMap<>();
+        
+        MergeCells(double size) {
+            this.size = size;
+        }
+        
+        T get(Location location, int type) {
+            Map<Long, T> layer = layers.get(layerKey(location, type));
+            return layer != null ? layer.get(columnKey(location)) : null;
+        }
+        
+        void put(Location location, int type, T anchor) {
+            layers.computeIfAbsent(layerKey(location, type), k -> new HashMap<>()).put(columnKey(location), anchor);
+        }
+        
+        private long layerKey(Location location, int type) {
+            return ((long) type << 32) | (cell(location.getY()) & 0xFFFFFFFFL);
+        }
+        
+        private long columnKey(Location location) {
+            return ((long) cell(location.getX()) << 32) | (cell(location.getZ()) & 0xFFFFFFFFL);
+        }
+        
+        private int cell(double coordinate) {
+            return (int) Math.floor(coordinate / size);
+        }
+    }
+    
     /**
      * Entity statistics holder
      */
     public static class EntityStats {
-        private int count = 0;
-        private int removed = 0;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger removed = new AtomicInteger();
+        private final AtomicInteger merged = new AtomicInteger();
         
-        public void increment() { count++; }
-        public void incrementRemoved() { removed++; }
-        public int getCount() { return count; }
-        public int getRemoved() { return removed; }
+        public void increment() { count.incrementAndGet(); }
+        public void incrementRemoved() { removed.incrementAndGet(); }
+        public void incrementMerged() { merged.incrementAndGet(); }
+        public int getCount() { return count.get(); }
+        public int getRemoved() { return removed.get(); }
+        public int getMerged() { return merged.get(); }
+        
+        @Override
+        public String toString() {
+            return String.format("Total: %d, Removed: %d, Merged: %d", count.get(), removed.get(), merged.get());
+        }
+    }
+    
+    /**
+     * Entity count of one chunk
+     */
+    public static class ChunkDensity {
+        public final String world;
+        public final int x;
+        public final int z;
+        public final int entities;
+        
+        public ChunkDensity(String world, int x, int z, int entities) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+            this.entities = entities;
+        }
         
         @Override
         public String toString() {
-            return String.format("Total: %d, Removed: %d", count, removed);
+            return String.format("%s [%d, %d]: %d", world, x, z, entities);
         }
     }
     
     /**
-     * Optimization result holder
+     * Optimization result holder (one sweep round)
      */
     public static class OptimizationResult {
         public final int scanned;
         public final int removed;
+        public final int merged;
         public final long durationMs;
+        public final int ticks;
+        // Sweep time per tick the round was spread over
+        public final double averageTickMicros;
         
-        public OptimizationResult(int scanned, int removed, long durationMs) {
+        public OptimizationResult(int scanned, int removed, int merged, long durationMs, int ticks,
+                                  double averageTickMicros) {
             this.scanned = scanned;
             this.removed = removed;
+            this.merged = merged;
             this.durationMs = durationMs;
+            this.ticks = ticks;
+            this.averageTickMicros = averageTickMicros;
         }
         
         @Override
         public String toString() {
-            return String.format("Scanned: %d, Removed: %d, Duration: %dms",
-                scanned, removed, durationMs);
+            return String.format("Scanned: %d, Removed: %d, Merged: %d, Duration: %dms over %d ticks (%.1fµs/tick)",
+                scanned, removed, merged, durationMs, ticks, averageTickMicros);
         }
     }
 }
@@ -0,0 +1,145 @@
+package com.webx.modernfix.profiler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency distribution in nanoseconds, HdrHistogram style
+ * Buckets are linear below 32 ns and log-linear above: every power of two is split into
+ * 32 sub-buckets, so a bucket is never wider than ~3% of its values. 1152 buckets cover
+ * 0 ns up to 2^40 ns (~18 minutes); longer durations land in the last bucket.
+ *
+ * Instances are merged snapshots - recording goes through ProfilerEntry, which keeps
+ * the live counters per thread.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS) * SUB_BUCKETS;
+    
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    
+    LatencyHistogram(long[] counts, long totalNanos, long maxNanos) {
+        long sum = 0;
+        for (long c : counts) {
+            sum += c;
+        }
+        this.counts = counts;
+        this.count = sum;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+    
+    /**
+     * Bucket of a duration
+     */
+    static int index(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((nanos >>> shift) - SUB_BUCKETS);
+    }
+    
+    /**
+     * Largest duration that falls into a bucket
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long sub = SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+    
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+    
+    public double getMeanNanos() {
+        return count > 0 ? (double) totalNanos / count : 0;
+    }
+    
+    /**
+     * Duration below which the given share of measurements fall
+     * @param percentile 0-100
+     * @return Upper bound of the matching bucket (never above the maximum), 0 if empty
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+        
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+    
+    /**
+     * Non-empty buckets as [highest value ns, count] pairs, ascending
+     */
+    public List<long[]> getBuckets() {
+        List<long[]> buckets = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                buckets.add(new long[] { highestValue(i), counts[i] });
+            }
+        }
+        return buckets;
+    }
+    
+    /**
+     * Plain maps and lists, ready for JSON
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", count);
+        map.put("meanNs", Math.round(getMeanNanos()));
+        map.put("p50Ns", getPercentile(50));
+        map.put("p95Ns", getPercentile(95));
+        map.put("p99Ns", getPercentile(99));
+        map.put("maxNs", maxNanos);
+        map.put("buckets", getBuckets());
+        return map;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("n=%d, p50=%s, p95=%s, p99=%s, max=%s", count,
+            formatNanos(getPercentile(50)), formatNanos(getPercentile(95)),
+            formatNanos(getPercentile(99)), formatNanos(maxNanos));
+    }
+    
+    /**
+     * Human readable duration: ns, µs, ms or s
+     */
+    public static String formatNanos(long nanos) {
+        if (nanos < 1_000) return nanos + "ns";
+        if (nanos < 1_000_000) return String.format("%.1fµs", nanos / 1_000.0);
+        if (nanos < 1_000_000_000) return String.format("%.2fms", nanos / 1_000_000.0);
+        return String.format("%.2fs", nanos / 1_000_000_000.0);
+    }
+}
@@ -1,16 +1,36 @@
 package com.webx.modernfix.profiler;
 
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Performance profiler inspired by SparkLaunchProfiler
  * Tracks operation timings and provides detailed statistics
+ *
+ * Durations are recorded in nanoseconds into latency histograms (see LatencyHistogram).
+ * Every thread records into its own counters, which are only merged when read, so
+ * recording takes no lock and never contends with other threads. Percentiles are kept
+ * over a rolling window of up to WINDOW_SECONDS, in SLOT_SECONDS slots.
+ *
+ * Other plugins can time their own hot paths:
+ * <pre>
+ * try (PerformanceProfiler.Timer timer = profiler.time("my_plugin.task")) {
+ *     ...
+ * }
+ * </pre>
  */
 public class PerformanceProfiler {
+    public static final int SLOT_SECONDS = 10;
+    public static final int WINDOW_SECONDS = 60;
+    // The slot being filled plus the complete ones of the window
+    private static final int SLOTS = WINDOW_SECONDS / SLOT_SECONDS + 1;
+    private static final long SLOT_NANOS = SLOT_SECONDS * 1_000_000_000L;
+    
     private final Map<String, ProfilerEntry> entries = new ConcurrentHashMap<>();
-    private final AtomicLong totalMeasurements = new AtomicLong(0);
     
     /**
      * Start profiling an operation
@@ -28,20 +48,34 @@ public class PerformanceProfiler {
      * @param itemsProcessed Number of items processed (optional, use 0 if N/A)
      */
     public void stop(String operationName, long startTime, int itemsProcessed) {
-        long duration = (System.nanoTime() - startTime) / 1_000_000; // ms
-        record(operationName, duration, itemsProcessed);
+        long now = System.nanoTime();
+        entry(operationName).record(now - startTime, itemsProcessed, now);
     }
     
     /**
      * Record a measurement manually
      * @param operationName Operation name
-     * @param durationMs Duration in milliseconds
+     * @param durationNanos Duration in nanoseconds
      * @param itemsProcessed Number of items processed
      */
-    public void record(String operationName, long durationMs, int itemsProcessed) {
-        entries.computeIfAbsent(operationName, k -> new ProfilerEntry(k))
-               .addMeasurement(durationMs, itemsProcessed);
-        totalMeasurements.incrementAndGet();
+    public void recordNanos(String operationName, long durationNanos, int itemsProcessed) {
+        entry(operationName).record(durationNanos, itemsProcessed);
+    }
+    
+    /**
+     * Time an operation until the returned timer is closed
+     */
+    public Timer time(String operationName) {
+        return entry(operationName).time();
+    }
+    
+    /**
+     * Get or create the entry of an operation
+     * Hot paths can keep the entry and call its time() / record() to skip the name lookup.
+     */
+    public ProfilerEntry entry(String operationName) {
+        ProfilerEntry entry = entries.get(operationName);
+        return entry != null ? entry : entries.computeIfAbsent(operationName, ProfilerEntry::new);
     }
     
     /**
@@ -52,18 +86,18 @@ public class PerformanceProfiler {
     }
     
     /**
-     * Get all profiler entries
+     * Get all profiler entries (live, read-only view)
      */
     public Map<String, ProfilerEntry> getAllEntries() {
-        return new ConcurrentHashMap<>(entries);
+        return Collections.unmodifiableMap(entries);
     }
     
     /**
      * Reset all statistics
+     * Entries held by callers stay usable but are no longer reported.
      */
     public void reset() {
         entries.clear();
-        totalMeasurements.set(0);
     }
     
     /**
@@ -77,7 +111,32 @@ public class PerformanceProfiler {
      * Get total number of measurements
      */
     public long getTotalMeasurements() {
-        return totalMeasurements.get();
+        long total = 0;
+        for (ProfilerEntry entry : entries.values()) {
+            total += entry.getExecutionCount();
+        }
+        return total;
+    }
+    
+    /**
+     * Histograms of every operation over a rolling window, as plain maps and lists for JSON
+     * @param windowSeconds Window length, see ProfilerEntry.snapshot()
+     */
+    public List<Map<String, Object>> export(int windowSeconds) {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        entries.values().stream()
+            .sorted(Comparator.comparing(ProfilerEntry::getOperationName))
+            .forEach(entry -> {
+                Map<String, Object> operation = new LinkedHashMap<>();
+                operation.put("name", entry.getOperationName());
+                operation.put("totalCount", entry.getExecutionCount());
+                operation.put("totalNs", entry.getTotalNanos());
+                operation.put("totalItems", entry.getTotalItems());
+                operation.put("maxNs", entry.getMaxNanos());
+                operation.put("window", entry.snapshot(windowSeconds).toMap());
+                operations.add(operation);
+            });
+        return operations;
     }
     
     /**
@@ -86,82 +145,322 @@ public class PerformanceProfiler {
     public String getSummary() {
         StringBuilder sb = new StringBuilder();
         sb.append("=== Performance Profile ===\n");
-        sb.append(String.format("Total measurements: %d\n", totalMeasurements.get()));
-        sb.append("\nOperations:\n");
+        sb.append(String.format("Total measurements: %d\n", getTotalMeasurements()));
+        sb.append(String.format("\nOperations (last %ds):\n", WINDOW_SECONDS));
         
         entries.values().stream()
-            .sorted((a, b) -> Long.compare(b.getTotalDuration(), a.getTotalDuration()))
+            .sorted((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()))
             .forEach(entry -> sb.append("  ").append(entry.toString()).append("\n"));
         
         return sb.toString();
     }
     
+    /**
+     * Measures from creation until close; not reusable
+     */
+    public static final class Timer implements AutoCloseable {
+        private final ProfilerEntry entry;
+        private final long startTime = System.nanoTime();
+        private int items;
+        
+        private Timer(ProfilerEntry entry) {
+            this.entry = entry;
+        }
+        
+        /**
+         * Count processed items for this measurement
+         */
+        public Timer addItems(int count) {
+            items += count;
+            return this;
+        }
+        
+        @Override
+        public void close() {
+            long now = System.nanoTime();
+            entry.record(now - startTime, items, now);
+        }
+    }
+    
     /**
      * Profiler entry for a single operation
+     * Holds one Recorder per live thread that recorded it. Recorders of threads that have
+     * ended are folded into a single retired one, so thread pools that replace their
+     * workers do not grow the entry.
      */
     public static class ProfilerEntry {
         private final String operationName;
-        private final AtomicLong totalDuration = new AtomicLong(0);
-        private final AtomicLong totalItems = new AtomicLong(0);
-        private final AtomicLong executionCount = new AtomicLong(0);
-        private volatile long minDuration = Long.MAX_VALUE;
-        private volatile long maxDuration = 0;
-        private volatile long lastExecutionTime = 0;
-        private volatile long firstExecutionTime = 0;
+        private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+        // Only written while holding the entry's lock
+        private final Recorder retired = new Recorder(null);
+        private final ThreadLocal<Recorder> local = ThreadLocal.withInitial(this::register);
         
         public ProfilerEntry(String operationName) {
             this.operationName = operationName;
         }
         
-        public void addMeasurement(long durationMs, int itemsProcessed) {
-            totalDuration.addAndGet(durationMs);
-            totalItems.addAndGet(itemsProcessed);
-            long count = executionCount.incrementAndGet();
-            lastExecutionTime = System.currentTimeMillis();
-            
-            if (count == 1) {
-                firstExecutionTime = lastExecutionTime;
+        private synchronized Recorder register() {
+            retireEnded();
+            Recorder recorder = new Recorder(Thread.currentThread());
+            recorders.add(recorder);
+            return recorder;
+        }
+        
+        /**
+         * Fold the counters of ended threads into the retired recorder
+         * Readers hold the same lock, so no reader sees a recorder twice or not at all.
+         */
+        private void retireEnded() {
+            for (Recorder recorder : recorders) {
+                if (!recorder.owner.isAlive()) {
+                    retired.absorb(recorder);
+                    recorders.remove(recorder);
+                }
             }
-            
-            // Update min/max atomically
-            synchronized (this) {
-                if (durationMs < minDuration) minDuration = durationMs;
-                if (durationMs > maxDuration) maxDuration = durationMs;
+        }
+        
+        /**
+         * Recorders currently kept, the retired one included
+         */
+        synchronized int getRecorderCount() {
+            retireEnded();
+            return recorders.size() + 1;
+        }
+        
+        /**
+         * Histogram buckets allocated by all recorders, the retired one included
+         */
+        synchronized int getAllocatedBuckets() {
+            retireEnded();
+            int sum = retired.allocatedBuckets();
+            for (Recorder recorder : recorders) sum += recorder.allocatedBuckets();
+            return sum;
+        }
+        
+        public Timer time() {
+            return new Timer(this);
+        }
+        
+        public void record(long durationNanos, int itemsProcessed) {
+            record(durationNanos, itemsProcessed, System.nanoTime());
+        }
+        
+        private void record(long durationNanos, int itemsProcessed, long now) {
+            local.get().record(Math.max(0, durationNanos), itemsProcessed, Math.floorDiv(now, SLOT_NANOS));
+        }
+        
+        /**
+         * Merge every thread's counters of the last windowSeconds
+         * @param windowSeconds Rounded up to whole slots, plus the slot being filled
+         *                      (at most WINDOW_SECONDS)
+         */
+        public synchronized LatencyHistogram snapshot(int windowSeconds) {
+            retireEnded();
+            int complete = Math.max(0, Math.min(SLOTS - 1, (windowSeconds + SLOT_SECONDS - 1) / SLOT_SECONDS));
+            long newest = Math.floorDiv(System.nanoTime(), SLOT_NANOS);
+            long[] counts = new long[LatencyHistogram.BUCKETS];
+            long[] totals = new long[2];
+            retired.mergeInto(counts, totals, newest - complete, newest);
+            for (Recorder recorder : recorders) {
+                recorder.mergeInto(counts, totals, newest - complete, newest);
             }
+            return new LatencyHistogram(counts, totals[0], totals[1]);
         }
         
         public String getOperationName() { return operationName; }
-        public long getTotalDuration() { return totalDuration.get(); }
-        public long getTotalItems() { return totalItems.get(); }
-        public long getExecutionCount() { return executionCount.get(); }
-        public long getMinDuration() { return minDuration == Long.MAX_VALUE ? 0 : minDuration; }
-        public long getMaxDuration() { return maxDuration; }
-        public long getLastExecutionTime() { return lastExecutionTime; }
-        public long getFirstExecutionTime() { return firstExecutionTime; }
         
-        public double getAverageDuration() {
-            long count = executionCount.get();
-            return count > 0 ? (double) totalDuration.get() / count : 0;
+        public synchronized long getExecutionCount() {
+            retireEnded();
+            long sum = retired.count.get();
+            for (Recorder recorder : recorders) sum += recorder.count.get();
+            return sum;
         }
         
-        public double getAverageItems() {
-            long count = executionCount.get();
-            return count > 0 ? (double) totalItems.get() / count : 0;
+        public synchronized long getTotalNanos() {
+            retireEnded();
+            long sum = retired.totalNanos.get();
+            for (Recorder recorder : recorders) sum += recorder.totalNanos.get();
+            return sum;
+        }
+        
+        public synchronized long getTotalItems() {
+            retireEnded();
+            long sum = retired.totalItems.get();
+            for (Recorder recorder : recorders) sum += recorder.totalItems.get();
+            return sum;
+        }
+        
+        public synchronized long getMaxNanos() {
+            retireEnded();
+            long max = retired.maxNanos.get();
+            for (Recorder recorder : recorders) max = Math.max(max, recorder.maxNanos.get());
+            return max;
+        }
+        
+        public double getAverageNanos() {
+            long count = getExecutionCount();
+            return count > 0 ? (double) getTotalNanos() / count : 0;
         }
         
-        public double getItemsPerSecond() {
-            if (firstExecutionTime == 0 || lastExecutionTime == 0) return 0;
-            long timeSpanMs = lastExecutionTime - firstExecutionTime;
-            if (timeSpanMs == 0) return 0;
-            return (double) totalItems.get() / timeSpanMs * 1000;
+        public double getAverageItems() {
+            long count = getExecutionCount();
+            return count > 0 ? (double) getTotalItems() / count : 0;
         }
         
         @Override
         public String toString() {
-            return String.format("%s: Exec=%d, Avg=%.2fms, Min=%dms, Max=%dms, Total=%dms, Items=%d (%.1f/s)",
-                operationName, executionCount.get(), getAverageDuration(),
-                getMinDuration(), getMaxDuration(), totalDuration.get(),
-                totalItems.get(), getItemsPerSecond());
+            return String.format("%s: Exec=%d, Avg=%s, Max=%s, Items=%d, window: %s",
+                operationName, getExecutionCount(), LatencyHistogram.formatNanos(Math.round(getAverageNanos())),
+                LatencyHistogram.formatNanos(getMaxNanos()), getTotalItems(), snapshot(WINDOW_SECONDS));
+        }
+    }
+    
+    /**
+     * Counters of one thread for one operation
+     * Only the owning thread writes, with ordered stores (no CAS); readers on other
+     * threads see every completed update. A slot is cleared when its owner moves into a
+     * new period, and readers skip a slot whose period changed while they read it.
+     *
+     * Buckets are allocated lazily, one power of two (SUB_BUCKETS counters) at a time, the
+     * first time a slot records a duration in it. All slots at once would be ~64 KB per
+     * thread and operation; most operations only ever see a few powers of two.
+     */
+    private static final class Recorder {
+        private static final long UNUSED = Long.MIN_VALUE;
+        private static final int GROUPS = LatencyHistogram.BUCKETS / LatencyHistogram.SUB_BUCKETS;
+        private static final int GROUP_MASK = LatencyHistogram.SUB_BUCKETS - 1;
+        
+        // Null for the retired recorder of an entry
+        private final Thread owner;
+        // Slot * GROUPS + bucket group -> counters of the group, null until first used
+        private final AtomicReferenceArray<AtomicLongArray> counts = new AtomicReferenceArray<>(SLOTS * GROUPS);
+        private final AtomicLongArray slotPeriod = new AtomicLongArray(SLOTS);
+        private final AtomicLongArray slotTotal = new AtomicLongArray(SLOTS);
+        private final AtomicLongArray slotMax = new AtomicLongArray(SLOTS);
+        
+        // Since creation
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong totalItems = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        
+        Recorder(Thread owner) {
+            this.owner = owner;
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slotPeriod.set(slot, UNUSED);
+            }
+        }
+        
+        void record(long nanos, int items, long period) {
+            int slot = (int) Math.floorMod(period, (long) SLOTS);
+            if (slotPeriod.get(slot) != period) {
+                startPeriod(slot, period);
+            }
+            int bucket = LatencyHistogram.index(nanos);
+            AtomicLongArray group = group(slot, bucket >>> LatencyHistogram.SUB_BITS);
+            int i = bucket & GROUP_MASK;
+            group.lazySet(i, group.get(i) + 1);
+            slotTotal.lazySet(slot, slotTotal.get(slot) + nanos);
+            if (nanos > slotMax.get(slot)) slotMax.lazySet(slot, nanos);
+            
+            count.lazySet(count.get() + 1);
+            totalNanos.lazySet(totalNanos.get() + nanos);
+            totalItems.lazySet(totalItems.get() + items);
+            if (nanos > maxNanos.get()) maxNanos.lazySet(nanos);
+        }
+        
+        /**
+         * Counters of one bucket group of a slot, allocated on first use (owner only)
+         */
+        private AtomicLongArray group(int slot, int group) {
+            int i = slot * GROUPS + group;
+            AtomicLongArray counters = counts.get(i);
+            if (counters == null) {
+                counters = new AtomicLongArray(LatencyHistogram.SUB_BUCKETS);
+                counts.set(i, counters);
+            }
+            return counters;
+        }
+        
+        int allocatedBuckets() {
+            int sum = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                if (counts.get(i) != null) sum += LatencyHistogram.SUB_BUCKETS;
+            }
+            return sum;
+        }
+        
+        private void startPeriod(int slot, long period) {
+            slotPeriod.set(slot, UNUSED);
+            // Allocated groups are kept and cleared, so a steady load allocates nothing
+            for (int g = slot * GROUPS; g < (slot + 1) * GROUPS; g++) {
+                AtomicLongArray counters = counts.get(g);
+                if (counters == null) continue;
+                for (int i = 0; i < LatencyHistogram.SUB_BUCKETS; i++) {
+                    counters.lazySet(i, 0);
+                }
+            }
+            slotTotal.lazySet(slot, 0);
+            slotMax.lazySet(slot, 0);
+            slotPeriod.set(slot, period);
+        }
+        
+        /**
+         * Add the counters of a recorder whose thread has ended (its writes are all visible)
+         * A slot already holding a newer period keeps it; the older counts fall out of the window.
+         */
+        void absorb(Recorder other) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                long period = other.slotPeriod.get(slot);
+                long current = slotPeriod.get(slot);
+                if (period == UNUSED || (current != UNUSED && current > period)) continue;
+                
+                if (current != period) {
+                    startPeriod(slot, period);
+                }
+                for (int g = 0; g < GROUPS; g++) {
+                    AtomicLongArray source = other.counts.get(slot * GROUPS + g);
+                    if (source == null) continue;
+                    AtomicLongArray target = group(slot, g);
+                    for (int i = 0; i < LatencyHistogram.SUB_BUCKETS; i++) {
+                        target.lazySet(i, target.get(i) + source.get(i));
+                    }
+                }
+                slotTotal.lazySet(slot, slotTotal.get(slot) + other.slotTotal.get(slot));
+                slotMax.lazySet(slot, Math.max(slotMax.get(slot), other.slotMax.get(slot)));
+            }
+            count.lazySet(count.get() + other.count.get());
+            totalNanos.lazySet(totalNanos.get() + other.totalNanos.get());
+            totalItems.lazySet(totalItems.get() + other.totalItems.get());
+            maxNanos.lazySet(Math.max(maxNanos.get(), other.maxNanos.get()));
+        }
+        
+        /**
+         * Add the slots of periods first..last to counts; totals = {total ns, max ns}
+         */
+        void mergeInto(long[] counts, long[] totals, long first, long last) {
+            long[] slotCounts = new long[LatencyHistogram.BUCKETS];
+            for (int slot = 0; slot < SLOTS; slot++) {
+                long period = slotPeriod.get(slot);
+                if (period == UNUSED || period < first || period > last) continue;
+                
+                for (int g = 0; g < GROUPS; g++) {
+                    AtomicLongArray counters = this.counts.get(slot * GROUPS + g);
+                    int base = g * LatencyHistogram.SUB_BUCKETS;
+                    for (int i = 0; i < LatencyHistogram.SUB_BUCKETS; i++) {
+                        slotCounts[base + i] = counters != null ? counters.get(i) : 0;
+                    }
+                }
+                long total = slotTotal.get(slot);
+                long max = slotMax.get(slot);
+                if (slotPeriod.get(slot) != period) continue;
+                
+                for (int i = 0; i < slotCounts.length; i++) {
+                    counts[i] += slotCounts[i];
+                }
+                totals[0] += total;
+                totals[1] = Math.max(totals[1], max);
+            }
         }
     }
 }
@@ -0,0 +1,168 @@
+package com.webx.modernfix.cache;
+
+import org.bukkit.Chunk;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkCacheManagerTest {
+
+    @Test
+    void countsHitsAndMisses() {
+        ChunkCacheManager cache = new ChunkCacheManager(8);
+        Chunk chunk = chunk();
+        cache.put("world", 1, -2, chunk);
+
+        assertSame(chunk, cache.get("world", 1, -2));
+        assertNull(cache.get("world", 2, -2));
+        assertNull(cache.get("nether", 1, -2));
+        ChunkCacheManager.CacheStats stats = cache.getStats();
+        assertEquals(1, stats.hits);
+        assertEquals(2, stats.misses);
+        assertEquals(100.0 / 3, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void oneOffChunksDoNotPushOutReusedOnes() {
+        ChunkCacheManager cache = new ChunkCacheManager(10);
+        for (int x = 0; x < 10; x++) {
+            cache.put("world", x, 0, chunk());
+        }
+        for (int x = 0; x < 3; x++) {
+            assertNotNull(cache.get("world", x, 0));
+        }
+
+        // A burst of new chunks only cycles through probation
+        for (int x = 100; x < 150; x++) {
+            cache.put("world", x, 0, chunk());
+        }
+        assertEquals(10, cache.size());
+        assertEquals(50, cache.getStats().evictions);
+        for (int x = 0; x < 3; x++) {
+            assertNotNull(cache.get("world", x, 0));
+        }
+        assertNull(cache.get("world", 3, 0));
+    }
+
+    @Test
+    void unloadsAreNotCountedAsEvictions() {
+        ChunkCacheManager cache = new ChunkCacheManager(8);
+        for (int x = 0; x < 4; x++) {
+            cache.put("world", x, 0, chunk());
+            cache.put("nether", x, 0, chunk());
+        }
+
+        cache.remove("world", 0, 0);
+        cache.remove("world", 0, 0);
+        assertEquals(4, cache.removeWorld("nether"));
+        assertEquals(3, cache.size());
+        assertNull(cache.get("world", 0, 0));
+        assertNull(cache.get("nether", 1, 0));
+        assertEquals(0, cache.getStats().evictions);
+
+        assertEquals(3, cache.evictProbation());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void matchesSegmentedLruModel() {
+        Random random = new Random(11);
+        int capacity = 32;
+        ChunkCacheManager cache = new ChunkCacheManager(capacity);
+        Model model = new Model(capacity, capacity * 80 / 100);
+        String[] worlds = {"world", "world_nether"};
+
+        for (int step = 0; step < 100_000; step++) {
+            String world = worlds[random.nextInt(worlds.length)];
+            // Skewed coordinates: some chunks come back often, most rarely
+            int x = random.nextBoolean() ? random.nextInt(8) : random.nextInt(200) - 100;
+            int z = random.nextInt(4) - 2;
+            String key = world + ":" + x + ":" + z;
+
+            int action = random.nextInt(10);
+            if (action < 5) {
+                Chunk expected = model.get(key);
+                assertSame(expected, cache.get(world, x, z));
+            } else if (action < 9) {
+                Chunk chunk = chunk();
+                model.put(key, chunk);
+                cache.put(world, x, z, chunk);
+            } else {
+                model.remove(key);
+                cache.remove(world, x, z);
+            }
+            assertEquals(model.size(), cache.size());
+        }
+        assertEquals(model.evictions, cache.getStats().evictions);
+    }
+
+    private static Chunk chunk() {
+        // Distinct instances without a server; the cache never calls them
+        return (Chunk) Proxy.newProxyInstance(Chunk.class.getClassLoader(), new Class<?>[] {Chunk.class},
+                (proxy, method, args) -> method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy));
+    }
+
+    /**
+     * Reference segmented LRU; insertion order of the sets is recency, oldest first
+     */
+    private static final class Model {
+        final int capacity;
+        final int protectedCapacity;
+        final Map<String, Chunk> values = new HashMap<>();
+        final LinkedHashSet<String> probation = new LinkedHashSet<>();
+        final LinkedHashSet<String> protectedSet = new LinkedHashSet<>();
+        long evictions;
+
+        Model(int capacity, int protectedCapacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = protectedCapacity;
+        }
+
+        Chunk get(String key) {
+            if (!values.containsKey(key)) return null;
+            touch(key);
+            return values.get(key);
+        }
+
+        void put(String key, Chunk chunk) {
+            if (values.containsKey(key)) {
+                values.put(key, chunk);
+                touch(key);
+                return;
+            }
+            if (values.size() == capacity) {
+                String victim = !probation.isEmpty() ? probation.iterator().next() : protectedSet.iterator().next();
+                remove(victim);
+                evictions++;
+            }
+            values.put(key, chunk);
+            probation.add(key);
+        }
+
+        void remove(String key) {
+            values.remove(key);
+            probation.remove(key);
+            protectedSet.remove(key);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        private void touch(String key) {
+            if (probation.remove(key)) {
+                if (protectedSet.size() + 1 > protectedCapacity) {
+                    String demoted = protectedSet.iterator().next();
+                    protectedSet.remove(demoted);
+                    probation.add(demoted);
+                }
+            } else {
+                protectedSet.remove(key);
+            }
+            protectedSet.add(key);
+        }
+    }
+}
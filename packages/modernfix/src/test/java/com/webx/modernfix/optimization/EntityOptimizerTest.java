@@ -0,0 +1,144 @@
+package com.webx.modernfix.optimization;
+
+import com.webx.modernfix.profiler.PerformanceProfiler;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.ExperienceOrb;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityOptimizerTest {
+    private static final int MAX_AGE = 6000;
+    private static final double RADIUS = 0.05;
+
+    @Test
+    void cellsFarApartNeverShareAKey() {
+        EntityOptimizer.MergeCells<String> cells = new EntityOptimizer.MergeCells<>(RADIUS);
+        cells.put(new Location(null, 0.01, 64, 0.01), 0, "anchor");
+
+        assertEquals("anchor", cells.get(new Location(null, 0.02, 64.01, 0.03), 0));
+        // 256 cells away on x or z, 65536 cells away on y
+        assertNull(cells.get(new Location(null, 0.01 + 256 * RADIUS, 64, 0.01), 0));
+        assertNull(cells.get(new Location(null, 0.01, 64, 0.01 + 256 * RADIUS), 0));
+        assertNull(cells.get(new Location(null, 0.01, 64 + 65536 * RADIUS, 0.01), 0));
+        assertNull(cells.get(new Location(null, -0.01, 64, 0.01), 0));
+        assertNull(cells.get(new Location(null, 0.01, 64, 0.01), 1));
+    }
+
+    @Test
+    void incrementalRoundMergesLikeAFullSweep() {
+        List<Orb> incremental = new ArrayList<>();
+        EntityOptimizer sliced = new EntityOptimizer(MAX_AGE, 1, RADIUS, 1, new PerformanceProfiler(),
+            () -> List.of(world(8, incremental)));
+        EntityOptimizer.OptimizationResult round = null;
+        int ticks = 0;
+        while (round == null) {
+            round = sliced.tick();
+            assertTrue(++ticks < 100, "round never finished");
+        }
+
+        List<Orb> full = new ArrayList<>();
+        EntityOptimizer.OptimizationResult whole = new EntityOptimizer(MAX_AGE, 1, RADIUS, 1,
+            new PerformanceProfiler(), () -> List.of(world(8, full))).sweepAll();
+
+        // A 1 µs budget still sweeps at least one chunk per tick, so the round is spread out
+        assertTrue(round.ticks > 1);
+        assertEquals(1, whole.ticks);
+        for (EntityOptimizer.OptimizationResult result : List.of(round, whole)) {
+            assertEquals(8 * 5, result.scanned);
+            assertEquals(8, result.removed);
+            assertEquals(8 * 2, result.merged);
+        }
+        assertEquals(experience(full), experience(incremental));
+        for (int chunk = 0; chunk < 8; chunk++) {
+            // The three orbs of one cell become one; the one 256 cells away stays apart
+            List<Orb> orbs = incremental.subList(chunk * 5, chunk * 5 + 5);
+            assertEquals(6, orbs.get(0).experience);
+            assertTrue(orbs.get(1).removed && orbs.get(2).removed);
+            assertFalse(orbs.get(3).removed);
+            assertEquals(4, orbs.get(3).experience);
+            assertTrue(orbs.get(4).removed);
+        }
+    }
+
+    private static int experience(List<Orb> orbs) {
+        int total = 0;
+        for (Orb orb : orbs) {
+            if (!orb.removed) total += orb.experience;
+        }
+        return total;
+    }
+
+    private static World world(int chunks, List<Orb> orbs) {
+        World[] world = new World[1];
+        Chunk[] loaded = new Chunk[chunks];
+        for (int i = 0; i < chunks; i++) {
+            double x = i * 16 + 0.01;
+            Entity[] entities = {
+                orb(orbs, x, 1, 0),
+                orb(orbs, x, 2, 0),
+                orb(orbs, x, 3, 0),
+                orb(orbs, x + 256 * RADIUS, 4, 0),
+                orb(orbs, x, 5, MAX_AGE + 1)
+            };
+            int chunkX = i;
+            loaded[i] = proxy(Chunk.class, (name, args) -> switch (name) {
+                case "getWorld" -> world[0];
+                case "getX" -> chunkX;
+                case "getZ" -> 0;
+                case "isLoaded" -> true;
+                case "getEntities" -> entities;
+                default -> throw new UnsupportedOperationException(name);
+            });
+        }
+        world[0] = proxy(World.class, (name, args) -> switch (name) {
+            case "getName" -> "world";
+            case "getLoadedChunks" -> loaded.clone();
+            default -> throw new UnsupportedOperationException(name);
+        });
+        return world[0];
+    }
+
+    private static ExperienceOrb orb(List<Orb> orbs, double x, int experience, int age) {
+        Orb orb = new Orb();
+        orb.experience = experience;
+        orbs.add(orb);
+        Location location = new Location(null, x, 64.01, 8.01);
+        return proxy(ExperienceOrb.class, (name, args) -> switch (name) {
+            case "getType" -> EntityType.EXPERIENCE_ORB;
+            case "getTicksLived" -> age;
+            case "getLocation" -> location;
+            case "getExperience" -> orb.experience;
+            case "setExperience" -> orb.experience = (int) args[0];
+            case "remove" -> orb.removed = true;
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> type.getSimpleName();
+            default -> handler.invoke(method.getName(), args);
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String name, Object[] args);
+    }
+
+    private static final class Orb {
+        int experience;
+        boolean removed;
+    }
+}
@@ -0,0 +1,78 @@
+package com.webx.modernfix.profiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    // Widest bucket relative to the smallest value it holds
+    private static final double BUCKET_WIDTH = 1.0 / LatencyHistogram.SUB_BUCKETS;
+
+    @Test
+    void smallDurationsHaveTheirOwnBucket() {
+        for (long nanos = 0; nanos < LatencyHistogram.SUB_BUCKETS; nanos++) {
+            assertEquals(nanos, LatencyHistogram.index(nanos));
+            assertEquals(nanos, LatencyHistogram.highestValue((int) nanos));
+        }
+        assertEquals(0, LatencyHistogram.index(-5));
+    }
+
+    @Test
+    void bucketsAreContiguousAndNarrow() {
+        long lowest = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+            long highest = LatencyHistogram.highestValue(i);
+            assertEquals(i, LatencyHistogram.index(lowest), "lowest of " + i);
+            assertEquals(i, LatencyHistogram.index(highest), "highest of " + i);
+            assertEquals(i + 1, LatencyHistogram.index(highest + 1), "after " + i);
+            if (lowest >= LatencyHistogram.SUB_BUCKETS) {
+                assertTrue(highest - lowest + 1 <= lowest * BUCKET_WIDTH, "width of " + i);
+            }
+            lowest = highest + 1;
+        }
+        // The last bucket also takes everything from 2^40 ns on
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(lowest));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(1L << LatencyHistogram.MAX_EXPONENT));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentilesAreWithinOneBucketOfTheExactValue() {
+        Random random = new Random(21);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(5000);
+            long[] samples = new long[n];
+            long[] counts = new long[LatencyHistogram.BUCKETS];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                // Log-uniform from 1 ns to ~1 s, like a mix of fast and slow calls
+                samples[i] = (long) Math.pow(10, random.nextDouble() * 9);
+                counts[LatencyHistogram.index(samples[i])]++;
+                total += samples[i];
+            }
+            Arrays.sort(samples);
+            LatencyHistogram histogram = new LatencyHistogram(counts, total, samples[n - 1]);
+
+            assertEquals(n, histogram.getCount());
+            for (double percentile : new double[] {0, 1, 25, 50, 90, 95, 99, 99.9, 100}) {
+                long exact = samples[(int) Math.max(0, Math.ceil(percentile / 100 * n) - 1)];
+                long estimate = histogram.getPercentile(percentile);
+                assertTrue(estimate >= exact, percentile + "%: " + estimate + " < " + exact);
+                assertTrue(estimate - exact <= exact * BUCKET_WIDTH, percentile + "%: " + estimate + " vs " + exact);
+            }
+            assertEquals(samples[n - 1], histogram.getPercentile(100));
+        }
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram(new long[LatencyHistogram.BUCKETS], 0, 0);
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMeanNanos());
+        assertTrue(histogram.getBuckets().isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package com.webx.modernfix.profiler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerformanceProfilerTest {
+
+    @Test
+    void recordersOfEndedThreadsAreFolded() throws InterruptedException {
+        PerformanceProfiler.ProfilerEntry entry = new PerformanceProfiler().entry("task");
+        entry.record(1_000, 1);
+
+        // Short-lived workers, like a pool replacing its threads
+        for (int i = 0; i < 50; i++) {
+            Thread worker = new Thread(() -> {
+                entry.record(2_000, 2);
+                entry.record(500_000, 0);
+            });
+            worker.start();
+            worker.join();
+        }
+
+        assertEquals(2, entry.getRecorderCount());
+        assertEquals(101, entry.getExecutionCount());
+        assertEquals(1_000 + 50 * 502_000L, entry.getTotalNanos());
+        assertEquals(101, entry.getTotalItems());
+        assertEquals(500_000, entry.getMaxNanos());
+
+        LatencyHistogram window = entry.snapshot(PerformanceProfiler.WINDOW_SECONDS);
+        assertEquals(101, window.getCount());
+        assertEquals(entry.getTotalNanos(), window.getTotalNanos());
+        assertEquals(500_000, window.getMaxNanos());
+    }
+
+    @Test
+    void liveThreadsKeepTheirOwnRecorders() throws InterruptedException {
+        PerformanceProfiler.ProfilerEntry entry = new PerformanceProfiler().entry("task");
+        Object lock = new Object();
+        Thread[] workers = new Thread[4];
+        synchronized (lock) {
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = new Thread(() -> {
+                    entry.record(10, 0);
+                    synchronized (lock) {
+                        // Wait until the test lets the workers end
+                    }
+                });
+                workers[i].start();
+            }
+            while (entry.getExecutionCount() < workers.length) {
+                Thread.onSpinWait();
+            }
+            assertEquals(workers.length + 1, entry.getRecorderCount());
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(1, entry.getRecorderCount());
+        assertEquals(workers.length, entry.getExecutionCount());
+    }
+
+    @Test
+    void bucketsAreAllocatedOnFirstUse() {
+        PerformanceProfiler.ProfilerEntry entry = new PerformanceProfiler().entry("task");
+        assertEquals(0, entry.getAllocatedBuckets());
+
+        // Durations within one power of two share one group of buckets
+        entry.record(1_100, 0);
+        entry.record(1_500, 0);
+        assertEquals(LatencyHistogram.SUB_BUCKETS, entry.getAllocatedBuckets());
+        entry.record(5, 0);
+        entry.record(3_000_000, 0);
+        assertEquals(3 * LatencyHistogram.SUB_BUCKETS, entry.getAllocatedBuckets());
+
+        LatencyHistogram window = entry.snapshot(PerformanceProfiler.WINDOW_SECONDS);
+        assertEquals(4, window.getCount());
+        assertEquals(5, window.getPercentile(25));
+        assertEquals(3_000_000, window.getPercentile(100));
+        assertEquals(1_100 + 1_500 + 5 + 3_000_000, window.getTotalNanos());
+    }
+}
@@ -15,6 +15,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Интеграция V8 JavaScript в QuestsPlugin
@@ -25,6 +26,8 @@ import java.util.Map;
  * integration.registerQuestFunctions();
  */
 public class JavaScriptIntegration {
+    private static final Object[] NO_ARGS = new Object[0];
+
     private final JavaPlugin plugin;
     private final JavaScriptEngine jsEngine;
     private final JavaScriptEventSystem eventSystem;
@@ -32,6 +35,9 @@ public class JavaScriptIntegration {
     private final JavaScriptModuleManager moduleManager;
     private final File scriptsDir;
     private final Gson gson;
+    // Resolved event handles, so firing does not rebuild and look up the name each time
+    private final Map<String, JavaScriptEventBus.EventType<Object[]>> questEvents;
+    private final JavaScriptEventBus.EventType<Object[]> treasureHuntStarted;
     private Javalin apiServer;
 
     public JavaScriptIntegration(JavaPlugin plugin) {
@@ -43,6 +49,8 @@ public class JavaScriptIntegration {
         this.scriptsDir = new File(plugin.getDataFolder(), "scripts");
         this.scriptsDir.mkdirs();
         this.gson = new Gson();
+        this.questEvents = new ConcurrentHashMap<>();
+        this.treasureHuntStarted = eventSystem.event("questTreasureHuntStarted");
     }
 
     /**
@@ -51,7 +59,7 @@ public class JavaScriptIntegration {
     public void initialize() {
         try {
             // Инициализировать LXXVServer
-            LXXVServer.initialize(Bukkit.getServer(), jsEngine);
+            LXXVServer.initialize(Bukkit.getServer(), jsEngine, plugin);
 
             // Запустить API сервер
             startApiServer();
@@ -204,7 +212,7 @@ public class JavaScriptIntegration {
             if (isTypeScript(scriptName)) {
                 code = jsEngine.transpile(code, scriptName);
             }
-            return jsEngine.execute(code, fullContext);
+            return jsEngine.execute(code, fullContext, scriptName);
         } catch (Exception e) {
             plugin.getLogger().warning("Ошибка при выполнении скрипта: " + e.getMessage());
             return null;
@@ -228,7 +236,7 @@ public class JavaScriptIntegration {
                     "module.exports = " + functionName + "; }";
             Map<String, Object> ctx = new HashMap<>();
             ctx.put("args", fullArgs);
-            return jsEngine.execute(invoke + "\nmodule.exports.apply(null, args);", ctx);
+            return jsEngine.execute(invoke + "\nmodule.exports.apply(null, args);", ctx, scriptName + "#" + functionName);
         } catch (Exception e) {
             plugin.getLogger().warning("Ошибка при вызове функции: " + e.getMessage());
             return null;
@@ -239,7 +247,7 @@ public class JavaScriptIntegration {
      * Запустить событие квеста
      */
     public void fireQuestEvent(String eventName, Object... args) {
-        eventSystem.emit("quest" + eventName, args);
+        eventSystem.emit(questEvents.computeIfAbsent(eventName, name -> eventSystem.event("quest" + name)), args);
     }
 
     /**
@@ -250,7 +258,7 @@ public class JavaScriptIntegration {
             try {
                 String code = "broadcast('§6Ежедневный поиск сокровищ начался!')";
                 jsEngine.execute(code);
-                fireQuestEvent("TreasureHuntStarted");
+                eventSystem.emit(treasureHuntStarted, NO_ARGS);
             } catch (Exception e) {
                 plugin.getLogger().warning("Ошибка при запуске поиска: " + e.getMessage());
             }
@@ -264,6 +272,7 @@ public class JavaScriptIntegration {
         try {
             eventSystem.shutdown();
             scheduler.shutdown();
+            LXXVServer.shutdown(plugin);
 
             if (apiServer != null) {
                 apiServer.stop();
@@ -0,0 +1,130 @@
+package com.webx.ranks.managers;
+
+import com.webx.ranks.models.PlayerRank;
+import com.webx.ranks.models.Rank;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1024 permission checks for a player with a primary and 5 additional ranks out of 20,
+ * each rank holding 40 nodes and one "prefix.*" wildcard: the compiled bitsets vs the
+ * previous string lookup, which resolves every rank by id and searches its node set and
+ * wildcards. A third of the nodes are granted directly, a third through a wildcard and a
+ * third not at all.
+ * Run with ./gradlew :ranks:jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+    private static final int RANKS = 20;
+    private static final int NODES = 40;
+    private static final int ADDITIONAL = 5;
+    private static final int CHECKS = 1024;
+
+    private File dataFolder;
+    private RankManager rankManager;
+    private PlayerRankManager playerRankManager;
+    private UUID playerId;
+    private String[] nodes;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("ranks-bench").toFile();
+        rankManager = new RankManager(dataFolder);
+        for (int r = 0; r < RANKS; r++) {
+            Rank rank = rankManager.createRank("bench" + r, "Bench " + r, 100 + r);
+            for (int n = 0; n < NODES; n++) {
+                rank.addPermission("bench.r" + r + ".n" + n);
+            }
+            rank.addPermission("bench.r" + r + ".extra.*");
+            rankManager.updateRank(rank);
+        }
+
+        playerRankManager = new PlayerRankManager(dataFolder, rankManager);
+        playerId = UUID.randomUUID();
+        playerRankManager.setPlayerPrimaryRank(playerId, "bench0", "bench", "bench");
+        for (int r = 1; r <= ADDITIONAL; r++) {
+            playerRankManager.addAdditionalRank(playerId, "bench" + (r * 3));
+        }
+
+        nodes = new String[CHECKS];
+        for (int i = 0; i < CHECKS; i++) {
+            int r = (i * 7) % RANKS;
+            nodes[i] = switch (i % 3) {
+                case 0 -> "bench.r" + r + ".n" + (i % NODES);
+                case 1 -> "bench.r" + r + ".extra.node" + (i % NODES);
+                default -> "bench.unknown.n" + i;
+            };
+        }
+        // Compile once so the measurement only sees lookups
+        playerRankManager.getEffectivePermissions(playerId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteRecursively(dataFolder);
+    }
+
+    @Benchmark
+    public int checkBaseline() {
+        PlayerRank playerRank = playerRankManager.getPlayerRank(playerId);
+        int granted = 0;
+        for (String node : nodes) {
+            if (LegacyLookup.hasPermission(rankManager, playerRank, node)) granted++;
+        }
+        return granted;
+    }
+
+    @Benchmark
+    public int checkCompiled() {
+        int granted = 0;
+        for (String node : nodes) {
+            if (playerRankManager.hasPermission(playerId, node)) granted++;
+        }
+        return granted;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * The lookup before permissions were compiled: every check walks the player's ranks
+     */
+    static final class LegacyLookup {
+        static boolean hasPermission(RankManager rankManager, PlayerRank playerRank, String node) {
+            List<String> rankIds = new ArrayList<>(playerRank.getAdditionalRanks());
+            rankIds.add(playerRank.getPrimaryRank());
+            for (String rankId : rankIds) {
+                Rank rank = rankManager.getRank(rankId);
+                if (rank == null) continue;
+
+                if (rank.hasPermission(node)) return true;
+                for (String permission : rank.getPermissions()) {
+                    if (permission.endsWith(".*")
+                            && node.startsWith(permission.substring(0, permission.length() - 1))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
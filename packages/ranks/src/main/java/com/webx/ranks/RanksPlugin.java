@@ -17,7 +17,7 @@ public class RanksPlugin extends JavaPlugin {
     public void onEnable() {
         // Initialize managers
         rankManager = new RankManager(getDataFolder());
-        playerRankManager = new PlayerRankManager(getDataFolder());
+        playerRankManager = new PlayerRankManager(getDataFolder(), rankManager);
         
         // Initialize default permissions
         rankManager.initializeDefaultPermissions();
@@ -33,6 +33,7 @@ public class RanksPlugin extends JavaPlugin {
 
         // Schedule periodic tasks
         scheduleExpiredRankCheck();
+        scheduleExpiryWarnings();
         scheduleAutoSave();
 
         getLogger().info("✅ Ranks & Permissions System enabled!");
@@ -53,8 +54,19 @@ public class RanksPlugin extends JavaPlugin {
         new BukkitRunnable() {
             @Override
             public void run() {
-                playerRankManager.checkAndRemoveExpiredRanks();
-                
+                // Only looks at the earliest expiry unless something is due
+                long next = playerRankManager.getNextExpiry();
+                if (next > 0 && next < System.currentTimeMillis()) {
+                    playerRankManager.checkAndRemoveExpiredRanks();
+                }
+            }
+        }.runTaskTimerAsynchronously(this, 20L, 20L); // Every second
+    }
+
+    private void scheduleExpiryWarnings() {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
                 // Notify players with expiring ranks
                 var expiringRanks = playerRankManager.getExpiringRanks(86400000); // 24 hours
                 for (var playerRank : expiringRanks) {
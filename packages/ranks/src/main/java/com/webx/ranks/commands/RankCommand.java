@@ -58,7 +58,7 @@ public class RankCommand implements CommandExecutor {
     }
 
     private boolean handleSetRank(CommandSender sender, String[] args) {
-        if (!sender.hasPermission("rank.admin.manage-ranks")) {
+        if (!hasPermission(sender, "rank.admin.manage-ranks")) {
             sender.sendMessage(ChatColor.RED + "You don't have permission!");
             return true;
         }
@@ -93,7 +93,7 @@ public class RankCommand implements CommandExecutor {
     }
 
     private boolean handleGiveRank(CommandSender sender, String[] args) {
-        if (!sender.hasPermission("rank.admin.manage-ranks")) {
+        if (!hasPermission(sender, "rank.admin.manage-ranks")) {
             sender.sendMessage(ChatColor.RED + "You don't have permission!");
             return true;
         }
@@ -138,7 +138,7 @@ public class RankCommand implements CommandExecutor {
     }
 
     private boolean handleRemoveRank(CommandSender sender, String[] args) {
-        if (!sender.hasPermission("rank.admin.manage-ranks")) {
+        if (!hasPermission(sender, "rank.admin.manage-ranks")) {
             sender.sendMessage(ChatColor.RED + "You don't have permission!");
             return true;
         }
@@ -197,7 +197,7 @@ public class RankCommand implements CommandExecutor {
     }
 
     private boolean handleCreateRank(CommandSender sender, String[] args) {
-        if (!sender.hasPermission("rank.admin.edit-ranks")) {
+        if (!hasPermission(sender, "rank.admin.edit-ranks")) {
             sender.sendMessage(ChatColor.RED + "You don't have permission!");
             return true;
         }
@@ -222,7 +222,7 @@ public class RankCommand implements CommandExecutor {
     }
 
     private boolean handleEditRank(CommandSender sender, String[] args) {
-        if (!sender.hasPermission("rank.admin.edit-ranks")) {
+        if (!hasPermission(sender, "rank.admin.edit-ranks")) {
             sender.sendMessage(ChatColor.RED + "You don't have permission!");
             return true;
         }
@@ -278,18 +278,26 @@ public class RankCommand implements CommandExecutor {
         return true;
     }
 
+    /**
+     * Server permissions first, then the compiled permissions of the player's ranks
+     */
+    private boolean hasPermission(CommandSender sender, String node) {
+        if (sender.hasPermission(node)) return true;
+        return sender instanceof Player player && playerRankManager.hasPermission(player.getUniqueId(), node);
+    }
+
     private void sendUsage(CommandSender sender) {
         sender.sendMessage(ChatColor.GOLD + "=== Rank Commands ===");
         sender.sendMessage(ChatColor.GREEN + "/rank check [player] - Check player rank");
         sender.sendMessage(ChatColor.GREEN + "/rank list - List all ranks");
         
-        if (sender.hasPermission("rank.admin.manage-ranks")) {
+        if (hasPermission(sender, "rank.admin.manage-ranks")) {
             sender.sendMessage(ChatColor.YELLOW + "/rank set <player> <rankId> - Assign rank");
             sender.sendMessage(ChatColor.YELLOW + "/rank give <player> <rankId> [hours] - Give temporary rank");
             sender.sendMessage(ChatColor.YELLOW + "/rank remove <player> - Remove rank");
         }
         
-        if (sender.hasPermission("rank.admin.edit-ranks")) {
+        if (hasPermission(sender, "rank.admin.edit-ranks")) {
             sender.sendMessage(ChatColor.RED + "/rank create <id> <name> [priority] - Create rank");
             sender.sendMessage(ChatColor.RED + "/rank edit <rankId> <property> <value> - Edit rank");
         }
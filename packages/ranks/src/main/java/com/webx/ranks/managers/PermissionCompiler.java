@@ -0,0 +1,142 @@
+package com.webx.ranks.managers;
+
+import com.webx.ranks.models.EffectivePermissions;
+import com.webx.ranks.models.Permission;
+import com.webx.ranks.models.Rank;
+
+import java.util.*;
+
+/**
+ * Compiles rank permissions into bitsets: every known node (registered permissions and
+ * rank nodes) gets an index, each rank becomes a bitset with "*" and "prefix.*" expanded,
+ * and a player's permissions are the OR of their ranks. Recompiles lazily whenever the
+ * RankManager revision changes.
+ */
+public class PermissionCompiler {
+    private final RankManager rankManager;
+    private final Map<String, CompiledRank> compiledRanks;
+    private Map<String, Integer> nodeIds;
+    private int words;
+    private int revision;
+
+    public PermissionCompiler(RankManager rankManager) {
+        this.rankManager = rankManager;
+        this.compiledRanks = new HashMap<>();
+        this.nodeIds = Map.of();
+        this.revision = -1;
+    }
+
+    /**
+     * Effective permissions for a set of ranks; unknown rank ids grant nothing
+     */
+    public synchronized EffectivePermissions compile(Collection<String> rankIds, long validUntil) {
+        refresh();
+
+        long[] bits = new long[words];
+        boolean all = false;
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String rankId : rankIds) {
+            CompiledRank rank = compiledRanks.get(rankId);
+            if (rank == null) continue;
+
+            for (int i = 0; i < words; i++) {
+                bits[i] |= rank.bits[i];
+            }
+            all |= rank.all;
+            prefixes.addAll(rank.prefixes);
+        }
+        return new EffectivePermissions(nodeIds, bits, all, prefixes.toArray(new String[0]), revision, validUntil);
+    }
+
+    /**
+     * Whether compiled permissions still match the rank definitions and have not expired
+     */
+    public boolean isCurrent(EffectivePermissions permissions) {
+        long validUntil = permissions.getValidUntil();
+        return permissions.getRevision() == rankManager.getRevision()
+                && (validUntil == Long.MAX_VALUE || System.currentTimeMillis() <= validUntil);
+    }
+
+    public synchronized int getNodeCount() {
+        refresh();
+        return nodeIds.size();
+    }
+
+    private void refresh() {
+        // Read first: a change made while compiling bumps it again and triggers another pass
+        int current = rankManager.getRevision();
+        if (current == revision) return;
+
+        Map<String, Rank> ranks = rankManager.getAllRanks();
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> nodes = new ArrayList<>();
+        for (Permission permission : rankManager.getAllPermissions()) {
+            intern(permission.getNode(), ids, nodes);
+        }
+        for (Rank rank : ranks.values()) {
+            for (String node : rank.getPermissions()) {
+                intern(node, ids, nodes);
+            }
+        }
+
+        words = (nodes.size() + 63) >>> 6;
+        compiledRanks.clear();
+        for (Rank rank : ranks.values()) {
+            compiledRanks.put(rank.getId(), compileRank(rank, ids, nodes));
+        }
+        nodeIds = Collections.unmodifiableMap(ids);
+        revision = current;
+    }
+
+    private CompiledRank compileRank(Rank rank, Map<String, Integer> ids, List<String> nodes) {
+        CompiledRank compiled = new CompiledRank(new long[words]);
+        for (String node : rank.getPermissions()) {
+            if (node == null) continue;
+
+            set(compiled.bits, ids.get(node));
+            if (node.equals("*")) {
+                compiled.all = true;
+            } else if (node.endsWith(".*")) {
+                compiled.prefixes.add(node.substring(0, node.length() - 1));
+            }
+        }
+
+        if (compiled.all) {
+            for (int id = 0; id < nodes.size(); id++) {
+                set(compiled.bits, id);
+            }
+        } else if (!compiled.prefixes.isEmpty()) {
+            for (int id = 0; id < nodes.size(); id++) {
+                String node = nodes.get(id);
+                for (String prefix : compiled.prefixes) {
+                    if (node.startsWith(prefix)) {
+                        set(compiled.bits, id);
+                        break;
+                    }
+                }
+            }
+        }
+        return compiled;
+    }
+
+    private static void intern(String node, Map<String, Integer> ids, List<String> nodes) {
+        if (node != null && !ids.containsKey(node)) {
+            ids.put(node, nodes.size());
+            nodes.add(node);
+        }
+    }
+
+    private static void set(long[] bits, int id) {
+        bits[id >>> 6] |= 1L << id;
+    }
+
+    private static class CompiledRank {
+        final long[] bits;
+        final List<String> prefixes = new ArrayList<>();
+        boolean all;
+
+        CompiledRank(long[] bits) {
+            this.bits = bits;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.webx.ranks.managers;
 
+import com.webx.ranks.models.EffectivePermissions;
 import com.webx.ranks.models.PlayerRank;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -7,20 +8,32 @@ import com.google.gson.reflect.TypeToken;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages player rank assignments and tracks rank history
+ * Manages player rank assignments and tracks rank history.
+ * Each player is stored in player-ranks/<uuid>.json and only changed players are written.
+ * Timed ranks are indexed by expiry time, so expiry checks look at due ranks only.
  */
 public class PlayerRankManager {
+    private static final String LEGACY_FILE = "player-ranks.json";
+
     private final File dataFolder;
-    private final File playerRanksFile;
+    private final File legacyFile;        // Single-file format before per-player storage
     private Map<UUID, PlayerRank> playerRanks;
+    private final Set<UUID> dirty;        // Changed since the last save
+    private final NavigableMap<Long, Set<UUID>> expiries; // expiresAt -> players (active timed ranks)
     private final Gson gson;
+    private final PermissionCompiler permissionCompiler;
+    // Compiled on first check, dropped when the player's ranks change
+    private final Map<UUID, EffectivePermissions> effectivePermissions;
 
-    public PlayerRankManager(File dataFolder) {
+    public PlayerRankManager(File dataFolder, RankManager rankManager) {
         this.dataFolder = new File(dataFolder, "player-ranks");
-        this.playerRanksFile = new File(this.dataFolder, "player-ranks.json");
+        this.legacyFile = new File(this.dataFolder, LEGACY_FILE);
         this.gson = new GsonBuilder()
                 .setPrettyPrinting()
                 .registerTypeAdapter(UUID.class, new com.google.gson.JsonSerializer<UUID>() {
@@ -38,91 +51,171 @@ public class PlayerRankManager {
                     }
                 })
                 .create();
-        this.playerRanks = new HashMap<>();
+        this.playerRanks = new ConcurrentHashMap<>();
+        this.dirty = ConcurrentHashMap.newKeySet();
+        this.expiries = new TreeMap<>();
+        this.permissionCompiler = new PermissionCompiler(rankManager);
+        this.effectivePermissions = new ConcurrentHashMap<>();
         
         loadData();
     }
 
     // ==================== Loading & Saving ====================
 
-    public void loadData() {
-        if (!playerRanksFile.exists()) {
-            playerRanks = new HashMap<>();
-            return;
+    public synchronized void loadData() {
+        effectivePermissions.clear();
+        expiries.clear();
+        dirty.clear();
+        playerRanks = new ConcurrentHashMap<>();
+
+        File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(".json") && !name.equals(LEGACY_FILE));
+        if (files != null) {
+            for (File file : files) {
+                try (Reader reader = new FileReader(file)) {
+                    PlayerRank playerRank = gson.fromJson(reader, PlayerRank.class);
+                    if (playerRank != null && playerRank.getPlayerId() != null) {
+                        playerRanks.put(playerRank.getPlayerId(), playerRank);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Failed to load player rank " + file.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+        migrateLegacyFile();
+
+        for (PlayerRank playerRank : playerRanks.values()) {
+            scheduleExpiry(playerRank);
         }
+    }
 
-        try (Reader reader = new FileReader(playerRanksFile)) {
+    /**
+     * Split player-ranks.json into per-player files once, then keep it as .migrated
+     */
+    private void migrateLegacyFile() {
+        if (!legacyFile.exists()) return;
+
+        try (Reader reader = new FileReader(legacyFile)) {
             Type type = new TypeToken<Map<UUID, PlayerRank>>() {}.getType();
-            playerRanks = gson.fromJson(reader, type);
-            if (playerRanks == null) playerRanks = new HashMap<>();
+            Map<UUID, PlayerRank> legacy = gson.fromJson(reader, type);
+            if (legacy != null) {
+                legacy.forEach((playerId, playerRank) -> {
+                    if (playerRanks.putIfAbsent(playerId, playerRank) == null) {
+                        dirty.add(playerId);
+                    }
+                });
+            }
         } catch (Exception e) {
             System.err.println("Failed to load player ranks: " + e.getMessage());
-            playerRanks = new HashMap<>();
+            return;
         }
+
+        saveData();
+        if (dirty.isEmpty() && !legacyFile.renameTo(new File(dataFolder, LEGACY_FILE + ".migrated"))) {
+            System.err.println("Failed to rename " + legacyFile);
+        }
+    }
+
+    /**
+     * Write the players changed since the last save, one file each
+     */
+    public synchronized void saveData() {
+        if (dirty.isEmpty()) return;
+
+        dataFolder.mkdirs();
+        List<UUID> failed = new ArrayList<>();
+        for (Iterator<UUID> it = dirty.iterator(); it.hasNext(); ) {
+            UUID playerId = it.next();
+            it.remove();
+            PlayerRank playerRank = playerRanks.get(playerId);
+            if (playerRank != null && !writePlayerRank(playerRank)) {
+                failed.add(playerId);
+            }
+        }
+        dirty.addAll(failed);
     }
 
-    public void saveData() {
+    private boolean writePlayerRank(PlayerRank playerRank) {
+        File file = new File(dataFolder, playerRank.getPlayerId() + ".json");
+        File temp = new File(dataFolder, playerRank.getPlayerId() + ".json.tmp");
         try {
-            dataFolder.mkdirs();
-            try (Writer writer = new FileWriter(playerRanksFile)) {
-                gson.toJson(playerRanks, writer);
+            try (Writer writer = new FileWriter(temp)) {
+                gson.toJson(playerRank, writer);
             }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
         } catch (Exception e) {
-            System.err.println("Failed to save player ranks: " + e.getMessage());
+            System.err.println("Failed to save player rank " + playerRank.getPlayerId() + ": " + e.getMessage());
+            return false;
         }
     }
 
     // ==================== Player Rank Management ====================
 
     public PlayerRank getOrCreatePlayerRank(UUID playerId, String playerName) {
-        return playerRanks.computeIfAbsent(playerId, k -> new PlayerRank(playerId, playerName));
+        return playerRanks.computeIfAbsent(playerId, k -> {
+            dirty.add(playerId);
+            return new PlayerRank(playerId, playerName);
+        });
     }
 
     public PlayerRank getPlayerRank(UUID playerId) {
         return playerRanks.get(playerId);
     }
 
-    public void setPlayerPrimaryRank(UUID playerId, String rankId, String assignedBy, String reason) {
+    public synchronized void setPlayerPrimaryRank(UUID playerId, String rankId, String assignedBy, String reason) {
         PlayerRank playerRank = getOrCreatePlayerRank(playerId, "");
+        cancelExpiry(playerRank);
         playerRank.setPrimaryRank(rankId);
         playerRank.setAssignedBy(assignedBy);
         playerRank.setReason(reason);
         playerRank.setActive(true);
         playerRank.setExpiresAt(0);
-        saveData();
+        changed(playerId);
     }
 
-    public void setPlayerRankWithExpiry(UUID playerId, String rankId, long durationMillis, 
-                                        String assignedBy, String reason) {
+    public synchronized void setPlayerRankWithExpiry(UUID playerId, String rankId, long durationMillis,
+                                                     String assignedBy, String reason) {
         PlayerRank playerRank = getOrCreatePlayerRank(playerId, "");
+        cancelExpiry(playerRank);
         playerRank.setPrimaryRank(rankId);
         playerRank.setAssignedBy(assignedBy);
         playerRank.setReason(reason);
         playerRank.setExpiresAt(System.currentTimeMillis() + durationMillis);
         playerRank.setActive(true);
-        saveData();
+        scheduleExpiry(playerRank);
+        changed(playerId);
     }
 
-    public void addAdditionalRank(UUID playerId, String rankId) {
+    public synchronized void addAdditionalRank(UUID playerId, String rankId) {
         PlayerRank playerRank = getOrCreatePlayerRank(playerId, "");
         playerRank.addAdditionalRank(rankId);
-        saveData();
+        changed(playerId);
     }
 
-    public void removeAdditionalRank(UUID playerId, String rankId) {
+    public synchronized void removeAdditionalRank(UUID playerId, String rankId) {
         PlayerRank playerRank = getOrCreatePlayerRank(playerId, "");
         playerRank.removeAdditionalRank(rankId);
-        saveData();
+        changed(playerId);
     }
 
-    public void removePlayerRank(UUID playerId) {
+    public synchronized void removePlayerRank(UUID playerId) {
         PlayerRank playerRank = playerRanks.get(playerId);
         if (playerRank != null) {
+            cancelExpiry(playerRank);
             playerRank.setActive(false);
-            saveData();
+            changed(playerId);
         }
     }
 
+    /**
+     * Drop cached permissions and write only this player's file
+     */
+    private void changed(UUID playerId) {
+        effectivePermissions.remove(playerId);
+        dirty.add(playerId);
+        saveData();
+    }
+
     public String getPlayerPrimaryRank(UUID playerId) {
         PlayerRank playerRank = playerRanks.get(playerId);
         if (playerRank != null && playerRank.isActive()) {
@@ -139,6 +232,48 @@ public class PlayerRankManager {
         return playerRank.hasRank(rankId);
     }
 
+    // ==================== Permissions ====================
+
+    /**
+     * Permission check against all of the player's ranks: one index lookup and a bit test
+     * once compiled
+     */
+    public boolean hasPermission(UUID playerId, String node) {
+        return getEffectivePermissions(playerId).hasPermission(node);
+    }
+
+    public EffectivePermissions getEffectivePermissions(UUID playerId) {
+        EffectivePermissions permissions = effectivePermissions.get(playerId);
+        if (permissions != null && permissionCompiler.isCurrent(permissions)) {
+            return permissions;
+        }
+        // Under the rank lock, so a change or expiry cannot drop the cache while stale
+        // permissions are being compiled and put back
+        synchronized (this) {
+            permissions = compilePermissions(playerId);
+            effectivePermissions.put(playerId, permissions);
+            return permissions;
+        }
+    }
+
+    private EffectivePermissions compilePermissions(UUID playerId) {
+        PlayerRank playerRank = playerRanks.get(playerId);
+        if (playerRank == null || !playerRank.isActive()) {
+            return permissionCompiler.compile(List.of("member"), Long.MAX_VALUE);
+        }
+
+        List<String> rankIds = new ArrayList<>(playerRank.getAdditionalRanks());
+        if (playerRank.getPrimaryRank() != null) {
+            rankIds.add(playerRank.getPrimaryRank());
+        }
+        long validUntil = playerRank.getExpiresAt() > 0 ? playerRank.getExpiresAt() : Long.MAX_VALUE;
+        return permissionCompiler.compile(rankIds, validUntil);
+    }
+
+    public PermissionCompiler getPermissionCompiler() {
+        return permissionCompiler;
+    }
+
     public Map<UUID, PlayerRank> getAllPlayerRanks() {
         return new HashMap<>(playerRanks);
     }
@@ -155,28 +290,63 @@ public class PlayerRankManager {
 
     // ==================== Expiry Management ====================
 
-    public void checkAndRemoveExpiredRanks() {
-        for (PlayerRank playerRank : playerRanks.values()) {
-            if (playerRank.isExpired()) {
+    private void scheduleExpiry(PlayerRank playerRank) {
+        if (playerRank.isActive() && playerRank.getExpiresAt() > 0) {
+            expiries.computeIfAbsent(playerRank.getExpiresAt(), k -> new HashSet<>()).add(playerRank.getPlayerId());
+        }
+    }
+
+    private void cancelExpiry(PlayerRank playerRank) {
+        Set<UUID> players = expiries.get(playerRank.getExpiresAt());
+        if (players != null && players.remove(playerRank.getPlayerId()) && players.isEmpty()) {
+            expiries.remove(playerRank.getExpiresAt());
+        }
+    }
+
+    /**
+     * Deactivate the ranks whose time has passed; only due entries of the expiry index are
+     * visited, and only their files are written. Runs on the async timer: every rank change
+     * holds the same lock
+     * @return ranks that expired in this call
+     */
+    public synchronized List<PlayerRank> checkAndRemoveExpiredRanks() {
+        long now = System.currentTimeMillis();
+        List<PlayerRank> expired = new ArrayList<>();
+        while (!expiries.isEmpty() && expiries.firstKey() < now) {
+            for (UUID playerId : expiries.pollFirstEntry().getValue()) {
+                PlayerRank playerRank = playerRanks.get(playerId);
+                if (playerRank == null || !playerRank.isExpired()) continue;
+
                 playerRank.setActive(false);
+                effectivePermissions.remove(playerId);
+                dirty.add(playerId);
+                expired.add(playerRank);
             }
         }
         saveData();
+        return expired;
     }
 
-    public List<PlayerRank> getExpiringRanks(long withinMillis) {
+    /**
+     * Earliest expiry time of an active timed rank, 0 if there is none
+     */
+    public synchronized long getNextExpiry() {
+        return expiries.isEmpty() ? 0 : expiries.firstKey();
+    }
+
+    public synchronized List<PlayerRank> getExpiringRanks(long withinMillis) {
         long now = System.currentTimeMillis();
         List<PlayerRank> result = new ArrayList<>();
-        
-        for (PlayerRank pr : playerRanks.values()) {
-            if (pr.isActive() && pr.getExpiresAt() > 0) {
-                long timeToExpiry = pr.getExpiresAt() - now;
-                if (timeToExpiry > 0 && timeToExpiry <= withinMillis) {
+
+        for (Set<UUID> players : expiries.subMap(now, false, now + withinMillis, true).values()) {
+            for (UUID playerId : players) {
+                PlayerRank pr = playerRanks.get(playerId);
+                if (pr != null && pr.isActive()) {
                     result.add(pr);
                 }
             }
         }
-        
+
         return result;
     }
 
@@ -20,6 +20,7 @@ public class RankManager {
     private Map<String, Rank> ranks;
     private Set<Permission> permissions;
     private final Gson gson;
+    private volatile int revision;        // Bumped on every rank/permission definition change
 
     public RankManager(File dataFolder) {
         this.dataFolder = dataFolder;
@@ -38,6 +39,7 @@ public class RankManager {
     public void loadData() {
         loadRanks();
         loadPermissions();
+        revision++;
     }
 
     private void loadRanks() {
@@ -153,6 +155,7 @@ public class RankManager {
             founder.setFeature("all-features", true);
             ranks.put("founder", founder);
 
+            revision++;
             saveRanks();
         }
     }
@@ -162,6 +165,7 @@ public class RankManager {
         
         Rank rank = new Rank(id, displayName, priority);
         ranks.put(id, rank);
+        revision++;
         saveRanks();
         return rank;
     }
@@ -183,6 +187,7 @@ public class RankManager {
     public void updateRank(Rank rank) {
         if (rank.getId() != null) {
             ranks.put(rank.getId(), rank);
+            revision++;
             saveRanks();
         }
     }
@@ -193,6 +198,7 @@ public class RankManager {
         }
         
         if (ranks.remove(rankId) != null) {
+            revision++;
             saveRanks();
             return true;
         }
@@ -204,6 +210,7 @@ public class RankManager {
     public void registerPermission(String node, String description, String category) {
         Permission perm = new Permission(node, description, category);
         permissions.add(perm);
+        revision++;
         savePermissions();
     }
 
@@ -254,6 +261,14 @@ public class RankManager {
         registerPermission("rank.admin.view-logs", "Can view admin logs", "admin");
     }
 
+    /**
+     * Changes whenever ranks or permissions are created, edited or deleted (edits made
+     * directly on a Rank count once passed to updateRank)
+     */
+    public int getRevision() {
+        return revision;
+    }
+
     // ==================== Utility ====================
 
     public boolean hasPermission(Rank rank, String permissionNode) {
@@ -0,0 +1,50 @@
+package com.webx.ranks.models;
+
+import java.util.Map;
+
+/**
+ * Immutable permissions of one player: the union of all their ranks, compiled to one bit
+ * per known node (see PermissionCompiler). Wildcards are already expanded into the bits;
+ * they are only kept to answer nodes the compiler has never seen.
+ */
+public final class EffectivePermissions {
+    private final Map<String, Integer> nodeIds; // Shared node index of the compiler revision
+    private final long[] bits;
+    private final boolean all;                  // Has "*"
+    private final String[] prefixes;            // "rank.vip." for "rank.vip.*"
+    private final int revision;                 // RankManager revision compiled from
+    private final long validUntil;              // Rank expiry, Long.MAX_VALUE if permanent
+
+    public EffectivePermissions(Map<String, Integer> nodeIds, long[] bits, boolean all, String[] prefixes,
+                                int revision, long validUntil) {
+        this.nodeIds = nodeIds;
+        this.bits = bits;
+        this.all = all;
+        this.prefixes = prefixes;
+        this.revision = revision;
+        this.validUntil = validUntil;
+    }
+
+    public boolean hasPermission(String node) {
+        Integer id = nodeIds.get(node);
+        if (id != null) {
+            return (bits[id >>> 6] & (1L << id)) != 0;
+        }
+        if (all) return true;
+        for (String prefix : prefixes) {
+            if (node.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    public int getPermissionCount() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int getRevision() { return revision; }
+    public long getValidUntil() { return validUntil; }
+}
@@ -103,9 +103,7 @@ public class PluginDataHelper {
     }
     
     public void setPlayerObject(String playerUUID, String key, JsonObject obj) {
-        JsonObject playerData = new JsonObject();
-        playerData.add(pluginName + "_" + key, obj);
-        db.getPlayerData(playerUUID).add(pluginName + "_" + key, obj);
+        db.setPlayerValue(playerUUID, pluginName + "_" + key, obj);
     }
     
     public JsonObject getPlayerObject(String playerUUID, String key) {
@@ -1,37 +1,81 @@
 package com.webx.shared;
 
 import com.google.gson.*;
-import org.bukkit.plugin.Plugin;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Shared database for all plugins - centralized JSON storage at {CACHE}/lxxv_plugins_server.json
- * Provides thread-safe access to plugin data with automatic persistence
+ * Shared database for all plugins - centralized JSON storage at {CACHE}/lxxv_plugins_server/
+ * Reads are lock-free from in-memory copy-on-write sections; writes mark their shard dirty
+ * and are flushed write-behind (on an interval or pending-write threshold) into per-namespace
+ * shard files: global.json, plugins.json and players/{uuid prefix}.json, each replaced by atomic rename
  */
 public class SharedPluginDatabase {
     private static final String CACHE_DIR_PROPERTY = "lxxv.cache.dir";
     private static final String DEFAULT_CACHE = "./cache";
-    private static final String DATABASE_FILENAME = "lxxv_plugins_server.json";
-    
-    private static SharedPluginDatabase instance;
-    private static final ReadWriteLock lock = new ReentrantReadWriteLock();
-    
-    private JsonObject rootData;
+    private static final String DATABASE_DIRNAME = "lxxv_plugins_server";
+    private static final String LEGACY_FILENAME = "lxxv_plugins_server.json";
+
+    // Write-behind tuning (system properties)
+    private static final String WRITE_BEHIND_PROPERTY = "lxxv.db.writeBehind";
+    private static final String FLUSH_INTERVAL_PROPERTY = "lxxv.db.flushIntervalMs";
+    private static final String FLUSH_THRESHOLD_PROPERTY = "lxxv.db.flushThreshold";
+
+    private static final String GLOBAL_SHARD = "global";
+    private static final String PLUGINS_SHARD = "plugins";
+    private static final String PLAYERS_DIR = "players";
+
+    private static volatile SharedPluginDatabase instance;
+
+    // owner -> immutable snapshot; a write publishes a new JsonObject
+    private final ConcurrentHashMap<String, JsonObject> plugins = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, JsonObject>> playerShards = new ConcurrentHashMap<>();
+    private volatile JsonObject global = new JsonObject();
+    private final Object globalLock = new Object();
+
+    // Shards changed since their last flush; repeated writes coalesce into one entry
+    private final Set<String> dirtyShards = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final Object flushLock = new Object();
+
+    private final boolean writeBehind;
+    private final long flushIntervalMs;
+    private final int flushThreshold;
+    private final ScheduledExecutorService flusher;
+    private volatile boolean flushQueued;
+
     private Path databasePath;
+    private volatile long lastFlushAt;
+    private volatile long lastFlushMillis;
+    private volatile int lastFlushShards;
     private final Gson gson = new GsonBuilder()
             .setPrettyPrinting()
             .create();
-    
+
     private SharedPluginDatabase() {
+        this.writeBehind = Boolean.parseBoolean(System.getProperty(WRITE_BEHIND_PROPERTY, "true"));
+        this.flushIntervalMs = Math.max(100L, Long.getLong(FLUSH_INTERVAL_PROPERTY, 5000L));
+        this.flushThreshold = Math.max(1, Integer.getInteger(FLUSH_THRESHOLD_PROPERTY, 1000));
         initializeDatabase();
+
+        if (writeBehind) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "LXXV-SharedDB-Flush");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly, "LXXV-SharedDB-Shutdown"));
+        } else {
+            flusher = null;
+        }
     }
-    
+
     /**
      * Get singleton instance of SharedPluginDatabase
      */
@@ -45,7 +89,7 @@ public class SharedPluginDatabase {
         }
         return instance;
     }
-    
+
     /**
      * Initialize or load the database
      */
@@ -53,241 +97,390 @@ public class SharedPluginDatabase {
         try {
             String cacheDir = System.getProperty(CACHE_DIR_PROPERTY, DEFAULT_CACHE);
             Path cachePath = Paths.get(cacheDir);
-            
-            // Create cache directory if it doesn't exist
-            if (!Files.exists(cachePath)) {
-                Files.createDirectories(cachePath);
+
+            databasePath = cachePath.resolve(DATABASE_DIRNAME);
+            Files.createDirectories(databasePath.resolve(PLAYERS_DIR));
+
+            plugins.clear();
+            playerShards.clear();
+            global = new JsonObject();
+            dirtyShards.clear();
+            pendingWrites.set(0);
+
+            Path legacyPath = cachePath.resolve(LEGACY_FILENAME);
+            if (!Files.exists(shardFile(GLOBAL_SHARD)) && Files.exists(legacyPath)) {
+                migrateLegacy(legacyPath);
+                return;
             }
-            
-            databasePath = cachePath.resolve(DATABASE_FILENAME);
-            
-            // Load existing database or create new one
-            if (Files.exists(databasePath)) {
-                String content = new String(Files.readAllBytes(databasePath), StandardCharsets.UTF_8);
-                rootData = JsonParser.parseString(content).getAsJsonObject();
-            } else {
-                rootData = new JsonObject();
-                rootData.add("plugins", new JsonObject());
-                rootData.add("players", new JsonObject());
-                rootData.add("global", new JsonObject());
-                rootData.add("timestamp", new JsonPrimitive(System.currentTimeMillis()));
-                save();
+
+            JsonObject globalData = readShard(shardFile(GLOBAL_SHARD));
+            if (globalData != null) {
+                global = globalData;
+            }
+            JsonObject pluginData = readShard(shardFile(PLUGINS_SHARD));
+            if (pluginData != null) {
+                for (Map.Entry<String, JsonElement> entry : pluginData.entrySet()) {
+                    plugins.put(entry.getKey(), entry.getValue().getAsJsonObject());
+                }
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(databasePath.resolve(PLAYERS_DIR), "*.json")) {
+                for (Path file : files) {
+                    String shard = file.getFileName().toString();
+                    shard = shard.substring(0, shard.length() - ".json".length());
+                    JsonObject players = readShard(file);
+                    if (players == null) {
+                        continue;
+                    }
+                    ConcurrentHashMap<String, JsonObject> section = playerShards.computeIfAbsent(shard, k -> new ConcurrentHashMap<>());
+                    for (Map.Entry<String, JsonElement> entry : players.entrySet()) {
+                        section.put(entry.getKey(), entry.getValue().getAsJsonObject());
+                    }
+                }
+            }
+
+            if (globalData == null) {
+                dirtyShards.add(GLOBAL_SHARD);
+                dirtyShards.add(PLUGINS_SHARD);
+                flush();
             }
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize shared database", e);
         }
     }
-    
+
+    /**
+     * Split the old single-file database into shards; the old file is kept as .bak
+     */
+    private void migrateLegacy(Path legacyPath) throws IOException {
+        String content = new String(Files.readAllBytes(legacyPath), StandardCharsets.UTF_8);
+        JsonObject root = JsonParser.parseString(content).getAsJsonObject();
+
+        if (root.has("global")) {
+            global = root.getAsJsonObject("global");
+        }
+        if (root.has("plugins")) {
+            for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject("plugins").entrySet()) {
+                plugins.put(entry.getKey(), entry.getValue().getAsJsonObject());
+            }
+        }
+        if (root.has("players")) {
+            for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject("players").entrySet()) {
+                String shard = playerShard(entry.getKey());
+                playerShards.computeIfAbsent(shard, k -> new ConcurrentHashMap<>())
+                        .put(entry.getKey(), entry.getValue().getAsJsonObject());
+                dirtyShards.add(PLAYERS_DIR + "/" + shard);
+            }
+        }
+        dirtyShards.add(GLOBAL_SHARD);
+        dirtyShards.add(PLUGINS_SHARD);
+        flush();
+
+        Files.move(legacyPath, legacyPath.resolveSibling(LEGACY_FILENAME + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private JsonObject readShard(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        return JsonParser.parseString(content).getAsJsonObject();
+    }
+
     /**
-     * Get or create plugin data section
+     * Shard of a player key: first two hex chars of the UUID, or a hash bucket otherwise
+     */
+    private static String playerShard(String playerUUID) {
+        if (playerUUID.length() >= 2
+                && Character.digit(playerUUID.charAt(0), 16) >= 0
+                && Character.digit(playerUUID.charAt(1), 16) >= 0) {
+            return playerUUID.substring(0, 2).toLowerCase(Locale.ROOT);
+        }
+        return String.format("%02x", playerUUID.hashCode() & 0xFF);
+    }
+
+    private Path shardFile(String shard) {
+        return databasePath.resolve(shard + ".json");
+    }
+
+    private ConcurrentHashMap<String, JsonObject> playerSection(String playerUUID) {
+        return playerShards.computeIfAbsent(playerShard(playerUUID), k -> new ConcurrentHashMap<>());
+    }
+
+    private static JsonObject with(JsonObject base, String key, JsonElement value) {
+        JsonObject copy = new JsonObject();
+        if (base != null) {
+            for (Map.Entry<String, JsonElement> entry : base.entrySet()) {
+                copy.add(entry.getKey(), entry.getValue());
+            }
+        }
+        copy.add(key, value);
+        return copy;
+    }
+
+    /**
+     * Objects and arrays are copied on the way in and out: published snapshots are shared
+     * with the flusher and must never be mutated by callers
+     */
+    private static JsonElement detached(JsonElement value) {
+        return value == null || value.isJsonPrimitive() || value.isJsonNull() ? value : value.deepCopy();
+    }
+
+    /**
+     * Get or create plugin data section (returns a copy; use setPluginValue to modify)
      */
     public JsonObject getPluginData(String pluginName) {
-        lock.readLock().lock();
-        try {
-            JsonObject plugins = rootData.getAsJsonObject("plugins");
-            if (!plugins.has(pluginName)) {
-                lock.readLock().unlock();
-                lock.writeLock().lock();
-                try {
-                    if (!plugins.has(pluginName)) {
-                        plugins.add(pluginName, new JsonObject());
-                        save();
-                    }
-                    return plugins.getAsJsonObject(pluginName);
-                } finally {
-                    lock.writeLock().unlock();
-                    lock.readLock().lock();
-                }
+        JsonObject data = plugins.get(pluginName);
+        if (data == null) {
+            JsonObject created = new JsonObject();
+            data = plugins.putIfAbsent(pluginName, created);
+            if (data == null) {
+                data = created;
+                markDirty(PLUGINS_SHARD);
             }
-            return plugins.getAsJsonObject(pluginName);
-        } finally {
-            lock.readLock().unlock();
         }
+        return data.deepCopy();
     }
-    
+
     /**
-     * Get or create player data section
+     * Get or create player data section (returns a copy; use setPlayerValue to modify)
      */
     public JsonObject getPlayerData(String playerUUID) {
-        lock.readLock().lock();
-        try {
-            JsonObject players = rootData.getAsJsonObject("players");
-            if (!players.has(playerUUID)) {
-                lock.readLock().unlock();
-                lock.writeLock().lock();
-                try {
-                    if (!players.has(playerUUID)) {
-                        players.add(playerUUID, new JsonObject());
-                        save();
-                    }
-                    return players.getAsJsonObject(playerUUID);
-                } finally {
-                    lock.writeLock().unlock();
-                    lock.readLock().lock();
-                }
+        ConcurrentHashMap<String, JsonObject> section = playerSection(playerUUID);
+        JsonObject data = section.get(playerUUID);
+        if (data == null) {
+            JsonObject created = new JsonObject();
+            data = section.putIfAbsent(playerUUID, created);
+            if (data == null) {
+                data = created;
+                markDirty(PLAYERS_DIR + "/" + playerShard(playerUUID));
             }
-            return players.getAsJsonObject(playerUUID);
-        } finally {
-            lock.readLock().unlock();
         }
+        return data.deepCopy();
     }
-    
+
     /**
-     * Get global data section (shared across all plugins)
+     * Get global data section (shared across all plugins; returns a copy)
      */
     public JsonObject getGlobalData() {
-        lock.readLock().lock();
-        try {
-            return rootData.getAsJsonObject("global");
-        } finally {
-            lock.readLock().unlock();
-        }
+        return global.deepCopy();
     }
-    
+
     /**
      * Set value in plugin data
      */
     public void setPluginValue(String pluginName, String key, JsonElement value) {
-        lock.writeLock().lock();
-        try {
-            JsonObject pluginData = getPluginData(pluginName);
-            pluginData.add(key, value);
-            save();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        JsonElement stored = detached(value);
+        plugins.compute(pluginName, (k, data) -> with(data, key, stored));
+        markDirty(PLUGINS_SHARD);
     }
-    
+
     /**
      * Get value from plugin data
      */
     public JsonElement getPluginValue(String pluginName, String key) {
-        lock.readLock().lock();
-        try {
-            JsonObject pluginData = getPluginData(pluginName);
-            return pluginData.get(key);
-        } finally {
-            lock.readLock().unlock();
-        }
+        JsonObject data = plugins.get(pluginName);
+        return data != null ? detached(data.get(key)) : null;
     }
-    
+
     /**
      * Set value in player data
      */
     public void setPlayerValue(String playerUUID, String key, JsonElement value) {
-        lock.writeLock().lock();
-        try {
-            JsonObject playerData = getPlayerData(playerUUID);
-            playerData.add(key, value);
-            save();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        JsonElement stored = detached(value);
+        playerSection(playerUUID).compute(playerUUID, (k, data) -> with(data, key, stored));
+        markDirty(PLAYERS_DIR + "/" + playerShard(playerUUID));
     }
-    
+
     /**
      * Get value from player data
      */
     public JsonElement getPlayerValue(String playerUUID, String key) {
-        lock.readLock().lock();
-        try {
-            JsonObject playerData = getPlayerData(playerUUID);
-            return playerData.get(key);
-        } finally {
-            lock.readLock().unlock();
-        }
+        ConcurrentHashMap<String, JsonObject> section = playerShards.get(playerShard(playerUUID));
+        JsonObject data = section != null ? section.get(playerUUID) : null;
+        return data != null ? detached(data.get(key)) : null;
     }
-    
+
     /**
      * Set value in global data
      */
     public void setGlobalValue(String key, JsonElement value) {
-        lock.writeLock().lock();
-        try {
-            JsonObject globalData = getGlobalData();
-            globalData.add(key, value);
-            save();
-        } finally {
-            lock.writeLock().unlock();
+        JsonElement stored = detached(value);
+        synchronized (globalLock) {
+            global = with(global, key, stored);
         }
+        markDirty(GLOBAL_SHARD);
     }
-    
+
     /**
      * Get value from global data
      */
     public JsonElement getGlobalValue(String key) {
-        lock.readLock().lock();
-        try {
-            return getGlobalData().get(key);
-        } finally {
-            lock.readLock().unlock();
+        return detached(global.get(key));
+    }
+
+    private void markDirty(String shard) {
+        dirtyShards.add(shard);
+        if (!writeBehind) {
+            flush();
+            return;
+        }
+        if (pendingWrites.incrementAndGet() >= flushThreshold && !flushQueued) {
+            flushQueued = true;
+            flusher.execute(this::flushQuietly);
         }
     }
-    
+
     /**
-     * Save database to disk
+     * Save database to disk (flushes all pending changes now)
      */
     public void save() {
-        lock.writeLock().lock();
+        flush();
+    }
+
+    /**
+     * Write every dirty shard; unchanged shards are not touched
+     */
+    private void flush() {
+        synchronized (flushLock) {
+            flushQueued = false;
+            if (dirtyShards.isEmpty()) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            pendingWrites.set(0);
+            int written = 0;
+            for (String shard : new ArrayList<>(dirtyShards)) {
+                // Clear before snapshotting: a concurrent write re-marks the shard for the next flush
+                dirtyShards.remove(shard);
+                try {
+                    writeShard(shard, snapshotShard(shard));
+                    written++;
+                } catch (IOException e) {
+                    dirtyShards.add(shard);
+                    throw new RuntimeException("Failed to save shared database shard " + shard, e);
+                }
+            }
+            lastFlushAt = System.currentTimeMillis();
+            lastFlushMillis = lastFlushAt - start;
+            lastFlushShards = written;
+        }
+    }
+
+    private void flushQuietly() {
         try {
-            rootData.addProperty("timestamp", System.currentTimeMillis());
-            String jsonContent = gson.toJson(rootData);
-            Files.write(databasePath, jsonContent.getBytes(StandardCharsets.UTF_8),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.WRITE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to save shared database", e);
-        } finally {
-            lock.writeLock().unlock();
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("[SharedPluginDatabase] " + e.getMessage()
+                    + (e.getCause() != null ? ": " + e.getCause().getMessage() : ""));
+        }
+    }
+
+    private JsonObject snapshotShard(String shard) {
+        if (GLOBAL_SHARD.equals(shard)) {
+            return global;
+        }
+        Map<String, JsonObject> source = PLUGINS_SHARD.equals(shard)
+                ? plugins
+                : playerShards.getOrDefault(shard.substring(PLAYERS_DIR.length() + 1), new ConcurrentHashMap<>());
+        JsonObject root = new JsonObject();
+        for (Map.Entry<String, JsonObject> entry : new TreeMap<>(source).entrySet()) {
+            root.add(entry.getKey(), entry.getValue());
+        }
+        return root;
+    }
+
+    private void writeShard(String shard, JsonObject data) throws IOException {
+        Path target = shardFile(shard);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, gson.toJson(data).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
-    
+
     /**
-     * Reload database from disk
+     * Reload database from disk (pending changes are flushed first)
      */
     public void reload() {
-        lock.writeLock().lock();
-        try {
+        synchronized (flushLock) {
+            flush();
             initializeDatabase();
-        } finally {
-            lock.writeLock().unlock();
         }
     }
-    
+
     /**
-     * Get database file path
+     * Get database directory path
      */
     public String getDatabasePath() {
         return databasePath.toString();
     }
-    
+
     /**
      * Get entire root data (for exports/backups)
      */
     public JsonObject getAllData() {
-        lock.readLock().lock();
-        try {
-            return rootData.deepCopy();
-        } finally {
-            lock.readLock().unlock();
+        JsonObject pluginsData = new JsonObject();
+        for (Map.Entry<String, JsonObject> entry : plugins.entrySet()) {
+            pluginsData.add(entry.getKey(), entry.getValue().deepCopy());
         }
+        JsonObject playersData = new JsonObject();
+        for (ConcurrentHashMap<String, JsonObject> section : playerShards.values()) {
+            for (Map.Entry<String, JsonObject> entry : section.entrySet()) {
+                playersData.add(entry.getKey(), entry.getValue().deepCopy());
+            }
+        }
+        JsonObject root = new JsonObject();
+        root.add("plugins", pluginsData);
+        root.add("players", playersData);
+        root.add("global", global.deepCopy());
+        root.add("timestamp", new JsonPrimitive(System.currentTimeMillis()));
+        return root;
     }
-    
+
+    /**
+     * Write-behind statistics
+     */
+    public Map<String, Object> getStats() {
+        int players = 0;
+        for (ConcurrentHashMap<String, JsonObject> section : playerShards.values()) {
+            players += section.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writeBehind", writeBehind);
+        stats.put("flushIntervalMs", flushIntervalMs);
+        stats.put("flushThreshold", flushThreshold);
+        stats.put("plugins", plugins.size());
+        stats.put("players", players);
+        stats.put("playerShards", playerShards.size());
+        stats.put("dirtyShards", dirtyShards.size());
+        stats.put("pendingWrites", pendingWrites.get());
+        stats.put("lastFlushAt", lastFlushAt);
+        stats.put("lastFlushMillis", lastFlushMillis);
+        stats.put("lastFlushShards", lastFlushShards);
+        return stats;
+    }
+
     /**
      * Clear all data and reinitialize
      */
     public void clear() {
-        lock.writeLock().lock();
-        try {
-            rootData = new JsonObject();
-            rootData.add("plugins", new JsonObject());
-            rootData.add("players", new JsonObject());
-            rootData.add("global", new JsonObject());
-            rootData.add("timestamp", new JsonPrimitive(System.currentTimeMillis()));
-            save();
-        } finally {
-            lock.writeLock().unlock();
+        synchronized (flushLock) {
+            plugins.clear();
+            for (Map.Entry<String, ConcurrentHashMap<String, JsonObject>> entry : playerShards.entrySet()) {
+                entry.getValue().clear();
+                dirtyShards.add(PLAYERS_DIR + "/" + entry.getKey());
+            }
+            synchronized (globalLock) {
+                global = new JsonObject();
+            }
+            dirtyShards.add(GLOBAL_SHARD);
+            dirtyShards.add(PLUGINS_SHARD);
+            flush();
         }
     }
 }
@@ -0,0 +1,73 @@
+package com.webx.ranks.commands;
+
+import com.webx.ranks.managers.PlayerRankManager;
+import com.webx.ranks.managers.RankManager;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankCommandTest {
+    @TempDir
+    File dataFolder;
+
+    private RankManager rankManager;
+    private PlayerRankManager playerRankManager;
+    private RankCommand command;
+
+    @BeforeEach
+    void setUp() {
+        rankManager = new RankManager(dataFolder);
+        playerRankManager = new PlayerRankManager(dataFolder, rankManager);
+        command = new RankCommand(rankManager, playerRankManager);
+    }
+
+    @Test
+    void rankPermissionsGrantAdminCommands() {
+        UUID playerId = UUID.randomUUID();
+        List<String> messages = new ArrayList<>();
+        Player player = player(playerId, false, messages);
+
+        command.onCommand(player, null, "rank", new String[] {"create", "builder", "Builder"});
+        assertNull(rankManager.getRank("builder"));
+        assertTrue(messages.get(0).contains("permission"));
+
+        // The founder rank holds "*"
+        playerRankManager.setPlayerPrimaryRank(playerId, "founder", "test", "test");
+        command.onCommand(player, null, "rank", new String[] {"create", "builder", "Builder"});
+        assertNotNull(rankManager.getRank("builder"));
+    }
+
+    @Test
+    void serverPermissionsStillApply() {
+        List<String> messages = new ArrayList<>();
+        Player player = player(UUID.randomUUID(), true, messages);
+
+        command.onCommand(player, null, "rank", new String[] {"create", "builder", "Builder"});
+        assertNotNull(rankManager.getRank("builder"));
+    }
+
+    private static Player player(UUID playerId, boolean serverPermissions, List<String> messages) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] {Player.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUniqueId" -> playerId;
+                case "getName" -> "Tester";
+                case "hasPermission" -> serverPermissions;
+                case "sendMessage" -> {
+                    messages.add(String.valueOf(args[0]));
+                    yield null;
+                }
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> playerId.hashCode();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,130 @@
+package com.webx.ranks.managers;
+
+import com.webx.ranks.models.EffectivePermissions;
+import com.webx.ranks.models.Rank;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionCompilerTest {
+    @TempDir
+    File dataFolder;
+
+    private RankManager rankManager;
+    private PermissionCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        rankManager = new RankManager(dataFolder);
+        compiler = new PermissionCompiler(rankManager);
+    }
+
+    @Test
+    void playerPermissionsAreTheUnionOfRanks() {
+        EffectivePermissions vip = compiler.compile(List.of("vip"), Long.MAX_VALUE);
+        assertTrue(vip.hasPermission("rank.vip.fly"));
+        assertFalse(vip.hasPermission("rank.premium.custom-prefix"));
+
+        EffectivePermissions both = compiler.compile(List.of("vip", "premium", "no-such-rank"), Long.MAX_VALUE);
+        assertTrue(both.hasPermission("rank.vip.fly"));
+        assertTrue(both.hasPermission("rank.premium.custom-prefix"));
+        assertFalse(both.hasPermission("rank.admin.view-logs"));
+
+        EffectivePermissions none = compiler.compile(List.of("no-such-rank"), Long.MAX_VALUE);
+        assertFalse(none.hasPermission("rank.vip.fly"));
+        assertEquals(0, none.getPermissionCount());
+    }
+
+    @Test
+    void wildcardsCoverKnownAndUnknownNodes() {
+        rankManager.registerPermission("rank.admin.view-logs", "", "admin");
+        Rank moderator = rankManager.createRank("moderator", "Moderator", 50);
+        moderator.addPermission("rank.admin.*");
+        rankManager.updateRank(moderator);
+
+        EffectivePermissions permissions = compiler.compile(List.of("moderator"), Long.MAX_VALUE);
+        assertTrue(permissions.hasPermission("rank.admin.view-logs"));
+        assertTrue(permissions.hasPermission("rank.admin.never-registered"));
+        assertFalse(permissions.hasPermission("rank.administrator"));
+        assertFalse(permissions.hasPermission("rank.vip.fly"));
+
+        EffectivePermissions founder = compiler.compile(List.of("founder"), Long.MAX_VALUE);
+        assertTrue(founder.hasPermission("rank.vip.fly"));
+        assertTrue(founder.hasPermission("anything.at.all"));
+        assertEquals(compiler.getNodeCount(), founder.getPermissionCount());
+    }
+
+    @Test
+    void rankChangesAndExpiryInvalidateCompiledPermissions() {
+        EffectivePermissions before = compiler.compile(List.of("vip"), Long.MAX_VALUE);
+        assertTrue(compiler.isCurrent(before));
+
+        Rank vip = rankManager.getRank("vip");
+        vip.addPermission("rank.vip.new-perk");
+        rankManager.updateRank(vip);
+        assertFalse(compiler.isCurrent(before));
+
+        EffectivePermissions after = compiler.compile(List.of("vip"), Long.MAX_VALUE);
+        assertTrue(compiler.isCurrent(after));
+        assertTrue(after.hasPermission("rank.vip.new-perk"));
+
+        EffectivePermissions expired = compiler.compile(List.of("vip"), System.currentTimeMillis() - 1);
+        assertFalse(compiler.isCurrent(expired));
+    }
+
+    @Test
+    void matchesDirectLookupAcrossManyNodes() {
+        Random random = new Random(5);
+        // More than one 64-bit word of nodes, in a few namespaces so wildcards overlap
+        String[] namespaces = {"shop.", "shop.admin.", "warp.", "kit."};
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            nodes.add(namespaces[random.nextInt(namespaces.length)] + "node" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            rankManager.registerPermission(nodes.get(i), "", "test");
+        }
+
+        List<String> rankIds = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            Rank rank = rankManager.createRank("test" + r, "Test " + r, r);
+            for (int i = 0; i < 40; i++) {
+                rank.addPermission(nodes.get(random.nextInt(nodes.size())));
+            }
+            if (random.nextInt(3) == 0) {
+                rank.addPermission(namespaces[random.nextInt(namespaces.length)] + "*");
+            }
+            rankManager.updateRank(rank);
+            rankIds.add(rank.getId());
+        }
+
+        for (int round = 0; round < 200; round++) {
+            List<String> held = new ArrayList<>();
+            for (String rankId : rankIds) {
+                if (random.nextInt(3) == 0) held.add(rankId);
+            }
+            EffectivePermissions permissions = compiler.compile(held, Long.MAX_VALUE);
+            for (int i = 0; i < 50; i++) {
+                // Registered, rank-only and never seen nodes
+                String node = random.nextInt(5) == 0 ? namespaces[random.nextInt(namespaces.length)] + "unseen" + i
+                        : nodes.get(random.nextInt(nodes.size()));
+                assertEquals(expected(held, node), permissions.hasPermission(node), node);
+            }
+        }
+    }
+
+    private boolean expected(List<String> rankIds, String node) {
+        for (String rankId : rankIds) {
+            for (String granted : rankManager.getRank(rankId).getPermissions()) {
+                if (granted.equals(node) || granted.equals("*")) return true;
+                if (granted.endsWith(".*") && node.startsWith(granted.substring(0, granted.length() - 1))) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,146 @@
+package com.webx.ranks.managers;
+
+import com.webx.ranks.models.PlayerRank;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerRankManagerTest {
+    @TempDir
+    File dataFolder;
+
+    private RankManager rankManager;
+    private PlayerRankManager manager;
+
+    @BeforeEach
+    void setUp() {
+        rankManager = new RankManager(dataFolder);
+        manager = new PlayerRankManager(dataFolder, rankManager);
+    }
+
+    @Test
+    void ranksExpireInExpiryOrder() throws InterruptedException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID permanent = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        // Assigned out of order, half a second apart
+        manager.setPlayerRankWithExpiry(second, "premium", 520, "test", "test");
+        manager.setPlayerRankWithExpiry(first, "vip", 20, "test", "test");
+        manager.setPlayerRankWithExpiry(later, "vip", TimeUnit.HOURS.toMillis(1), "test", "test");
+        manager.setPlayerPrimaryRank(permanent, "vip", "test", "test");
+
+        assertEquals(manager.getPlayerRank(first).getExpiresAt(), manager.getNextExpiry());
+        assertTrue(manager.checkAndRemoveExpiredRanks().isEmpty());
+
+        awaitExpiry(manager.getNextExpiry());
+        assertEquals(List.of(first), playerIds(manager.checkAndRemoveExpiredRanks()));
+        assertEquals(manager.getPlayerRank(second).getExpiresAt(), manager.getNextExpiry());
+
+        awaitExpiry(manager.getNextExpiry());
+        assertEquals(List.of(second), playerIds(manager.checkAndRemoveExpiredRanks()));
+        assertEquals(manager.getPlayerRank(later).getExpiresAt(), manager.getNextExpiry());
+        assertTrue(manager.getPlayerRank(permanent).isActive());
+        assertTrue(manager.getPlayerRank(later).isActive());
+    }
+
+    @Test
+    void expiredRanksAreRemoved() throws InterruptedException {
+        UUID playerId = UUID.randomUUID();
+        manager.setPlayerRankWithExpiry(playerId, "vip", 20, "test", "test");
+        assertTrue(manager.hasPermission(playerId, "rank.vip.fly"));
+
+        awaitExpiry(manager.getNextExpiry());
+        List<PlayerRank> expired = manager.checkAndRemoveExpiredRanks();
+        assertEquals(List.of(playerId), playerIds(expired));
+        assertEquals("member", manager.getPlayerPrimaryRank(playerId));
+        assertFalse(manager.hasPermission(playerId, "rank.vip.fly"));
+        assertEquals(0, manager.getNextExpiry());
+        assertTrue(manager.checkAndRemoveExpiredRanks().isEmpty());
+
+        // Written to the player's file
+        PlayerRankManager reloaded = new PlayerRankManager(dataFolder, rankManager);
+        assertFalse(reloaded.getPlayerRank(playerId).isActive());
+    }
+
+    @Test
+    void reassignedRanksKeepOnlyTheNewExpiry() throws InterruptedException {
+        UUID playerId = UUID.randomUUID();
+        manager.setPlayerRankWithExpiry(playerId, "vip", 20, "test", "test");
+        manager.setPlayerRankWithExpiry(playerId, "premium", TimeUnit.HOURS.toMillis(1), "test", "test");
+        UUID other = UUID.randomUUID();
+        manager.setPlayerRankWithExpiry(other, "vip", 20, "test", "test");
+        manager.setPlayerPrimaryRank(other, "vip", "test", "test");
+
+        Thread.sleep(40);
+        assertTrue(manager.checkAndRemoveExpiredRanks().isEmpty());
+        assertEquals("premium", manager.getPlayerPrimaryRank(playerId));
+        assertEquals("vip", manager.getPlayerPrimaryRank(other));
+        assertEquals(manager.getPlayerRank(playerId).getExpiresAt(), manager.getNextExpiry());
+    }
+
+    @Test
+    void additionalRanksChangeWhileExpiring() throws Exception {
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            UUID playerId = UUID.randomUUID();
+            manager.setPlayerRankWithExpiry(playerId, "vip", 20 + i, "test", "test");
+            players.add(playerId);
+        }
+
+        // The async expiry timer and commands on the main thread
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> sweeps = executor.submit(() -> {
+                long end = System.currentTimeMillis() + 200;
+                while (System.currentTimeMillis() < end) {
+                    manager.checkAndRemoveExpiredRanks();
+                }
+            });
+            Future<?> changes = executor.submit(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (UUID playerId : players) {
+                        manager.addAdditionalRank(playerId, "premium");
+                        manager.hasPermission(playerId, "rank.premium.custom-prefix");
+                        manager.removeAdditionalRank(playerId, "premium");
+                    }
+                }
+            });
+            changes.get(30, TimeUnit.SECONDS);
+            sweeps.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        awaitExpiry(manager.getPlayerRank(players.get(players.size() - 1)).getExpiresAt());
+        manager.checkAndRemoveExpiredRanks();
+        for (UUID playerId : players) {
+            PlayerRank playerRank = manager.getPlayerRank(playerId);
+            assertFalse(playerRank.isActive());
+            assertTrue(playerRank.getAdditionalRanks().isEmpty());
+            assertFalse(manager.hasPermission(playerId, "rank.vip.fly"));
+            assertFalse(manager.hasPermission(playerId, "rank.premium.custom-prefix"));
+        }
+        assertEquals(0, manager.getNextExpiry());
+    }
+
+    private static void awaitExpiry(long expiresAt) throws InterruptedException {
+        while (System.currentTimeMillis() <= expiresAt) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static List<UUID> playerIds(List<PlayerRank> ranks) {
+        List<UUID> ids = new ArrayList<>();
+        for (PlayerRank rank : ranks) {
+            ids.add(rank.getPlayerId());
+        }
+        return ids;
+    }
+}
@@ -36,6 +36,7 @@ public class RouterProvider {
     private PluginConfigEndpoint pluginConfigEndpoint;
     private ClanService clanService;
     private LeaderboardService leaderboardService;
+    private ProfilerService profilerService;
 
     public RouterProvider(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -51,6 +52,7 @@ public class RouterProvider {
         this.pluginConfigEndpoint = new PluginConfigEndpoint(plugin, gson);
         this.clanService = new ClanService();
         this.leaderboardService = new LeaderboardService();
+        this.profilerService = new ProfilerService();
         
         this.startWebServer();
         this.registerRoutes();
@@ -94,6 +96,9 @@ public class RouterProvider {
         // ===== LEADERBOARD ENDPOINTS =====
         registerLeaderboardRoutes();
         
+        // ===== PROFILER ENDPOINTS =====
+        registerProfilerRoutes();
+        
         // ===== LOADERSCRIPT ENDPOINTS =====
         registerLoaderScriptRoutes();
     }
@@ -632,6 +637,11 @@ public class RouterProvider {
         app.get(API.getFullPath("leaderboards/stats"), leaderboardService::getCombinedStats);
         plugin.getLogger().info("✅ Leaderboard API routes registered");
     }
+    
+    private void registerProfilerRoutes() {
+        app.get(API.getFullPath("profiler"), profilerService::getProfile);
+        plugin.getLogger().info("✅ Profiler API routes registered");
+    }
 
     private void registerLoaderScriptRoutes() {
         try {
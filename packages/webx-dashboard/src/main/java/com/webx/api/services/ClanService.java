@@ -9,7 +9,6 @@ import org.bukkit.plugin.Plugin;
 
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * REST API service for Clans using reflection
@@ -115,30 +114,16 @@ public class ClanService {
             limit = 10;
         }
 
-        Object clanManager = getClanManager();
-        if (clanManager == null) {
+        Object powerManager = getClanPowerManager();
+        if (powerManager == null) {
             ctx.status(503).json(Map.of("error", "Clans plugin not available"));
             return;
         }
 
         try {
-            Method getAllClansMethod = clanManager.getClass().getMethod("getAllClans");
-            Collection<?> clans = (Collection<?>) getAllClansMethod.invoke(clanManager);
-
-            // Sort by power and limit
-            List<?> topClans = clans.stream()
-                    .sorted((c1, c2) -> {
-                        try {
-                            Method getPowerMethod = c1.getClass().getMethod("getPower");
-                            double power1 = (double) getPowerMethod.invoke(c1);
-                            double power2 = (double) getPowerMethod.invoke(c2);
-                            return Double.compare(power2, power1); // Descending
-                        } catch (Exception e) {
-                            return 0;
-                        }
-                    })
-                    .limit(limit)
-                    .collect(Collectors.toList());
+            // Already ranked by power in the Clans plugin
+            Method getTopClansMethod = powerManager.getClass().getMethod("getTopClans", int.class);
+            List<?> topClans = (List<?>) getTopClansMethod.invoke(powerManager, limit);
 
             List<Map<String, Object>> leaderboard = new ArrayList<>();
             int position = 1;
@@ -236,4 +221,22 @@ public class ClanService {
             return null;
         }
     }
+
+    /**
+     * Get ClanPowerManager from Clans plugin using reflection
+     */
+    private Object getClanPowerManager() {
+        Plugin clansPlugin = Bukkit.getPluginManager().getPlugin("Clans");
+        if (clansPlugin == null || !clansPlugin.isEnabled()) {
+            return null;
+        }
+
+        try {
+            Method method = clansPlugin.getClass().getMethod("getClanPowerManager");
+            return method.invoke(clansPlugin);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.webx.api.services;
+
+import io.javalin.http.Context;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST API service for ModernFix profiler histograms using reflection
+ */
+public class ProfilerService {
+    private static final int DEFAULT_WINDOW_SECONDS = 60;
+
+    /**
+     * GET /api/profiler?window=60 - Latency histograms and percentiles per operation
+     */
+    public void getProfile(Context ctx) {
+        Object profiler = getProfiler();
+        if (profiler == null) {
+            ctx.status(503).json(Map.of("error", "ModernFix plugin not available"));
+            return;
+        }
+
+        int window = DEFAULT_WINDOW_SECONDS;
+        String windowParam = ctx.queryParam("window");
+        if (windowParam != null) {
+            try {
+                window = Integer.parseInt(windowParam);
+            } catch (NumberFormatException e) {
+                ctx.status(400).json(Map.of("error", "Invalid window: " + windowParam));
+                return;
+            }
+        }
+
+        try {
+            Method exportMethod = profiler.getClass().getMethod("export", int.class);
+            List<?> operations = (List<?>) exportMethod.invoke(profiler, window);
+
+            ctx.json(Map.of(
+                    "timestamp", System.currentTimeMillis(),
+                    "windowSeconds", window,
+                    "operations", operations
+            ));
+        } catch (Exception e) {
+            ctx.status(500).json(Map.of("error", "Failed to export profile: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get PerformanceProfiler from ModernFix plugin using reflection
+     */
+    private Object getProfiler() {
+        Plugin modernFix = Bukkit.getPluginManager().getPlugin("ModernFix");
+        if (modernFix == null || !modernFix.isEnabled()) {
+            return null;
+        }
+
+        try {
+            Method method = modernFix.getClass().getMethod("getProfiler");
+            return method.invoke(modernFix);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}